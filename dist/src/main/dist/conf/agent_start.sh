@@ -6,6 +6,9 @@ set -e
 # comma separated list of agent ip addresses
 agents=$1
 
+# the workers send a heartbeat every WORKER_PING_INTERVAL_SECONDS; a negative value disables the timeout detection
+worker_last_seen_timeout_seconds=$((${WORKER_PING_INTERVAL_SECONDS:-60} * 3))
+
 verify_installation(){
     if [ "$CLOUD_PROVIDER" != "local" ]; then
         for agent in ${agents//,/ } ; do
@@ -32,6 +35,7 @@ start_remote(){
     ssh $SSH_OPTIONS $SIMULATOR_USER@$agent "rm -f agent.err"
 
     args="--addressIndex $agent_index --publicAddress $agent --port $AGENT_PORT"
+    args="$args --workerLastSeenTimeoutSeconds $worker_last_seen_timeout_seconds"
 
     ssh $SSH_OPTIONS $SIMULATOR_USER@$agent \
         "nohup hazelcast-simulator-$SIMULATOR_VERSION/bin/agent $args > agent.out 2> agent.err < /dev/null &"
@@ -53,6 +57,7 @@ start_local(){
     rm agent.err || true
 
     args="--addressIndex 1 --publicAddress 127.0.0.1 --port $AGENT_PORT --parentPid $parentPid"
+    args="$args --workerLastSeenTimeoutSeconds $worker_last_seen_timeout_seconds"
 
     nohup $SIMULATOR_HOME/bin/agent $args > agent.out 2> agent.err < /dev/null &
 
@@ -199,6 +199,8 @@ class TimeseriesGnuplot(Gnuplot):
         self._write("offset = 0")
         self._write("t0(x)=(offset=($0==0) ? x : offset, x - offset)")
         self._write("set xlabel 'Time minutes:seconds'")
+        if self._is_sub_second():
+            self._write("set format x '%M:%.1S'")
 
         self._write("set ylabel '" + self.ylabel + "'")
         if self.is_bytes:
@@ -237,6 +239,14 @@ class TimeseriesGnuplot(Gnuplot):
                 self._write("   \'" + ts_file.name + "\' using (t0(timecolumn(1))):2 " + title_str + " " + lt + ", \\")
         self._complete()
 
+    # checks if the datapoints are less than a second apart, e.g. when WORKER_PERFORMANCE_MONITOR_RESOLUTION_MILLIS
+    # is configured. In that case the fraction of the second is shown on the x-axis.
+    def _is_sub_second(self):
+        for ts in self.ts_list:
+            if ts.length() > 1 and float(ts.items[1].time) - float(ts.items[0].time) < 1:
+                return True
+        return False
+
 
 class LatencyDistributionGnuplot(Gnuplot):
     def __init__(self, directory, title, basefilename=None):
@@ -813,6 +823,88 @@ class DstatAnalyzer:
         return result
 
 
+# Analyzes the telemetry.csv written by the TelemetrySampler of a worker.
+# Contains the GC, heap, CPU, context switch and network information on the same timeline as the performance.csv, so
+# it doesn't depend on gc.log or dstat files being present.
+class TelemetryAnalyzer:
+    def __init__(self, worker_dir, period):
+        self.worker_dir = worker_dir
+        self.period = period
+
+    def exists(self):
+        return os.path.exists(os.path.join(self.worker_dir, "telemetry.csv"))
+
+    def analyze(self):
+        global gc_logs_found
+        gc_logs_found = True
+
+        handles = []
+        handles.append(
+            SeriesHandle("telemetry", "heap_used", "Heap used", "Size",
+                         self.__load_telemetry, args=[2], is_bytes=True))
+        handles.append(
+            SeriesHandle("telemetry", "heap_committed", "Heap committed", "Size",
+                         self.__load_telemetry, args=[3], is_bytes=True))
+        handles.append(
+            SeriesHandle("telemetry", "allocation_rate", "Allocation rate", "Allocated/sec",
+                         self.__load_telemetry, args=[4], is_bytes=True))
+        handles.append(
+            SeriesHandle("telemetry", "heap_collected", "Heap collected", "Size",
+                         self.__load_telemetry, args=[5], is_bytes=True))
+        handles.append(
+            SeriesHandle("telemetry", "gc_count", "GC pause count", "Collections",
+                         self.__load_telemetry, args=[6]))
+        handles.append(
+            SeriesHandle("telemetry", "gc_time", "GC pause time", "Milliseconds",
+                         self.__load_telemetry, args=[7]))
+        handles.append(
+            SeriesHandle("telemetry", "gc_pause_max", "GC pause max", "Milliseconds",
+                         self.__load_telemetry, args=[8]))
+        handles.append(
+            SeriesHandle("telemetry", "thread_count", "Thread count", "Threads",
+                         self.__load_telemetry, args=[9]))
+        handles.append(
+            SeriesHandle("telemetry", "process_cpu_load", "Process CPU load", "CPU %",
+                         self.__load_telemetry, args=[10]))
+        handles.append(
+            SeriesHandle("telemetry", "voluntary_context_switches", "Voluntary context switches", "Switches",
+                         self.__load_telemetry, args=[11]))
+        handles.append(
+            SeriesHandle("telemetry", "nonvoluntary_context_switches", "Nonvoluntary context switches", "Switches",
+                         self.__load_telemetry, args=[12]))
+        handles.append(
+            SeriesHandle("telemetry", "net_receive", "Net Receive", "Receiving/sec",
+                         self.__load_telemetry, args=[13], is_bytes=True))
+        handles.append(
+            SeriesHandle("telemetry", "net_send", "Net Send", "Sending/sec",
+                         self.__load_telemetry, args=[14], is_bytes=True))
+        handles.append(
+            SeriesHandle("telemetry", "gc_concurrent_count", "Concurrent GC cycles", "Cycles",
+                         self.__load_telemetry, args=[15]))
+        handles.append(
+            SeriesHandle("telemetry", "gc_concurrent_time", "Concurrent GC time", "Milliseconds",
+                         self.__load_telemetry, args=[16]))
+
+        for handle in handles:
+            handle.period(self.period)
+
+        return handles
+
+    def __load_telemetry(self, column):
+        telemetry_csv = os.path.join(self.worker_dir, "telemetry.csv")
+        result = []
+        if os.path.exists(telemetry_csv):
+            with open(telemetry_csv, 'rb') as csvfile:
+                csvreader = csv.reader(csvfile, delimiter=',', quotechar='|')
+                # skip the first line
+                next(csvreader)
+                for row in csvreader:
+                    # values are left empty when not available on the platform
+                    if column < len(row) and row[column] != "" and row[column] != "-1":
+                        result.append(KeyValue(row[0], row[column]))
+        return result
+
+
 # Analyzes the perform.csv for a worker.
 class ThroughputAnalyzer:
     def __init__(self, worker_dir, worker_name, period):
@@ -852,7 +944,11 @@ class Worker:
         self.period = period
         self.handles = []
         self.handles.extend(ThroughputAnalyzer(self.worker_dir, self.name, period).analyze())
-        self.handles.extend(GcAnalyzer(self.worker_dir, period).analyze())
+        telemetry_analyzer = TelemetryAnalyzer(self.worker_dir, period)
+        if telemetry_analyzer.exists():
+            self.handles.extend(telemetry_analyzer.analyze())
+        else:
+            self.handles.extend(GcAnalyzer(self.worker_dir, period).analyze())
         self.handles.extend(HdrAnalyzer(self.worker_dir).analyze())
 
 
@@ -1071,4 +1167,4 @@ comparison = Comparison()
 comparison.make()
 
 if not args.full and gc_logs_found:
-    print("gc.log files have been found. Run with -f option to get these plotted.")
+    print("gc.log or telemetry.csv files have been found. Run with -f option to get these plotted.")
@@ -33,9 +33,32 @@ JVM_ARGS="-XX:OnOutOfMemoryError=\"touch;-9;worker.oome\" \
 # Include the member/client-worker jvm options
 JVM_ARGS="$JVM_OPTIONS $JVM_ARGS"
 
+# Application class-data sharing (see WORKER_CDS_ENABLED in simulator.properties)
+# The agent sets CDS_ARCHIVE if the JVM supports dynamic archives. The first worker creates the archive when it exits,
+# the following workers with the same classpath map the classes from the archive.
+cds_tmp_archive=""
+if [ -n "$CDS_ARCHIVE" ]; then
+    if [ -f "$CDS_ARCHIVE" ]; then
+        JVM_ARGS="-XX:SharedArchiveFile=$CDS_ARCHIVE -Xshare:auto $JVM_ARGS"
+    else
+        cds_tmp_archive="$CDS_ARCHIVE.$$.tmp"
+        JVM_ARGS="-XX:ArchiveClassesAtExit=$cds_tmp_archive $JVM_ARGS"
+    fi
+fi
+
 MAIN=com.hazelcast.simulator.worker.Worker
 
-java -classpath "$CLASSPATH" ${JVM_ARGS} ${MAIN}
+# NUMA_CONTROL is set by the coordinator if the worker is bound to a NUMA node (see WORKER_NUMA_BINDING)
+${NUMA_CONTROL} java -classpath "$CLASSPATH" ${JVM_ARGS} ${MAIN}
+
+# publish the archive atomically, so concurrent workers never see a partially written archive
+if [ -n "$cds_tmp_archive" ] && [ -f "$cds_tmp_archive" ]; then
+    if [ -f "$CDS_ARCHIVE" ]; then
+        rm -f "$cds_tmp_archive"
+    else
+        mv "$cds_tmp_archive" "$CDS_ARCHIVE"
+    fi
+fi
 
 #########################################################################
 # Yourkit
@@ -127,6 +150,9 @@ java -classpath "$CLASSPATH" ${JVM_ARGS} ${MAIN}
 # NUMA Control. It allows to start member with a specific numactl settings.
 # numactl binary has to be available on $PATH
 #
+# With WORKER_NUMA_BINDING=true in simulator.properties the coordinator spreads the workers over the NUMA nodes of
+# the agent and sets NUMA_CONTROL, e.g. to 'numactl --cpunodebind=0 --membind=0', which binds the worker to node 0.
+#
 # Example: NUMA_CONTROL=numactl -m 0 -N 0
 # It will bind members to node 0.
 # numactl -m 0 -N 0 java -classpath $CLASSPATH $JVM_ARGS $MAIN
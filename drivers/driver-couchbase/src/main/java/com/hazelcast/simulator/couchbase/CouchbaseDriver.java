@@ -18,6 +18,7 @@ package com.hazelcast.simulator.couchbase;
 import com.couchbase.client.java.CouchbaseCluster;
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 
 import java.io.IOException;
 
@@ -55,6 +56,11 @@ public class CouchbaseDriver extends VendorDriver<CouchbaseCluster> {
         return cluster;
     }
 
+    @Override
+    public YcsbStore newYcsbStore(String name) {
+        return new CouchbaseYcsbStore(cluster, name);
+    }
+
     @Override
     public void startVendorInstance() throws Exception {
         String[] nodes = get("nodes").split(",");
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.couchbase;
+
+import com.couchbase.client.java.Bucket;
+import com.couchbase.client.java.CouchbaseCluster;
+import com.couchbase.client.java.document.JsonDocument;
+import com.couchbase.client.java.document.json.JsonObject;
+import com.hazelcast.simulator.ycsb.YcsbStore;
+
+import java.util.List;
+
+/**
+ * Stores the records of the {@link com.hazelcast.simulator.ycsb.YcsbTest} as JSON documents in the bucket with the given
+ * name. A write is an upsert, so the records can be loaded again by the next test. A scan reads the records one by one.
+ */
+final class CouchbaseYcsbStore implements YcsbStore {
+
+    private static final String VALUE = "value";
+
+    private final Bucket bucket;
+
+    CouchbaseYcsbStore(CouchbaseCluster cluster, String name) {
+        this.bucket = cluster.openBucket(name);
+    }
+
+    @Override
+    public String read(String key) {
+        JsonDocument document = bucket.get(key);
+        return document == null ? null : document.content().getString(VALUE);
+    }
+
+    @Override
+    public int scan(List<String> keys) {
+        int found = 0;
+        for (String key : keys) {
+            if (bucket.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void update(String key, String value) {
+        bucket.upsert(JsonDocument.create(key, JsonObject.create().put(VALUE, value)));
+    }
+
+    @Override
+    public void insert(String key, String value) {
+        bucket.upsert(JsonDocument.create(key, JsonObject.create().put(VALUE, value)));
+    }
+}
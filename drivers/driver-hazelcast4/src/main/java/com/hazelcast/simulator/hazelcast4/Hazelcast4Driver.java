@@ -18,6 +18,8 @@ package com.hazelcast.simulator.hazelcast4;
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.client.config.XmlClientConfigBuilder;
+import com.hazelcast.client.impl.clientside.HazelcastClientInstanceImpl;
+import com.hazelcast.client.impl.clientside.HazelcastClientProxy;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.core.Hazelcast;
@@ -29,6 +31,7 @@ import com.hazelcast.simulator.coordinator.ConfigFileTemplate;
 import com.hazelcast.simulator.coordinator.registry.AgentData;
 import com.hazelcast.simulator.utils.BashCommand;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 import org.apache.log4j.Logger;
 
 import java.io.File;
@@ -46,6 +49,7 @@ import static java.lang.String.format;
 public class Hazelcast4Driver extends VendorDriver<HazelcastInstance> {
     private static final long PARTITION_WARMUP_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(5);
     private static final int PARTITION_WARMUP_SLEEP_INTERVAL_MILLIS = 500;
+    private static final int READINESS_CHECK_INTERVAL_MILLIS = 100;
     private static final Logger LOGGER = Logger.getLogger(Hazelcast4Driver.class);
     private HazelcastInstance hazelcastInstance;
 
@@ -106,6 +110,11 @@ public class Hazelcast4Driver extends VendorDriver<HazelcastInstance> {
         return hazelcastInstance;
     }
 
+    @Override
+    public YcsbStore newYcsbStore(String name) {
+        return new Hazelcast4YcsbStore(hazelcastInstance, name);
+    }
+
     public String initMemberHzConfig(boolean liteMember) {
         String config = loadMemberConfig(liteMember);
         ConfigFileTemplate template = new ConfigFileTemplate(config);
@@ -238,6 +247,37 @@ public class Hazelcast4Driver extends VendorDriver<HazelcastInstance> {
         LOGGER.info("Warmed up partitions");
     }
 
+    /**
+     * Waits till the cluster is migration free and safe. A client waits till it is connected to all members when smart
+     * routing is used, since a missing connection shows up as latency outliers in the run phase.
+     */
+    @Override
+    public boolean awaitReady(long timeoutMillis) throws Exception {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (; ; ) {
+            if (isReady()) {
+                return true;
+            }
+            if (System.nanoTime() > deadlineNanos) {
+                return false;
+            }
+            sleepMillisThrowException(READINESS_CHECK_INTERVAL_MILLIS);
+        }
+    }
+
+    private boolean isReady() {
+        if (!(hazelcastInstance instanceof HazelcastClientProxy)) {
+            return hazelcastInstance.getPartitionService().isClusterSafe();
+        }
+
+        HazelcastClientInstanceImpl client = ((HazelcastClientProxy) hazelcastInstance).client;
+        int connections = client.getConnectionManager().getActiveConnections().size();
+        if (client.getClientConfig().getNetworkConfig().isSmartRouting()) {
+            return connections >= hazelcastInstance.getCluster().getMembers().size();
+        }
+        return connections > 0;
+    }
+
     @Override
     public void close() throws IOException {
         LOGGER.info("Stopping HazelcastInstance...");
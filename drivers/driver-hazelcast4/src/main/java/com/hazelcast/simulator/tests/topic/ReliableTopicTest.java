@@ -21,6 +21,8 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.probes.Counter;
+import com.hazelcast.simulator.probes.Meter;
 import com.hazelcast.simulator.test.BaseThreadState;
 import com.hazelcast.simulator.test.TestException;
 import com.hazelcast.simulator.test.annotations.AfterRun;
@@ -54,7 +56,8 @@ public class ReliableTopicTest extends HazelcastTest {
     public int listenersPerTopic = 2;
     public KeyLocality keyLocality = KeyLocality.SHARED;
 
-    private AtomicLong failures = new AtomicLong();
+    private Counter failures;
+    private Meter received;
     private IAtomicLong totalMessagesSend;
     private ITopic<MessageEntity>[] topics;
     private List<MessageListenerImpl> listeners;
@@ -62,6 +65,8 @@ public class ReliableTopicTest extends HazelcastTest {
     @Setup
     @SuppressWarnings("unchecked")
     public void setup() {
+        failures = testContext.getCounter("failures");
+        received = testContext.getMeter("received");
         totalMessagesSend = getAtomicLong(name + ":TotalExpectedCounter");
         topics = new ITopic[topicCount];
         listeners = new LinkedList<>();
@@ -190,13 +195,14 @@ public class ReliableTopicTest extends HazelcastTest {
             long actualValue = message.getMessageObject().value;
             long expectedValue = previousValue + 1;
             if (expectedValue != actualValue) {
-                failures.incrementAndGet();
+                failures.inc();
                 ExceptionReporter.report(testContext.getTestId(), new TestException(format(
                         "There is an unexpected gap or equality between values. Expected %d, but was %d",
                         expectedValue, actualValue)));
             }
 
             values.put(threadId, actualValue);
+            ReliableTopicTest.this.received.mark();
 
             if (received.getAndIncrement() % 100000 == 0) {
                 logger.info(toString() + " is at " + message.getMessageObject().toString());
@@ -19,6 +19,7 @@ import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.coordinator.ConfigFileTemplate;
 import com.hazelcast.simulator.coordinator.registry.AgentData;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.Ignition;
 import org.apache.log4j.Logger;
@@ -84,6 +85,11 @@ public class Ignite2Driver extends VendorDriver<Ignite> {
         return ignite;
     }
 
+    @Override
+    public YcsbStore newYcsbStore(String name) {
+        return new Ignite2YcsbStore(ignite, name);
+    }
+
     @Override
     public void startVendorInstance() {
         String workerType = get("WORKER_TYPE");
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.ignite2;
+
+import com.hazelcast.simulator.ycsb.YcsbStore;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Stores the records of the {@link com.hazelcast.simulator.ycsb.YcsbTest} in an IgniteCache.
+ */
+final class Ignite2YcsbStore implements YcsbStore {
+
+    private final IgniteCache<String, String> cache;
+
+    Ignite2YcsbStore(Ignite ignite, String name) {
+        this.cache = ignite.getOrCreateCache(name);
+    }
+
+    @Override
+    public String read(String key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public int scan(List<String> keys) {
+        return cache.getAll(new HashSet<>(keys)).size();
+    }
+
+    @Override
+    public void update(String key, String value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void insert(String key, String value) {
+        cache.put(key, value);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.infinispan10;
+
+import com.hazelcast.simulator.ycsb.YcsbStore;
+import org.infinispan.commons.api.BasicCache;
+import org.infinispan.commons.api.BasicCacheContainer;
+
+import java.util.List;
+
+/**
+ * Stores the records of the {@link com.hazelcast.simulator.ycsb.YcsbTest} in a cache. The cache has no multi-get, so a scan
+ * reads the records one by one.
+ */
+final class Infinispan10YcsbStore implements YcsbStore {
+
+    private final BasicCache<String, String> cache;
+
+    Infinispan10YcsbStore(BasicCacheContainer cacheContainer, String name) {
+        this.cache = cacheContainer.getCache(name);
+    }
+
+    @Override
+    public String read(String key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public int scan(List<String> keys) {
+        int found = 0;
+        for (String key : keys) {
+            if (cache.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void update(String key, String value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void insert(String key, String value) {
+        cache.put(key, value);
+    }
+}
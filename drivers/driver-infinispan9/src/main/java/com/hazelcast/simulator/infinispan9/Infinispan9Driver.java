@@ -18,6 +18,7 @@ package com.hazelcast.simulator.infinispan9;
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.coordinator.registry.AgentData;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 import org.apache.log4j.Logger;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.configuration.Configuration;
@@ -117,6 +118,11 @@ public class Infinispan9Driver extends VendorDriver<BasicCacheContainer> {
         return cacheContainer;
     }
 
+    @Override
+    public YcsbStore newYcsbStore(String name) {
+        return new Infinispan9YcsbStore(cacheContainer, name);
+    }
+
     @Override
     public void startVendorInstance() throws Exception {
         String workerType = get("WORKER_TYPE");
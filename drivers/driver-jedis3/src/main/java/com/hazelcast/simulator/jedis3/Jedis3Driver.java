@@ -17,6 +17,7 @@ package com.hazelcast.simulator.jedis3;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.JedisCluster;
@@ -61,6 +62,11 @@ public class Jedis3Driver extends VendorDriver<JedisCluster> {
         return client;
     }
 
+    @Override
+    public YcsbStore newYcsbStore(String name) {
+        return new Jedis3YcsbStore(client, name);
+    }
+
     @Override
     public void startVendorInstance() throws Exception {
         Set<HostAndPort> addresses = getAddresses();
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.jedis3;
+
+import com.hazelcast.simulator.ycsb.YcsbStore;
+import redis.clients.jedis.JedisCluster;
+
+import java.util.List;
+
+/**
+ * Stores the records of the {@link com.hazelcast.simulator.ycsb.YcsbTest} as strings, with the name as key prefix. The keys
+ * of a scan are in different hash slots, so a scan reads the records one by one instead of with a MGET.
+ */
+final class Jedis3YcsbStore implements YcsbStore {
+
+    private final JedisCluster client;
+    private final String prefix;
+
+    Jedis3YcsbStore(JedisCluster client, String name) {
+        this.client = client;
+        this.prefix = name + ':';
+    }
+
+    @Override
+    public String read(String key) {
+        return client.get(prefix + key);
+    }
+
+    @Override
+    public int scan(List<String> keys) {
+        int found = 0;
+        for (String key : keys) {
+            if (client.get(prefix + key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void update(String key, String value) {
+        client.set(prefix + key, value);
+    }
+
+    @Override
+    public void insert(String key, String value) {
+        client.set(prefix + key, value);
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.simulator.lettuce5;
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.coordinator.registry.AgentData;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 import io.lettuce.core.RedisClient;
 
 import static java.lang.String.format;
@@ -76,6 +77,11 @@ public class Lettuce5Driver extends VendorDriver<RedisClient> {
         return client;
     }
 
+    @Override
+    public YcsbStore newYcsbStore(String name) {
+        return new Lettuce5YcsbStore(client, name);
+    }
+
     @Override
     public void startVendorInstance() throws Exception {
         String workerType = get("WORKER_TYPE");
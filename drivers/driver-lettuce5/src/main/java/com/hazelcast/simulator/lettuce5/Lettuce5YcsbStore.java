@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.lettuce5;
+
+import com.hazelcast.simulator.ycsb.YcsbStore;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.sync.RedisCommands;
+
+import java.util.List;
+
+/**
+ * Stores the records of the {@link com.hazelcast.simulator.ycsb.YcsbTest} as strings, with the name as key prefix. A scan
+ * reads the records with a single MGET.
+ */
+final class Lettuce5YcsbStore implements YcsbStore {
+
+    private final RedisCommands<String, String> sync;
+    private final String prefix;
+
+    Lettuce5YcsbStore(RedisClient client, String name) {
+        // a connection is thread-safe, so it is shared by all threads of the test
+        this.sync = client.connect().sync();
+        this.prefix = name + ':';
+    }
+
+    @Override
+    public String read(String key) {
+        return sync.get(prefix + key);
+    }
+
+    @Override
+    public int scan(List<String> keys) {
+        String[] prefixedKeys = new String[keys.size()];
+        for (int i = 0; i < prefixedKeys.length; i++) {
+            prefixedKeys[i] = prefix + keys.get(i);
+        }
+
+        int found = 0;
+        for (KeyValue<String, String> keyValue : sync.mget(prefixedKeys)) {
+            if (keyValue.hasValue()) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void update(String key, String value) {
+        sync.set(prefix + key, value);
+    }
+
+    @Override
+    public void insert(String key, String value) {
+        sync.set(prefix + key, value);
+    }
+}
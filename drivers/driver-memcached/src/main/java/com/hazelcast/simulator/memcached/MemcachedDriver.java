@@ -17,6 +17,7 @@ package com.hazelcast.simulator.memcached;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 import net.spy.memcached.ConnectionFactoryBuilder;
 import net.spy.memcached.MemcachedClient;
 import net.spy.memcached.auth.AuthDescriptor;
@@ -61,6 +62,11 @@ public class MemcachedDriver extends VendorDriver<MemcachedClient> {
         return client;
     }
 
+    @Override
+    public YcsbStore newYcsbStore(String name) {
+        return new MemcachedYcsbStore(client, name);
+    }
+
     @Override
     public void startVendorInstance() throws Exception {
         String[] nodes = get("nodes").split(",");
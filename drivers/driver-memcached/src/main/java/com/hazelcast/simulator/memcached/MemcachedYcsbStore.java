@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.memcached;
+
+import com.hazelcast.simulator.ycsb.YcsbStore;
+import net.spy.memcached.MemcachedClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the records of the {@link com.hazelcast.simulator.ycsb.YcsbTest} as immortal entries, with the name as key prefix.
+ * A write waits for its completion, so its latency is measured. A scan reads the records with a single bulk get.
+ */
+final class MemcachedYcsbStore implements YcsbStore {
+
+    private final MemcachedClient client;
+    private final String prefix;
+
+    MemcachedYcsbStore(MemcachedClient client, String name) {
+        this.client = client;
+        this.prefix = name + ':';
+    }
+
+    @Override
+    public String read(String key) {
+        return (String) client.get(prefix + key);
+    }
+
+    @Override
+    public int scan(List<String> keys) {
+        List<String> prefixedKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            prefixedKeys.add(prefix + key);
+        }
+        return client.getBulk(prefixedKeys).size();
+    }
+
+    @Override
+    public void update(String key, String value) throws Exception {
+        client.set(prefix + key, 0, value).get();
+    }
+
+    @Override
+    public void insert(String key, String value) throws Exception {
+        client.set(prefix + key, 0, value).get();
+    }
+}
@@ -17,6 +17,7 @@ package com.hazelcast.simulator.mongodb;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import java.io.IOException;
@@ -56,6 +57,11 @@ public class MongodbDriver extends VendorDriver<MongoClient> {
         return client;
     }
 
+    @Override
+    public YcsbStore newYcsbStore(String name) {
+        return new MongodbYcsbStore(client, name);
+    }
+
     @Override
     public void startVendorInstance() throws Exception {
         String address = get("node");
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.mongodb;
+
+import com.hazelcast.simulator.ycsb.YcsbStore;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+
+/**
+ * Stores the records of the {@link com.hazelcast.simulator.ycsb.YcsbTest} as documents in a collection of the 'ycsb'
+ * database. A scan reads the records with a single find.
+ */
+final class MongodbYcsbStore implements YcsbStore {
+
+    private static final String DATABASE_NAME = "ycsb";
+    private static final String ID = "_id";
+    private static final String VALUE = "value";
+
+    private final MongoCollection<Document> collection;
+    private final ReplaceOptions upsert = new ReplaceOptions().upsert(true);
+
+    MongodbYcsbStore(MongoClient client, String name) {
+        this.collection = client.getDatabase(DATABASE_NAME).getCollection(name);
+    }
+
+    @Override
+    public String read(String key) {
+        Document document = collection.find(eq(ID, key)).first();
+        return document == null ? null : document.getString(VALUE);
+    }
+
+    @Override
+    public int scan(List<String> keys) {
+        int found = 0;
+        for (Document ignored : collection.find(in(ID, keys))) {
+            found++;
+        }
+        return found;
+    }
+
+    @Override
+    public void update(String key, String value) {
+        collection.replaceOne(eq(ID, key), new Document(ID, key).append(VALUE, value));
+    }
+
+    @Override
+    public void insert(String key, String value) {
+        // an upsert, so the records can be loaded again by the next test
+        collection.replaceOne(eq(ID, key), new Document(ID, key).append(VALUE, value), upsert);
+    }
+}
@@ -76,7 +76,8 @@ public class Agent implements Closeable {
                 new WorkerProcessFailureHandler(publicAddress, server),
                 processManager, workerLastSeenTimeoutSeconds);
 
-        server.setProcessor(new AgentOperationProcessor(processManager, workerProcessFailureMonitor));
+        server.setProcessor(new AgentOperationProcessor(processManager, workerProcessFailureMonitor,
+                new ArtifactSender(server)));
 
         Runtime.getRuntime().addShutdownHook(new AgentShutdownThread(true));
     }
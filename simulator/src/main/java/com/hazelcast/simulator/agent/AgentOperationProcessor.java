@@ -15,11 +15,14 @@
  */
 package com.hazelcast.simulator.agent;
 
+import com.hazelcast.simulator.agent.operations.CollectArtifactsOperation;
 import com.hazelcast.simulator.agent.operations.CreateWorkerOperation;
+import com.hazelcast.simulator.agent.operations.GetHardwareTopologyOperation;
 import com.hazelcast.simulator.agent.operations.StartTimeoutDetectionOperation;
 import com.hazelcast.simulator.agent.operations.StopTimeoutDetectionOperation;
 import com.hazelcast.simulator.agent.workerprocess.WorkerProcessFailureMonitor;
 import com.hazelcast.simulator.agent.workerprocess.WorkerProcessManager;
+import com.hazelcast.simulator.common.HardwareTopology;
 import com.hazelcast.simulator.protocol.OperationProcessor;
 import com.hazelcast.simulator.protocol.Promise;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
@@ -30,11 +33,14 @@ class AgentOperationProcessor implements OperationProcessor {
 
     private final WorkerProcessManager processManager;
     private final WorkerProcessFailureMonitor failureMonitor;
+    private final ArtifactSender artifactSender;
 
     AgentOperationProcessor(WorkerProcessManager processManager,
-                            WorkerProcessFailureMonitor failureMonitor) {
+                            WorkerProcessFailureMonitor failureMonitor,
+                            ArtifactSender artifactSender) {
         this.processManager = processManager;
         this.failureMonitor = failureMonitor;
+        this.artifactSender = artifactSender;
     }
 
     @Override
@@ -47,6 +53,10 @@ class AgentOperationProcessor implements OperationProcessor {
         } else if (op instanceof StopTimeoutDetectionOperation) {
             failureMonitor.stopTimeoutDetection();
             promise.answer("ok");
+        } else if (op instanceof GetHardwareTopologyOperation) {
+            promise.answer(HardwareTopology.detect().toString());
+        } else if (op instanceof CollectArtifactsOperation) {
+            artifactSender.send((CollectArtifactsOperation) op, promise);
         } else {
             throw new ProcessException("Unknown operation:" + op);
         }
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.agent;
+
+import com.hazelcast.simulator.agent.operations.CollectArtifactsOperation;
+import com.hazelcast.simulator.protocol.Promise;
+import com.hazelcast.simulator.protocol.Server;
+import org.apache.log4j.Logger;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.hazelcast.simulator.agent.operations.CollectArtifactsOperation.ARTIFACT_PROPERTY;
+import static com.hazelcast.simulator.agent.operations.CollectArtifactsOperation.LAST_CHUNK_PROPERTY;
+import static com.hazelcast.simulator.agent.workerprocess.WorkerProcessLauncher.WORKERS_HOME_NAME;
+import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static javax.jms.DeliveryMode.NON_PERSISTENT;
+import static javax.jms.Session.AUTO_ACKNOWLEDGE;
+
+/**
+ * Sends the artifacts of a session to the coordinator, see {@link CollectArtifactsOperation}.
+ *
+ * Every entry of the session directory, e.g. a worker directory, is sent as a zip archive in chunks of {@link #CHUNK_SIZE}
+ * bytes, so the coordinator can unpack a worker while the archives of the other workers are still being sent. The
+ * 'upload' directories and the files the coordinator already has are skipped.
+ */
+class ArtifactSender {
+
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(ArtifactSender.class);
+    private static final String UPLOAD_DIR_NAME = "upload";
+
+    private final Server server;
+    private final File workersHome;
+
+    ArtifactSender(Server server) {
+        this(server, new File(getSimulatorHome(), WORKERS_HOME_NAME));
+    }
+
+    ArtifactSender(Server server, File workersHome) {
+        this.server = server;
+        this.workersHome = workersHome;
+    }
+
+    /**
+     * Sends the artifacts asynchronously, so the messaging thread isn't blocked. The promise is answered with the number
+     * of sent archives.
+     *
+     * @param op      the operation
+     * @param promise the promise to answer
+     */
+    void send(CollectArtifactsOperation op, Promise promise) {
+        Thread thread = new Thread("ArtifactSender") {
+            @Override
+            public void run() {
+                try {
+                    promise.answer(sendArtifacts(op));
+                } catch (Exception e) {
+                    LOGGER.error("Failed to send the artifacts of session " + op.getSessionId(), e);
+                    promise.answer(e);
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    int sendArtifacts(CollectArtifactsOperation op) throws JMSException, IOException {
+        File sessionDir = new File(workersHome, op.getSessionId());
+        File[] entries = sessionDir.listFiles();
+        if (entries == null) {
+            return 0;
+        }
+        Arrays.sort(entries);
+
+        long started = System.nanoTime();
+        int archiveCount = 0;
+        Session session = server.getConnection().createSession(false, AUTO_ACKNOWLEDGE);
+        try {
+            MessageProducer producer = session.createProducer(session.createQueue(op.getQueueName()));
+            producer.setDeliveryMode(NON_PERSISTENT);
+
+            for (File entry : entries) {
+                List<String> paths = new ArrayList<>();
+                addPaths(entry, entry.getName(), op.getExistingFiles(), paths);
+                if (!paths.isEmpty()) {
+                    sendArchive(session, producer, sessionDir, entry.getName(), paths);
+                    archiveCount++;
+                }
+            }
+        } finally {
+            session.close();
+        }
+
+        LOGGER.info(format("Sent %d artifact archives of session %s in %d ms",
+                archiveCount, op.getSessionId(), NANOSECONDS.toMillis(System.nanoTime() - started)));
+        return archiveCount;
+    }
+
+    private static void addPaths(File file, String path, Map<String, Long> existingFiles, List<String> paths) {
+        if (file.isDirectory()) {
+            if (UPLOAD_DIR_NAME.equals(file.getName())) {
+                return;
+            }
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    addPaths(child, path + '/' + child.getName(), existingFiles, paths);
+                }
+            }
+        } else {
+            Long existingSize = existingFiles == null ? null : existingFiles.get(path);
+            if (existingSize == null || existingSize != file.length()) {
+                paths.add(path);
+            }
+        }
+    }
+
+    private static void sendArchive(Session session, MessageProducer producer, File sessionDir, String name,
+                                    List<String> paths) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new ChunkOutputStream(session, producer, name))) {
+            // the artifacts are mostly text and histograms which compress well even at the fastest level
+            out.setLevel(Deflater.BEST_SPEED);
+            for (String path : paths) {
+                File file = new File(sessionDir, path);
+                ZipEntry zipEntry = new ZipEntry(path);
+                zipEntry.setTime(file.lastModified());
+                out.putNextEntry(zipEntry);
+                Files.copy(file.toPath(), out);
+                out.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Sends the written bytes as messages of at most {@link #CHUNK_SIZE} bytes; closing the stream sends the last chunk.
+     */
+    private static final class ChunkOutputStream extends OutputStream {
+
+        private final Session session;
+        private final MessageProducer producer;
+        private final String name;
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int position;
+        private boolean closed;
+
+        private ChunkOutputStream(Session session, MessageProducer producer, String name) {
+            this.session = session;
+            this.producer = producer;
+            this.name = name;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == buffer.length) {
+                sendChunk(false);
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (position == buffer.length) {
+                    sendChunk(false);
+                }
+                int count = Math.min(length, buffer.length - position);
+                System.arraycopy(bytes, offset, buffer, position, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                sendChunk(true);
+            }
+        }
+
+        private void sendChunk(boolean last) throws IOException {
+            try {
+                BytesMessage message = session.createBytesMessage();
+                message.writeBytes(buffer, 0, position);
+                message.setStringProperty(ARTIFACT_PROPERTY, name);
+                message.setBooleanProperty(LAST_CHUNK_PROPERTY, last);
+                producer.send(message);
+                position = 0;
+            } catch (JMSException e) {
+                throw new IOException("Failed to send a chunk of artifact " + name, e);
+            }
+        }
+    }
+}
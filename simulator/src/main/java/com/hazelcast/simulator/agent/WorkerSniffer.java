@@ -16,22 +16,28 @@
 package com.hazelcast.simulator.agent;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerProcessManager;
+import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.utils.EmptyStatement;
 import org.apache.log4j.Logger;
 
 import javax.jms.Connection;
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.Session;
 import javax.jms.Topic;
 
+import static com.hazelcast.simulator.protocol.Server.HEARTBEAT_TOPIC;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static javax.jms.Session.AUTO_ACKNOWLEDGE;
+
 /**
- * Sniffs the traffic of workers that publish on the coordinator topic and updates the 'lastSeen' accordingly
- * on the {@link WorkerProcessManager}.
+ * Listens to the heartbeats the workers publish on the {@link Server#HEARTBEAT_TOPIC} and updates the 'lastSeen'
+ * accordingly on the {@link WorkerProcessManager}.
  *
- * Since each agent has its own broker, all traffic on the coordinator topic will be of workers owned by this
- * agent.
+ * Since each agent has its own broker, all heartbeats will be of workers owned by this agent. The heartbeats use a
+ * dedicated topic, so the sniffer doesn't need to receive a copy of every message the workers send to the coordinator.
  */
 public class WorkerSniffer {
 
@@ -42,7 +48,7 @@ public class WorkerSniffer {
     private volatile boolean stop;
     private final SnifferThread snifferThread = new SnifferThread();
     private Session session;
-    private Topic coordinatorTopic;
+    private Topic heartbeatTopic;
     private MessageConsumer consumer;
 
     public WorkerSniffer(WorkerProcessManager processManager) {
@@ -55,32 +61,36 @@ public class WorkerSniffer {
     }
 
     public void start() {
-//        try {
-//            this.session = connection.createSession(false, AUTO_ACKNOWLEDGE);
-//            this.coordinatorTopic = session.createTopic("coordinator");
-//            this.consumer = session.createConsumer(coordinatorTopic);
-//            snifferThread.start();
-//            LOGGER.info("Coordinator topic sniffer started");
-//        } catch (JMSException e) {
-//            throw new RuntimeException(e);
-//        }
+        try {
+            this.session = connection.createSession(false, AUTO_ACKNOWLEDGE);
+            this.heartbeatTopic = session.createTopic(HEARTBEAT_TOPIC);
+            this.consumer = session.createConsumer(heartbeatTopic);
+            snifferThread.start();
+            LOGGER.info("Worker heartbeat sniffer started");
+        } catch (JMSException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public void stop() {
-//        stop = true;
-//        snifferThread.interrupt();
-//
-//        try {
-//            snifferThread.join(MINUTES.toMillis(1));
-//        } catch (InterruptedException e) {
-//            Thread.currentThread().interrupt();
-//        }
-//
-//        if (snifferThread.isAlive()) {
-//            LOGGER.info("Failed to stop the server in the given timeout");
-//        } else {
-//            LOGGER.info("Successfully stopped Server");
-//        }
+        if (!snifferThread.isAlive()) {
+            return;
+        }
+
+        stop = true;
+        snifferThread.interrupt();
+
+        try {
+            snifferThread.join(MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (snifferThread.isAlive()) {
+            LOGGER.info("Failed to stop the worker heartbeat sniffer in the given timeout");
+        } else {
+            LOGGER.info("Successfully stopped the worker heartbeat sniffer");
+        }
     }
 
     private class SnifferThread extends Thread {
@@ -104,6 +114,9 @@ public class WorkerSniffer {
 
         private void run0() throws Exception {
             Message m = consumer.receive();
+            if (m == null) {
+                return;
+            }
             SimulatorAddress address = SimulatorAddress.fromString(m.getStringProperty("source"));
             processManager.updateLastSeenTimestamp(address);
         }
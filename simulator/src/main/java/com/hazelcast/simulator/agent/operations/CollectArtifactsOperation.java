@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.agent.operations;
+
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+import java.util.Map;
+
+/**
+ * Requests the artifacts of a session from a Simulator Agent.
+ *
+ * The agent sends every entry of the session directory as a compressed archive to the given queue on its broker, and
+ * answers with the number of sent archives once all archives are sent.
+ */
+public class CollectArtifactsOperation implements SimulatorOperation {
+
+    /**
+     * The message property with the name of the archive a chunk belongs to.
+     */
+    public static final String ARTIFACT_PROPERTY = "artifact";
+
+    /**
+     * The message property which marks the last chunk of an archive.
+     */
+    public static final String LAST_CHUNK_PROPERTY = "last";
+
+    private final String sessionId;
+    private final String queueName;
+    // the files the coordinator already has: the path relative to the session directory and the size
+    private final Map<String, Long> existingFiles;
+
+    public CollectArtifactsOperation(String sessionId, String queueName, Map<String, Long> existingFiles) {
+        this.sessionId = sessionId;
+        this.queueName = queueName;
+        this.existingFiles = existingFiles;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getQueueName() {
+        return queueName;
+    }
+
+    public Map<String, Long> getExistingFiles() {
+        return existingFiles;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.agent.workerprocess;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Finds the application class-data sharing (AppCDS) archive for a worker JVM.
+ * <p>
+ * The first worker with a given classpath creates the archive when it exits ({@code -XX:ArchiveClassesAtExit}).
+ * Subsequent workers with the same classpath start with {@code -XX:SharedArchiveFile}, so the classes of Hazelcast,
+ * ActiveMQ, Gson etc. are mapped from the archive instead of being parsed and verified on every worker start. The
+ * options are applied by the worker.sh, based on the CDS_ARCHIVE environment variable.
+ * <p>
+ * The JVM only accepts an archive if the classpath, including the size and modification time of the jars, matches
+ * the classpath the archive was created with. So the archive is keyed by the vendor version and a fingerprint of the
+ * expanded classpath and the JVM. Dynamic archives require JDK 13+; on older JDKs no archive is used.
+ */
+final class AppCdsArchive {
+
+    static final int MIN_JAVA_VERSION = 13;
+
+    private static final String ARCHIVE_EXTENSION = ".jsa";
+    private static final String WILDCARD = "*";
+    private static final int FINGERPRINT_LENGTH = 16;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int HEX_RADIX = 16;
+    private static final int HEX_DIGITS_PER_BYTE = 2;
+
+    private AppCdsArchive() {
+    }
+
+    /**
+     * Returns the archive file for the given classpath, using the JVM the agent is running on.
+     *
+     * @param archiveDir    the directory containing the archives
+     * @param archivePrefix the prefix for the archive name, e.g. the vendor and version
+     * @param classpath     the classpath of the worker
+     * @return the archive file (which doesn't need to exist yet), or {@code null} if no archive can be used
+     */
+    static File getArchiveFile(File archiveDir, String archivePrefix, String classpath) {
+        return getArchiveFile(archiveDir, archivePrefix, classpath,
+                System.getProperty("java.specification.version"), System.getProperty("java.vm.version"));
+    }
+
+    static File getArchiveFile(File archiveDir, String archivePrefix, String classpath,
+                               String javaSpecificationVersion, String javaVmVersion) {
+        if (!isSupported(javaSpecificationVersion)) {
+            return null;
+        }
+
+        String fingerprint = fingerprint(classpath, javaVmVersion);
+        if (fingerprint == null) {
+            return null;
+        }
+
+        String name = archivePrefix.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + fingerprint + ARCHIVE_EXTENSION;
+        return new File(archiveDir, name);
+    }
+
+    static boolean isSupported(String javaSpecificationVersion) {
+        if (javaSpecificationVersion == null || javaSpecificationVersion.startsWith("1.")) {
+            return false;
+        }
+        try {
+            return Integer.parseInt(javaSpecificationVersion) >= MIN_JAVA_VERSION;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a fingerprint of the expanded classpath and the JVM version.
+     *
+     * @return the fingerprint or {@code null} if the classpath contains a non-empty directory, which is not supported by
+     * the JVM for class-data sharing
+     */
+    static String fingerprint(String classpath, String javaVmVersion) {
+        MessageDigest digest = newDigest();
+        update(digest, javaVmVersion);
+
+        for (File file : expand(classpath)) {
+            if (file.isDirectory()) {
+                String[] children = file.list();
+                if (children != null && children.length > 0) {
+                    return null;
+                }
+                continue;
+            }
+            if (!file.exists()) {
+                continue;
+            }
+            update(digest, file.getAbsolutePath());
+            update(digest, Long.toString(file.length()));
+            update(digest, Long.toString(file.lastModified()));
+        }
+
+        return toHex(digest.digest()).substring(0, FINGERPRINT_LENGTH);
+    }
+
+    private static List<File> expand(String classpath) {
+        List<File> files = new ArrayList<>();
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            if (!entry.endsWith(WILDCARD)) {
+                files.add(new File(entry));
+                continue;
+            }
+
+            // like the java launcher, a wildcard only expands to the jars in the directory
+            File[] jars = new File(entry.substring(0, entry.length() - 1)).listFiles(
+                    (dir, name) -> name.endsWith(".jar") || name.endsWith(".JAR"));
+            if (jars != null) {
+                Arrays.sort(jars);
+                files.addAll(Arrays.asList(jars));
+            }
+        }
+        return files;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(format("SHA-256 is not supported: %s", e.getMessage()), e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * HEX_DIGITS_PER_BYTE);
+        for (byte b : bytes) {
+            String hex = Integer.toString(b & BYTE_MASK, HEX_RADIX);
+            if (hex.length() == 1) {
+                sb.append('0');
+            }
+            sb.append(hex);
+        }
+        return sb.toString();
+    }
+}
@@ -30,6 +30,7 @@ public class WorkerProcess {
     private final String id;
     private final File workerHome;
     private volatile long lastSeen = currentTimeMillis();
+    private volatile long timeoutReportedLastSeen;
     private volatile boolean oomeDetected;
     private volatile boolean isFinished;
     private volatile Process process;
@@ -64,6 +65,19 @@ public class WorkerProcess {
         this.lastSeen = timeStamp;
     }
 
+    /**
+     * Returns the lastSeen timestamp for which a timeout has been reported, so the same silence isn't reported twice.
+     *
+     * @return the lastSeen timestamp of the last reported timeout, or 0 if no timeout has been reported
+     */
+    public long getTimeoutReportedLastSeen() {
+        return timeoutReportedLastSeen;
+    }
+
+    public void setTimeoutReportedLastSeen(long timeoutReportedLastSeen) {
+        this.timeoutReportedLastSeen = timeoutReportedLastSeen;
+    }
+
     public boolean isOomeDetected() {
         return oomeDetected;
     }
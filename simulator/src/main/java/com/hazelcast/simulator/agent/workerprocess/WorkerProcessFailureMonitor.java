@@ -22,26 +22,62 @@ import org.apache.log4j.Logger;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.hazelcast.simulator.common.FailureType.WORKER_ABNORMAL_EXIT;
 import static com.hazelcast.simulator.common.FailureType.WORKER_EXCEPTION;
 import static com.hazelcast.simulator.common.FailureType.WORKER_NORMAL_EXIT;
 import static com.hazelcast.simulator.common.FailureType.WORKER_OOME;
 import static com.hazelcast.simulator.common.FailureType.WORKER_TIMEOUT;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
 import static java.lang.String.format;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * Detects the failures of the worker processes of this agent.
+ * <p>
+ * The detection is event driven:
+ * <ul>
+ * <li>the worker homes are watched using a {@link WatchService} (inotify on Linux) for exception files and OOME markers</li>
+ * <li>the exit of a worker process is observed by a thread blocking on {@link Process#waitFor()}</li>
+ * </ul>
+ * So failures are reported within milliseconds, without polling the file system. The monitor thread only registers new
+ * workers, removes finished workers and detects timeouts.
+ */
 public class WorkerProcessFailureMonitor {
 
     private static final int DEFAULT_CHECK_INTERVAL_MILLIS = (int) SECONDS.toMillis(1);
 
     private static final Logger LOGGER = Logger.getLogger(WorkerProcessFailureMonitor.class);
 
+    private final WorkerProcessFailureHandler failureHandler;
+    private final WorkerProcessManager workerProcessManager;
     private final MonitorThread monitorThread;
+    private final WatcherThread watcherThread;
+    private final WatchService watchService;
+    private final ConcurrentMap<WatchKey, WorkerProcess> watchedWorkers = new ConcurrentHashMap<>();
+    private final Set<WorkerProcess> monitoredWorkers = ConcurrentHashMap.newKeySet();
+    // Java 8 has no Process.onExit(), so a (mostly parked) thread per worker process waits for the exit
+    private final ExecutorService exitWaiters = Executors.newCachedThreadPool(WorkerProcessFailureMonitor::newExitWaiter);
 
     public WorkerProcessFailureMonitor(WorkerProcessFailureHandler failureHandler,
                                        WorkerProcessManager workerProcessManager,
@@ -53,16 +89,27 @@ public class WorkerProcessFailureMonitor {
                                 WorkerProcessManager workerProcessManager,
                                 int lastSeenTimeoutSeconds,
                                 int checkIntervalMillis) {
-        monitorThread = new MonitorThread(failureHandler, workerProcessManager, lastSeenTimeoutSeconds, checkIntervalMillis);
+        this.failureHandler = failureHandler;
+        this.workerProcessManager = workerProcessManager;
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create WatchService", e);
+        }
+        this.monitorThread = new MonitorThread(lastSeenTimeoutSeconds, checkIntervalMillis);
+        this.watcherThread = new WatcherThread();
     }
 
     public void start() {
+        watcherThread.start();
         monitorThread.start();
     }
 
     public void shutdown() {
         monitorThread.running = false;
         monitorThread.interrupt();
+        closeQuietly(watchService);
+        exitWaiters.shutdownNow();
     }
 
     public void startTimeoutDetection() {
@@ -80,130 +127,241 @@ public class WorkerProcessFailureMonitor {
         }
     }
 
-    private final class MonitorThread extends Thread {
+    private static Thread newExitWaiter(Runnable runnable) {
+        Thread thread = new Thread(runnable, "WorkerProcessExitWaiter");
+        thread.setDaemon(true);
+        return thread;
+    }
 
-        private final WorkerProcessFailureHandler failureHandler;
-        private final WorkerProcessManager workerProcessManager;
-        private final int lastSeenTimeoutSeconds;
-        private final int checkIntervalMillis;
+    private void startMonitoring(WorkerProcess workerProcess) throws IOException {
+        File workerHome = workerProcess.getWorkerHome();
+        if (!workerHome.exists()) {
+            // we try again on the next check
+            monitoredWorkers.remove(workerProcess);
+            return;
+        }
 
-        private volatile boolean running = true;
-        private volatile boolean detectTimeouts;
+        WatchKey key = workerHome.toPath().register(watchService, ENTRY_CREATE);
+        watchedWorkers.put(key, workerProcess);
 
-        private MonitorThread(WorkerProcessFailureHandler failureHandler,
-                              WorkerProcessManager workerProcessManager,
-                              int lastSeenTimeoutSeconds,
-                              int checkIntervalMillis) {
-            super("WorkerJvmFailureMonitorThread");
-            setDaemon(true);
-            this.failureHandler = failureHandler;
-            this.workerProcessManager = workerProcessManager;
-            this.lastSeenTimeoutSeconds = lastSeenTimeoutSeconds;
-            this.checkIntervalMillis = checkIntervalMillis;
+        // files created before the registration don't trigger an event
+        scanWorkerHome(workerProcess);
+
+        final Process process = workerProcess.getProcess();
+        if (process != null) {
+            exitWaiters.execute(() -> awaitExit(workerProcess, process));
         }
+    }
 
-        @Override
-        public void run() {
-            while (running) {
-                try {
-                    for (WorkerProcess workerProcess : workerProcessManager.getWorkerProcesses()) {
+    private void stopMonitoring(WorkerProcess workerProcess) {
+        monitoredWorkers.remove(workerProcess);
+        for (Map.Entry<WatchKey, WorkerProcess> entry : watchedWorkers.entrySet()) {
+            if (entry.getValue() == workerProcess) {
+                entry.getKey().cancel();
+                watchedWorkers.remove(entry.getKey());
+            }
+        }
+    }
 
-                        detectFailures(workerProcess);
+    private void scanWorkerHome(WorkerProcess workerProcess) {
+        synchronized (workerProcess) {
+            for (File exceptionFile : ExceptionExtensionFilter.listFiles(workerProcess.getWorkerHome())) {
+                handleExceptionFile(workerProcess, exceptionFile);
+            }
 
-                        if (workerProcess.isFinished()) {
-                            workerProcessManager.remove(workerProcess);
-                        }
+            if (!workerProcess.isOomeDetected() && isOomeFound(workerProcess.getWorkerHome())) {
+                handleOome(workerProcess);
+            }
+        }
+    }
+
+    private void handleEvents(WorkerProcess workerProcess, Iterable<WatchEvent<?>> events) {
+        synchronized (workerProcess) {
+            for (WatchEvent<?> event : events) {
+                if (event.kind() == OVERFLOW) {
+                    scanWorkerHome(workerProcess);
+                    continue;
+                }
+
+                String fileName = ((Path) event.context()).toString();
+                if (fileName.endsWith(ExceptionExtensionFilter.EXTENSION)) {
+                    File exceptionFile = new File(workerProcess.getWorkerHome(), fileName);
+                    // the file could already have been handled by a scan
+                    if (exceptionFile.exists()) {
+                        handleExceptionFile(workerProcess, exceptionFile);
                     }
-                } catch (Exception e) {
-                    LOGGER.fatal("Failed to scan for failures", e);
+                } else if (!workerProcess.isOomeDetected() && isOomeFile(fileName)) {
+                    handleOome(workerProcess);
                 }
-                sleepMillis(checkIntervalMillis);
             }
         }
+    }
 
-        private void updateLastSeen() {
-            for (WorkerProcess workerProcess : workerProcessManager.getWorkerProcesses()) {
-                workerProcess.updateLastSeen();
-            }
+    private void handleExceptionFile(WorkerProcess workerProcess, File exceptionFile) {
+        String content = fileAsText(exceptionFile);
+
+        int indexOf = content.indexOf(NEW_LINE);
+        String testId = content.substring(0, indexOf);
+        String cause = content.substring(indexOf + 1);
+
+        if (testId.isEmpty() || "null".equals(testId)) {
+            testId = null;
         }
 
-        private void detectFailures(WorkerProcess workerProcess) {
-            detectExceptions(workerProcess);
+        failureHandler.handle("Worked ran into an unhandled exception", WORKER_EXCEPTION, workerProcess,
+                testId, cause);
 
-            if (workerProcess.isOomeDetected()) {
-                return;
-            }
+        move(exceptionFile);
+    }
 
-            detectOomeFailure(workerProcess);
+    // we rename the exception file so that we don't detect the same exception again
+    // moving it to the exception directory also means that we don't loose the exception if there is
+    // some kind of messaging error and it will be easy to find the exceptions thrown by a worker for further analysis.
+    private static void move(File exceptionFile) {
+        // we create an exceptions directory
+        File exceptionDir = new File(exceptionFile.getParent(), "exceptions");
+        FileUtils.ensureExistingDirectory(exceptionDir);
+
+        // and then move the file into that directory
+        File newExceptionFile = new File(exceptionDir, exceptionFile.getName());
+        if (!exceptionFile.renameTo(newExceptionFile)) {
+            throw new UncheckedIOException(
+                    format(
+                            "Failed to move exception file [%s] to [%s]",
+                            exceptionFile.getAbsolutePath(), exceptionDir.getAbsolutePath()));
+        }
+    }
 
-            //detectInactivity(workerProcess);
+    private void handleOome(WorkerProcess workerProcess) {
+        workerProcess.setOomeDetected();
+
+        sendFailureOperation("Worker ran into an OOME", WORKER_OOME, workerProcess);
+    }
 
-            detectUnexpectedExit(workerProcess);
+    private static boolean isOomeFound(File workerHome) {
+        File oomeFile = new File(workerHome, "worker.oome");
+        if (oomeFile.exists()) {
+            return true;
         }
 
-        private void detectExceptions(WorkerProcess workerProcess) {
-            File workerHome = workerProcess.getWorkerHome();
-            if (!workerHome.exists()) {
-                return;
-            }
+        // if we find the hprof file, we also know there is an OOME. The problem with the worker.oome file is that it is
+        // created after the heap dump is done, and creating the heap dump can take a lot of time. And then the system could
+        // think there is another problem (e.g. lack of inactivity; or timeouts). This hides the OOME.
+        File[] hprofFiles = HProfExtensionFilter.listFiles(workerHome);
+        return (hprofFiles.length > 0);
+    }
 
-            File[] exceptionFiles = ExceptionExtensionFilter.listFiles(workerHome);
-            for (File exceptionFile : exceptionFiles) {
-                String content = fileAsText(exceptionFile);
+    private static boolean isOomeFile(String fileName) {
+        return "worker.oome".equals(fileName) || fileName.endsWith(HProfExtensionFilter.EXTENSION);
+    }
 
-                int indexOf = content.indexOf(NEW_LINE);
-                String testId = content.substring(0, indexOf);
-                String cause = content.substring(indexOf + 1);
+    private void awaitExit(WorkerProcess workerProcess, Process process) {
+        try {
+            process.waitFor();
 
-                if (testId.isEmpty() || "null".equals(testId)) {
-                    testId = null;
+            synchronized (workerProcess) {
+                if (!monitoredWorkers.contains(workerProcess)
+                        || !workerProcessManager.getWorkerProcesses().contains(workerProcess)) {
+                    // the worker has been removed, e.g. it was shut down by the agent
+                    return;
                 }
 
-                failureHandler.handle("Worked ran into an unhandled exception", WORKER_EXCEPTION, workerProcess,
-                        testId, cause);
+                // pick up the exceptions and OOME the worker wrote just before it exited
+                scanWorkerHome(workerProcess);
 
-                move(exceptionFile);
+                if (!workerProcess.isOomeDetected()) {
+                    detectUnexpectedExit(workerProcess);
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.fatal("Failed to detect the exit of " + workerProcess.getAddress(), e);
+        }
+    }
+
+    private void detectUnexpectedExit(WorkerProcess workerProcess) {
+        Process process = workerProcess.getProcess();
+        int exitCode;
+        try {
+            exitCode = process.exitValue();
+        } catch (IllegalThreadStateException ignore) {
+            // process is still running
+            return;
+        }
+
+        if (exitCode == 0) {
+            workerProcess.setFinished();
+            sendFailureOperation("Worker terminated normally", WORKER_NORMAL_EXIT, workerProcess);
+            return;
         }
 
-        // we rename the exception file so that we don't detect the same exception again
-        // moving it to the exception directory also means that we don't loose the exception if there is
-        // some kind of messaging error and it will be easy to find the exceptions thrown by a worker for further analysis.
-        private void move(File exceptionFile) {
-            // we create an exceptions directory
-            File exceptionDir = new File(exceptionFile.getParent(), "exceptions");
-            FileUtils.ensureExistingDirectory(exceptionDir);
-
-            // and then move the file into that directory
-            File newExceptionFile = new File(exceptionDir, exceptionFile.getName());
-            if (!exceptionFile.renameTo(newExceptionFile)) {
-                throw new UncheckedIOException(
-                        format(
-                                "Failed to move exception file [%s] to [%s]",
-                                exceptionFile.getAbsolutePath(), exceptionDir.getAbsolutePath()));
+        stopMonitoring(workerProcess);
+        workerProcessManager.shutdown(workerProcess);
+
+        sendFailureOperation(format("Worker terminated with exit code %d instead of 0", exitCode), WORKER_ABNORMAL_EXIT,
+                workerProcess);
+    }
+
+    private void sendFailureOperation(String message, FailureType type, WorkerProcess workerProcess) {
+        failureHandler.handle(message, type, workerProcess, null, null);
+    }
+
+    private final class MonitorThread extends Thread {
+
+        private final int lastSeenTimeoutSeconds;
+        private final int checkIntervalMillis;
+
+        private volatile boolean running = true;
+        private volatile boolean detectTimeouts;
+
+        private MonitorThread(int lastSeenTimeoutSeconds, int checkIntervalMillis) {
+            super("WorkerJvmFailureMonitorThread");
+            setDaemon(true);
+            this.lastSeenTimeoutSeconds = lastSeenTimeoutSeconds;
+            this.checkIntervalMillis = checkIntervalMillis;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    Set<WorkerProcess> workerProcesses = new HashSet<>(workerProcessManager.getWorkerProcesses());
+                    for (WorkerProcess workerProcess : workerProcesses) {
+                        check(workerProcess);
+                    }
+
+                    for (WorkerProcess workerProcess : monitoredWorkers) {
+                        if (!workerProcesses.contains(workerProcess)) {
+                            stopMonitoring(workerProcess);
+                        }
+                    }
+                } catch (Exception e) {
+                    LOGGER.fatal("Failed to scan for failures", e);
+                }
+                sleepMillis(checkIntervalMillis);
             }
         }
 
-        private void detectOomeFailure(WorkerProcess workerProcess) {
-            if (!isOomeFound(workerProcess.getWorkerHome())) {
-                return;
+        private void check(WorkerProcess workerProcess) throws IOException {
+            if (monitoredWorkers.add(workerProcess)) {
+                startMonitoring(workerProcess);
             }
-            workerProcess.setOomeDetected();
 
-            sendFailureOperation("Worker ran into an OOME", WORKER_OOME, workerProcess);
-        }
+            if (!workerProcess.isOomeDetected()) {
+                detectInactivity(workerProcess);
+            }
 
-        private boolean isOomeFound(File workerHome) {
-            File oomeFile = new File(workerHome, "worker.oome");
-            if (oomeFile.exists()) {
-                return true;
+            if (workerProcess.isFinished()) {
+                workerProcessManager.remove(workerProcess);
+                stopMonitoring(workerProcess);
             }
+        }
 
-            // if we find the hprof file, we also know there is an OOME. The problem with the worker.oome file is that it is
-            // created after the heap dump is done, and creating the heap dump can take a lot of time. And then the system could
-            // think there is another problem (e.g. lack of inactivity; or timeouts). This hides the OOME.
-            File[] hprofFiles = HProfExtensionFilter.listFiles(workerHome);
-            return (hprofFiles.length > 0);
+        private void updateLastSeen() {
+            for (WorkerProcess workerProcess : workerProcessManager.getWorkerProcesses()) {
+                workerProcess.updateLastSeen();
+            }
         }
 
         private void detectInactivity(WorkerProcess workerProcess) {
@@ -211,42 +369,55 @@ public class WorkerProcessFailureMonitor {
                 return;
             }
 
-            long elapsed = MILLISECONDS.toSeconds(System.currentTimeMillis() - workerProcess.getLastSeen());
-            if (elapsed > 0 && elapsed % lastSeenTimeoutSeconds == 0) {
-                sendFailureOperation(format("Worker has not sent a message for %d seconds", elapsed), WORKER_TIMEOUT,
+            // the timeout is reported once per silence; a new heartbeat updates the lastSeen and re-arms the detection
+            long lastSeen = workerProcess.getLastSeen();
+            long elapsed = MILLISECONDS.toSeconds(System.currentTimeMillis() - lastSeen);
+            if (elapsed >= lastSeenTimeoutSeconds && workerProcess.getTimeoutReportedLastSeen() != lastSeen) {
+                workerProcess.setTimeoutReportedLastSeen(lastSeen);
+                sendFailureOperation(format("Worker has not sent a heartbeat for %d seconds", elapsed), WORKER_TIMEOUT,
                         workerProcess);
             }
         }
+    }
 
-        private void detectUnexpectedExit(WorkerProcess workerProcess) {
-            Process process = workerProcess.getProcess();
-            int exitCode;
-            try {
-                exitCode = process.exitValue();
-            } catch (IllegalThreadStateException ignore) {
-                // process is still running
-                return;
-            }
+    private final class WatcherThread extends Thread {
 
-            if (exitCode == 0) {
-                workerProcess.setFinished();
-                sendFailureOperation("Worker terminated normally", WORKER_NORMAL_EXIT, workerProcess);
-                return;
-            }
+        private WatcherThread() {
+            super("WorkerHomeWatcherThread");
+            setDaemon(true);
+        }
 
-            workerProcessManager.shutdown(workerProcess);
+        @Override
+        public void run() {
+            for (; ; ) {
+                WatchKey key;
+                try {
+                    key = watchService.take();
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    break;
+                }
 
-            sendFailureOperation(format("Worker terminated with exit code %d instead of 0", exitCode), WORKER_ABNORMAL_EXIT,
-                    workerProcess);
-        }
+                try {
+                    WorkerProcess workerProcess = watchedWorkers.get(key);
+                    if (workerProcess == null) {
+                        key.pollEvents();
+                    } else {
+                        handleEvents(workerProcess, key.pollEvents());
+                    }
+                } catch (Exception e) {
+                    LOGGER.fatal("Failed to handle the changes in a worker directory", e);
+                }
 
-        private void sendFailureOperation(String message, FailureType type, WorkerProcess workerProcess) {
-            failureHandler.handle(message, type, workerProcess, null, null);
+                if (!key.reset()) {
+                    watchedWorkers.remove(key);
+                }
+            }
         }
     }
 
     static class ExceptionExtensionFilter implements FilenameFilter {
 
+        private static final String EXTENSION = ".exception";
         private static final ExceptionExtensionFilter INSTANCE = new ExceptionExtensionFilter();
         private static final File[] EMPTY_FILES = new File[0];
 
@@ -260,12 +431,13 @@ public class WorkerProcessFailureMonitor {
 
         @Override
         public boolean accept(File dir, String name) {
-            return name.endsWith(".exception");
+            return name.endsWith(EXTENSION);
         }
     }
 
     static class HProfExtensionFilter implements FilenameFilter {
 
+        private static final String EXTENSION = ".hprof";
         private static final HProfExtensionFilter INSTANCE = new HProfExtensionFilter();
         private static final File[] EMPTY_FILES = new File[0];
 
@@ -279,7 +451,7 @@ public class WorkerProcessFailureMonitor {
 
         @Override
         public boolean accept(File dir, String name) {
-            return name.endsWith(".hprof");
+            return name.endsWith(EXTENSION);
         }
     }
 }
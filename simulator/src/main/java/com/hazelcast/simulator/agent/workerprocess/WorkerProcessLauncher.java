@@ -15,11 +15,13 @@
  */
 package com.hazelcast.simulator.agent.workerprocess;
 
+import com.hazelcast.simulator.agent.workerprocess.WorkerProcessPool.Standby;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import org.apache.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -27,13 +29,16 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.FileUtils.delete;
 import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
 import static com.hazelcast.simulator.utils.FileUtils.ensureFreshDirectory;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
+import static com.hazelcast.simulator.utils.FileUtils.rename;
 import static com.hazelcast.simulator.utils.FileUtils.writeText;
 import static com.hazelcast.simulator.utils.NativeUtils.execute;
 import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -42,12 +47,14 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 public class WorkerProcessLauncher {
 
     public static final String WORKERS_HOME_NAME = "workers";
+    public static final String CDS_HOME_NAME = "cds";
 
     private static final int WAIT_FOR_WORKER_STARTUP_INTERVAL_MILLIS = 500;
     private static final String CLASSPATH = System.getProperty("java.class.path");
     private static final String CLASSPATH_SEPARATOR = System.getProperty("path.separator");
     private static final Logger LOGGER = Logger.getLogger(WorkerProcessLauncher.class);
     private static final String FILE_PREFIX = "file:";
+    private static final String PARAMETERS_FILE_NAME = "parameters";
 
     private final AtomicBoolean javaHomePrinted = new AtomicBoolean();
 
@@ -57,6 +64,9 @@ public class WorkerProcessLauncher {
     private final SimulatorAddress workerAddress;
 
     private File sessionDir;
+    private long startMillis;
+    private String cdsStatus = "disabled";
+    private String startMode;
 
     WorkerProcessLauncher(WorkerProcessManager processManager,
                           WorkerParameters parameters) {
@@ -72,11 +82,17 @@ public class WorkerProcessLauncher {
             ensureExistingDirectory(sessionDir);
 
             String type = parameters.getWorkerType();
-            LOGGER.info(format("Starting a Java Virtual Machine for %s Worker %s", type, workerAddress));
+            Standby standby = processManager.getPool().take(parameters);
+            if (standby == null) {
+                LOGGER.info(format("Starting a Java Virtual Machine for %s Worker %s", type, workerAddress));
 
-            LOGGER.info("Launching Worker using: " + parameters);
-            process = startWorker();
-            LOGGER.info(format("Finished starting a for %s Worker %s ", type, workerAddress));
+                LOGGER.info("Launching Worker using: " + parameters);
+                process = startWorker();
+                LOGGER.info(format("Finished starting a for %s Worker %s ", type, workerAddress));
+            } else {
+                LOGGER.info(format("Binding standby worker %s to %s Worker %s", standby.getName(), type, workerAddress));
+                process = bindStandby(standby);
+            }
 
             waitForWorkersStartup(process);
             process = null;
@@ -87,6 +103,29 @@ public class WorkerProcessLauncher {
         }
     }
 
+    /**
+     * Starts a standby worker in the given directory, see {@link WorkerProcessPool}.
+     *
+     * @param standbyHome the directory of the standby worker
+     * @return the started process
+     * @throws IOException if the process could not be started
+     */
+    Process startStandby(File standbyHome) throws IOException {
+        sessionDir = getSessionDirectory();
+        writeWorkerFiles(standbyHome);
+
+        ProcessBuilder processBuilder = new ProcessBuilder("bash", "worker.sh")
+                .directory(standbyHome);
+
+        // the worker home isn't known yet, so the upload directory of the session is put on the classpath
+        Map<String, String> environment = processBuilder.environment();
+        setEnvironment(environment, getClasspath(sessionDir));
+        environment.put("WORKER_STANDBY", "true");
+        environment.put("AGENT_PID", parameters.get("agent.pid"));
+
+        return processBuilder.start();
+    }
+
     private File getSessionDirectory() {
         String sessionId = parameters.get("SESSION_ID");
         File workersDir = ensureExistingDirectory(getSimulatorHome(), "workers");
@@ -104,39 +143,94 @@ public class WorkerProcessLauncher {
         ProcessBuilder processBuilder = new ProcessBuilder("bash", "worker.sh")
                 .directory(workerHome);
 
-        Map<String, String> environment = processBuilder.environment();
+        String classpath = getClasspath(workerHome);
+        parameters.set("WORKER_HOME", workerHome.getAbsolutePath());
+        writeWorkerFiles(workerHome);
+        writeText(getParametersText(classpath), new File(workerHome, PARAMETERS_FILE_NAME));
+        setEnvironment(processBuilder.environment(), classpath);
+
+        startMillis = System.currentTimeMillis();
+        Process process = processBuilder.start();
+
+        workerProcess.setProcess(process);
+        processManager.add(workerAddress, workerProcess);
 
+        return workerProcess;
+    }
+
+    private WorkerProcess bindStandby(Standby standby) throws IOException {
+        String workerDirName = parameters.get("WORKER_DIR_NAME");
+        File workerHome = new File(sessionDir, workerDirName);
+
+        startMillis = System.currentTimeMillis();
+        startMode = "standby " + standby.getName();
+        try {
+            // the process keeps its working directory when the directory is moved
+            delete(workerHome);
+            rename(standby.getHome(), workerHome);
+        } catch (RuntimeException e) {
+            standby.retire();
+            throw e;
+        }
+
+        copyResourcesToWorkerHome(workerDirName);
+
+        WorkerProcess workerProcess = new WorkerProcess(workerAddress, workerDirName, workerHome);
+        workerProcess.setProcess(standby.getProcess());
+        processManager.add(workerAddress, workerProcess);
+
+        // the standby worker starts as soon as the parameters file exists, so it is written last and atomically
+        parameters.set("WORKER_HOME", workerHome.getAbsolutePath());
+        writeWorkerFiles(workerHome);
+        File tmpParametersFile = new File(workerHome, PARAMETERS_FILE_NAME + ".tmp");
+        writeText(getParametersText(getClasspath(sessionDir)), tmpParametersFile);
+        Files.move(tmpParametersFile.toPath(), new File(workerHome, PARAMETERS_FILE_NAME).toPath(), ATOMIC_MOVE);
+
+        return workerProcess;
+    }
+
+    private void writeWorkerFiles(File workerHome) {
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(FILE_PREFIX)) {
+                String fileName = key.substring(FILE_PREFIX.length(), key.length());
+                writeText(entry.getValue(), new File(workerHome, fileName));
+            }
+        }
+    }
+
+    private String getParametersText(String classpath) {
         StringBuilder sb = new StringBuilder();
         List<String> keys = new ArrayList<>(parameters.asMap().keySet());
         Collections.sort(keys);
         for (String key : keys) {
-            String value = parameters.get(key);
-            if (key.startsWith(FILE_PREFIX)) {
-                String fileName = key.substring(FILE_PREFIX.length(), key.length());
-                writeText(value, new File(workerHome, fileName));
-            } else {
-                environment.put(key, value);
-                sb.append(key).append("=").append(value).append("\n");
+            if (!key.startsWith(FILE_PREFIX)) {
+                sb.append(key).append("=").append(parameters.get(key)).append("\n");
             }
         }
-        sb.append("CLASSPATH=").append(getClasspath(workerHome)).append("\n");
+        sb.append("CLASSPATH=").append(classpath).append("\n");
+        return sb.toString();
+    }
 
-        writeText(sb.toString(), new File(workerHome, "parameters"));
+    private void setEnvironment(Map<String, String> environment, String classpath) {
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            if (!entry.getKey().startsWith(FILE_PREFIX)) {
+                environment.put(entry.getKey(), entry.getValue());
+            }
+        }
 
         environment.putAll(System.getenv());
         String javaHome = getJavaHome();
         String path = javaHome + "/bin:" + environment.get("PATH");
         environment.put("PATH", path);
         environment.put("JAVA_HOME", javaHome);
-        environment.put("CLASSPATH", getClasspath(workerHome));
+        environment.put("CLASSPATH", classpath);
         environment.put("SIMULATOR_HOME", getSimulatorHome().getAbsolutePath());
-
-        Process process = processBuilder.start();
-
-        workerProcess.setProcess(process);
-        processManager.add(workerAddress, workerProcess);
-
-        return workerProcess;
+        File cdsArchive = getCdsArchive(classpath);
+        if (cdsArchive != null) {
+            environment.put("CDS_ARCHIVE", cdsArchive.getAbsolutePath());
+        }
+        startMode = "AppCDS: " + cdsStatus;
     }
 
     private void waitForWorkersStartup(WorkerProcess worker) {
@@ -152,7 +246,9 @@ public class WorkerProcessLauncher {
 
             String pid = readPid(worker);
             if (pid != null) {
-                LOGGER.info(format("Worker %s started", worker.getId()));
+                // the modification time of the pid file is more accurate than the polling interval
+                long startupMillis = new File(worker.getWorkerHome(), "worker.pid").lastModified() - startMillis;
+                LOGGER.info(format("Worker %s started in %d ms (%s)", worker.getId(), startupMillis, startMode));
                 return;
             }
 
@@ -164,6 +260,25 @@ public class WorkerProcessLauncher {
                 worker.getAddress(), processManager.getPublicAddress(), timeout, worker.getWorkerHome()));
     }
 
+    private File getCdsArchive(String classpath) {
+        if (!Boolean.parseBoolean(parameters.get("WORKER_CDS_ENABLED"))) {
+            return null;
+        }
+
+        // the archives are not stored in the workers directory, so they are not downloaded as artifacts
+        File archiveDir = ensureExistingDirectory(getSimulatorHome(), CDS_HOME_NAME);
+        String archivePrefix = parameters.get("VENDOR") + "-" + parameters.get("VERSION_SPEC");
+        File archive = AppCdsArchive.getArchiveFile(archiveDir, archivePrefix, classpath);
+        if (archive == null) {
+            cdsStatus = "not supported";
+        } else if (archive.exists()) {
+            cdsStatus = "using " + archive.getName();
+        } else {
+            cdsStatus = "creating " + archive.getName();
+        }
+        return archive;
+    }
+
     private String getJavaHome() {
         String javaHome = System.getProperty("java.home");
         String jre = "/jre";
@@ -50,11 +50,13 @@ public class WorkerProcessManager {
     private final Server server;
     private final SimulatorAddress agentAddress;
     private final String publicAddress;
+    private final WorkerProcessPool pool;
 
     public WorkerProcessManager(Server server, SimulatorAddress agentAddress, String publicAddress) {
         this.server = server;
         this.agentAddress = agentAddress;
         this.publicAddress = publicAddress;
+        this.pool = new WorkerProcessPool(this);
     }
 
     public String getPublicAddress() {
@@ -65,6 +67,10 @@ public class WorkerProcessManager {
         return agentAddress;
     }
 
+    WorkerProcessPool getPool() {
+        return pool;
+    }
+
     // launching is done asynchronous so we don't block the calling thread (messaging thread)
     public void launch(CreateWorkerOperation op, Promise promise) {
         WorkerParameters workerParameters = op.getWorkerParameters();
@@ -104,6 +110,7 @@ public class WorkerProcessManager {
 
     public void shutdown() {
         executorService.shutdown();
+        pool.close();
         ThreadSpawner spawner = new ThreadSpawner("workerJvmManagerShutdown", true);
         for (final WorkerProcess workerProcess : new ArrayList<>(workerProcesses.values())) {
             spawner.spawn(() -> shutdown(workerProcess));
@@ -176,6 +183,9 @@ public class WorkerProcessManager {
                     format("Created %s Worker %s", workerType, workerAddress), DEBUG);
 
             server.sendCoordinator(logOperation);
+
+            // the standby workers are started in the background, so they don't delay the answer to the coordinator
+            executorService.execute(() -> pool.refill(parameters));
         }
     }
 }
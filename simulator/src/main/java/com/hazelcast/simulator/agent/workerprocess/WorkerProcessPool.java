@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.agent.workerprocess;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.ensureFreshDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.lang.String.format;
+
+/**
+ * A pool of pre-launched and idle worker JVMs, the standby workers.
+ *
+ * When WORKER_POOL_SIZE is larger than 0, the agent keeps that number of standby workers for every launch signature: the
+ * session, vendor, version, worker type, JVM options, NUMA binding and worker script. A create-worker request with a
+ * matching signature binds a standby worker to its worker address and parameters (see {@link WorkerProcessLauncher}), so
+ * replacing a worker doesn't include the boot of a JVM. The pool is filled after the first worker with a signature has
+ * been launched, so the first workers of a session are always launched from scratch.
+ *
+ * A standby worker waits in its own directory in $SIMULATOR_HOME/standby until the 'parameters' file appears. It is
+ * retired by creating a 'retire' file, which makes it exit.
+ */
+final class WorkerProcessPool {
+
+    static final String STANDBY_HOME_NAME = "standby";
+    static final String RETIRE_FILE_NAME = "retire";
+
+    private static final Logger LOGGER = Logger.getLogger(WorkerProcessPool.class);
+
+    private final Map<String, Queue<Standby>> standbys = new HashMap<>();
+    private final AtomicInteger standbyIdGenerator = new AtomicInteger();
+    private final WorkerProcessManager processManager;
+    private final File standbyHome;
+    private boolean closed;
+
+    WorkerProcessPool(WorkerProcessManager processManager) {
+        this.processManager = processManager;
+        // directories of a previous agent are removed; their JVMs terminate once they notice the agent is gone
+        this.standbyHome = new File(getSimulatorHome(), STANDBY_HOME_NAME);
+        deleteQuiet(standbyHome);
+    }
+
+    /**
+     * Takes a standby worker for the signature of the given parameters.
+     *
+     * @param parameters the parameters of the worker to launch
+     * @return the standby worker or {@code null} if there is no live standby worker for the signature
+     */
+    synchronized Standby take(WorkerParameters parameters) {
+        Queue<Standby> queue = standbys.get(signature(parameters));
+        if (queue == null) {
+            return null;
+        }
+
+        for (; ; ) {
+            Standby standby = queue.poll();
+            if (standby == null || standby.getProcess().isAlive()) {
+                return standby;
+            }
+            LOGGER.warn(format("Standby worker %s has terminated, check log files in %s for more information",
+                    standby.getName(), standby.getHome()));
+        }
+    }
+
+    /**
+     * Starts standby workers until the pool for the signature of the given parameters is full. Standby workers of other
+     * sessions are retired.
+     *
+     * @param parameters the parameters of a launched worker, which serve as template for the standby workers
+     */
+    synchronized void refill(WorkerParameters parameters) {
+        int poolSize = getPoolSize(parameters);
+        if (closed || poolSize == 0) {
+            return;
+        }
+
+        String sessionId = parameters.get("SESSION_ID");
+        Iterator<Queue<Standby>> iterator = standbys.values().iterator();
+        while (iterator.hasNext()) {
+            Queue<Standby> queue = iterator.next();
+            Standby standby = queue.peek();
+            if (standby != null && !sessionId.equals(standby.getSessionId())) {
+                retireAll(queue);
+                iterator.remove();
+            }
+        }
+
+        String signature = signature(parameters);
+        Queue<Standby> queue = standbys.get(signature);
+        if (queue == null) {
+            queue = new LinkedList<>();
+            standbys.put(signature, queue);
+        }
+
+        while (queue.size() < poolSize) {
+            Standby standby = startStandby(parameters);
+            if (standby == null) {
+                return;
+            }
+            queue.add(standby);
+        }
+    }
+
+    synchronized void close() {
+        closed = true;
+        for (Queue<Standby> queue : standbys.values()) {
+            retireAll(queue);
+        }
+        standbys.clear();
+    }
+
+    private Standby startStandby(WorkerParameters parameters) {
+        String name = "standby-" + standbyIdGenerator.incrementAndGet();
+        try {
+            File home = ensureFreshDirectory(new File(ensureExistingDirectory(standbyHome), name));
+            // the launcher modifies the parameters, so the standby worker gets its own copy
+            WorkerParameters standbyParameters = new WorkerParameters(parameters.asMap());
+            Process process = new WorkerProcessLauncher(processManager, standbyParameters).startStandby(home);
+            LOGGER.info(format("Started standby %s worker %s", parameters.getWorkerType(), name));
+            return new Standby(name, home, parameters.get("SESSION_ID"), process);
+        } catch (Exception e) {
+            LOGGER.error("Failed to start standby worker " + name, e);
+            return null;
+        }
+    }
+
+    private static void retireAll(Queue<Standby> queue) {
+        for (Standby standby : queue) {
+            standby.retire();
+        }
+        queue.clear();
+    }
+
+    static int getPoolSize(WorkerParameters parameters) {
+        String poolSize = parameters.get("WORKER_POOL_SIZE");
+        return poolSize == null || poolSize.isEmpty() ? 0 : Integer.parseInt(poolSize);
+    }
+
+    /**
+     * Returns the launch signature of a worker. Two workers with the same signature run in JVMs that are started in the
+     * same way, so a standby worker can be bound to any worker with its signature.
+     *
+     * @param parameters the worker parameters
+     * @return the launch signature
+     */
+    static String signature(WorkerParameters parameters) {
+        return parameters.get("SESSION_ID")
+                + '|' + parameters.get("VENDOR")
+                + '|' + parameters.get("VERSION_SPEC")
+                + '|' + parameters.getWorkerType()
+                + '|' + parameters.get("JVM_OPTIONS")
+                // a standby JVM bound to a NUMA node can't serve a worker planned for another node
+                + '|' + parameters.get("NUMA_CONTROL")
+                + '|' + parameters.get("file:worker.sh")
+                + '|' + parameters.get("file:log4j.xml");
+    }
+
+    /**
+     * A pre-launched worker JVM waiting to be bound to a worker.
+     */
+    static final class Standby {
+
+        private final String name;
+        private final File home;
+        private final String sessionId;
+        private final Process process;
+
+        Standby(String name, File home, String sessionId, Process process) {
+            this.name = name;
+            this.home = home;
+            this.sessionId = sessionId;
+            this.process = process;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        File getHome() {
+            return home;
+        }
+
+        String getSessionId() {
+            return sessionId;
+        }
+
+        Process getProcess() {
+            return process;
+        }
+
+        void retire() {
+            try {
+                writeText("", new File(home, RETIRE_FILE_NAME));
+            } catch (Exception e) {
+                LOGGER.warn("Failed to retire standby worker " + name, e);
+                process.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.common;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static java.lang.Integer.parseInt;
+import static java.util.Comparator.comparingInt;
+
+/**
+ * The hardware topology of an agent machine: the number of CPUs and the NUMA nodes with their CPUs and memory.
+ *
+ * The topology is detected by the agent from /sys/devices/system/node and /proc/cpuinfo and is sent to the coordinator in
+ * the compact format of {@link #toString()}, which can be parsed with {@link #fromString(String)}.
+ */
+public final class HardwareTopology {
+
+    private static final Pattern NODE_DIR_PATTERN = Pattern.compile("node(\\d+)");
+    private static final Pattern MEM_TOTAL_PATTERN = Pattern.compile("MemTotal:\\s*(\\d+)\\s*kB");
+    private static final int KILOBYTE = 1024;
+
+    private final int cpuCount;
+    private final List<NumaNode> nodes;
+
+    public HardwareTopology(int cpuCount, List<NumaNode> nodes) {
+        this.cpuCount = cpuCount;
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+    }
+
+    public int getCpuCount() {
+        return cpuCount;
+    }
+
+    public List<NumaNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Detects the hardware topology of the local machine.
+     *
+     * @return the detected hardware topology
+     */
+    public static HardwareTopology detect() {
+        return detect(new File("/sys/devices/system/node"), new File("/proc/cpuinfo"));
+    }
+
+    static HardwareTopology detect(File nodesDir, File cpuInfoFile) {
+        List<NumaNode> nodes = new ArrayList<>();
+        File[] nodeDirs = nodesDir.listFiles();
+        if (nodeDirs != null) {
+            for (File nodeDir : nodeDirs) {
+                Matcher matcher = NODE_DIR_PATTERN.matcher(nodeDir.getName());
+                File cpuListFile = new File(nodeDir, "cpulist");
+                if (matcher.matches() && cpuListFile.exists()) {
+                    nodes.add(new NumaNode(parseInt(matcher.group(1)), fileAsText(cpuListFile).trim(),
+                            getMemTotal(new File(nodeDir, "meminfo"))));
+                }
+            }
+        }
+        nodes.sort(comparingInt(NumaNode::getIndex));
+
+        return new HardwareTopology(getCpuCount(cpuInfoFile), nodes);
+    }
+
+    private static int getCpuCount(File cpuInfoFile) {
+        if (!cpuInfoFile.exists()) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        int cpuCount = 0;
+        for (String line : fileAsText(cpuInfoFile).split("\n")) {
+            if (line.startsWith("processor")) {
+                cpuCount++;
+            }
+        }
+        return cpuCount == 0 ? Runtime.getRuntime().availableProcessors() : cpuCount;
+    }
+
+    private static long getMemTotal(File memInfoFile) {
+        if (!memInfoFile.exists()) {
+            return 0;
+        }
+
+        Matcher matcher = MEM_TOTAL_PATTERN.matcher(fileAsText(memInfoFile));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) * KILOBYTE : 0;
+    }
+
+    /**
+     * Parses a hardware topology in the format of {@link #toString()}.
+     *
+     * @param s the string to parse
+     * @return the parsed hardware topology
+     * @throws IllegalArgumentException if the string isn't a valid hardware topology
+     */
+    public static HardwareTopology fromString(String s) {
+        try {
+            String[] items = s.split(";");
+            List<NumaNode> nodes = new ArrayList<>();
+            for (int i = 1; i < items.length; i++) {
+                String[] nodeItems = items[i].split(":");
+                nodes.add(new NumaNode(parseInt(nodeItems[0]), nodeItems[1], Long.parseLong(nodeItems[2])));
+            }
+            return new HardwareTopology(parseInt(items[0]), nodes);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid hardware topology [" + s + "]", e);
+        }
+    }
+
+    /**
+     * Returns the topology as '{cpuCount};{node}:{cpulist}:{memoryBytes};...', e.g. '32;0:0-7,16-23:68719476736;1:...'.
+     *
+     * @return the string representation of the topology
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(cpuCount);
+        for (NumaNode node : nodes) {
+            sb.append(';').append(node.index).append(':').append(node.cpuList).append(':').append(node.memoryBytes);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A NUMA node with its CPUs and local memory.
+     */
+    public static final class NumaNode {
+
+        private final int index;
+        private final String cpuList;
+        private final long memoryBytes;
+
+        public NumaNode(int index, String cpuList, long memoryBytes) {
+            this.index = index;
+            this.cpuList = cpuList;
+            this.memoryBytes = memoryBytes;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the CPUs of this node in the kernel cpulist format, e.g. '0-7,16-23'.
+         *
+         * @return the CPU list
+         */
+        public String getCpuList() {
+            return cpuList;
+        }
+
+        public int getCpuCount() {
+            int count = 0;
+            for (String range : cpuList.split(",")) {
+                if (range.isEmpty()) {
+                    continue;
+                }
+                int dash = range.indexOf('-');
+                count += dash < 0 ? 1 : parseInt(range.substring(dash + 1)) - parseInt(range.substring(0, dash)) + 1;
+            }
+            return count;
+        }
+
+        public long getMemoryBytes() {
+            return memoryBytes;
+        }
+    }
+}
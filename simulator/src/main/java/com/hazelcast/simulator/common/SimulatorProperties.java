@@ -207,6 +207,14 @@ public class SimulatorProperties {
         return parseInt(get("TEST_COMPLETION_TIMEOUT_SECONDS", "300"));
     }
 
+    public int getWorkerStartupParallelism() {
+        return parseInt(get("WORKER_STARTUP_PARALLELISM", "32"));
+    }
+
+    public int getWorkerStartupParallelismPerAgent() {
+        return parseInt(get("WORKER_STARTUP_PARALLELISM_PER_AGENT", "4"));
+    }
+
     public int getCoordinatorPort() {
         return parseInt(get("COORDINATOR_PORT", "0"));
     }
@@ -15,7 +15,9 @@
  */
 package com.hazelcast.simulator.coordinator;
 
+import com.hazelcast.simulator.agent.operations.GetHardwareTopologyOperation;
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.HardwareTopology;
 import com.hazelcast.simulator.common.SimulatorProperties;
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
@@ -28,6 +30,7 @@ import com.hazelcast.simulator.coordinator.registry.Registry;
 import com.hazelcast.simulator.coordinator.registry.TestData;
 import com.hazelcast.simulator.coordinator.registry.WorkerData;
 import com.hazelcast.simulator.coordinator.registry.WorkerQuery;
+import com.hazelcast.simulator.coordinator.tasks.CollectArtifactsTask;
 import com.hazelcast.simulator.coordinator.tasks.DownloadTask;
 import com.hazelcast.simulator.coordinator.tasks.KillWorkersTask;
 import com.hazelcast.simulator.coordinator.tasks.PrepareSessionTask;
@@ -36,8 +39,10 @@ import com.hazelcast.simulator.coordinator.tasks.StartWorkersTask;
 import com.hazelcast.simulator.coordinator.tasks.TerminateWorkersTask;
 import com.hazelcast.simulator.protocol.CoordinatorClient;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.utils.Bash;
 import com.hazelcast.simulator.utils.CommandLineExitException;
 import com.hazelcast.simulator.utils.CommonUtils;
+import com.hazelcast.simulator.utils.ThreadSpawner;
 import com.hazelcast.simulator.vendors.VendorDriver;
 import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
 import org.apache.log4j.Logger;
@@ -59,17 +64,22 @@ import java.util.concurrent.Future;
 import static com.hazelcast.simulator.coordinator.AgentUtils.startAgents;
 import static com.hazelcast.simulator.coordinator.AgentUtils.stopAgents;
 import static com.hazelcast.simulator.coordinator.registry.AgentData.publicAddresses;
+import static com.hazelcast.simulator.utils.CloudProviderUtils.isLocal;
+import static com.hazelcast.simulator.utils.CommonUtils.getSimulatorVersion;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.TagUtils.matches;
 import static com.hazelcast.simulator.vendors.VendorDriver.loadVendorDriver;
+import static java.lang.Boolean.parseBoolean;
 import static java.lang.Runtime.getRuntime;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @SuppressWarnings({"checkstyle:classdataabstractioncoupling", "checkstyle:classfanoutcomplexity"})
 public class Coordinator implements Closeable {
 
     private static final Logger LOGGER = Logger.getLogger(Coordinator.class);
+    private static final int HARDWARE_TOPOLOGY_TIMEOUT_SECONDS = 30;
 
     private final PerformanceStatsCollector performanceStatsCollector = new PerformanceStatsCollector();
 
@@ -111,6 +121,8 @@ public class Coordinator implements Closeable {
 
         startClient();
 
+        detectHardwareTopology();
+
         new PrepareSessionTask(
                 publicAddresses(registry.getAgents()),
                 properties.asMap(),
@@ -174,13 +186,15 @@ public class Coordinator implements Closeable {
 
         new TerminateWorkersTask(properties, registry, client).run();
 
+        List<AgentData> downloadAgents = parameters.skipDownload() ? new ArrayList<>() : collectArtifacts();
+
         client.close();
 
         stopAgents(properties, registry);
 
-        if (!parameters.skipDownload()) {
+        if (!downloadAgents.isEmpty()) {
             new DownloadTask(
-                    publicAddresses(registry.getAgents()),
+                    publicAddresses(downloadAgents),
                     properties.asMap(),
                     parameters.getOutputDirectory().getParentFile(),
                     parameters.getSessionId()).run();
@@ -223,12 +237,68 @@ public class Coordinator implements Closeable {
         LOGGER.info("Remote client started successfully!");
     }
 
+    private void detectHardwareTopology() {
+        Map<AgentData, Future<String>> futures = new HashMap<>();
+        for (AgentData agent : registry.getAgents()) {
+            futures.put(agent, client.submit(agent.getAddress(), new GetHardwareTopologyOperation()));
+        }
+
+        for (Map.Entry<AgentData, Future<String>> entry : futures.entrySet()) {
+            AgentData agent = entry.getKey();
+            try {
+                HardwareTopology topology = HardwareTopology.fromString(
+                        entry.getValue().get(HARDWARE_TOPOLOGY_TIMEOUT_SECONDS, SECONDS));
+                agent.setHardwareTopology(topology);
+                LOGGER.info(format("Agent %s has %d CPUs and %d NUMA nodes",
+                        agent.getAddress(), topology.getCpuCount(), topology.getNodes().size()));
+            } catch (Exception e) {
+                // the placement of the workers falls back to the worker count of the agents
+                LOGGER.warn(format("Failed to detect the hardware topology of agent %s: %s", agent.getAddress(), e.getMessage()));
+            }
+        }
+    }
+
     public void download() {
-        new DownloadTask(publicAddresses(registry.getAgents()),
+        List<AgentData> downloadAgents = collectArtifacts();
+        if (downloadAgents.isEmpty()) {
+            return;
+        }
+
+        new DownloadTask(publicAddresses(downloadAgents),
                 properties.asMap(),
                 parameters.getOutputDirectory().getParentFile(),
                 parameters.getSessionId()).run();
+    }
+
+    /**
+     * Collects the artifacts over the agent connections when possible.
+     *
+     * @return the agents the artifacts still need to be downloaded from
+     */
+    private List<AgentData> collectArtifacts() {
+        List<AgentData> agents = registry.getAgents();
+        if (isLocal(properties) || !parseBoolean(properties.get("COLLECT_ARTIFACTS_VIA_AGENTS", "true"))) {
+            return agents;
+        }
 
+        List<AgentData> failedAgents = new CollectArtifactsTask(
+                agents,
+                client,
+                properties,
+                parameters.getOutputDirectory().getParentFile(),
+                parameters.getSessionId()).run();
+
+        // just like the download, the collected session directories are removed from the agents
+        List<AgentData> collectedAgents = new ArrayList<>(agents);
+        collectedAgents.removeAll(failedAgents);
+        String command = format("rm -fr hazelcast-simulator-%s/workers/%s", getSimulatorVersion(), parameters.getSessionId());
+        Bash bash = new Bash(properties);
+        ThreadSpawner spawner = new ThreadSpawner("removeSession", true);
+        for (AgentData agent : collectedAgents) {
+            spawner.spawn(() -> bash.ssh(agent.getPublicAddress(), command));
+        }
+        spawner.awaitCompletion();
+        return failedAgents;
     }
 
     public void stop() {
@@ -423,7 +493,9 @@ public class Coordinator implements Closeable {
                 workerTags,
                 client,
                 registry,
-                parameters.getWorkerVmStartupDelayMs());
+                parameters.getWorkerVmStartupDelayMs(),
+                properties.getWorkerStartupParallelism(),
+                properties.getWorkerStartupParallelismPerAgent());
     }
 
     RunTestSuiteTask createRunTestSuiteTask(TestSuite testSuite) {
@@ -71,8 +71,9 @@ final class CoordinatorCli {
     private final OptionParser parser = new OptionParser();
 
     private final OptionSpec<Integer> workerVmStartupDelayMsSpec = parser.accepts("workerVmStartupDelayMs",
-            "Amount of time in milliseconds to wait between starting up the next worker. This is useful to prevent"
-                    + "duplicate connection issues.")
+            "Minimum amount of time in milliseconds between starting up two workers. This is useful to prevent"
+                    + " duplicate connection issues. The number of workers starting in parallel is limited by the"
+                    + " WORKER_STARTUP_PARALLELISM and WORKER_STARTUP_PARALLELISM_PER_AGENT properties.")
             .withRequiredArg().ofType(Integer.class).defaultsTo(0);
 
     private final OptionSpec<String> durationSpec = parser.accepts("duration",
@@ -16,6 +16,8 @@
 package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.HardwareTopology;
+import com.hazelcast.simulator.common.HardwareTopology.NumaNode;
 import com.hazelcast.simulator.coordinator.registry.AgentData;
 import com.hazelcast.simulator.coordinator.registry.Registry;
 import com.hazelcast.simulator.coordinator.registry.WorkerData;
@@ -34,6 +36,7 @@ import java.util.Set;
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
 import static com.hazelcast.simulator.utils.FormatUtils.HORIZONTAL_RULER;
 import static com.hazelcast.simulator.utils.FormatUtils.formatLong;
+import static com.hazelcast.simulator.utils.FormatUtils.humanReadableByteCount;
 import static com.hazelcast.simulator.utils.FormatUtils.padLeft;
 import static java.lang.String.format;
 
@@ -47,6 +50,7 @@ public final class DeploymentPlan {
     private final List<WorkersPerAgent> workersPerAgentList = new ArrayList<>();
 
     private final VendorDriver vendorDriver;
+    private final boolean numaBinding;
 
     public DeploymentPlan(VendorDriver vendorDriver, Registry registry) {
         this(vendorDriver, registry.getAgents());
@@ -54,6 +58,7 @@ public final class DeploymentPlan {
 
     public DeploymentPlan(VendorDriver vendorDriver, List<AgentData> agents) {
         this.vendorDriver = vendorDriver;
+        this.numaBinding = Boolean.parseBoolean(vendorDriver.get("WORKER_NUMA_BINDING"));
 
         if (agents.isEmpty()) {
             throw new CommandLineExitException("You need at least one agent in your cluster!"
@@ -96,7 +101,7 @@ public final class DeploymentPlan {
                 continue;
             }
 
-            if (agent.workers.size() < smallest.workers.size()) {
+            if (agent.hasLowerLoadThan(smallest, numaBinding)) {
                 smallest = agent;
             }
         }
@@ -133,6 +138,34 @@ public final class DeploymentPlan {
                     padLeft(workersPerAgent.agent.getAgentWorkerMode().toString(), WORKER_MODE_LENGTH),
                     agentVersionSpecs
             ));
+            printNumaLayout(workersPerAgent);
+        }
+    }
+
+    private static void printNumaLayout(WorkersPerAgent workersPerAgent) {
+        HardwareTopology topology = workersPerAgent.agent.getHardwareTopology();
+        if (topology == null) {
+            return;
+        }
+
+        for (NumaNode node : topology.getNodes()) {
+            int memberCount = 0;
+            int clientCount = 0;
+            for (WorkerParameters workerParameters : workersPerAgent.workers) {
+                if (String.valueOf(node.getIndex()).equals(workerParameters.get("NUMA_NODE"))) {
+                    if (workerParameters.getWorkerType().equals("member")) {
+                        memberCount++;
+                    } else {
+                        clientCount++;
+                    }
+                }
+            }
+            LOGGER.info(format("        NUMA node %d (cpus: %s, memory: %s) members: %s, clients: %s",
+                    node.getIndex(),
+                    node.getCpuList(),
+                    humanReadableByteCount(node.getMemoryBytes(), false),
+                    formatLong(memberCount, 2),
+                    formatLong(clientCount, 2)));
         }
     }
 
@@ -218,9 +251,76 @@ public final class DeploymentPlan {
                     .set("PUBLIC_ADDRESS", agent.getPublicAddress())
                     .set("PRIVATE_ADDRESS", agent.getPrivateAddress())
                     .set("WORKER_DIR_NAME", workerDirName);
+            bindToNumaNode(parameters);
             workers.add(parameters);
         }
 
+        /**
+         * Binds the worker to the NUMA node with the fewest workers of the same type, so e.g. two members don't share a
+         * socket while another socket is only used by clients. Ties are broken by the total number of workers. Nodes without
+         * CPUs are skipped.
+         *
+         * The binding is done with numactl by the worker.sh script, using the NUMA_CONTROL parameter.
+         */
+        private void bindToNumaNode(WorkerParameters parameters) {
+            HardwareTopology topology = agent.getHardwareTopology();
+            if (!Boolean.parseBoolean(parameters.get("WORKER_NUMA_BINDING"))
+                    || topology == null || topology.getNodes().size() < 2) {
+                return;
+            }
+
+            NumaNode selected = null;
+            int selectedSameType = 0;
+            int selectedTotal = 0;
+            for (NumaNode node : topology.getNodes()) {
+                if (node.getCpuCount() == 0) {
+                    // e.g. a memory-only node; numactl --cpunodebind would fail on it
+                    continue;
+                }
+                int sameType = countBoundWorkers(node, parameters.getWorkerType());
+                int total = countBoundWorkers(node, null);
+
+                if (selected == null || sameType < selectedSameType
+                        || (sameType == selectedSameType && total < selectedTotal)) {
+                    selected = node;
+                    selectedSameType = sameType;
+                    selectedTotal = total;
+                }
+            }
+
+            if (selected == null) {
+                return;
+            }
+            parameters.set("NUMA_NODE", selected.getIndex())
+                    .set("NUMA_CONTROL", format("numactl --cpunodebind=%d --membind=%d", selected.getIndex(),
+                            selected.getIndex()));
+        }
+
+        private int countBoundWorkers(NumaNode node, String workerType) {
+            int count = 0;
+            for (WorkerParameters worker : workers) {
+                if (String.valueOf(node.getIndex()).equals(worker.get("NUMA_NODE"))
+                        && (workerType == null || worker.getWorkerType().equals(workerType))) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Checks if this agent has a lower load than the other agent. If the workers are bound to NUMA nodes and the
+         * hardware topology of both agents is known, the number of workers is weighted by the number of CPUs, so a bigger
+         * machine gets more workers. Otherwise just the number of workers is compared.
+         */
+        boolean hasLowerLoadThan(WorkersPerAgent other, boolean numaBinding) {
+            HardwareTopology topology = agent.getHardwareTopology();
+            HardwareTopology otherTopology = other.agent.getHardwareTopology();
+            if (!numaBinding || topology == null || otherTopology == null) {
+                return workers.size() < other.workers.size();
+            }
+            return (long) workers.size() * otherTopology.getCpuCount() < (long) other.workers.size() * topology.getCpuCount();
+        }
+
         int count(String type) {
             int count = 0;
             for (WorkerParameters workerParameters : workers) {
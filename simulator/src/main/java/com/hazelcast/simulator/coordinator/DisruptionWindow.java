@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.coordinator.PerformanceStatsCollector.RecentInterval;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+
+import java.util.List;
+import java.util.Locale;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the disruption caused by a single injected {@link Fault}.
+ *
+ * The window starts when the fault is injected and is closed when the throughput has recovered to
+ * {@link #RECOVERY_RATIO} of the throughput before the fault, or when the recovery time of the fault has passed. If there is
+ * no throughput before the fault, there is no baseline to recover to and the window is only closed by the recovery time.
+ * <p>
+ * While the window is open, the peak latency and the lowest throughput of the performance monitor intervals received after
+ * the fault was injected are tracked. The recovery is only decided on intervals which started after the end of the fault, so
+ * an interval measured before or during the fault can't close the window; the recovery time is the start of the first
+ * recovered interval, so its resolution is the performance monitor interval.
+ * <p>
+ * The failures reported by the workers for the test are counted, e.g. exceptions thrown by the test. They are a substitute
+ * for the failed operations, since the workers don't count the operations which failed without reporting a failure.
+ */
+final class DisruptionWindow {
+
+    static final String CSV_HEADER = "name,type,workers,startEpochMillis,endEpochMillis,baselineThroughput,minThroughput,"
+            + "recoveryMillis,peakLatencyMaxMicros,peakLatency999Micros,reportedFailures";
+
+    static final double RECOVERY_RATIO = 0.9;
+
+    private static final long NOT_RECOVERED = -1;
+
+    private final Fault fault;
+    private final List<String> workers;
+    private final long startMillis;
+    private final double baselineThroughput;
+    private double minThroughput = Double.MAX_VALUE;
+    private long peakLatencyMaxNanos;
+    private long peakLatency999Nanos;
+    private long recoveryMillis = NOT_RECOVERED;
+    private int failures;
+    private boolean closed;
+
+    DisruptionWindow(Fault fault, List<String> workers, long startMillis, double baselineThroughput) {
+        this.fault = fault;
+        this.workers = workers;
+        this.startMillis = startMillis;
+        this.baselineThroughput = baselineThroughput;
+    }
+
+    Fault getFault() {
+        return fault;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    boolean hasBaseline() {
+        return baselineThroughput > 0;
+    }
+
+    boolean isRecovered() {
+        return recoveryMillis != NOT_RECOVERED;
+    }
+
+    long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    double getMinThroughput() {
+        return minThroughput == Double.MAX_VALUE ? 0 : minThroughput;
+    }
+
+    long getPeakLatencyMaxNanos() {
+        return peakLatencyMaxNanos;
+    }
+
+    int getFailures() {
+        return failures;
+    }
+
+    void onFailure() {
+        if (!closed) {
+            failures++;
+        }
+    }
+
+    /**
+     * Adds the aggregated performance of a new interval of all workers. Every interval should only be added once.
+     *
+     * @param interval the aggregated last interval of the workers
+     */
+    void sample(RecentInterval interval) {
+        if (closed || interval.getFirstUpdateMillis() <= startMillis) {
+            // the interval was measured before the fault was injected
+            return;
+        }
+
+        PerformanceStats stats = interval.getStats();
+        double throughput = stats.isEmpty() ? 0 : Math.max(0, stats.getIntervalThroughput());
+        minThroughput = Math.min(minThroughput, throughput);
+        if (!stats.isEmpty()) {
+            peakLatencyMaxNanos = Math.max(peakLatencyMaxNanos, stats.getIntervalLatencyMaxNanos());
+            peakLatency999Nanos = Math.max(peakLatency999Nanos, stats.getIntervalLatency999PercentileNanos());
+        }
+
+        if (hasBaseline() && interval.getStartMillis() >= getFaultEndMillis()
+                && throughput > 0 && throughput >= baselineThroughput * RECOVERY_RATIO) {
+            recoveryMillis = interval.getStartMillis() - startMillis;
+            closed = true;
+        }
+    }
+
+    /**
+     * Closes the window when the recovery time of the fault has passed.
+     *
+     * @param nowMillis the current time
+     */
+    void tick(long nowMillis) {
+        if (nowMillis >= getFaultEndMillis() + fault.getRecoveryMillis()) {
+            closed = true;
+        }
+    }
+
+    private long getFaultEndMillis() {
+        return startMillis + fault.getDurationMillis();
+    }
+
+    /**
+     * Closes the window, e.g. since the run phase has completed.
+     */
+    void close() {
+        closed = true;
+    }
+
+    String toCsv() {
+        return format(Locale.ENGLISH, "%s,%s,%s,%d,%d,%.2f,%.2f,%d,%d,%d,%d",
+                fault.getName(), fault.getType().name().toLowerCase(), String.join(" ", workers),
+                startMillis, getFaultEndMillis(), baselineThroughput, getMinThroughput(), recoveryMillis,
+                NANOSECONDS.toMicros(peakLatencyMaxNanos), NANOSECONDS.toMicros(peakLatency999Nanos), failures);
+    }
+
+    @Override
+    public String toString() {
+        String recovery;
+        if (!hasBaseline()) {
+            recovery = "has no baseline to measure the recovery";
+        } else {
+            recovery = isRecovered() ? format("recovered in %d ms", recoveryMillis) : "didn't recover";
+        }
+        return format(Locale.ENGLISH, "Fault %s (%s on %s) %s, throughput %.2f ops/s before, %.2f ops/s lowest, peak latency"
+                        + " %d µs (max) %d µs (99.9th), %d reported failures", fault.getName(),
+                fault.getType().name().toLowerCase(), workers, recovery, baselineThroughput, getMinThroughput(),
+                NANOSECONDS.toMicros(peakLatencyMaxNanos), NANOSECONDS.toMicros(peakLatency999Nanos), failures);
+    }
+}
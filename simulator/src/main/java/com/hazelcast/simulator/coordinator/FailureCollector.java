@@ -61,6 +61,10 @@ public class FailureCollector {
         listenerMap.put(listener, false);
     }
 
+    public void removeListener(FailureListener listener) {
+        listenerMap.remove(listener);
+    }
+
     public void notify(FailureOperation failure) {
         failure = enrich(failure);
 
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.TestCase;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A failure which is injected during the run phase of a {@link TestCase}, configured in the test suite, e.g.
+ * <pre>
+ *     MapTest@fault.crash.type = kill
+ *     MapTest@fault.crash.atSeconds = 60
+ *
+ *     MapTest@fault.pause.type = suspend
+ *     MapTest@fault.pause.atSeconds = 180
+ *     MapTest@fault.pause.durationSeconds = 10
+ *
+ *     MapTest@fault.slow.type = delay
+ *     MapTest@fault.slow.atSeconds = 300
+ *     MapTest@fault.slow.durationSeconds = 30
+ *     MapTest@fault.slow.delayMillis = 50
+ * </pre>
+ * The faults are injected by the {@link FaultInjector}, which also measures the disruption they cause.
+ */
+final class Fault {
+
+    static final String PROPERTY_PREFIX = "fault.";
+
+    private static final int DEFAULT_DURATION_SECONDS = 10;
+    private static final int DEFAULT_RECOVERY_SECONDS = 60;
+    private static final int DEFAULT_DELAY_MILLIS = 100;
+    private static final Set<String> PROPERTIES = new HashSet<>(asList("type", "atSeconds", "durationSeconds",
+            "recoverySeconds", "workerType", "count", "command", "delayMillis", "device"));
+
+    enum Type {
+        /**
+         * Kills the workers, by default using a System.exit.
+         */
+        KILL,
+        /**
+         * Suspends the workers using a SIGSTOP and resumes them using a SIGCONT when the duration has passed.
+         */
+        SUSPEND,
+        /**
+         * Delays the network traffic of the machines of the workers using tc/netem for the duration.
+         */
+        DELAY
+    }
+
+    private final String name;
+    private final Map<String, String> properties;
+    private final Type type;
+    private final long atMillis;
+    private final long durationMillis;
+    private final long recoveryMillis;
+    private final int count;
+    private final int delayMillis;
+    private final String workerType;
+    private final String device;
+    private final String killCommand;
+
+    private Fault(String testId, String name, Map<String, String> properties) {
+        this.name = name;
+        this.properties = properties;
+        this.type = parseType(testId, properties.get("type"));
+        this.atMillis = SECONDS.toMillis(parseAtSeconds(testId));
+        this.durationMillis = type == Type.KILL
+                ? 0 : SECONDS.toMillis(parseInt(testId, "durationSeconds", DEFAULT_DURATION_SECONDS));
+        this.recoveryMillis = SECONDS.toMillis(parseInt(testId, "recoverySeconds", DEFAULT_RECOVERY_SECONDS));
+        this.count = parseInt(testId, "count", 1);
+        this.delayMillis = parseInt(testId, "delayMillis", DEFAULT_DELAY_MILLIS);
+        this.workerType = properties.getOrDefault("workerType", "member");
+        this.device = properties.getOrDefault("device", "eth0");
+        String command = properties.getOrDefault("command", "System.exit");
+        this.killCommand = "System.exit".equals(command) ? "js:java.lang.System.exit(0);" : command;
+    }
+
+    /**
+     * Creates the faults from the properties of a TestCase.
+     *
+     * @param testCase the TestCase
+     * @return the faults sorted on the time they are injected; an empty list if the TestCase has no faults
+     * @throws IllegalArgumentException if a fault property has an invalid value
+     */
+    static List<Fault> fromTestCase(TestCase testCase) {
+        Map<String, Map<String, String>> propertiesPerFault = new TreeMap<>();
+        for (Map.Entry<String, String> entry : testCase.getProperties().entrySet()) {
+            String property = entry.getKey();
+            if (!property.startsWith(PROPERTY_PREFIX)) {
+                continue;
+            }
+
+            String remainder = property.substring(PROPERTY_PREFIX.length());
+            int indexDot = remainder.indexOf('.');
+            if (indexDot <= 0 || indexDot == remainder.length() - 1) {
+                throw new IllegalArgumentException(format("Fault property [%s] in test [%s] should be formatted as"
+                        + " 'fault.<name>.<property>'", property, testCase.getId()));
+            }
+            String name = remainder.substring(0, indexDot);
+            Map<String, String> properties = propertiesPerFault.get(name);
+            if (properties == null) {
+                properties = new TreeMap<>();
+                propertiesPerFault.put(name, properties);
+            }
+            String key = remainder.substring(indexDot + 1);
+            if (!PROPERTIES.contains(key)) {
+                throw new IllegalArgumentException(
+                        format("Unknown fault property [%s] in test [%s]", property, testCase.getId()));
+            }
+            properties.put(key, entry.getValue());
+        }
+
+        List<Fault> faults = new ArrayList<>();
+        for (Map.Entry<String, Map<String, String>> entry : propertiesPerFault.entrySet()) {
+            faults.add(new Fault(testCase.getId(), entry.getKey(), entry.getValue()));
+        }
+        faults.sort((f1, f2) -> Long.compare(f1.atMillis, f2.atMillis));
+        return faults;
+    }
+
+    private Type parseType(String testId, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(format("Fault [%s] in test [%s] has no type", name, testId));
+        }
+        try {
+            return Type.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(format("Fault [%s] in test [%s] has an unknown type [%s], use kill, suspend"
+                    + " or delay", name, testId, value), e);
+        }
+    }
+
+    // the throughput before the fault is the baseline of the recovery, so a fault can't be injected at the start of the run
+    private int parseAtSeconds(String testId) {
+        if (properties.get("atSeconds") == null) {
+            throw new IllegalArgumentException(format("Fault [%s] in test [%s] has no atSeconds", name, testId));
+        }
+        int atSeconds = parseInt(testId, "atSeconds", 0);
+        if (atSeconds == 0) {
+            throw new IllegalArgumentException(format("Property [atSeconds] of fault [%s] in test [%s] should be larger than 0,"
+                    + " so the throughput before the fault can be measured", name, testId));
+        }
+        return atSeconds;
+    }
+
+    private int parseInt(String testId, String property, int defaultValue) {
+        String value = properties.get(property);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        int result;
+        try {
+            result = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    format("Property [%s] of fault [%s] in test [%s] is not a number: %s", property, name, testId, value), e);
+        }
+        if (result < 0) {
+            throw new IllegalArgumentException(
+                    format("Property [%s] of fault [%s] in test [%s] can't be negative: %s", property, name, testId, value));
+        }
+        return result;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the time since the start of the run phase the fault is injected.
+     */
+    long getAtMillis() {
+        return atMillis;
+    }
+
+    /**
+     * Returns how long a suspend or delay lasts; a kill has no duration.
+     */
+    long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Returns how long after the end of the fault the throughput is given to recover.
+     */
+    long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    /**
+     * Returns the worker type of the victims, e.g. member or javaclient.
+     */
+    String getWorkerType() {
+        return workerType;
+    }
+
+    /**
+     * Returns the maximum number of victims.
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the command which is executed on every victim.
+     */
+    String getCommand() {
+        long durationSeconds = MILLISECONDS.toSeconds(durationMillis);
+        switch (type) {
+            case KILL:
+                return killCommand;
+            case SUSPEND:
+                // a suspended worker can't resume itself, so the SIGCONT is sent by a process on the same machine
+                return format("bash:(sleep %d; kill -CONT $PID) > /dev/null 2>&1 & kill -STOP $PID", durationSeconds);
+            case DELAY:
+                // the delay is removed by a process on the same machine, so it is removed even if the coordinator dies
+                return format("bash:sudo -n tc qdisc add dev %s root netem delay %dms"
+                        + " && ((sleep %d; sudo -n tc qdisc del dev %s root netem) > /dev/null 2>&1 &)",
+                        device, delayMillis, durationSeconds, device);
+            default:
+                throw new IllegalStateException("Unknown fault type: " + type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Fault{name=" + name + ", type=" + type + ", properties=" + properties + '}';
+    }
+}
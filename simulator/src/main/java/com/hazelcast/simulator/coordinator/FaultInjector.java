@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.coordinator.PerformanceStatsCollector.RecentInterval;
+import com.hazelcast.simulator.coordinator.operations.FailureOperation;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.coordinator.registry.WorkerQuery;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.utils.UncheckedIOException;
+import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.simulator.coordinator.registry.WorkerData.toAddressString;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Injects the {@link Fault}s of a test during the run phase and measures the disruption they cause.
+ *
+ * The {@link TestCaseRunner} calls {@link #tick(long)} every second while the test is running. Every tick injects the faults
+ * which are due. Once all workers have sent a new performance monitor interval, the aggregated interval is fed to the open
+ * {@link DisruptionWindow}s, or to the baseline if no window is open; so every interval is only sampled once. When a window
+ * is closed, the disruption is logged and written to the {@code <testId>-disruptions.csv} file in the session directory, so
+ * the report can annotate the fault on the performance timeline. The file is kept open until the injector is closed.
+ *
+ * The faults are executed as scripts on the victims. A kill never selects a worker running the test, since the run phase
+ * would wait for it forever, so it is meant for e.g. killing members while clients drive the load.
+ */
+final class FaultInjector implements FailureListener {
+
+    static final String DISRUPTIONS_FILE_SUFFIX = "-disruptions.csv";
+
+    private static final Logger LOGGER = Logger.getLogger(FaultInjector.class);
+
+    private static final int BASELINE_SAMPLES = 10;
+
+    private final String testId;
+    private final String prefix;
+    private final List<Fault> faults;
+    private final List<WorkerData> targets;
+    private final Registry registry;
+    private final CoordinatorClient client;
+    private final PerformanceStatsCollector performanceStatsCollector;
+    private final long maxIntervalAgeMillis;
+    private final File file;
+    private final Deque<Double> baselineSamples = new ArrayDeque<>();
+    private final List<Injection> injections = new ArrayList<>();
+    private long runStartMillis;
+    private long lastSampledMillis;
+    private int nextFault;
+    private Writer writer;
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    FaultInjector(String testId,
+                  String prefix,
+                  List<Fault> faults,
+                  List<WorkerData> targets,
+                  Registry registry,
+                  CoordinatorClient client,
+                  PerformanceStatsCollector performanceStatsCollector,
+                  long maxIntervalAgeMillis,
+                  File outputDirectory) {
+        this.testId = testId;
+        this.prefix = prefix;
+        this.faults = faults;
+        this.targets = targets;
+        this.registry = registry;
+        this.client = client;
+        this.performanceStatsCollector = performanceStatsCollector;
+        this.maxIntervalAgeMillis = maxIntervalAgeMillis;
+        this.file = new File(outputDirectory, testId + DISRUPTIONS_FILE_SUFFIX);
+    }
+
+    void start(long runStartMillis) {
+        this.runStartMillis = runStartMillis;
+        LOGGER.info(format("%sScheduled %d faults %s", prefix, faults.size(), faults));
+    }
+
+    @Override
+    public void onFailure(FailureOperation failure, boolean isFinishedFailure, boolean isCritical) {
+        if (!testId.equals(failure.getTestId())) {
+            return;
+        }
+
+        synchronized (injections) {
+            for (Injection injection : injections) {
+                injection.window.onFailure();
+            }
+        }
+    }
+
+    /**
+     * Injects the faults which are due and updates the open disruption windows.
+     *
+     * @param nowMillis the current time
+     */
+    void tick(long nowMillis) {
+        RecentInterval interval = performanceStatsCollector.getRecent(testId, nowMillis, maxIntervalAgeMillis);
+        // an interval is new when all workers have sent an update since the previous sample
+        boolean newInterval = !interval.isEmpty() && interval.getFirstUpdateMillis() > lastSampledMillis;
+        if (newInterval) {
+            lastSampledMillis = interval.getLastUpdateMillis();
+        }
+
+        boolean disrupted = updateWindows(interval, newInterval, nowMillis);
+        if (newInterval && !disrupted) {
+            baselineSamples.addLast(interval.getStats().getIntervalThroughput());
+            if (baselineSamples.size() > BASELINE_SAMPLES) {
+                baselineSamples.removeFirst();
+            }
+        }
+
+        while (nextFault < faults.size() && nowMillis >= runStartMillis + faults.get(nextFault).getAtMillis()) {
+            inject(faults.get(nextFault++), nowMillis);
+        }
+    }
+
+    private boolean updateWindows(RecentInterval interval, boolean newInterval, long nowMillis) {
+        boolean disrupted = false;
+        synchronized (injections) {
+            for (Injection injection : injections) {
+                DisruptionWindow window = injection.window;
+                if (window.isClosed()) {
+                    continue;
+                }
+                // an empty interval means that none of the workers has recently made progress
+                if (newInterval || interval.isEmpty()) {
+                    window.sample(interval);
+                }
+                window.tick(nowMillis);
+                if (window.isClosed()) {
+                    complete(injection);
+                } else {
+                    disrupted = true;
+                }
+            }
+        }
+        return disrupted;
+    }
+
+    /**
+     * Closes the disruption windows which are still open, e.g. since the run phase has completed.
+     */
+    void close() {
+        synchronized (injections) {
+            for (Injection injection : injections) {
+                if (!injection.window.isClosed()) {
+                    injection.window.close();
+                    complete(injection);
+                }
+            }
+            closeQuietly(writer);
+            writer = null;
+        }
+
+        if (nextFault < faults.size()) {
+            LOGGER.info(format("%s%d faults have not been injected since the run phase completed", prefix,
+                    faults.size() - nextFault));
+        }
+    }
+
+    private void inject(Fault fault, long nowMillis) {
+        List<WorkerData> candidates = new ArrayList<>(registry.getWorkers());
+        if (fault.getType() == Fault.Type.KILL) {
+            candidates.removeAll(targets);
+        }
+        List<WorkerData> victims = new WorkerQuery()
+                .setWorkerType(fault.getWorkerType())
+                .setMaxCount(fault.getCount())
+                .execute(candidates);
+        if (victims.isEmpty()) {
+            LOGGER.warn(format("%sNo victims found for fault %s", prefix, fault.getName()));
+            return;
+        }
+
+        LOGGER.info(format("%sInjecting fault %s (%s) on [%s]", prefix, fault.getName(),
+                fault.getType().name().toLowerCase(), toAddressString(victims)));
+
+        String command = fault.getCommand();
+        boolean fireAndForget = fault.getType() != Fault.Type.DELAY;
+        List<String> addresses = new ArrayList<>();
+        List<Future<String>> futures = new ArrayList<>();
+        Set<Integer> delayedAgents = new HashSet<>();
+        for (WorkerData victim : victims) {
+            addresses.add(victim.getAddress().toString());
+            // the delay applies to the whole machine, so it is added once per agent; a second 'tc qdisc add' would fail
+            // and the removal of the second delay would end the first one early
+            if (fault.getType() == Fault.Type.DELAY && !delayedAgents.add(victim.getAddress().getAgentIndex())) {
+                continue;
+            }
+            // a killed or suspended worker can't answer, so only the network delay waits for the result of the command
+            if (fireAndForget) {
+                victim.setIgnoreFailures(true);
+            }
+            futures.add(client.submit(victim.getAddress(), new ExecuteScriptOperation(command, fireAndForget)));
+        }
+
+        synchronized (injections) {
+            injections.add(new Injection(new DisruptionWindow(fault, addresses, nowMillis, baseline()), victims, futures));
+        }
+    }
+
+    private double baseline() {
+        double sum = 0;
+        for (double sample : baselineSamples) {
+            sum += sample;
+        }
+        return baselineSamples.isEmpty() ? 0 : sum / baselineSamples.size();
+    }
+
+    private void complete(Injection injection) {
+        DisruptionWindow window = injection.window;
+        LOGGER.info(prefix + window);
+
+        for (Future<String> future : injection.futures) {
+            checkCommand(window.getFault(), future);
+        }
+
+        if (window.getFault().getType() == Fault.Type.SUSPEND) {
+            for (WorkerData victim : injection.victims) {
+                if (registry.findWorker(victim.getAddress()) != null) {
+                    victim.setIgnoreFailures(false);
+                }
+            }
+        }
+
+        write(window.toCsv());
+    }
+
+    private void write(String line) {
+        try {
+            if (writer == null) {
+                boolean newFile = !file.exists();
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), UTF_8));
+                if (newFile) {
+                    writer.write(DisruptionWindow.CSV_HEADER + '\n');
+                }
+            }
+            writer.write(line + '\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkCommand(Fault fault, Future<String> future) {
+        if (!future.isDone()) {
+            return;
+        }
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.warn(format("%sFault %s failed: %s", prefix, fault.getName(), e.getCause()));
+        }
+    }
+
+    private static final class Injection {
+        private final DisruptionWindow window;
+        private final List<WorkerData> victims;
+        private final List<Future<String>> futures;
+
+        private Injection(DisruptionWindow window, List<WorkerData> victims, List<Future<String>> futures) {
+            this.window = window;
+            this.victims = victims;
+            this.futures = futures;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.TestData;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.hazelcast.simulator.utils.FormatUtils.padLeft;
+import static com.hazelcast.simulator.utils.FormatUtils.padRight;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A parameter sweep of a test in the TestSuite, e.g.
+ * <pre>
+ *     map@threadCount = [1,2,4,8,16,32]
+ *     map@valueSize = [100,1000,10000]
+ * </pre>
+ * A property with a value between square brackets is a dimension of the sweep. The test is expanded into a test per
+ * combination of the values of all dimensions, e.g. {@code map-threadCount1-valueSize100}. The tests are run sequentially
+ * on the same workers, and at the end a scaling table with the throughput and latency of every combination is created.
+ */
+public final class ParameterSweep implements Serializable {
+
+    private static final int COLUMN_WIDTH = 14;
+
+    private final String testId;
+    private final List<String> parameters;
+    private final List<TestCase> testCases = new ArrayList<>();
+    private final List<List<String>> combinations = new ArrayList<>();
+
+    private ParameterSweep(String testId, List<String> parameters) {
+        this.testId = testId;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Expands a TestCase which has properties with multiple values.
+     *
+     * @param testCase the TestCase
+     * @return the ParameterSweep or {@code null} if the TestCase has no properties with multiple values
+     * @throws IllegalArgumentException if a property with multiple values has no values
+     */
+    static ParameterSweep expand(TestCase testCase) {
+        Map<String, List<String>> dimensions = new TreeMap<>();
+        for (Map.Entry<String, String> entry : testCase.getProperties().entrySet()) {
+            if (isSweep(entry.getValue())) {
+                dimensions.put(entry.getKey(), parseValues(testCase, entry.getKey(), entry.getValue()));
+            }
+        }
+        if (dimensions.isEmpty()) {
+            return null;
+        }
+
+        ParameterSweep sweep = new ParameterSweep(testCase.getId(), new ArrayList<>(dimensions.keySet()));
+        sweep.expand(testCase, dimensions, new ArrayList<>(), new HashSet<>());
+        return sweep;
+    }
+
+    private void expand(TestCase testCase, Map<String, List<String>> dimensions, List<String> combination, Set<String> ids) {
+        if (combination.size() == parameters.size()) {
+            TestCase expanded = new TestCase(newId(combination, ids), testCase.getProperties());
+            for (int i = 0; i < parameters.size(); i++) {
+                expanded.setProperty(parameters.get(i), combination.get(i));
+            }
+            testCases.add(expanded);
+            combinations.add(new ArrayList<>(combination));
+            return;
+        }
+
+        for (String value : dimensions.get(parameters.get(combination.size()))) {
+            combination.add(value);
+            expand(testCase, dimensions, combination, ids);
+            combination.remove(combination.size() - 1);
+        }
+    }
+
+    private String newId(List<String> combination, Set<String> ids) {
+        StringBuilder sb = new StringBuilder(testId);
+        for (int i = 0; i < parameters.size(); i++) {
+            if (sb.length() > 0) {
+                sb.append('-');
+            }
+            sb.append(sanitize(parameters.get(i))).append(sanitize(combination.get(i)));
+        }
+        String id = sb.toString();
+        // different values can be sanitized to the same id, e.g. 0.5 and 0-5
+        for (int k = 2; !ids.add(id); k++) {
+            id = sb.toString() + '-' + k;
+        }
+        return id;
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[^a-zA-Z0-9]", "-");
+    }
+
+    private static boolean isSweep(String value) {
+        return value.startsWith("[") && value.endsWith("]");
+    }
+
+    private static List<String> parseValues(TestCase testCase, String property, String value) {
+        List<String> values = new ArrayList<>();
+        for (String item : value.substring(1, value.length() - 1).split(",")) {
+            if (!item.trim().isEmpty()) {
+                values.add(item.trim());
+            }
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException(
+                    format("Property [%s] of test [%s] has no values: %s", property, testCase.getId(), value));
+        }
+        return values;
+    }
+
+    /**
+     * Returns the id of the test in the TestSuite which has been expanded.
+     */
+    public String getTestId() {
+        return testId;
+    }
+
+    /**
+     * Returns the names of the properties which have multiple values.
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns a TestCase per combination of values.
+     */
+    public List<TestCase> getTestCases() {
+        return testCases;
+    }
+
+    /**
+     * Creates the scaling table with a row per combination of values.
+     *
+     * @param performanceStatsCollector the performance of the tests
+     * @param registry                  the registry with the status of the tests
+     * @return the table
+     */
+    public String formatTable(PerformanceStatsCollector performanceStatsCollector, Registry registry) {
+        StringBuilder sb = new StringBuilder();
+        for (String parameter : parameters) {
+            sb.append(padRight(parameter, COLUMN_WIDTH)).append(' ');
+        }
+        sb.append(format("%s %s %s %s%n", padLeft("ops/s", COLUMN_WIDTH), padLeft("99% (µs)", COLUMN_WIDTH),
+                padLeft("99.9% (µs)", COLUMN_WIDTH), padLeft("status", COLUMN_WIDTH)));
+        for (String[] row : rows(performanceStatsCollector, registry)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                sb.append(padRight(row[i], COLUMN_WIDTH)).append(' ');
+            }
+            for (int i = parameters.size(); i < row.length; i++) {
+                sb.append(padLeft(row[i], COLUMN_WIDTH)).append(i == row.length - 1 ? "" : " ");
+            }
+            sb.append(format("%n"));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates the scaling table as CSV with a row per combination of values.
+     *
+     * @param performanceStatsCollector the performance of the tests
+     * @param registry                  the registry with the status of the tests
+     * @return the CSV
+     */
+    public String toCsv(PerformanceStatsCollector performanceStatsCollector, Registry registry) {
+        StringBuilder sb = new StringBuilder("testId,");
+        for (String parameter : parameters) {
+            sb.append(parameter).append(',');
+        }
+        sb.append("throughput,latency99Micros,latency999Micros,status\n");
+        List<String[]> rows = rows(performanceStatsCollector, registry);
+        for (int i = 0; i < rows.size(); i++) {
+            sb.append(testCases.get(i).getId()).append(',').append(String.join(",", rows.get(i))).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private List<String[]> rows(PerformanceStatsCollector performanceStatsCollector, Registry registry) {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < testCases.size(); i++) {
+            // the registry renames a test if the id is in use already, so the id is taken from the TestCase
+            String id = testCases.get(i).getId();
+            PerformanceStats stats = performanceStatsCollector.get(id, true);
+            TestData test = registry.getTest(id);
+
+            List<String> row = new ArrayList<>(combinations.get(i));
+            row.add(stats.isEmpty() ? "-" : format(Locale.ENGLISH, "%.2f", stats.getTotalThroughput()));
+            row.add(formatLatency(stats, stats.getTotalLatency99PercentileNanos()));
+            row.add(formatLatency(stats, stats.getTotalLatency999PercentileNanos()));
+            row.add(test == null || !test.isCompleted() ? "skipped" : test.getCompletedStatus().name().toLowerCase());
+            rows.add(row.toArray(new String[0]));
+        }
+        return rows;
+    }
+
+    private static String formatLatency(PerformanceStats stats, long latencyNanos) {
+        return stats.isEmpty() || latencyNanos < 0 ? "-" : Long.toString(NANOSECONDS.toMicros(latencyNanos));
+    }
+}
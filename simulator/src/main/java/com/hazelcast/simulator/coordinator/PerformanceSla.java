@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
+import static com.hazelcast.simulator.worker.performance.PerformanceStats.INTERVAL_LATENCY_PERCENTILE;
+import static com.hazelcast.simulator.worker.performance.PerformanceStats.LATENCY_PERCENTILE_99;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * The performance SLA of a {@link TestCase}, configured in the test suite, e.g.
+ * <pre>
+ *     MapTest@sla.minThroughput = 100000
+ *     MapTest@sla.p99Micros = 500
+ *     MapTest@sla.p999Micros = 2000
+ *     MapTest@sla.continuous = true
+ * </pre>
+ * The SLA is evaluated by the {@link TestCaseRunner} at the end of the run phase against the aggregated performance of all
+ * workers: the throughput is the total operation count divided by the running time, and the latency percentiles are
+ * calculated on the latency histograms of all workers merged over the whole run. When the SLA is continuous, also the
+ * interval values are evaluated while the test is running; these are the highest interval percentiles of the workers.
+ */
+final class PerformanceSla {
+
+    static final String PROPERTY_PREFIX = "sla.";
+
+    private static final double UNDEFINED = -1;
+
+    private final double minThroughput;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final boolean continuous;
+
+    PerformanceSla(double minThroughput, double p99Micros, double p999Micros, boolean continuous) {
+        this.minThroughput = minThroughput;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.continuous = continuous;
+    }
+
+    /**
+     * Creates the PerformanceSla from the properties of a TestCase.
+     *
+     * @param testCase the TestCase
+     * @return the PerformanceSla or {@code null} if the TestCase has no SLA
+     * @throws IllegalArgumentException if a SLA property is unknown or has an invalid value
+     */
+    static PerformanceSla fromTestCase(TestCase testCase) {
+        double minThroughput = UNDEFINED;
+        double p99Micros = UNDEFINED;
+        double p999Micros = UNDEFINED;
+        boolean continuous = false;
+        boolean found = false;
+        for (String property : testCase.getProperties().keySet()) {
+            if (!property.startsWith(PROPERTY_PREFIX)) {
+                continue;
+            }
+
+            String value = testCase.getProperty(property);
+            String name = property.substring(PROPERTY_PREFIX.length());
+            if ("minThroughput".equals(name)) {
+                minThroughput = parsePositive(testCase, property, value);
+            } else if ("p99Micros".equals(name)) {
+                p99Micros = parsePositive(testCase, property, value);
+            } else if ("p999Micros".equals(name)) {
+                p999Micros = parsePositive(testCase, property, value);
+            } else if ("continuous".equals(name)) {
+                continuous = Boolean.parseBoolean(value);
+            } else {
+                throw new IllegalArgumentException(format("Unknown SLA property [%s] in test [%s]", property, testCase.getId()));
+            }
+            found = true;
+        }
+        return found ? new PerformanceSla(minThroughput, p99Micros, p999Micros, continuous) : null;
+    }
+
+    private static double parsePositive(TestCase testCase, String property, String value) {
+        double result;
+        try {
+            result = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    format("SLA property [%s] in test [%s] is not a number: %s", property, testCase.getId(), value), e);
+        }
+        if (result <= 0) {
+            throw new IllegalArgumentException(
+                    format("SLA property [%s] in test [%s] must be larger than 0: %s", property, testCase.getId(), value));
+        }
+        return result;
+    }
+
+    boolean isContinuous() {
+        return continuous;
+    }
+
+    /**
+     * Evaluates the SLA against the performance of the last interval of all workers.
+     *
+     * @param interval the aggregated PerformanceStats of the last interval
+     * @return the violations, or an empty list if the SLA is met
+     */
+    List<String> checkInterval(PerformanceStats interval) {
+        List<String> violations = new ArrayList<>();
+        if (interval.isEmpty()) {
+            return violations;
+        }
+        checkThroughput(violations, "interval", interval.getIntervalThroughput());
+        checkLatency(violations, "interval 99%", p99Micros, interval.getIntervalLatency99PercentileNanos());
+        checkLatency(violations, "interval 99.9%", p999Micros, interval.getIntervalLatency999PercentileNanos());
+        return violations;
+    }
+
+    /**
+     * Evaluates the SLA against the performance of the whole run of all workers.
+     *
+     * The latency percentiles are calculated per probe on the merged histograms and the highest probe is used. If there are
+     * no histograms, e.g. since the probes don't record latencies, the highest percentiles reported by the workers are used.
+     *
+     * @param total              the aggregated PerformanceStats of the run
+     * @param latencyHistograms  the latency histograms per probe, merged over all workers
+     * @param runningTimeSeconds the running time of the test
+     * @return the violations, or an empty list if the SLA is met
+     */
+    List<String> checkTotal(PerformanceStats total, Map<String, Histogram> latencyHistograms, double runningTimeSeconds) {
+        List<String> violations = new ArrayList<>();
+        if (total.isEmpty() || total.getOperationCount() < 1) {
+            if (minThroughput != UNDEFINED) {
+                violations.add("No performance information is available to evaluate the SLA");
+            }
+            return violations;
+        }
+        checkThroughput(violations, "total", runningTimeSeconds <= 0 ? 0 : total.getOperationCount() / runningTimeSeconds);
+        if (latencyHistograms.isEmpty()) {
+            checkLatency(violations, "total 99%", p99Micros, total.getTotalLatency99PercentileNanos());
+            checkLatency(violations, "total 99.9%", p999Micros, total.getTotalLatency999PercentileNanos());
+        } else {
+            checkLatency(violations, "total 99%", p99Micros, percentile(latencyHistograms, LATENCY_PERCENTILE_99));
+            checkLatency(violations, "total 99.9%", p999Micros, percentile(latencyHistograms, INTERVAL_LATENCY_PERCENTILE));
+        }
+        return violations;
+    }
+
+    private static long percentile(Map<String, Histogram> latencyHistograms, double percentile) {
+        long result = -1;
+        for (Histogram histogram : latencyHistograms.values()) {
+            if (histogram.getTotalCount() > 0) {
+                result = Math.max(result, histogram.getValueAtPercentile(percentile));
+            }
+        }
+        return result;
+    }
+
+    private void checkThroughput(List<String> violations, String desc, double throughput) {
+        if (minThroughput != UNDEFINED && throughput < minThroughput) {
+            violations.add(format("%s throughput %s ops/s is below the minimum of %s ops/s",
+                    desc, formatDouble(throughput, 0), formatDouble(minThroughput, 0)));
+        }
+    }
+
+    private static void checkLatency(List<String> violations, String desc, double maxMicros, long latencyNanos) {
+        // a negative latency means the workers did not report the percentile
+        if (maxMicros == UNDEFINED || latencyNanos < 0) {
+            return;
+        }
+        double latencyMicros = latencyNanos / (double) MICROSECONDS.toNanos(1);
+        if (latencyMicros > maxMicros) {
+            violations.add(format("%s latency %s µs exceeds the budget of %s µs",
+                    desc, formatDouble(latencyMicros, 0), formatDouble(maxMicros, 0)));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PerformanceSla{"
+                + "minThroughput=" + minThroughput
+                + ", p99Micros=" + p99Micros
+                + ", p999Micros=" + p999Micros
+                + ", continuous=" + continuous
+                + '}';
+    }
+}
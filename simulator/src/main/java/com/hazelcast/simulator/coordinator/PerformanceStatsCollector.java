@@ -17,6 +17,7 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 
 import java.util.Comparator;
 import java.util.HashMap;
@@ -24,16 +25,22 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import static com.hazelcast.simulator.probes.impl.MetricsRegistry.PER_OPERATION_SUFFIX;
+import static com.hazelcast.simulator.probes.impl.MetricsRegistry.RATE_SUFFIX;
 import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
 import static com.hazelcast.simulator.utils.FormatUtils.formatLong;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.utils.FormatUtils.secondsToHuman;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.INTERVAL_LATENCY_PERCENTILE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.round;
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
@@ -49,12 +56,19 @@ public class PerformanceStatsCollector {
     public static final int LATENCY_FORMAT_LENGTH = 10;
 
     private static final long DISPLAY_LATENCY_AS_MICROS_MAX_VALUE = MILLISECONDS.toMicros(10);
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
 
     // holds a map per Worker SimulatorAddress which contains the lastDelta PerformanceStats per testCaseId
     private final ConcurrentMap<SimulatorAddress, WorkerPerformance> workerPerformanceInfoMap
             = new ConcurrentHashMap<>();
+    // the latency histograms per probe per testCaseId, merged over all workers and all intervals
+    private final ConcurrentMap<String, Map<String, Histogram>> latencyHistogramsMap = new ConcurrentHashMap<>();
 
     public void update(SimulatorAddress workerAddress, Map<String, PerformanceStats> performanceStatsMap) {
+        update(workerAddress, performanceStatsMap, currentTimeMillis());
+    }
+
+    void update(SimulatorAddress workerAddress, Map<String, PerformanceStats> performanceStatsMap, long nowMillis) {
         WorkerPerformance workerPerformance = workerPerformanceInfoMap.get(workerAddress);
         if (workerPerformance == null) {
             WorkerPerformance newInfo = new WorkerPerformance();
@@ -62,7 +76,44 @@ public class PerformanceStatsCollector {
             workerPerformance = foundInfo == null ? newInfo : foundInfo;
         }
 
-        workerPerformance.updateAll(performanceStatsMap);
+        workerPerformance.updateAll(performanceStatsMap, nowMillis);
+
+        for (Map.Entry<String, PerformanceStats> entry : performanceStatsMap.entrySet()) {
+            Map<String, Histogram> histograms = entry.getValue().getLatencyHistograms();
+            if (histograms != null) {
+                mergeLatencyHistograms(entry.getKey(), histograms);
+            }
+        }
+    }
+
+    private void mergeLatencyHistograms(String testId, Map<String, Histogram> histograms) {
+        Map<String, Histogram> merged = latencyHistogramsMap.computeIfAbsent(testId, k -> new HashMap<>());
+        synchronized (merged) {
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                merged.computeIfAbsent(entry.getKey(), k -> new Histogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS))
+                        .add(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the latency histograms of a test per probe, merged over all workers since the start of the run. The workers
+     * only send their histograms if the test has a performance SLA.
+     *
+     * @param testCaseId the id of the test
+     * @return the merged histograms per probe; an empty map if no histograms have been received
+     */
+    Map<String, Histogram> getLatencyHistograms(String testCaseId) {
+        Map<String, Histogram> merged = latencyHistogramsMap.get(testCaseId);
+        Map<String, Histogram> result = new HashMap<>();
+        if (merged != null) {
+            synchronized (merged) {
+                for (Map.Entry<String, Histogram> entry : merged.entrySet()) {
+                    result.put(entry.getKey(), entry.getValue().copy());
+                }
+            }
+        }
+        return result;
     }
 
     public String formatIntervalPerformanceNumbers(String testId) {
@@ -107,6 +158,33 @@ public class PerformanceStatsCollector {
         return result;
     }
 
+    /**
+     * Aggregates the last interval of all workers, skipping the workers which haven't sent an update in the given time.
+     * So a worker which has been killed or suspended doesn't contribute its last interval.
+     *
+     * @param testCaseId   the id of the test
+     * @param nowMillis    the current time
+     * @param maxAgeMillis the maximum time since the last update of a worker
+     * @return the aggregated last interval
+     */
+    RecentInterval getRecent(String testCaseId, long nowMillis, long maxAgeMillis) {
+        long minUpdateMillis = nowMillis - maxAgeMillis;
+        PerformanceStats stats = new PerformanceStats();
+        long startMillis = Long.MAX_VALUE;
+        long firstUpdateMillis = Long.MAX_VALUE;
+        long lastUpdateMillis = 0;
+        for (WorkerPerformance workerPerformance : workerPerformanceInfoMap.values()) {
+            TestPerformance testPerformance = workerPerformance.testPerformanceMap.get(testCaseId);
+            if (testPerformance != null && testPerformance.updateMillis >= minUpdateMillis) {
+                stats.add(testPerformance.lastDelta);
+                startMillis = min(startMillis, testPerformance.intervalStartMillis);
+                firstUpdateMillis = min(firstUpdateMillis, testPerformance.updateMillis);
+                lastUpdateMillis = max(lastUpdateMillis, testPerformance.updateMillis);
+            }
+        }
+        return new RecentInterval(stats, startMillis, firstUpdateMillis, lastUpdateMillis);
+    }
+
     public String detailedPerformanceInfo(String testId, long runningTimeMs) {
         PerformanceStats totalPerformanceStats = new PerformanceStats();
         Map<SimulatorAddress, PerformanceStats> agentPerformanceStatsMap = new HashMap<>();
@@ -141,9 +219,27 @@ public class PerformanceStatsCollector {
                     formatLong(operationCount, OPERATION_COUNT_FORMAT_LENGTH),
                     formatDouble(operationCount / runningTimeSeconds, THROUGHPUT_FORMAT_LENGTH)));
         }
+
+        appendMetrics(sb, totalPerformanceStats.getMetrics());
         return sb.toString();
     }
 
+    private static void appendMetrics(StringBuilder sb, Map<String, Double> metrics) {
+        if (metrics == null) {
+            return;
+        }
+
+        // the interval rates and per operation values are left out, since their aggregated value is not a meaningful total
+        for (Map.Entry<String, Double> entry : new TreeMap<>(metrics).entrySet()) {
+            if (entry.getKey().endsWith(RATE_SUFFIX) || entry.getKey().endsWith(PER_OPERATION_SUFFIX)) {
+                continue;
+            }
+            sb.append(format("  Metric %-15s %s\n",
+                    entry.getKey(),
+                    formatDouble(entry.getValue(), OPERATION_COUNT_FORMAT_LENGTH)));
+        }
+    }
+
     void calculatePerformanceStats(String testId,
                                    PerformanceStats totalPerformanceStats,
                                    Map<SimulatorAddress, PerformanceStats> agentPerformanceStatsMap) {
@@ -180,21 +276,22 @@ public class PerformanceStatsCollector {
         private final ConcurrentMap<String, TestPerformance> testPerformanceMap
                 = new ConcurrentHashMap<>();
 
-        private void updateAll(Map<String, PerformanceStats> deltas) {
+        private void updateAll(Map<String, PerformanceStats> deltas, long nowMillis) {
             for (Map.Entry<String, PerformanceStats> entry : deltas.entrySet()) {
-                update(entry.getKey(), entry.getValue());
+                update(entry.getKey(), entry.getValue(), nowMillis);
             }
         }
 
-        private void update(String testId, PerformanceStats delta) {
+        private void update(String testId, PerformanceStats delta, long nowMillis) {
             for (; ; ) {
                 TestPerformance current = testPerformanceMap.get(testId);
                 if (current == null) {
-                    if (testPerformanceMap.putIfAbsent(testId, new TestPerformance(delta, delta)) == null) {
+                    // the start of the first interval isn't known
+                    if (testPerformanceMap.putIfAbsent(testId, new TestPerformance(delta, delta, 0, nowMillis)) == null) {
                         return;
                     }
                 } else {
-                    TestPerformance update = current.update(delta);
+                    TestPerformance update = current.update(delta, nowMillis);
                     if (testPerformanceMap.replace(testId, current, update)) {
                         return;
                     }
@@ -217,16 +314,76 @@ public class PerformanceStatsCollector {
     private final class TestPerformance {
         private final PerformanceStats aggregated;
         private final PerformanceStats lastDelta;
+        // the lastDelta covers the time between the previous update and this update
+        private final long intervalStartMillis;
+        private final long updateMillis;
 
-        private TestPerformance(PerformanceStats aggregated, PerformanceStats lastDelta) {
+        private TestPerformance(PerformanceStats aggregated, PerformanceStats lastDelta, long intervalStartMillis,
+                                long updateMillis) {
             this.aggregated = aggregated;
             this.lastDelta = lastDelta;
+            this.intervalStartMillis = intervalStartMillis;
+            this.updateMillis = updateMillis;
         }
 
-        private TestPerformance update(PerformanceStats delta) {
+        private TestPerformance update(PerformanceStats delta, long nowMillis) {
             PerformanceStats newAggregated = new PerformanceStats(aggregated);
             newAggregated.add(delta, false);
-            return new TestPerformance(newAggregated, delta);
+            return new TestPerformance(newAggregated, delta, updateMillis, nowMillis);
+        }
+    }
+
+    /**
+     * The aggregated last interval of the workers which have recently sent an update, together with the times the intervals
+     * of the workers were received. The times are the local time of the coordinator.
+     */
+    static final class RecentInterval {
+        private final PerformanceStats stats;
+        private final long startMillis;
+        private final long firstUpdateMillis;
+        private final long lastUpdateMillis;
+
+        RecentInterval(PerformanceStats stats, long startMillis, long firstUpdateMillis, long lastUpdateMillis) {
+            this.stats = stats;
+            this.startMillis = startMillis;
+            this.firstUpdateMillis = firstUpdateMillis;
+            this.lastUpdateMillis = lastUpdateMillis;
+        }
+
+        PerformanceStats getStats() {
+            return stats;
+        }
+
+        boolean isEmpty() {
+            return stats.isEmpty();
+        }
+
+        /**
+         * Returns the earliest start of the intervals of the workers, which is the time of the previous update of a worker.
+         *
+         * @return the start of the interval, 0 if it isn't known since it is the first update of a worker, or
+         *         {@link Long#MAX_VALUE} if the interval is empty
+         */
+        long getStartMillis() {
+            return startMillis;
+        }
+
+        /**
+         * Returns the time the first of the intervals of the workers was received.
+         *
+         * @return the time of the earliest update, or {@link Long#MAX_VALUE} if the interval is empty
+         */
+        long getFirstUpdateMillis() {
+            return firstUpdateMillis;
+        }
+
+        /**
+         * Returns the time the last of the intervals of the workers was received.
+         *
+         * @return the time of the latest update
+         */
+        long getLastUpdateMillis() {
+            return lastUpdateMillis;
         }
     }
 }
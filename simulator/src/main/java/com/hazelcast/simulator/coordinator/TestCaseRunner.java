@@ -17,25 +17,32 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.coordinator.operations.FailureOperation;
 import com.hazelcast.simulator.coordinator.registry.Registry;
 import com.hazelcast.simulator.coordinator.registry.TestData;
 import com.hazelcast.simulator.coordinator.registry.WorkerData;
 import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.CoordinatorClient.ResponseFuture;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+import com.hazelcast.simulator.worker.operations.AwaitReadyOperation;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
+import static com.hazelcast.simulator.common.FailureType.SLA_VIOLATION;
 import static com.hazelcast.simulator.common.TestPhase.GLOBAL_PREPARE;
 import static com.hazelcast.simulator.common.TestPhase.GLOBAL_TEARDOWN;
 import static com.hazelcast.simulator.common.TestPhase.GLOBAL_VERIFY;
@@ -54,10 +61,14 @@ import static com.hazelcast.simulator.utils.CommonUtils.sleepUntilMs;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.utils.FormatUtils.padRight;
 import static com.hazelcast.simulator.utils.FormatUtils.secondsToHuman;
+import static com.hazelcast.simulator.worker.operations.AwaitReadyOperation.READY;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
+import static java.util.Collections.singletonList;
 import static java.lang.System.currentTimeMillis;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -70,6 +81,9 @@ public final class TestCaseRunner {
     private static final int RUN_PHASE_LOG_INTERVAL_SECONDS = 30;
     private static final int WAIT_FOR_PHASE_COMPLETION_LOG_INTERVAL_SECONDS = 30;
     private static final int WAIT_FOR_PHASE_COMPLETION_LOG_VERBOSE_DELAY_SECONDS = 300;
+    private static final String DEFAULT_RUN_PHASE_START_DELAY_MILLIS = "1000";
+    private static final String DEFAULT_RUN_PHASE_READINESS_TIMEOUT_SECONDS = "300";
+    private static final long READINESS_RESPONSE_MARGIN_MILLIS = SECONDS.toMillis(30);
     private static final Logger LOGGER = Logger.getLogger(TestCaseRunner.class);
 
     private final TestData test;
@@ -82,13 +96,20 @@ public final class TestCaseRunner {
     private final Map<TestPhase, CountDownLatch> testPhaseSyncMap;
     private final boolean isVerifyEnabled;
     private final TargetType targetType;
-    private final int targetCount;
     private final int performanceMonitorIntervalSeconds;
     private final int logRunPhaseIntervalSeconds;
     private final List<WorkerData> targets;
     private final WorkerData globalTarget;
-
-    @SuppressWarnings("checkstyle:parameternumber")
+    private final List<SimulatorAddress> targetAddresses;
+    private final long runPhaseStartDelayMillis;
+    private final long readinessTimeoutMillis;
+    private final long warmupMillis;
+    private final Registry registry;
+    private final PerformanceSla performanceSla;
+    private final FaultInjector faultInjector;
+    private boolean slaViolated;
+
+    @SuppressWarnings({"checkstyle:parameternumber", "checkstyle:executablestatementcount"})
     public TestCaseRunner(TestData test,
                           CoordinatorParameters coordinatorParameters,
                           List<WorkerData> targets,
@@ -106,17 +127,32 @@ public final class TestCaseRunner {
         this.prefix = padRight(testCase.getId(), testSuite.getMaxTestCaseIdLength() + 1);
         this.testPhaseSyncMap = testPhaseSyncMap;
         this.targets = targets;
+        this.targetAddresses = WorkerData.toAddresses(targets);
         this.globalTarget = targets.iterator().next();
         this.isVerifyEnabled = testSuite.isVerifyEnabled();
         this.targetType = testSuite.getWorkerQuery().getTargetType().resolvePreferClient(registry.hasClientWorkers());
-        this.targetCount = targets.size();
         this.performanceMonitorIntervalSeconds
                 = coordinatorParameters.getSimulatorProperties().getInt("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS");
-        if (performanceMonitorIntervalSeconds > 0) {
-            this.logRunPhaseIntervalSeconds = min(performanceMonitorIntervalSeconds, RUN_PHASE_LOG_INTERVAL_SECONDS);
-        } else {
-            this.logRunPhaseIntervalSeconds = RUN_PHASE_LOG_INTERVAL_SECONDS;
+        this.logRunPhaseIntervalSeconds = getLogRunPhaseIntervalSeconds(performanceMonitorIntervalSeconds);
+        this.runPhaseStartDelayMillis = Long.parseLong(coordinatorParameters.getSimulatorProperties()
+                .get("RUN_PHASE_START_DELAY_MILLIS", DEFAULT_RUN_PHASE_START_DELAY_MILLIS));
+        this.readinessTimeoutMillis = SECONDS.toMillis(Long.parseLong(coordinatorParameters.getSimulatorProperties()
+                .get("RUN_PHASE_READINESS_TIMEOUT_SECONDS", DEFAULT_RUN_PHASE_READINESS_TIMEOUT_SECONDS)));
+        this.registry = registry;
+        this.performanceSla = PerformanceSla.fromTestCase(testCase);
+        this.warmupMillis = parseWarmupMillis(testCase);
+        this.faultInjector = newFaultInjector(coordinatorParameters, registry);
+    }
+
+    private FaultInjector newFaultInjector(CoordinatorParameters coordinatorParameters, Registry registry) {
+        List<Fault> faults = Fault.fromTestCase(testCase);
+        if (faults.isEmpty()) {
+            return null;
         }
+        // an interval of a worker which didn't send an update for two intervals is stale, e.g. since it was killed
+        long maxIntervalAgeMillis = SECONDS.toMillis(2L * Math.max(1, performanceMonitorIntervalSeconds));
+        return new FaultInjector(testCase.getId(), prefix, faults, targets, registry, client, performanceStatsCollector,
+                maxIntervalAgeMillis, coordinatorParameters.getOutputDirectory());
     }
 
     public boolean run() {
@@ -151,6 +187,7 @@ public final class TestCaseRunner {
         executePhase(SETUP);
         executePhase(LOCAL_PREPARE);
         executePhase(GLOBAL_PREPARE);
+        awaitReady();
         executeRun();
         if (isVerifyEnabled) {
             executePhase(GLOBAL_VERIFY);
@@ -165,6 +202,10 @@ public final class TestCaseRunner {
     private void logDetails() {
         LOGGER.info(format("Test %s using %s workers [%s]",
                 testCase.getId(), targets.size(), WorkerData.toAddressString(targets)));
+        if (performanceSla != null && performanceMonitorIntervalSeconds <= 0) {
+            LOGGER.warn(format("Test %s has a performance SLA, but it can't be evaluated since the performance monitor"
+                    + " is disabled", testCase.getId()));
+        }
     }
 
     private void createTest() {
@@ -174,36 +215,34 @@ public final class TestCaseRunner {
     }
 
     private void invokeOnTargets(SimulatorOperation op) {
-        Map<WorkerData, Future> futures = submitToTargets(false, op);
-        awaitCompletion(futures);
+        long startNanos = System.nanoTime();
+        ResponseFuture future = submitToTargets(false, op);
+        long submittedNanos = System.nanoTime();
+        awaitCompletion(future);
+        long completedNanos = System.nanoTime();
+
+        log(format("Invoked %s on %d workers in %d ms (submit %d ms)", op.getClass().getSimpleName(), future.getTargetCount(),
+                NANOSECONDS.toMillis(completedNanos - startNanos), NANOSECONDS.toMillis(submittedNanos - startNanos)));
     }
 
-    private Map<WorkerData, Future> submitToTargets(boolean singleTarget, SimulatorOperation op) {
-        Map<WorkerData, Future> futures = new HashMap<>();
-
+    /**
+     * Broadcasts the operation to the target workers; a single message is sent per agent and the completions of all
+     * workers are aggregated in the returned future.
+     */
+    private ResponseFuture submitToTargets(boolean singleTarget, SimulatorOperation op) {
         if (singleTarget) {
-            Future f = client.submit(globalTarget.getAddress(), op);
-            futures.put(globalTarget, f);
-        } else {
-            for (WorkerData worker : targets) {
-                Future f = client.submit(worker.getAddress(), op);
-                futures.put(worker, f);
-            }
+            return client.broadcast(singletonList(globalTarget.getAddress()), op);
         }
-
-        return futures;
+        return client.broadcast(targetAddresses, op);
     }
 
-    private void awaitCompletion(Map<WorkerData, Future> futures) {
-        for (Map.Entry<WorkerData, Future> entry : futures.entrySet()) {
-            Future f = entry.getValue();
-            try {
-                f.get();
-            } catch (InterruptedException e) {
-                throw new RuntimeException();
-            } catch (ExecutionException e) {
-                throw new RuntimeException(e.getCause());
-            }
+    private void awaitCompletion(Future future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            throw new RuntimeException();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         }
     }
 
@@ -215,14 +254,62 @@ public final class TestCaseRunner {
         log("Starting Test " + phase.desc());
         test.setTestPhase(phase);
 
-        Map<WorkerData, Future> futures = submitToTargets(
-                phase.isGlobal(), new StartPhaseOperation(phase, testCase.getId()));
+        ResponseFuture future = submitToTargets(phase.isGlobal(), new StartPhaseOperation(phase, testCase.getId()));
 
-        waitForPhaseCompletion(phase, futures);
+        waitForPhaseCompletion(phase, future);
         log("Completed Test " + phase.desc());
         waitForGlobalTestPhaseCompletion(phase);
     }
 
+    /**
+     * Waits till the vendor instances of all workers are ready, e.g. no migrations are pending, before the RUN phase is
+     * started. The readiness of all workers is checked, not only of the targets, since a test running on clients still
+     * suffers from migrations on the members.
+     *
+     * A worker which isn't ready in time doesn't fail the test; the RUN phase is started anyway and a warning is logged.
+     */
+    private void awaitReady() {
+        if (readinessTimeoutMillis <= 0 || hasFailure() || test.isStopRequested()) {
+            return;
+        }
+
+        log("Waiting for the cluster to be ready");
+        long startNanos = System.nanoTime();
+        Map<WorkerData, Future<String>> futures = new HashMap<>();
+        for (WorkerData worker : registry.getWorkers()) {
+            futures.put(worker, client.submit(worker.getAddress(), new AwaitReadyOperation(readinessTimeoutMillis)));
+        }
+
+        List<String> notReady = new ArrayList<>();
+        long deadlineNanos = startNanos + MILLISECONDS.toNanos(readinessTimeoutMillis + READINESS_RESPONSE_MARGIN_MILLIS);
+        for (Map.Entry<WorkerData, Future<String>> entry : futures.entrySet()) {
+            if (!isReady(entry.getValue(), deadlineNanos)) {
+                notReady.add(entry.getKey().getAddress().toString());
+            }
+        }
+
+        long waitedMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (notReady.isEmpty()) {
+            log(format("Cluster ready after %d ms", waitedMillis));
+        } else {
+            LOGGER.warn(format("%sCluster not ready after %d ms, workers %s not ready; starting %s anyway",
+                    prefix, waitedMillis, notReady, RUN));
+        }
+    }
+
+    private static boolean isReady(Future<String> future, long deadlineNanos) {
+        try {
+            long remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+            return READY.equals(future.get(remainingNanos, NANOSECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.debug("Failed to await readiness", e);
+            return false;
+        }
+    }
+
     @SuppressWarnings("checkstyle:npathcomplexity")
     private void executeRun() {
         if (test.isStopRequested()) {
@@ -231,9 +318,8 @@ public final class TestCaseRunner {
         }
 
         test.setTestPhase(RUN);
-        Map<WorkerData, Future> futures = startRun();
-
-        long startMs = currentTimeMillis();
+        long startMs = currentTimeMillis() + runPhaseStartDelayMillis;
+        ResponseFuture future = startRun(startMs);
 
         long durationSeconds = testSuite.getDurationSeconds();
         long durationMs;
@@ -248,6 +334,7 @@ public final class TestCaseRunner {
             timeoutMs = startMs + durationMs;
         }
 
+        startFaultInjection(startMs);
         long nextSleepUntilMs = startMs;
         int iteration = 0;
         for (; ; ) {
@@ -260,7 +347,7 @@ public final class TestCaseRunner {
             }
 
             long nowMs = currentTimeMillis();
-            if (nowMs > timeoutMs || isAllDone(futures) || test.isStopRequested()) {
+            if (nowMs > timeoutMs || future.isDone() || test.isStopRequested()) {
                 log("Test finished run");
                 break;
             }
@@ -269,25 +356,42 @@ public final class TestCaseRunner {
             if (iteration % logRunPhaseIntervalSeconds == 0) {
                 logProgress(nowMs - startMs, durationMs);
             }
+            if (performanceMonitorIntervalSeconds > 0 && iteration % performanceMonitorIntervalSeconds == 0) {
+                checkIntervalSla();
+            }
+            if (faultInjector != null) {
+                faultInjector.tick(nowMs);
+            }
         }
 
+        stopFaultInjection();
         stopRun();
 
-        waitForPhaseCompletion(RUN, futures);
+        waitForPhaseCompletion(RUN, future);
 
         logFinalPerformanceInfo(startMs);
 
         waitForGlobalTestPhaseCompletion(RUN);
     }
 
-    private boolean isAllDone(Map<WorkerData, Future> futures) {
-        for (Future f : futures.values()) {
-            if (!f.isDone()) {
-                return false;
-            }
+    private void startFaultInjection(long startMs) {
+        if (faultInjector == null) {
+            return;
+        }
+        if (performanceMonitorIntervalSeconds <= 0) {
+            LOGGER.warn(format("Test %s has faults, but the disruption can't be measured since the performance monitor"
+                    + " is disabled", testCase.getId()));
         }
+        failureCollector.addListener(faultInjector);
+        faultInjector.start(startMs);
+    }
 
-        return true;
+    private void stopFaultInjection() {
+        if (faultInjector == null) {
+            return;
+        }
+        faultInjector.close();
+        failureCollector.removeListener(faultInjector);
     }
 
     private void logFinalPerformanceInfo(long startMs) {
@@ -295,8 +399,8 @@ public final class TestCaseRunner {
         // due to premature abortion of a test. Or if the test has no explicit duration configured
         long durationWithWarmupMillis = currentTimeMillis() - startMs;
 
-        // then we need to subtract the warmup.
-        long durationMillis = durationWithWarmupMillis;
+        // then we need to subtract the warmup, since the workers don't measure the warmup.
+        long durationMillis = max(0, durationWithWarmupMillis - warmupMillis);
 
         if (performanceMonitorIntervalSeconds > 0) {
             LOGGER.info(testCase.getId() + " Waiting for all performance info");
@@ -305,26 +409,62 @@ public final class TestCaseRunner {
             String performanceInfo = performanceStatsCollector.detailedPerformanceInfo(testCase.getId(), durationMillis);
             LOGGER.info("Performance " + testCase.getId() + "\n"
                     + performanceInfo);
+
+            checkTotalSla(durationMillis);
+        }
+    }
+
+    private void checkIntervalSla() {
+        if (performanceSla == null || !performanceSla.isContinuous() || slaViolated) {
+            return;
+        }
+        PerformanceStats interval = performanceStatsCollector.get(testCase.getId(), false);
+        reportSlaViolations(performanceSla.checkInterval(interval));
+    }
+
+    private void checkTotalSla(long durationMillis) {
+        if (performanceSla == null || slaViolated) {
+            return;
+        }
+        PerformanceStats total = new PerformanceStats();
+        performanceStatsCollector.calculatePerformanceStats(testCase.getId(), total, new HashMap<>());
+        List<String> violations = performanceSla.checkTotal(total,
+                performanceStatsCollector.getLatencyHistograms(testCase.getId()), durationMillis / (double) SECONDS.toMillis(1));
+        if (violations.isEmpty()) {
+            log("Performance SLA has been met");
+        }
+        reportSlaViolations(violations);
+    }
+
+    private void reportSlaViolations(List<String> violations) {
+        if (violations.isEmpty()) {
+            return;
         }
+        // only a single failure is reported per test, to prevent a flood of failures while the test is running
+        slaViolated = true;
+        String message = "Performance SLA violated: " + String.join(", ", violations);
+        failureCollector.notify(new FailureOperation(message, SLA_VIOLATION, null, null, null, testCase.getId(), null));
     }
 
     /**
      * Starts running the test. This call is asynchronous. It will not wait for the running to complete. It will
-     * return a map of futures (one for each target worker) that can be used to sync on completion.
+     * return a future that completes when all target workers have completed the run.
+     * <p>
+     * All workers start the run at the given wall-clock time, so the run windows of the workers are aligned.
      */
-    private Map<WorkerData, Future> startRun() {
-        log(format("Starting run on %s workers", targetType.toString(targetCount)));
+    private ResponseFuture startRun(long startTimeMillis) {
+        log(format("Starting run on %s workers", targetType.toString(targets.size())));
         log(format("Test run using workers %s", WorkerData.toAddressString(targets)));
-        return submitToTargets(false, new StartPhaseOperation(RUN, testCase.getId()));
+        return submitToTargets(false, new StartPhaseOperation(RUN, testCase.getId(), startTimeMillis));
     }
 
     private void stopRun() {
         log("Stopping test");
 
-        Map<WorkerData, Future> futures = submitToTargets(false, new StopRunOperation(testCase.getId()));
+        ResponseFuture future = submitToTargets(false, new StopRunOperation(testCase.getId()));
 
         try {
-            waitForPhaseCompletion(RUN, futures);
+            waitForPhaseCompletion(RUN, future);
             log("Stopping test completed");
         } catch (TestCaseAbortedException e) {
             log(e.getMessage());
@@ -348,12 +488,9 @@ public final class TestCaseRunner {
         LOGGER.info(prefix + msg);
     }
 
-    private void waitForPhaseCompletion(TestPhase testPhase, Map<WorkerData, Future> futures) {
-        int completedWorkers = 0;
-        int expectedWorkers = futures.size();
-
+    private void waitForPhaseCompletion(TestPhase testPhase, ResponseFuture future) {
         long started = System.nanoTime();
-        while (completedWorkers < expectedWorkers) {
+        while (!future.isDone()) {
             sleepSeconds(1);
 
             if (hasFailure()) {
@@ -361,24 +498,19 @@ public final class TestCaseRunner {
                         format("Waiting for %s completion aborted (critical failure)", testPhase.desc()), testPhase);
             }
 
-            completedWorkers = 0;
-            for (Future f : futures.values()) {
-                if (f.isDone()) {
-                    completedWorkers++;
-                }
-            }
-
-            logMissingWorkers(testPhase, completedWorkers, expectedWorkers, started, futures);
+            logMissingWorkers(testPhase, started, future);
         }
     }
 
-    private void logMissingWorkers(TestPhase testPhase, int completedWorkers, int expectedWorkers,
-                                   long started, Map<WorkerData, Future> futures) {
+    private void logMissingWorkers(TestPhase testPhase, long started, ResponseFuture future) {
         long elapsed = getElapsedSeconds(started);
         if (elapsed % WAIT_FOR_PHASE_COMPLETION_LOG_INTERVAL_SECONDS != 0) {
             return;
         }
 
+        Set<SimulatorAddress> missingWorkers = future.getPendingTargets();
+        int expectedWorkers = future.getTargetCount();
+        int completedWorkers = future.isDone() ? expectedWorkers : expectedWorkers - missingWorkers.size();
         if (elapsed < WAIT_FOR_PHASE_COMPLETION_LOG_VERBOSE_DELAY_SECONDS || completedWorkers == expectedWorkers) {
             log(format("Waiting %s for %s completion (%d/%d workers)", secondsToHuman(elapsed), testPhase.desc(),
                     completedWorkers, expectedWorkers));
@@ -386,12 +518,6 @@ public final class TestCaseRunner {
         }
 
         // verbose logging of missing workers
-        List<SimulatorAddress> missingWorkers = new ArrayList<>();
-        for (Map.Entry<WorkerData, Future> entry : futures.entrySet()) {
-            if (!entry.getValue().isDone()) {
-                missingWorkers.add(entry.getKey().getAddress());
-            }
-        }
         log(format("Waiting %s for %s completion (%d/%d workers) (missing workers: %s)", secondsToHuman(elapsed),
                 testPhase.desc(), completedWorkers, expectedWorkers, missingWorkers));
     }
@@ -418,6 +544,40 @@ public final class TestCaseRunner {
         return latch;
     }
 
+    /**
+     * Parses the warmupMillis property of a test, so a malformed value fails the test suite before it starts, instead of at
+     * the end of the run phase.
+     *
+     * @param testCase the TestCase
+     * @return the warmup in milliseconds, or 0 if the test has no warmup
+     * @throws IllegalArgumentException if the warmup isn't a number or is smaller than 0
+     */
+    static long parseWarmupMillis(TestCase testCase) {
+        String value = testCase.getProperty("warmupMillis");
+        if (value == null) {
+            return 0;
+        }
+        long warmupMillis;
+        try {
+            warmupMillis = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    format("Property [warmupMillis] in test [%s] is not a number: %s", testCase.getId(), value), e);
+        }
+        if (warmupMillis < 0) {
+            throw new IllegalArgumentException(
+                    format("Property [warmupMillis] in test [%s] can't be smaller than 0: %s", testCase.getId(), value));
+        }
+        return warmupMillis;
+    }
+
+    private static int getLogRunPhaseIntervalSeconds(int performanceMonitorIntervalSeconds) {
+        if (performanceMonitorIntervalSeconds > 0) {
+            return min(performanceMonitorIntervalSeconds, RUN_PHASE_LOG_INTERVAL_SECONDS);
+        }
+        return RUN_PHASE_LOG_INTERVAL_SECONDS;
+    }
+
     private void log(String msg) {
         LOGGER.info(prefix + msg);
     }
@@ -19,12 +19,14 @@ import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.coordinator.registry.WorkerQuery;
 import com.hazelcast.simulator.utils.BindException;
 import com.hazelcast.simulator.utils.CommandLineExitException;
+import com.hazelcast.simulator.ycsb.YcsbWorkload;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -45,6 +47,7 @@ public class TestSuite implements Serializable {
     private static final Pattern VALID_FILE_NAME_PATTERN = Pattern.compile("^[a-zA-Z0-9-]+$");
 
     private final List<TestCase> testCaseList = new LinkedList<>();
+    private final List<ParameterSweep> sweeps = new ArrayList<>();
     private long durationSeconds;
     private boolean failFast;
     private boolean parallel;
@@ -112,7 +115,23 @@ public class TestSuite implements Serializable {
                 throw new BindException(msg);
             }
 
+            addTestOrSweep(testCase);
+        }
+    }
+
+    private void addTestOrSweep(TestCase testCase) {
+        ParameterSweep sweep = ParameterSweep.expand(testCase);
+        if (sweep == null) {
+            YcsbWorkload.apply(testCase);
             addTest(testCase);
+            return;
+        }
+
+        sweeps.add(sweep);
+        for (TestCase expanded : sweep.getTestCases()) {
+            // the workload can be a dimension of the sweep
+            YcsbWorkload.apply(expanded);
+            addTest(expanded);
         }
     }
 
@@ -147,6 +166,13 @@ public class TestSuite implements Serializable {
         return testCaseList;
     }
 
+    /**
+     * Returns the parameter sweeps of this TestSuite; the TestCases of a sweep are part of the test case list.
+     */
+    public List<ParameterSweep> getSweeps() {
+        return sweeps;
+    }
+
     public TestSuite setDurationSeconds(long durationSeconds) {
         this.durationSeconds = durationSeconds;
         return this;
@@ -207,6 +233,7 @@ public class TestSuite implements Serializable {
                 + ", verifyEnabled=" + verifyEnabled
                 + ", workerQuery=" + workerQuery
                 + ", testCaseList=" + testCaseList
+                + ", sweeps=" + sweeps.size()
                 + '}';
     }
 
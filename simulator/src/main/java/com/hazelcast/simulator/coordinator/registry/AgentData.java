@@ -15,6 +15,7 @@
  */
 package com.hazelcast.simulator.coordinator.registry;
 
+import com.hazelcast.simulator.common.HardwareTopology;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 
 import java.util.ArrayList;
@@ -58,6 +59,7 @@ public class AgentData {
     private final String publicAddress;
     private final String privateAddress;
     private final Map<String, String> tags;
+    private volatile HardwareTopology hardwareTopology;
 
     public AgentData(int addressIndex, String publicAddress, String privateAddress) {
         this(addressIndex, publicAddress, privateAddress, new HashMap<>());
@@ -86,6 +88,19 @@ public class AgentData {
         return agentWorkerMode;
     }
 
+    /**
+     * Returns the hardware topology reported by the Agent.
+     *
+     * @return the hardware topology or {@code null} if the Agent didn't report it
+     */
+    public HardwareTopology getHardwareTopology() {
+        return hardwareTopology;
+    }
+
+    public void setHardwareTopology(HardwareTopology hardwareTopology) {
+        this.hardwareTopology = hardwareTopology;
+    }
+
     public int getAddressIndex() {
         return addressIndex;
     }
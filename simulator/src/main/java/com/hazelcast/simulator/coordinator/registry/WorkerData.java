@@ -18,8 +18,10 @@ package com.hazelcast.simulator.coordinator.registry;
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -88,4 +90,12 @@ public class WorkerData {
 
         return sb.toString();
     }
+
+    public static List<SimulatorAddress> toAddresses(Collection<WorkerData> workers) {
+        List<SimulatorAddress> addresses = new ArrayList<>(workers.size());
+        for (WorkerData worker : workers) {
+            addresses.add(worker.getAddress());
+        }
+        return addresses;
+    }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator.tasks;
+
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import org.apache.log4j.Logger;
+
+import javax.jms.BytesMessage;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static com.hazelcast.simulator.agent.operations.CollectArtifactsOperation.ARTIFACT_PROPERTY;
+import static com.hazelcast.simulator.agent.operations.CollectArtifactsOperation.LAST_CHUNK_PROPERTY;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.FileUtils.delete;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Receives the artifact archives of a single agent and unpacks each archive as soon as its last chunk has arrived.
+ *
+ * An archive is unpacked into a temporary directory first and then moved into the session directory, so a worker
+ * directory that didn't exist yet appears as a whole.
+ */
+class ArtifactReceiver implements MessageListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ArtifactReceiver.class);
+
+    // only accessed by the single JMS thread of the consumer
+    private final Map<String, OutputStream> archives = new HashMap<>();
+    private final File sessionDir;
+    private final File tmpDir;
+    private final SimulatorAddress agentAddress;
+    private int completedCount;
+    private Exception failure;
+
+    ArtifactReceiver(File sessionDir, File tmpDir, SimulatorAddress agentAddress) {
+        this.sessionDir = sessionDir;
+        this.tmpDir = tmpDir;
+        this.agentAddress = agentAddress;
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        String name = null;
+        try {
+            name = message.getStringProperty(ARTIFACT_PROPERTY);
+            if (hasFailed()) {
+                return;
+            }
+
+            OutputStream out = archives.get(name);
+            if (out == null) {
+                out = new BufferedOutputStream(new FileOutputStream(getArchiveFile(name)));
+                archives.put(name, out);
+            }
+
+            BytesMessage bytesMessage = (BytesMessage) message;
+            byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(bytes);
+            out.write(bytes);
+
+            if (message.getBooleanProperty(LAST_CHUNK_PROPERTY)) {
+                archives.remove(name).close();
+                unpack(name);
+                LOGGER.info(format("Collected artifact %s from agent %s", name, agentAddress));
+                onCompleted();
+            }
+        } catch (Exception e) {
+            LOGGER.error(format("Failed to receive artifact %s from agent %s", name, agentAddress), e);
+            onFailure(e);
+        }
+    }
+
+    /**
+     * Waits until the given number of archives has been unpacked.
+     *
+     * @param archiveCount   the number of archives the agent has sent
+     * @param deadlineMillis the deadline
+     * @throws Exception if an archive couldn't be received or the deadline has passed
+     */
+    synchronized void awaitCompleted(int archiveCount, long deadlineMillis) throws Exception {
+        while (failure == null && completedCount < archiveCount) {
+            long remainingMillis = deadlineMillis - System.currentTimeMillis();
+            if (remainingMillis <= 0) {
+                throw new TimeoutException(format("Received %d of %d artifacts from agent %s",
+                        completedCount, archiveCount, agentAddress));
+            }
+            wait(remainingMillis);
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    void close() {
+        closeQuietly(archives.values());
+        archives.clear();
+    }
+
+    private synchronized boolean hasFailed() {
+        return failure != null;
+    }
+
+    private synchronized void onCompleted() {
+        completedCount++;
+        notifyAll();
+    }
+
+    private synchronized void onFailure(Exception e) {
+        failure = e;
+        notifyAll();
+    }
+
+    private File getArchiveFile(String name) {
+        return new File(tmpDir, name + ".zip");
+    }
+
+    private void unpack(String name) throws IOException {
+        File archiveFile = getArchiveFile(name);
+        File unpackDir = ensureExistingDirectory(tmpDir, name + ".unpack");
+        String unpackPath = unpackDir.getCanonicalPath() + File.separator;
+
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(archiveFile))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                File file = new File(unpackDir, entry.getName());
+                if (!file.getCanonicalPath().startsWith(unpackPath)) {
+                    throw new IOException("Invalid entry in artifact " + name + ": " + entry.getName());
+                }
+                ensureExistingDirectory(file.getParentFile());
+                Files.copy(in, file.toPath(), REPLACE_EXISTING);
+                // keeping the modification time prevents a later rsync based download from transferring the file again
+                file.setLastModified(entry.getTime());
+            }
+        }
+
+        File[] unpacked = unpackDir.listFiles();
+        if (unpacked != null) {
+            for (File file : unpacked) {
+                moveInto(file, new File(sessionDir, file.getName()));
+            }
+        }
+        delete(unpackDir);
+        delete(archiveFile);
+    }
+
+    private static void moveInto(File source, File target) throws IOException {
+        if (!target.exists() || !source.isDirectory() || !target.isDirectory()) {
+            Files.move(source.toPath(), target.toPath(), REPLACE_EXISTING);
+            return;
+        }
+
+        File[] children = source.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                moveInto(child, new File(target, child.getName()));
+            }
+        }
+        delete(source);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator.tasks;
+
+import com.hazelcast.simulator.agent.operations.CollectArtifactsOperation;
+import com.hazelcast.simulator.common.SimulatorProperties;
+import com.hazelcast.simulator.coordinator.registry.AgentData;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.UuidUtil.newUnsecureUuidString;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Collects the artifacts of a session from all agents concurrently, over the connections of the {@link CoordinatorClient}.
+ *
+ * The agents compress the artifacts and skip the files the coordinator already has (see {@link CollectArtifactsOperation}).
+ * Every worker directory is unpacked as soon as it has been received, so a report can start on the completed workers
+ * while the artifacts of other workers are still being transferred.
+ *
+ * The agents the artifacts could not be collected from are returned, so they can be downloaded with the
+ * {@link DownloadTask}.
+ */
+public class CollectArtifactsTask {
+
+    private static final Logger LOGGER = Logger.getLogger(CollectArtifactsTask.class);
+    private static final String TMP_DIR_NAME = ".artifacts";
+
+    private final List<AgentData> agents;
+    private final CoordinatorClient client;
+    private final SimulatorProperties simulatorProperties;
+    private final File rootDir;
+    private final String sessionId;
+
+    public CollectArtifactsTask(List<AgentData> agents,
+                                CoordinatorClient client,
+                                SimulatorProperties simulatorProperties,
+                                File rootDir,
+                                String sessionId) {
+        this.agents = agents;
+        this.client = client;
+        this.simulatorProperties = simulatorProperties;
+        this.rootDir = rootDir;
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * Collects the artifacts.
+     *
+     * @return the agents the artifacts could not be collected from
+     */
+    public List<AgentData> run() {
+        long started = System.nanoTime();
+        LOGGER.info(format("Collecting artifacts of session [%s] from %d agents...", sessionId, agents.size()));
+
+        File sessionDir = ensureExistingDirectory(rootDir, sessionId);
+        File tmpDir = new File(sessionDir, TMP_DIR_NAME);
+        Map<String, Long> existingFiles = new HashMap<>();
+        addExistingFiles(sessionDir, "", existingFiles);
+
+        List<AgentData> failedAgents = new ArrayList<>();
+        Map<AgentData, Transfer> transfers = new LinkedHashMap<>();
+        for (AgentData agent : agents) {
+            try {
+                transfers.put(agent, startTransfer(agent, sessionDir, tmpDir, existingFiles));
+            } catch (Exception e) {
+                LOGGER.warn(format("Failed to collect artifacts from agent %s: %s", agent.getAddress(), e.getMessage()));
+                failedAgents.add(agent);
+            }
+        }
+
+        long timeoutMillis = SECONDS.toMillis(simulatorProperties.getInt("COLLECT_ARTIFACTS_TIMEOUT_SECONDS"));
+        long deadlineMillis = System.currentTimeMillis() + timeoutMillis;
+        for (Map.Entry<AgentData, Transfer> entry : transfers.entrySet()) {
+            AgentData agent = entry.getKey();
+            try {
+                entry.getValue().await(deadlineMillis);
+            } catch (Exception e) {
+                LOGGER.warn(format("Failed to collect artifacts from agent %s: %s", agent.getAddress(), e.getMessage()));
+                failedAgents.add(agent);
+            } finally {
+                entry.getValue().close();
+            }
+        }
+        deleteQuiet(tmpDir);
+
+        LOGGER.info(format("Collecting artifacts complete in %d seconds, failed agents: %s",
+                getElapsedSeconds(started), failedAgents));
+        return failedAgents;
+    }
+
+    private Transfer startTransfer(AgentData agent, File sessionDir, File tmpDir, Map<String, Long> existingFiles)
+            throws Exception {
+        ArtifactReceiver receiver = new ArtifactReceiver(sessionDir, ensureExistingDirectory(tmpDir, agent.getAddress()
+                .toString()), agent.getAddress());
+        String queueName = "artifacts-" + newUnsecureUuidString();
+        Closeable consumer = client.consume(agent.getAddress(), queueName, receiver);
+        Future<String> future = client.submit(agent.getAddress(),
+                new CollectArtifactsOperation(sessionId, queueName, existingFiles));
+        return new Transfer(receiver, consumer, future);
+    }
+
+    private static void addExistingFiles(File dir, String prefix, Map<String, Long> existingFiles) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (file.isDirectory()) {
+                if (!TMP_DIR_NAME.equals(file.getName())) {
+                    addExistingFiles(file, prefix + file.getName() + '/', existingFiles);
+                }
+            } else {
+                existingFiles.put(prefix + file.getName(), file.length());
+            }
+        }
+    }
+
+    private static final class Transfer {
+
+        private final ArtifactReceiver receiver;
+        private final Closeable consumer;
+        private final Future<String> future;
+
+        private Transfer(ArtifactReceiver receiver, Closeable consumer, Future<String> future) {
+            this.receiver = receiver;
+            this.consumer = consumer;
+            this.future = future;
+        }
+
+        private void await(long deadlineMillis) throws Exception {
+            // the answer is sent after the last archive, but it can overtake the archives since it uses another queue
+            long remainingMillis = Math.max(0, deadlineMillis - System.currentTimeMillis());
+            int archiveCount = Integer.parseInt(future.get(remainingMillis, MILLISECONDS));
+            receiver.awaitCompleted(archiveCount, deadlineMillis);
+        }
+
+        private void close() {
+            closeQuietly(consumer);
+            receiver.close();
+        }
+    }
+}
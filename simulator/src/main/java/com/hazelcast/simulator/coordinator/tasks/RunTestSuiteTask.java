@@ -20,6 +20,7 @@ import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
 import com.hazelcast.simulator.coordinator.CoordinatorParameters;
 import com.hazelcast.simulator.coordinator.FailureCollector;
+import com.hazelcast.simulator.coordinator.ParameterSweep;
 import com.hazelcast.simulator.coordinator.PerformanceStatsCollector;
 import com.hazelcast.simulator.coordinator.TestCaseRunner;
 import com.hazelcast.simulator.coordinator.TestSuite;
@@ -31,6 +32,7 @@ import com.hazelcast.simulator.protocol.CoordinatorClient;
 import com.hazelcast.simulator.utils.ThreadSpawner;
 import org.apache.log4j.Logger;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +43,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static com.hazelcast.simulator.coordinator.registry.WorkerData.toAddressString;
 import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
 import static com.hazelcast.simulator.utils.FormatUtils.HORIZONTAL_RULER;
 import static com.hazelcast.simulator.utils.FormatUtils.secondsToHuman;
 import static java.lang.String.format;
@@ -112,6 +115,11 @@ public class RunTestSuiteTask {
     private boolean run0(List<TestData> tests, List<WorkerData> targets) {
         int testCount = testSuite.size();
         boolean parallel = testSuite.isParallel() && testCount > 1;
+        if (parallel && !testSuite.getSweeps().isEmpty()) {
+            // the combinations of a sweep need the workers for themselves, else they measure each other
+            LOGGER.warn("The TestSuite contains a parameter sweep, tests will be run sequentially");
+            parallel = false;
+        }
         Map<TestPhase, CountDownLatch> testPhaseSyncMap = getTestPhaseSyncMap(testCount, parallel,
                 coordinatorParameters.getLastTestPhaseToSync());
 
@@ -139,6 +147,7 @@ public class RunTestSuiteTask {
         long started = System.nanoTime();
         boolean success = parallel ? runParallel() : runSequential();
         echoTestSuiteEnd(testCount, started);
+        echoSweeps();
         return success;
     }
 
@@ -207,6 +216,18 @@ public class RunTestSuiteTask {
         LOGGER.info(HORIZONTAL_RULER);
     }
 
+    private void echoSweeps() {
+        for (ParameterSweep sweep : testSuite.getSweeps()) {
+            String testId = sweep.getTestId();
+            LOGGER.info(format("Parameter sweep %s:%n%s", testId, sweep.formatTable(performanceStatsCollector, registry)));
+
+            String fileName = testId.isEmpty() ? "sweep.csv" : testId + "-sweep.csv";
+            File file = new File(coordinatorParameters.getOutputDirectory(), fileName);
+            writeText(sweep.toCsv(performanceStatsCollector, registry), file);
+            LOGGER.info(format("Parameter sweep %s written to %s", testId, file.getAbsolutePath()));
+        }
+    }
+
     static Map<TestPhase, CountDownLatch> getTestPhaseSyncMap(int testCount, boolean parallel, TestPhase latestTestPhaseToSync) {
         if (!parallel) {
             return null;
@@ -24,19 +24,29 @@ import com.hazelcast.simulator.coordinator.registry.WorkerData;
 import com.hazelcast.simulator.protocol.CoordinatorClient;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.utils.CommandLineExitException;
-import com.hazelcast.simulator.utils.ThreadSpawner;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.FormatUtils.HORIZONTAL_RULER;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.MINUTES;
 
 /**
@@ -47,6 +57,12 @@ import static java.util.concurrent.TimeUnit.MINUTES;
  * <p>
  * The Workers will be created in order: First all member Workers are started, then all client Workers.
  * This is done to prevent clients running into a non existing cluster.
+ * <p>
+ * A Worker is ready when its Agent has answered the {@link CreateWorkerOperation}, which happens after the vendor instance
+ * of the Worker has been started; so a member has joined the cluster. The first member is started on its own, so the other
+ * members join the cluster it has formed. The other Workers are started as soon as a previous Worker is ready, with at
+ * most {@code parallelismPerAgent} Workers starting on an Agent and at most {@code parallelism} Workers starting in total.
+ * The clients are started once all members are ready.
  */
 public class StartWorkersTask {
 
@@ -55,22 +71,34 @@ public class StartWorkersTask {
     private final CoordinatorClient client;
     private final Registry registry;
     private final int startupDelayMs;
+    private final int parallelism;
+    private final int parallelismPerAgent;
     private final Map<SimulatorAddress, List<WorkerParameters>> memberDeploymentPlan;
     private final Map<SimulatorAddress, List<WorkerParameters>> clientDeploymentPlan;
     private final Map<String, String> tags;
+    private final Map<AgentData, Integer> startingPerAgent = new HashMap<>();
     private long started;
     private List<WorkerData> result = new LinkedList<>();
-    private int workerStartupIndex;
+    private long lastLaunchMillis;
+    private int starting;
 
     public StartWorkersTask(
             Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan,
             Map<String, String> workerTags,
             CoordinatorClient client,
             Registry registry,
-            int startupDelayMs) {
+            int startupDelayMs,
+            int parallelism,
+            int parallelismPerAgent) {
+        if (parallelism < 1 || parallelismPerAgent < 1) {
+            throw new IllegalArgumentException(format("The worker startup parallelism [%d] and parallelism per agent [%d]"
+                    + " must be at least 1", parallelism, parallelismPerAgent));
+        }
         this.client = client;
         this.registry = registry;
         this.startupDelayMs = startupDelayMs;
+        this.parallelism = parallelism;
+        this.parallelismPerAgent = parallelismPerAgent;
         this.tags = workerTags;
         this.memberDeploymentPlan = filterByWorkerType(true, deploymentPlan);
         this.clientDeploymentPlan = filterByWorkerType(false, deploymentPlan);
@@ -79,11 +107,16 @@ public class StartWorkersTask {
     public List<WorkerData> run() throws Exception {
         echoStartWorkers();
 
-        // first create all members
-        startWorkers(memberDeploymentPlan);
+        ExecutorService executor = newFixedThreadPool(parallelism);
+        try {
+            // first create all members
+            startWorkers(executor, memberDeploymentPlan, true);
 
-        // then create all clients
-        startWorkers(clientDeploymentPlan);
+            // then create all clients
+            startWorkers(executor, clientDeploymentPlan, false);
+        } finally {
+            executor.shutdownNow();
+        }
 
         client.invokeOnAllAgents(new StartTimeoutDetectionOperation(), MINUTES.toMillis(1));
 
@@ -97,9 +130,9 @@ public class StartWorkersTask {
         LOGGER.info("Starting Workers...");
         LOGGER.info(HORIZONTAL_RULER);
 
-        LOGGER.info(format("Starting %d Workers (%d members, %d clients)...",
+        LOGGER.info(format("Starting %d Workers (%d members, %d clients), %d in parallel and %d per agent...",
                 count(memberDeploymentPlan) + count(clientDeploymentPlan),
-                count(memberDeploymentPlan), count(clientDeploymentPlan)));
+                count(memberDeploymentPlan), count(clientDeploymentPlan), parallelism, parallelismPerAgent));
     }
 
     private void echoStartComplete() {
@@ -110,19 +143,100 @@ public class StartWorkersTask {
         LOGGER.info(HORIZONTAL_RULER);
     }
 
-    private void startWorkers(Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan) {
-        ThreadSpawner spawner = new ThreadSpawner("createWorkers", true);
+    private void startWorkers(ExecutorService executor, Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan,
+                              boolean firstAlone) throws Exception {
+        Map<AgentData, Queue<WorkerParameters>> pending = new LinkedHashMap<>();
         for (Map.Entry<SimulatorAddress, List<WorkerParameters>> entry : deploymentPlan.entrySet()) {
+            pending.put(registry.getAgent(entry.getKey()), new ArrayDeque<>(entry.getValue()));
+        }
 
-            SimulatorAddress agentAddress = entry.getKey();
-            AgentData agent = registry.getAgent(agentAddress);
+        CompletionService<CreateWorkerOnAgentTask> completionService = new ExecutorCompletionService<>(executor);
+        int remaining = count(deploymentPlan);
+        if (firstAlone && remaining > 0) {
+            launchNext(completionService, pending);
+            awaitReady(completionService);
+            remaining--;
+        }
 
-            for (WorkerParameters workerParameters : entry.getValue()) {
-                spawner.spawn(new CreateWorkerOnAgentTask(workerParameters, startupDelayMs * workerStartupIndex, agent));
-                workerStartupIndex++;
+        for (; remaining > 0; remaining--) {
+            launchAll(completionService, pending);
+            awaitReady(completionService);
+        }
+    }
+
+    /**
+     * Launches Workers round robin over the Agents, until the parallelism or the parallelism of the Agents is reached.
+     */
+    private void launchAll(CompletionService<CreateWorkerOnAgentTask> completionService,
+                           Map<AgentData, Queue<WorkerParameters>> pending) {
+        boolean launched = true;
+        while (launched && starting < parallelism) {
+            launched = launchNext(completionService, pending);
+        }
+    }
+
+    private boolean launchNext(CompletionService<CreateWorkerOnAgentTask> completionService,
+                               Map<AgentData, Queue<WorkerParameters>> pending) {
+        for (Map.Entry<AgentData, Queue<WorkerParameters>> entry : new ArrayList<>(pending.entrySet())) {
+            AgentData agent = entry.getKey();
+            if (getStarting(agent) >= parallelismPerAgent) {
+                continue;
+            }
+
+            WorkerParameters workerParameters = entry.getValue().poll();
+            // the agent moves to the end, so the next worker is launched on another agent
+            pending.remove(agent);
+            if (!entry.getValue().isEmpty()) {
+                pending.put(agent, entry.getValue());
+            }
+
+            awaitStartupDelay();
+            completionService.submit(new CreateWorkerOnAgentTask(workerParameters, agent));
+            startingPerAgent.put(agent, getStarting(agent) + 1);
+            starting++;
+            return true;
+        }
+        return false;
+    }
+
+    private void awaitStartupDelay() {
+        if (startupDelayMs > 0 && lastLaunchMillis > 0) {
+            sleepMillis((int) Math.max(0, lastLaunchMillis + startupDelayMs - System.currentTimeMillis()));
+        }
+        lastLaunchMillis = System.currentTimeMillis();
+    }
+
+    private void awaitReady(CompletionService<CreateWorkerOnAgentTask> completionService) throws Exception {
+        CreateWorkerOnAgentTask task;
+        try {
+            task = completionService.take().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CommandLineExitException) {
+                throw (CommandLineExitException) e.getCause();
             }
+            throw new CommandLineExitException("Failed to create worker", e.getCause());
         }
-        spawner.awaitCompletion();
+
+        starting--;
+        startingPerAgent.put(task.agent, getStarting(task.agent) - 1);
+        register(task.workerParameters, task.agent);
+    }
+
+    private int getStarting(AgentData agent) {
+        Integer count = startingPerAgent.get(agent);
+        return count == null ? 0 : count;
+    }
+
+    private void register(WorkerParameters workerParameters, AgentData agent) {
+        // the worker will automatically inherit all the tags of the agent it runs on and on top of that it
+        // its own tags are added.
+        Map<String, String> finalTags = new HashMap<>();
+        finalTags.putAll(agent.getTags());
+        finalTags.putAll(tags);
+
+        LOGGER.info(format("    Created %s Worker %s", workerParameters.getWorkerType(), workerParameters.get("WORKER_ADDRESS")));
+        List<WorkerData> createdWorkers = registry.addWorkers(asList(workerParameters), finalTags);
+        result.addAll(createdWorkers);
     }
 
     private static Map<SimulatorAddress, List<WorkerParameters>> filterByWorkerType(
@@ -154,21 +268,20 @@ public class StartWorkersTask {
         return result;
     }
 
-    private final class CreateWorkerOnAgentTask implements Runnable {
+    private final class CreateWorkerOnAgentTask implements Callable<CreateWorkerOnAgentTask> {
 
         private final WorkerParameters workerParameters;
         private final AgentData agent;
-        private final int startupDelayMs;
 
-        private CreateWorkerOnAgentTask(WorkerParameters workerParameters, int startupDelaysMs, AgentData agent) {
-            this.startupDelayMs = startupDelaysMs;
+        private CreateWorkerOnAgentTask(WorkerParameters workerParameters, AgentData agent) {
             this.workerParameters = workerParameters;
             this.agent = agent;
         }
 
         @Override
-        public void run() {
-            CreateWorkerOperation operation = new CreateWorkerOperation(workerParameters, startupDelayMs);
+        public CreateWorkerOnAgentTask call() {
+            // the launches are already spread out by the coordinator, so the agent doesn't need to delay them
+            CreateWorkerOperation operation = new CreateWorkerOperation(workerParameters, 0);
             Future<String> f = client.submit(agent.getAddress(), operation);
             String r;
             try {
@@ -177,22 +290,12 @@ public class StartWorkersTask {
                 throw new CommandLineExitException("Failed to create worker", e);
             }
 
-            String workerType = workerParameters.getWorkerType();
-            String workerAddress = workerParameters.get("WORKER_ADDRESS");
             if (!"SUCCESS".equals(r)) {
-                LOGGER.fatal(format("Could not create %s Worker %s, reason: %s", workerType, workerAddress, r));
+                LOGGER.fatal(format("Could not create %s Worker %s, reason: %s",
+                        workerParameters.getWorkerType(), workerParameters.get("WORKER_ADDRESS"), r));
                 throw new CommandLineExitException("Failed to create workers");
             }
-
-            // the worker will automatically inherit all the tags of the agent it runs on and on top of that it
-            // its own tags are added.
-            Map<String, String> finalTags = new HashMap<>();
-            finalTags.putAll(agent.getTags());
-            finalTags.putAll(tags);
-
-            LOGGER.info(format("    Created %s Worker %s", workerType, workerAddress));
-            List<WorkerData> createdWorkers = registry.addWorkers(asList(workerParameters), finalTags);
-            result.addAll(createdWorkers);
+            return this;
         }
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes;
+
+/**
+ * A count-only metric which can be used by a test to track the number of things that happened, e.g. the number of
+ * received messages or the number of failed operations.
+ * <p>
+ * The {@link Counter} is striped, so it can be updated concurrently by many threads without contention. The total
+ * value is sampled by the Worker on every performance interval and written to the performance log of the test.
+ */
+public interface Counter {
+
+    /**
+     * Increments the counter by one.
+     */
+    void inc();
+
+    /**
+     * Increments the counter by the given delta.
+     *
+     * @param delta the value to add
+     */
+    void inc(long delta);
+
+    /**
+     * Returns the current total of the counter.
+     *
+     * @return the current total
+     */
+    long get();
+}
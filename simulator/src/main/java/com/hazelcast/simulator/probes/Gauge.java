@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes;
+
+/**
+ * A metric that reports an instantaneous value, e.g. the size of a queue or the number of pending messages.
+ * <p>
+ * The value is read by the Worker on every performance interval, so the implementation should be cheap and thread-safe.
+ */
+@FunctionalInterface
+public interface Gauge {
+
+    /**
+     * Returns the current value of the gauge.
+     *
+     * @return the current value
+     */
+    double get();
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes;
+
+/**
+ * A rate metric which can be used by a test to track how often something happens, e.g. the number of messages a
+ * listener receives per second.
+ * <p>
+ * Next to the total count, the Worker reports the rate per second for every performance interval.
+ */
+public interface Meter {
+
+    /**
+     * Marks the occurrence of a single event.
+     */
+    void mark();
+
+    /**
+     * Marks the occurrence of the given number of events.
+     *
+     * @param count the number of events
+     */
+    void mark(long count);
+
+    /**
+     * Returns the total number of events marked so far.
+     *
+     * @return the total number of events
+     */
+    long count();
+}
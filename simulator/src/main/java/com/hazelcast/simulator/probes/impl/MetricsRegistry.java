@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+import com.hazelcast.simulator.probes.Counter;
+import com.hazelcast.simulator.probes.Gauge;
+import com.hazelcast.simulator.probes.Meter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Contains the {@link Counter}, {@link Meter} and {@link Gauge} instances of a single Simulator Test.
+ * <p>
+ * The metrics are created on demand by the test through the {@link com.hazelcast.simulator.test.TestContext} and
+ * sampled by the {@link com.hazelcast.simulator.worker.performance.TestPerformanceTracker} on every interval.
+ * <p>
+ * A metric name can only be used for a single metric type. Since the metrics are written as columns of the performance
+ * csv, a name can't contain a comma, and it can't be the name of the rate column of a meter, e.g. {@code received/s} for
+ * the meter {@code received}.
+ */
+public class MetricsRegistry {
+
+    public static final String RATE_SUFFIX = "/s";
+    public static final String PER_OPERATION_SUFFIX = "/op";
+
+    private final ConcurrentMap<String, StripedCounter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, StripedCounter> meters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+    // is only accessed by the thread sampling the metrics
+    private final Map<String, Long> lastMeterCounts = new HashMap<>();
+
+    public Counter getCounter(String name) {
+        checkName(name, counters);
+        return counters.computeIfAbsent(name, k -> new StripedCounter());
+    }
+
+    public Meter getMeter(String name) {
+        checkName(name, meters);
+        return meters.computeIfAbsent(name, k -> new StripedCounter());
+    }
+
+    public void registerGauge(String name, Gauge gauge) {
+        checkNotNull(gauge, "gauge can't be null");
+        checkName(name, gauges);
+        if (gauges.putIfAbsent(name, gauge) != null) {
+            throw new IllegalArgumentException(format("Gauge [%s] is already registered", name));
+        }
+    }
+
+    public boolean isEmpty() {
+        return counters.isEmpty() && meters.isEmpty() && gauges.isEmpty();
+    }
+
+    /**
+     * Samples all metrics.
+     * <p>
+     * Counters and gauges are reported with their current value. Meters are reported with their total count and with
+     * their rate per second for the given interval, using the name of the meter with a {@value #RATE_SUFFIX} suffix.
+     *
+     * @param intervalMillis the duration of the interval since the last sample
+     * @return a map with the sampled values, sorted by name
+     */
+    public Map<String, Double> sample(long intervalMillis) {
+        Map<String, Double> result = new TreeMap<>();
+        for (Map.Entry<String, StripedCounter> entry : counters.entrySet()) {
+            result.put(entry.getKey(), (double) entry.getValue().get());
+        }
+
+        for (Map.Entry<String, StripedCounter> entry : meters.entrySet()) {
+            String name = entry.getKey();
+            long count = entry.getValue().count();
+            Long lastCount = lastMeterCounts.put(name, count);
+            long delta = count - (lastCount == null ? 0 : lastCount);
+            double rate = intervalMillis <= 0 ? 0 : (delta * SECONDS.toMillis(1)) / (double) intervalMillis;
+            result.put(name, (double) count);
+            result.put(name + RATE_SUFFIX, rate);
+        }
+
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return result;
+    }
+
+    /**
+     * Resets the rate calculation of the meters, e.g. when the warmup has completed.
+     */
+    public void resetRates() {
+        for (Map.Entry<String, StripedCounter> entry : meters.entrySet()) {
+            lastMeterCounts.put(entry.getKey(), entry.getValue().count());
+        }
+    }
+
+    private void checkName(String name, Map<String, ?> owner) {
+        checkNotNull(name, "name can't be null");
+        if (name.indexOf(',') >= 0) {
+            throw new IllegalArgumentException(format("Metric [%s] can't contain a comma", name));
+        }
+        if (isRegisteredElsewhere(name, owner, counters)
+                || isRegisteredElsewhere(name, owner, meters)
+                || isRegisteredElsewhere(name, owner, gauges)) {
+            throw new IllegalArgumentException(format("Metric [%s] is already registered with a different type", name));
+        }
+        checkRateColumn(name, owner);
+    }
+
+    private void checkRateColumn(String name, Map<String, ?> owner) {
+        if (name.endsWith(RATE_SUFFIX)) {
+            String meterName = name.substring(0, name.length() - RATE_SUFFIX.length());
+            if (meters.containsKey(meterName)) {
+                throw new IllegalArgumentException(format("Metric [%s] collides with the rate of meter [%s]", name, meterName));
+            }
+        }
+        String rateName = name + RATE_SUFFIX;
+        if (owner == meters && (counters.containsKey(rateName) || meters.containsKey(rateName) || gauges.containsKey(rateName))) {
+            throw new IllegalArgumentException(format("The rate of meter [%s] collides with metric [%s]", name, rateName));
+        }
+    }
+
+    private static boolean isRegisteredElsewhere(String name, Map<String, ?> owner, Map<String, ?> other) {
+        return owner != other && other.containsKey(name);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+import com.hazelcast.simulator.probes.Counter;
+import com.hazelcast.simulator.probes.Meter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Counter} and {@link Meter} implementation backed by a {@link LongAdder}, so updates from many threads
+ * are spread over multiple cells instead of contending on a single value.
+ */
+public class StripedCounter implements Counter, Meter {
+
+    private final LongAdder adder = new LongAdder();
+
+    @Override
+    public void inc() {
+        adder.increment();
+    }
+
+    @Override
+    public void inc(long delta) {
+        adder.add(delta);
+    }
+
+    @Override
+    public long get() {
+        return adder.sum();
+    }
+
+    @Override
+    public void mark() {
+        adder.increment();
+    }
+
+    @Override
+    public void mark(long count) {
+        adder.add(count);
+    }
+
+    @Override
+    public long count() {
+        return adder.sum();
+    }
+}
@@ -19,8 +19,6 @@ import com.hazelcast.simulator.common.FailureType;
 import com.hazelcast.simulator.coordinator.FailureCollector;
 import com.hazelcast.simulator.coordinator.operations.FailureOperation;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
-import com.hazelcast.simulator.protocol.operation.OperationCodec;
-import com.hazelcast.simulator.protocol.operation.OperationType;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.utils.SimulatorUtils;
 import org.apache.log4j.Logger;
@@ -30,30 +28,35 @@ import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
 import javax.jms.MessageProducer;
 import javax.jms.Queue;
 import javax.jms.Session;
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static com.hazelcast.simulator.common.SimulatorProperties.DEFAULT_AGENT_PORT;
+import static com.hazelcast.simulator.protocol.core.AddressLevel.WORKER;
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.coordinatorAddress;
-import static com.hazelcast.simulator.protocol.operation.OperationType.getOperationType;
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.UuidUtil.newUnsecureUuidString;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static javax.jms.DeliveryMode.NON_PERSISTENT;
 
@@ -64,22 +67,21 @@ public class CoordinatorClient implements Closeable {
 
     private static final Logger LOGGER = Logger.getLogger(CoordinatorClient.class);
 
-    private final BlockingQueue<SendTask> taskQueue = new LinkedBlockingQueue<>();
     // the key is the agent-index
     private final ConcurrentMap<Integer, RemoteBroker> remoteBrokers
             = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, FutureImpl> futures = new ConcurrentHashMap<>();
-    private final SendThread sendThread;
+    private final ConcurrentMap<String, ResponseFuture> futures = new ConcurrentHashMap<>();
     private final ConnectionFactory connectionFactory = new ConnectionFactory();
+    private final MessageCodec messageCodec = new MessageCodec();
     private ResponseHandlerThread responseHandlerThread;
     private OperationProcessor processor;
     private int remoteBrokerPort = DEFAULT_AGENT_PORT;
     private FailureCollector failureCollector;
+    private volatile boolean started;
     private volatile boolean stop;
 
     public CoordinatorClient() {
         this.responseHandlerThread = new ResponseHandlerThread();
-        this.sendThread = new SendThread();
     }
 
     public ConnectionFactory getConnectionFactory() {
@@ -100,7 +102,11 @@ public class CoordinatorClient implements Closeable {
         if (agentIp.equals("localhost")) {
             agentIp = SimulatorUtils.localIp();
         }
-        remoteBrokers.put(agentAddress.getAgentIndex(), new RemoteBroker(agentIp, agentAddress));
+        RemoteBroker remoteBroker = new RemoteBroker(agentIp, agentAddress);
+        remoteBrokers.put(agentAddress.getAgentIndex(), remoteBroker);
+        if (started) {
+            remoteBroker.start();
+        }
         return this;
     }
 
@@ -111,7 +117,10 @@ public class CoordinatorClient implements Closeable {
 
     public CoordinatorClient start() {
         responseHandlerThread.start();
-        sendThread.start();
+        started = true;
+        for (RemoteBroker remoteBroker : remoteBrokers.values()) {
+            remoteBroker.start();
+        }
         return this;
     }
 
@@ -119,7 +128,8 @@ public class CoordinatorClient implements Closeable {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("sending " + op + " to " + target);
         }
-        taskQueue.add(new SendTask(target, getRemoteBroker(target), op, null));
+        RemoteBroker remoteBroker = getRemoteBroker(target);
+        remoteBroker.sendLane.add(new SendTask(singletonList(target), remoteBroker, op, null));
     }
 
     public Future<String> submit(SimulatorAddress target, SimulatorOperation op) {
@@ -129,10 +139,48 @@ public class CoordinatorClient implements Closeable {
 
         RemoteBroker remoteBroker = getRemoteBroker(target);
 
-        FutureImpl future = new FutureImpl(remoteBroker);
+        ResponseFuture future = new ResponseFuture(singletonList(remoteBroker), singletonList(target));
         futures.put(future.messageId, future);
 
-        taskQueue.add(new SendTask(target, remoteBroker, op, future.messageId));
+        remoteBroker.sendLane.add(new SendTask(singletonList(target), remoteBroker, op, future.messageId));
+
+        return future;
+    }
+
+    /**
+     * Sends an operation to a set of workers using a single message per agent. The agent broker fans the message out
+     * to its workers, so the number of messages the coordinator sends doesn't grow with the number of workers.
+     *
+     * @param targets the addresses of the workers
+     * @param op      the operation to send
+     * @return a single future which completes when all workers have responded
+     */
+    public ResponseFuture broadcast(Collection<SimulatorAddress> targets, SimulatorOperation op) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("broadcasting " + op + " to " + targets);
+        }
+
+        Map<RemoteBroker, List<SimulatorAddress>> targetsPerBroker = new HashMap<>();
+        for (SimulatorAddress target : targets) {
+            if (target.getAddressLevel() != WORKER) {
+                throw new IllegalArgumentException("Only workers can be a broadcast target, found [" + target + "]");
+            }
+            RemoteBroker remoteBroker = getRemoteBroker(target);
+            List<SimulatorAddress> brokerTargets = targetsPerBroker.get(remoteBroker);
+            if (brokerTargets == null) {
+                brokerTargets = new ArrayList<>();
+                targetsPerBroker.put(remoteBroker, brokerTargets);
+            }
+            brokerTargets.add(target);
+        }
+
+        ResponseFuture future = new ResponseFuture(targetsPerBroker.keySet(), targets);
+        futures.put(future.messageId, future);
+
+        for (Map.Entry<RemoteBroker, List<SimulatorAddress>> entry : targetsPerBroker.entrySet()) {
+            RemoteBroker remoteBroker = entry.getKey();
+            remoteBroker.sendLane.add(new SendTask(entry.getValue(), remoteBroker, op, future.messageId));
+        }
 
         return future;
     }
@@ -162,6 +210,29 @@ public class CoordinatorClient implements Closeable {
         return responses;
     }
 
+    /**
+     * Consumes the messages of a queue on the broker of an agent. This is used for streams of data the agent sends outside
+     * of the request/response of an operation, e.g. the artifacts of the workers.
+     *
+     * @param agentAddress the address of the agent
+     * @param queueName    the name of the queue
+     * @param listener     the listener the messages are passed to; it is called by a single JMS thread
+     * @return the Closeable to stop consuming
+     * @throws JMSException if the consumer could not be created
+     */
+    public Closeable consume(SimulatorAddress agentAddress, String queueName, MessageListener listener) throws JMSException {
+        RemoteBroker remoteBroker = getRemoteBroker(agentAddress);
+        Session session = remoteBroker.connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        session.createConsumer(session.createQueue(queueName)).setMessageListener(listener);
+        return () -> {
+            try {
+                session.close();
+            } catch (JMSException e) {
+                LOGGER.trace("Failed to close session of queue " + queueName, e);
+            }
+        };
+    }
+
     private RemoteBroker getRemoteBroker(SimulatorAddress target) {
         RemoteBroker broker = remoteBrokers.get(target.getAgentIndex());
 
@@ -172,84 +243,85 @@ public class CoordinatorClient implements Closeable {
         return broker;
     }
 
+    static String toTargetsProperty(List<SimulatorAddress> targets) {
+        StringBuilder sb = new StringBuilder(",");
+        for (SimulatorAddress target : targets) {
+            sb.append(target).append(',');
+        }
+        return sb.toString();
+    }
+
     @Override
     public void close() {
         stop = true;
-        sendThread.interrupt();
+        for (RemoteBroker remoteBroker : remoteBrokers.values()) {
+            remoteBroker.sendLane.interrupt();
+        }
         responseHandlerThread.interrupt();
 
         closeQuietly(remoteBrokers.values());
         remoteBrokers.clear();
     }
 
-    static class FutureImpl implements Future<String> {
-        private final RemoteBroker agentBroker;
+    /**
+     * The {@link Future} returned by {@link #submit(SimulatorAddress, SimulatorOperation)} and
+     * {@link #broadcast(Collection, SimulatorOperation)}.
+     * <p>
+     * The future completes when all targets have responded; if any target responded with an error, it completes
+     * exceptionally with the first error. Completion is lock-free; the waiting threads are parked by the
+     * {@link CompletableFuture} instead of blocking on the monitor of the future.
+     */
+    public static final class ResponseFuture extends CompletableFuture<String> {
         private final String messageId = newUnsecureUuidString();
-        private volatile Object result;
-
-        public FutureImpl(RemoteBroker agentBroker) {
-            this.agentBroker = agentBroker;
+        private final Collection<RemoteBroker> remoteBrokers;
+        private final Set<SimulatorAddress> pendingTargets = ConcurrentHashMap.newKeySet();
+        private final int targetCount;
+        private volatile Throwable firstError;
+
+        ResponseFuture(Collection<RemoteBroker> remoteBrokers, Collection<SimulatorAddress> targets) {
+            this.remoteBrokers = new ArrayList<>(remoteBrokers);
+            this.pendingTargets.addAll(targets);
+            this.targetCount = targets.size();
         }
 
-        @Override
-        public boolean cancel(boolean mayInterruptIfRunning) {
-            return false;
+        public int getTargetCount() {
+            return targetCount;
         }
 
-        @Override
-        public boolean isCancelled() {
-            return false;
+        /**
+         * Returns the targets which have not responded yet.
+         *
+         * @return the pending targets
+         */
+        public Set<SimulatorAddress> getPendingTargets() {
+            return new HashSet<>(pendingTargets);
         }
 
         @Override
-        public boolean isDone() {
-            return result != null;
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
         }
 
-        @Override
-        public String get() throws InterruptedException, ExecutionException {
-            synchronized (this) {
-                while (result == null) {
-                    wait();
-                }
-            }
-
-            if (result instanceof Throwable) {
-                throw new ExecutionException((Throwable) result);
-            } else {
-                return (String) result;
+        void onResponse(SimulatorAddress source, Object payload) {
+            if (payload instanceof Throwable && firstError == null) {
+                firstError = (Throwable) payload;
             }
-        }
 
-        @Override
-        public String get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-            long deadlineMillis = currentTimeMillis() + unit.toMillis(timeout);
-
-            synchronized (this) {
-                while (result == null) {
-                    long remainingTime = deadlineMillis - currentTimeMillis();
-                    if (remainingTime <= 0) {
-                        throw new TimeoutException();
-                    }
-                    wait(deadlineMillis);
-                }
+            if (!pendingTargets.remove(source) && targetCount > 1) {
+                LOGGER.debug("Unexpected response from " + source + " for " + messageId);
+                return;
             }
 
-            if (result instanceof Throwable) {
-                throw new ExecutionException((Throwable) result);
-            } else {
-                return (String) result;
+            if (pendingTargets.isEmpty() || targetCount == 1) {
+                completeWith(firstError == null ? payload : firstError);
             }
         }
 
-        public void complete(Object payload) {
-            synchronized (this) {
-                if (this.result != null) {
-                    return;
-                }
-
-                this.result = payload;
-                notifyAll();
+        void completeWith(Object payload) {
+            if (payload instanceof Throwable) {
+                completeExceptionally((Throwable) payload);
+            } else {
+                complete((String) payload);
             }
         }
     }
@@ -259,17 +331,17 @@ public class CoordinatorClient implements Closeable {
         private final RemoteBroker remoteBroker;
         private final SimulatorOperation op;
         private final String requestId;
-        private final SimulatorAddress target;
+        private final List<SimulatorAddress> targets;
 
-        SendTask(SimulatorAddress target, RemoteBroker remoteBroker, SimulatorOperation op, String requestId) {
-            this.target = target;
+        SendTask(List<SimulatorAddress> targets, RemoteBroker remoteBroker, SimulatorOperation op, String requestId) {
+            this.targets = targets;
             this.remoteBroker = remoteBroker;
             this.op = op;
             this.requestId = requestId;
         }
 
         private void run() throws JMSException {
-            Message message = remoteBroker.session.createMessage();
+            Message message = messageCodec.encode(remoteBroker.session, op);
 
             if (requestId != null) {
                 message.setJMSReplyTo(remoteBroker.replyQueue);
@@ -277,9 +349,12 @@ public class CoordinatorClient implements Closeable {
             }
 
             message.setStringProperty("source", coordinatorAddress().toString());
-            message.setStringProperty("target", target.toString());
-            message.setStringProperty("payload", OperationCodec.toJson(op));
-            message.setIntProperty("operationType", getOperationType(op).toInt());
+            SimulatorAddress target = targets.get(0);
+            if (targets.size() == 1) {
+                message.setStringProperty("target", target.toString());
+            } else {
+                message.setStringProperty("targets", toTargetsProperty(targets));
+            }
 
             switch (target.getAddressLevel()) {
                 case AGENT:
@@ -292,15 +367,52 @@ public class CoordinatorClient implements Closeable {
                     throw new RuntimeException("unhandled target:" + target);
             }
         }
+
+        private void fail(Throwable e) {
+            if (requestId == null) {
+                return;
+            }
+            ResponseFuture future = futures.remove(requestId);
+            if (future != null) {
+                future.completeWith(e);
+            }
+        }
     }
 
-    class SendThread extends Thread {
+    /**
+     * Sends the operations for a single agent, so a slow or unresponsive agent broker doesn't stall the operations
+     * to the other agents. Every operation is sent as its own message; a fan-out to many workers of the same agent is
+     * done with a single message by {@link #broadcast(Collection, SimulatorOperation)}.
+     */
+    final class SendLane extends Thread {
+        private final BlockingQueue<SendTask> taskQueue = new LinkedBlockingQueue<>();
+
+        private SendLane(SimulatorAddress agentAddress) {
+            super("SendLane-" + agentAddress);
+            setDaemon(true);
+        }
+
+        private void add(SendTask task) {
+            taskQueue.add(task);
+        }
+
         @Override
         public void run() {
             while (!stop) {
+                SendTask task;
+                try {
+                    task = taskQueue.take();
+                } catch (InterruptedException e) {
+                    if (!stop) {
+                        LOGGER.error(e.getMessage(), e);
+                    }
+                    continue;
+                }
+
                 try {
-                    taskQueue.take().run();
+                    task.run();
                 } catch (Throwable e) {
+                    task.fail(e);
                     if (!stop) {
                         LOGGER.error(e.getMessage(), e);
                     }
@@ -310,8 +422,9 @@ public class CoordinatorClient implements Closeable {
     }
 
     final class RemoteBroker implements Closeable, ExceptionListener {
-        private volatile boolean closed;
         private final Session session;
+        // the consumers deliver on their own session, the session of the producers is used by the send lane
+        private final Session listenerSession;
         private final Connection connection;
         private final MessageProducer agentProducer;
         private final MessageProducer workerProducer;
@@ -320,10 +433,12 @@ public class CoordinatorClient implements Closeable {
         private final MessageConsumer replyQueueConsumer;
         private final MessageConsumer coordinatorConsumer;
         private final SimulatorAddress agentAddress;
+        private final SendLane sendLane;
         private boolean connected;
 
         private RemoteBroker(String ip, SimulatorAddress agentAddress) throws JMSException {
             this.agentAddress = agentAddress;
+            this.sendLane = new SendLane(agentAddress);
 
             connection = connectionFactory.newConnection("tcp://" + ip + ":" + remoteBrokerPort, this);
             connected = true;
@@ -335,14 +450,26 @@ public class CoordinatorClient implements Closeable {
             workerProducer = session.createProducer(session.createTopic("workers"));
             workerProducer.setDeliveryMode(NON_PERSISTENT);
 
-            coordinatorConsumer = session.createConsumer(session.createTopic("coordinator"));
+            listenerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            coordinatorConsumer = listenerSession.createConsumer(listenerSession.createTopic("coordinator"));
 
             replyQueue = session.createQueue(newUnsecureUuidString());
-            replyQueueConsumer = session.createConsumer(replyQueue);
+            replyQueueConsumer = listenerSession.createConsumer(replyQueue);
 
             LOGGER.info(format("Successfully connected to agent [%s]", agentAddress));
         }
 
+        private void start() {
+            try {
+                replyQueueConsumer.setMessageListener(message -> responseHandlerThread.add(message, true));
+                coordinatorConsumer.setMessageListener(message -> responseHandlerThread.add(message, false));
+            } catch (JMSException e) {
+                onException(e);
+                return;
+            }
+            sendLane.start();
+        }
+
         @Override
         public void onException(JMSException e) {
             close();
@@ -370,7 +497,7 @@ public class CoordinatorClient implements Closeable {
 
         @Override
         public void close() {
-            closed = true;
+            sendLane.interrupt();
             try {
                 if (connection != null) {
                     connection.close();
@@ -378,34 +505,36 @@ public class CoordinatorClient implements Closeable {
             } catch (JMSException e) {
                 LOGGER.trace("Failed to close connection " + connection, e);
             }
+            failFutures();
+        }
+
+        private void failFutures() {
+            for (Map.Entry<String, ResponseFuture> entry : futures.entrySet()) {
+                ResponseFuture future = entry.getValue();
+                if (future.remoteBrokers.contains(this) && futures.remove(entry.getKey(), future)) {
+                    future.completeWith(new JMSException("Connection to broker " + agentAddress + " is closed"));
+                }
+            }
         }
     }
 
+    /**
+     * Processes the responses and the messages for the coordinator of all agents. The JMS consumers hand them over
+     * on arrival, so they are processed one at a time and in order of arrival without polling the consumers.
+     */
     private class ResponseHandlerThread extends Thread {
 
-        private static final int DELAY_MILLIS = 100;
+        private final BlockingQueue<Runnable> inbox = new LinkedBlockingQueue<>();
+
+        void add(Message message, boolean response) {
+            inbox.add(response ? () -> processResponse(message) : () -> processMessage(message));
+        }
 
         @Override
         public void run() {
             try {
                 while (!stop) {
-                    boolean hasResponse;
-                    do {
-                        checkDeadFutures();
-
-                        hasResponse = false;
-                        for (RemoteBroker remoteBroker : remoteBrokers.values()) {
-                            if (processResponses(remoteBroker)) {
-                                hasResponse = true;
-                            }
-                            if (processMessages(remoteBroker)) {
-                                hasResponse = true;
-                            }
-                        }
-
-                    } while (hasResponse);
-
-                    Thread.sleep(DELAY_MILLIS);
+                    inbox.take().run();
                 }
             } catch (Throwable e) {
                 if (!stop) {
@@ -414,27 +543,9 @@ public class CoordinatorClient implements Closeable {
             }
         }
 
-        private void checkDeadFutures() {
-            for (Map.Entry<String, FutureImpl> entry : futures.entrySet()) {
-                FutureImpl f = entry.getValue();
-                if (f.agentBroker.closed) {
-                    futures.remove(entry.getKey());
-                    f.complete(new JMSException("Connection to broker " + f.agentBroker.agentAddress + "is closed"));
-                }
-            }
-        }
-
-        private boolean processMessages(RemoteBroker remoteBroker) {
+        private void processMessage(Message message) {
             try {
-                Message message = remoteBroker.coordinatorConsumer.receiveNoWait();
-                if (message == null) {
-                    return false;
-                }
-
-                OperationType operationType = OperationType.fromInt(message.getIntProperty("operationType"));
-                String operationData = message.getStringProperty("payload");
-
-                SimulatorOperation op = OperationCodec.fromJson(operationData, operationType.getClassType());
+                SimulatorOperation op = MessageCodec.decode(message);
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug("Received " + op);
                 }
@@ -442,43 +553,38 @@ public class CoordinatorClient implements Closeable {
                 SimulatorAddress source = SimulatorAddress.fromString(message.getStringProperty("source"));
 
                 processor.process(op, source, EmptyPromise.INSTANCE);
-                return true;
             } catch (Exception e) {
                 if (!stop) {
                     //todo: feed into failure collector
                     LOGGER.fatal(e.getMessage(), e);
                 }
-                return false;
             }
         }
 
-        private boolean processResponses(RemoteBroker remoteBroker) {
+        private void processResponse(Message replyMessage) {
             try {
-                Message replyMessage = remoteBroker.replyQueueConsumer.receiveNoWait();
-                if (replyMessage == null) {
-                    return false;
-                }
-
                 String correlationId = replyMessage.getJMSCorrelationID();
-                FutureImpl future = futures.remove(correlationId);
+                ResponseFuture future = futures.get(correlationId);
                 if (future == null) {
                     LOGGER.debug("No future for " + correlationId + "\n" + replyMessage);
                 } else {
+                    SimulatorAddress source = SimulatorAddress.fromString(replyMessage.getStringProperty("source"));
                     boolean error = replyMessage.getBooleanProperty("error");
                     if (error) {
                         String message = replyMessage.getStringProperty("message");
-                        future.complete(new Exception(message));
+                        future.onResponse(source, new Exception(message));
                     } else {
-                        future.complete(replyMessage.getStringProperty("payload"));
+                        future.onResponse(source, replyMessage.getStringProperty("payload"));
+                    }
+                    if (future.isDone()) {
+                        futures.remove(correlationId);
                     }
                 }
-                return true;
             } catch (Exception e) {
                 if (!stop) {
                     //todo: feed into failure collector
                     LOGGER.fatal(e);
                 }
-                return false;
             }
         }
     }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol;
+
+import com.hazelcast.simulator.protocol.operation.BinaryOperationCodec;
+import com.hazelcast.simulator.protocol.operation.OperationCodec;
+import com.hazelcast.simulator.protocol.operation.OperationType;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+import static com.hazelcast.simulator.protocol.operation.OperationType.getOperationType;
+
+/**
+ * Converts a {@link SimulatorOperation} to a JMS {@link Message} and back.
+ * <p>
+ * By default the operations are sent as binary messages using the {@link BinaryOperationCodec}. The JSON encoding can be
+ * selected for debugging with the system property {@value #CODEC_PROPERTY}=json. The codec is stored in every message, so a
+ * receiver always decodes the message correctly, independent of the codec of the sender.
+ */
+final class MessageCodec {
+
+    static final String CODEC_PROPERTY = "simulator.protocol.codec";
+    static final String CODEC_JSON = "json";
+    static final String CODEC_BINARY = "binary";
+
+    private final boolean binary;
+
+    MessageCodec() {
+        this(System.getProperty(CODEC_PROPERTY, CODEC_BINARY));
+    }
+
+    MessageCodec(String codec) {
+        if (CODEC_BINARY.equals(codec)) {
+            binary = true;
+        } else if (CODEC_JSON.equals(codec)) {
+            binary = false;
+        } else {
+            throw new IllegalArgumentException("Unknown codec [" + codec + "], valid codecs are "
+                    + CODEC_BINARY + " and " + CODEC_JSON);
+        }
+    }
+
+    Message encode(Session session, SimulatorOperation op) throws JMSException {
+        Message message;
+        if (binary) {
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes(BinaryOperationCodec.toBytes(op));
+            bytesMessage.setStringProperty("codec", CODEC_BINARY);
+            message = bytesMessage;
+        } else {
+            message = session.createMessage();
+            message.setStringProperty("payload", OperationCodec.toJson(op));
+        }
+        message.setIntProperty("operationType", getOperationType(op).toInt());
+        return message;
+    }
+
+    static SimulatorOperation decode(Message message) throws JMSException {
+        if (CODEC_BINARY.equals(message.getStringProperty("codec"))) {
+            BytesMessage bytesMessage = (BytesMessage) message;
+            byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(bytes);
+            return BinaryOperationCodec.fromBytes(bytes);
+        }
+
+        OperationType operationType = OperationType.fromInt(message.getIntProperty("operationType"));
+        String operationData = message.getStringProperty("payload");
+        return OperationCodec.fromJson(operationData, operationType.getClassType());
+    }
+}
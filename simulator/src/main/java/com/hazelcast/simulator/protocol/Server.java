@@ -16,8 +16,6 @@
 package com.hazelcast.simulator.protocol;
 
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
-import com.hazelcast.simulator.protocol.operation.OperationCodec;
-import com.hazelcast.simulator.protocol.operation.OperationType;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import org.apache.log4j.Logger;
 
@@ -33,7 +31,6 @@ import javax.jms.Topic;
 import java.io.Closeable;
 
 import static com.hazelcast.simulator.common.SimulatorProperties.DEFAULT_AGENT_PORT;
-import static com.hazelcast.simulator.protocol.operation.OperationType.getOperationType;
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
 import static com.hazelcast.simulator.utils.SimulatorUtils.localIp;
@@ -50,11 +47,18 @@ import static javax.jms.DeliveryMode.NON_PERSISTENT;
  * how to integrate your client.
  */
 public class Server implements Closeable {
+
+    /**
+     * The topic on the agent broker the workers send their heartbeats to.
+     */
+    public static final String HEARTBEAT_TOPIC = "heartbeats";
+
     private static final Logger LOGGER = Logger.getLogger(Server.class);
 
     private final String topic;
     private final ConnectionFactory connectionFactory = new ConnectionFactory();
     private final ServerThread serverThread = new ServerThread();
+    private final MessageCodec messageCodec = new MessageCodec();
     private SimulatorAddress selfAddress;
     private OperationProcessor processor;
     private MessageConsumer consumer;
@@ -63,6 +67,8 @@ public class Server implements Closeable {
     private Connection connection;
     private String brokerURL;
     private String selfAddressString;
+    private Session heartbeatSession;
+    private MessageProducer heartbeatProducer;
     private ExceptionListener exceptionListener = e -> LOGGER.error("JMS Exception occurred", e);
 
     private volatile boolean stop;
@@ -131,8 +137,9 @@ public class Server implements Closeable {
             this.destination = session.createTopic(topic);
 
             // we need to add the 'target=selfAddress' as a filter to only receive message we should
-            // receive. Otherwise we'll process messages meant for others.
-            String selector = "target='" + selfAddress + "'";
+            // receive. Otherwise we'll process messages meant for others. Broadcast messages list their
+            // targets in the 'targets' property, e.g. ',A1_W1,A1_W2,'.
+            String selector = createSelector(selfAddressString);
             LOGGER.info(format("Using messageSelector [%s]", selector));
             this.consumer = session.createConsumer(destination, selector);
             serverThread.start();
@@ -146,6 +153,11 @@ public class Server implements Closeable {
         }
     }
 
+    static String createSelector(String address) {
+        String escapedAddress = address.replace("!", "!!").replace("_", "!_").replace("%", "!%");
+        return "target='" + address + "' OR targets LIKE '%," + escapedAddress + ",%' ESCAPE '!'";
+    }
+
     @Override
     public void close() {
         stop = true;
@@ -164,11 +176,8 @@ public class Server implements Closeable {
             MessageProducer producer = session.createProducer(topic);
             producer.setDeliveryMode(NON_PERSISTENT);
 
-            Message message = session.createMessage();
-
+            Message message = messageCodec.encode(session, op);
             message.setStringProperty("source", selfAddressString);
-            message.setStringProperty("payload", OperationCodec.toJson(op));
-            message.setIntProperty("operationType", getOperationType(op).toInt());
 
             producer.send(message);
         } catch (JMSException e) {
@@ -176,6 +185,28 @@ public class Server implements Closeable {
         }
     }
 
+    /**
+     * Sends a heartbeat to the {@link #HEARTBEAT_TOPIC}, so the agent knows this server is still alive.
+     *
+     * The heartbeat is an empty message with only the source address, and it doesn't touch the coordinator topic.
+     * It is not thread-safe; it should be called by a single thread.
+     */
+    public void sendHeartbeat() {
+        try {
+            if (heartbeatProducer == null) {
+                heartbeatSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                heartbeatProducer = heartbeatSession.createProducer(heartbeatSession.createTopic(HEARTBEAT_TOPIC));
+                heartbeatProducer.setDeliveryMode(NON_PERSISTENT);
+            }
+
+            Message message = heartbeatSession.createMessage();
+            message.setStringProperty("source", selfAddressString);
+            heartbeatProducer.send(message);
+        } catch (JMSException e) {
+            LOGGER.warn("Failed to send heartbeat: " + e.getMessage());
+        }
+    }
+
     private class PromiseImpl implements Promise {
         private Destination replyTo;
         private String correlationId;
@@ -236,9 +267,7 @@ public class Server implements Closeable {
         private void handle() throws Exception {
             Message message = consumer.receive();
 
-            OperationType operationType = OperationType.fromInt(message.getIntProperty("operationType"));
-            String operationData = message.getStringProperty("payload");
-            SimulatorOperation op = OperationCodec.fromJson(operationData, operationType.getClassType());
+            SimulatorOperation op = MessageCodec.decode(message);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Received operation:" + op);
             }
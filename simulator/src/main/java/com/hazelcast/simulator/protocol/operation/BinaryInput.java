@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol.operation;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the values written by a {@link BinaryOutput}.
+ */
+final class BinaryInput {
+
+    private static final int BITS_PER_BYTE = 8;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_CONTINUE = 0x80;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int MAX_VARINT_SHIFT = 63;
+
+    private final byte[] buffer;
+    private int position;
+
+    BinaryInput(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    int remaining() {
+        return buffer.length - position;
+    }
+
+    int readByte() {
+        if (position >= buffer.length) {
+            throw new IllegalArgumentException("Unexpected end of binary operation");
+        }
+        return buffer[position++] & BYTE_MASK;
+    }
+
+    boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift <= MAX_VARINT_SHIFT; shift += VARINT_BITS) {
+            int b = readByte();
+            result |= (long) (b & VARINT_MASK) << shift;
+            if ((b & VARINT_CONTINUE) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in binary operation");
+    }
+
+    int readVarInt() {
+        long value = readVarLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Varint " + value + " is too large for an int");
+        }
+        return (int) value;
+    }
+
+    long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            bits |= (long) readByte() << (i * BITS_PER_BYTE);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    String readString() {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = readBytes(length - 1);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    byte[] readBytes(int length) {
+        if (length < 0 || length > remaining()) {
+            throw new IllegalArgumentException("Unexpected end of binary operation");
+        }
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol.operation;
+
+import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.apache.log4j.Level;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.protocol.operation.OperationType.getOperationType;
+
+/**
+ * Encodes and decodes a {@link SimulatorOperation} in a compact binary format.
+ * <p>
+ * The encoded operation starts with the classId of its {@link OperationType} as varint, followed by a format byte. The
+ * frequently sent operations, like the {@link PerformanceStatsOperation} every worker sends each second, have a dedicated
+ * binary encoding. All other operations are embedded as UTF-8 encoded JSON, so every operation can be sent with this codec.
+ * <p>
+ * The encoding uses a buffer per thread, so it doesn't create garbage except for the returned byte array.
+ */
+public final class BinaryOperationCodec {
+
+    static final int FORMAT_JSON = 0;
+    static final int FORMAT_BINARY = 1;
+
+    private static final Map<OperationType, Encoder<?>> ENCODERS = new EnumMap<>(OperationType.class);
+    private static final ThreadLocal<BinaryOutput> OUTPUT = ThreadLocal.withInitial(BinaryOutput::new);
+
+    static {
+        ENCODERS.put(OperationType.PERFORMANCE_STATE, new PerformanceStatsOperationEncoder());
+        ENCODERS.put(OperationType.LOG, new LogOperationEncoder());
+    }
+
+    private BinaryOperationCodec() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static byte[] toBytes(SimulatorOperation op) {
+        OperationType operationType = getOperationType(op);
+        BinaryOutput out = OUTPUT.get();
+        out.clear();
+        out.writeVarLong(operationType.toInt());
+
+        Encoder<SimulatorOperation> encoder = (Encoder<SimulatorOperation>) ENCODERS.get(operationType);
+        if (encoder == null) {
+            out.writeByte(FORMAT_JSON);
+            out.writeBytes(OperationCodec.toJson(op).getBytes(StandardCharsets.UTF_8));
+        } else {
+            out.writeByte(FORMAT_BINARY);
+            encoder.write(op, out);
+        }
+        return out.toByteArray();
+    }
+
+    public static SimulatorOperation fromBytes(byte[] bytes) {
+        BinaryInput in = new BinaryInput(bytes);
+        OperationType operationType = OperationType.fromInt(in.readVarInt());
+        int format = in.readByte();
+        switch (format) {
+            case FORMAT_JSON:
+                String json = new String(in.readBytes(in.remaining()), StandardCharsets.UTF_8);
+                return OperationCodec.fromJson(json, operationType.getClassType());
+            case FORMAT_BINARY:
+                Encoder<?> encoder = ENCODERS.get(operationType);
+                if (encoder == null) {
+                    throw new IllegalArgumentException("No binary encoding for operation type " + operationType);
+                }
+                return encoder.read(in);
+            default:
+                throw new IllegalArgumentException("Unknown format " + format + " for operation type " + operationType);
+        }
+    }
+
+    /**
+     * Writes and reads the fields of a specific operation.
+     *
+     * @param <O> the type of the operation
+     */
+    private interface Encoder<O extends SimulatorOperation> {
+
+        void write(O op, BinaryOutput out);
+
+        O read(BinaryInput in);
+    }
+
+    private static final class LogOperationEncoder implements Encoder<LogOperation> {
+
+        @Override
+        public void write(LogOperation op, BinaryOutput out) {
+            out.writeString(op.getMessage());
+            out.writeString(op.getLevel().toString());
+        }
+
+        @Override
+        public LogOperation read(BinaryInput in) {
+            String message = in.readString();
+            return new LogOperation(message, Level.toLevel(in.readString(), Level.INFO));
+        }
+    }
+
+    private static final class PerformanceStatsOperationEncoder implements Encoder<PerformanceStatsOperation> {
+
+        @Override
+        public void write(PerformanceStatsOperation op, BinaryOutput out) {
+            Map<String, PerformanceStats> performanceStatsMap = op.getPerformanceStats();
+            out.writeVarLong(performanceStatsMap.size());
+            for (Map.Entry<String, PerformanceStats> entry : performanceStatsMap.entrySet()) {
+                out.writeString(entry.getKey());
+                writePerformanceStats(entry.getValue(), out);
+            }
+        }
+
+        private static void writePerformanceStats(PerformanceStats stats, BinaryOutput out) {
+            out.writeSignedVarLong(stats.getOperationCount());
+            out.writeDouble(stats.getIntervalThroughput());
+            out.writeDouble(stats.getTotalThroughput());
+            out.writeDouble(stats.getIntervalLatencyAvgNanos());
+            out.writeSignedVarLong(stats.getIntervalLatency999PercentileNanos());
+            out.writeSignedVarLong(stats.getIntervalLatencyMaxNanos());
+            out.writeSignedVarLong(stats.getIntervalLatency99PercentileNanos());
+            out.writeSignedVarLong(stats.getTotalLatency99PercentileNanos());
+            out.writeSignedVarLong(stats.getTotalLatency999PercentileNanos());
+
+            writeMetrics(stats.getMetrics(), out);
+            writeLatencyHistograms(stats.getCompressedLatencyHistograms(), out);
+        }
+
+        private static void writeMetrics(Map<String, Double> metrics, BinaryOutput out) {
+            if (metrics == null) {
+                out.writeVarLong(0);
+                return;
+            }
+            out.writeVarLong(metrics.size());
+            for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+                out.writeString(metric.getKey());
+                out.writeDouble(metric.getValue());
+            }
+        }
+
+        // the count is written as count + 1, so no histograms (null) can be told apart from an empty map
+        private static void writeLatencyHistograms(Map<String, byte[]> histograms, BinaryOutput out) {
+            if (histograms == null) {
+                out.writeVarLong(0);
+                return;
+            }
+            out.writeVarLong(histograms.size() + 1);
+            for (Map.Entry<String, byte[]> histogram : histograms.entrySet()) {
+                out.writeString(histogram.getKey());
+                out.writeVarLong(histogram.getValue().length);
+                out.writeBytes(histogram.getValue());
+            }
+        }
+
+        @Override
+        public PerformanceStatsOperation read(BinaryInput in) {
+            PerformanceStatsOperation op = new PerformanceStatsOperation();
+            int size = in.readVarInt();
+            for (int i = 0; i < size; i++) {
+                String testId = in.readString();
+                op.addPerformanceStats(testId, readPerformanceStats(in));
+            }
+            return op;
+        }
+
+        private static PerformanceStats readPerformanceStats(BinaryInput in) {
+            long operationCount = in.readSignedVarLong();
+            double intervalThroughput = in.readDouble();
+            double totalThroughput = in.readDouble();
+            double intervalLatencyAvgNanos = in.readDouble();
+            long intervalLatency999PercentileNanos = in.readSignedVarLong();
+            long intervalLatencyMaxNanos = in.readSignedVarLong();
+            long intervalLatency99PercentileNanos = in.readSignedVarLong();
+            long totalLatency99PercentileNanos = in.readSignedVarLong();
+            long totalLatency999PercentileNanos = in.readSignedVarLong();
+
+            Map<String, Double> metrics = readMetrics(in);
+
+            return new PerformanceStats(operationCount, intervalThroughput, totalThroughput, intervalLatencyAvgNanos,
+                    intervalLatency999PercentileNanos, intervalLatencyMaxNanos, metrics)
+                    .setLatencyPercentiles(intervalLatency99PercentileNanos, totalLatency99PercentileNanos,
+                            totalLatency999PercentileNanos)
+                    .setCompressedLatencyHistograms(readLatencyHistograms(in));
+        }
+
+        private static Map<String, Double> readMetrics(BinaryInput in) {
+            int metricCount = in.readVarInt();
+            if (metricCount == 0) {
+                return null;
+            }
+            Map<String, Double> metrics = new HashMap<>(metricCount * 2);
+            for (int i = 0; i < metricCount; i++) {
+                String name = in.readString();
+                metrics.put(name, in.readDouble());
+            }
+            return metrics;
+        }
+
+        private static Map<String, byte[]> readLatencyHistograms(BinaryInput in) {
+            int histogramCount = in.readVarInt() - 1;
+            if (histogramCount < 0) {
+                return null;
+            }
+            Map<String, byte[]> histograms = new HashMap<>(histogramCount * 2);
+            for (int i = 0; i < histogramCount; i++) {
+                String name = in.readString();
+                histograms.put(name, in.readBytes(in.readVarInt()));
+            }
+            return histograms;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol.operation;
+
+import java.nio.charset.StandardCharsets;
+
+import static java.util.Arrays.copyOf;
+
+/**
+ * A growable byte buffer to encode values in a compact binary format.
+ * <p>
+ * Integers are written as varints (zigzag encoded for signed values), so small values like counts and ids take one or two
+ * bytes. The buffer is meant to be reused by calling {@link #clear()}.
+ */
+final class BinaryOutput {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_CONTINUE = 0x80;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int MAX_VARLONG_BYTES = 10;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int position;
+
+    void clear() {
+        position = 0;
+    }
+
+    int size() {
+        return position;
+    }
+
+    byte[] toByteArray() {
+        return copyOf(buffer, position);
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a non-negative value as varint.
+     */
+    void writeVarLong(long value) {
+        ensureCapacity(MAX_VARLONG_BYTES);
+        while ((value & ~VARINT_MASK) != 0) {
+            buffer[position++] = (byte) ((value & VARINT_MASK) | VARINT_CONTINUE);
+            value >>>= VARINT_BITS;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Writes a signed value as zigzag encoded varint, so small negative values like -1 also take a single byte.
+     */
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> (Long.SIZE - 1)));
+    }
+
+    void writeDouble(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        ensureCapacity(Long.BYTES);
+        for (int i = 0; i < Long.BYTES; i++) {
+            buffer[position++] = (byte) ((bits >>> (i * BITS_PER_BYTE)) & BYTE_MASK);
+        }
+    }
+
+    /**
+     * Writes a nullable string as length prefixed UTF-8.
+     */
+    void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
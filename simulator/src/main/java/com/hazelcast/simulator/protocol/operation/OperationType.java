@@ -15,7 +15,9 @@
  */
 package com.hazelcast.simulator.protocol.operation;
 
+import com.hazelcast.simulator.agent.operations.CollectArtifactsOperation;
 import com.hazelcast.simulator.agent.operations.CreateWorkerOperation;
+import com.hazelcast.simulator.agent.operations.GetHardwareTopologyOperation;
 import com.hazelcast.simulator.agent.operations.StartTimeoutDetectionOperation;
 import com.hazelcast.simulator.agent.operations.StopTimeoutDetectionOperation;
 import com.hazelcast.simulator.coordinator.operations.FailureOperation;
@@ -29,6 +31,7 @@ import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
+import com.hazelcast.simulator.worker.operations.AwaitReadyOperation;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
 import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
@@ -69,13 +72,16 @@ public enum OperationType {
     CREATE_WORKER(CreateWorkerOperation.class, 3000),
     START_TIMEOUT_DETECTION(StartTimeoutDetectionOperation.class, 3001),
     STOP_TIMEOUT_DETECTION(StopTimeoutDetectionOperation.class, 3002),
+    GET_HARDWARE_TOPOLOGY(GetHardwareTopologyOperation.class, 3003),
+    COLLECT_ARTIFACTS(CollectArtifactsOperation.class, 3004),
 
     // Worker-Operations
     TERMINATE_WORKER(TerminateWorkerOperation.class, 4001),
     CREATE_TEST(CreateTestOperation.class, 4002),
     EXECUTE_SCRIPT(ExecuteScriptOperation.class, 4003),
     START_TEST_PHASE(StartPhaseOperation.class, 4004),
-    STOP_TEST(StopRunOperation.class, 4005);
+    STOP_TEST(StopRunOperation.class, 4005),
+    AWAIT_READY(AwaitReadyOperation.class, 4006);
 
     private final Class<? extends SimulatorOperation> classType;
     private final int classId;
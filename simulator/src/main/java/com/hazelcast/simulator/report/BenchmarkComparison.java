@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import com.hazelcast.simulator.report.Bootstrap.Delta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static java.lang.String.format;
+
+/**
+ * Compares one or more candidate benchmarks against a baseline benchmark.
+ * <p>
+ * The throughput and the 50, 99 and 99.9 percentile latencies of every probe are compared using the per-interval values, so
+ * the noise between the intervals is taken into account. A difference is a regression when the estimate is worse than the
+ * threshold and the confidence interval does not contain 0, so the difference is both relevant and significant.
+ */
+final class BenchmarkComparison {
+
+    private final Bootstrap bootstrap;
+    private final double throughputThresholdPercent;
+    private final double latencyThresholdPercent;
+    private final List<Result> results = new ArrayList<>();
+
+    BenchmarkComparison(Bootstrap bootstrap, double throughputThresholdPercent, double latencyThresholdPercent) {
+        this.bootstrap = bootstrap;
+        this.throughputThresholdPercent = throughputThresholdPercent;
+        this.latencyThresholdPercent = latencyThresholdPercent;
+    }
+
+    List<Result> compare(BenchmarkResult baseline, BenchmarkResult candidate) {
+        List<Result> comparison = new ArrayList<>();
+        add(comparison, candidate, "throughput", baseline.getThroughput(), candidate.getThroughput(), true);
+
+        for (ProbeResult baselineProbe : baseline.getProbes().values()) {
+            ProbeResult candidateProbe = candidate.getProbes().get(baselineProbe.getName());
+            if (candidateProbe == null) {
+                continue;
+            }
+            String probe = baselineProbe.getName();
+            add(comparison, candidate, probe + " 50%", baselineProbe.getP50(), candidateProbe.getP50(), false);
+            add(comparison, candidate, probe + " 99%", baselineProbe.getP99(), candidateProbe.getP99(), false);
+            add(comparison, candidate, probe + " 99.9%", baselineProbe.getP999(), candidateProbe.getP999(), false);
+        }
+        results.addAll(comparison);
+        return comparison;
+    }
+
+    private void add(List<Result> comparison, BenchmarkResult candidate, String metric, Series baseline, Series series,
+                     boolean higherIsBetter) {
+        Delta delta = bootstrap.deltaPercent(baseline, series);
+        if (delta != null) {
+            comparison.add(new Result(candidate.getName(), metric, delta, isRegression(delta, higherIsBetter)));
+        }
+    }
+
+    private boolean isRegression(Delta delta, boolean higherIsBetter) {
+        if (higherIsBetter) {
+            return delta.getEstimate() < -throughputThresholdPercent && delta.getUpper() < 0;
+        }
+        return delta.getEstimate() > latencyThresholdPercent && delta.getLower() > 0;
+    }
+
+    List<Result> getResults() {
+        return results;
+    }
+
+    boolean hasRegression() {
+        for (Result result : results) {
+            if (result.isRegression()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The comparison of a single metric of a candidate against the baseline.
+     */
+    static final class Result {
+
+        private final String benchmark;
+        private final String metric;
+        private final Delta delta;
+        private final boolean regression;
+
+        Result(String benchmark, String metric, Delta delta, boolean regression) {
+            this.benchmark = benchmark;
+            this.metric = metric;
+            this.delta = delta;
+            this.regression = regression;
+        }
+
+        String getBenchmark() {
+            return benchmark;
+        }
+
+        String getMetric() {
+            return metric;
+        }
+
+        Delta getDelta() {
+            return delta;
+        }
+
+        boolean isRegression() {
+            return regression;
+        }
+
+        @Override
+        public String toString() {
+            return format(Locale.ENGLISH, "%-20s %-40s %s%s", benchmark, metric, delta, regression ? " REGRESSION" : "");
+        }
+    }
+}
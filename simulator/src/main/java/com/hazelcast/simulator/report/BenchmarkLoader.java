@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import com.hazelcast.simulator.utils.UncheckedIOException;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.HistogramLogMerger.mergeAligned;
+import static java.util.Arrays.sort;
+
+/**
+ * Loads the results of a benchmark from a Simulator session directory.
+ * <p>
+ * Every worker directory is read exactly once: the performance.csv files are parsed in parallel, and the HDR files of every
+ * probe are merged over all workers in parallel, while streaming the histograms. So the memory usage only depends on the
+ * number of probes and the duration of the benchmark, not on the number of workers.
+ * <p>
+ * The warmup and cooldown are removed from the start and the end of the benchmark.
+ * <p>
+ * The JFR summaries the workers have written next to the HDR files are included as they are, and so are the disruptions
+ * of the injected faults the coordinator has written to the session directory.
+ */
+final class BenchmarkLoader {
+
+    static final String PERFORMANCE_FILE = "performance.csv";
+    static final String HDR_EXTENSION = ".hdr";
+    static final String JFR_SUMMARY_SUFFIX = "-jfr.txt";
+    static final String DISRUPTIONS_SUFFIX = "-disruptions.csv";
+
+    private static final Logger LOGGER = Logger.getLogger(BenchmarkLoader.class);
+
+    private static final int EPOCH_COLUMN = 0;
+    private static final int OPERATIONS_DELTA_COLUMN = 3;
+    private static final long MILLIS_PER_SECOND = 1000;
+    private static final double NANOS_PER_MICRO = 1000d;
+    private static final double PERCENTILE_50 = 50;
+    private static final double PERCENTILE_99 = 99;
+    private static final double PERCENTILE_999 = 99.9;
+    private static final int SIGNIFICANT_VALUE_DIGITS = 3;
+
+    private final ExecutorService executor;
+    private final long warmupMillis;
+    private final long cooldownMillis;
+
+    BenchmarkLoader(ExecutorService executor, int warmupSeconds, int cooldownSeconds) {
+        this.executor = executor;
+        this.warmupMillis = warmupSeconds * MILLIS_PER_SECOND;
+        this.cooldownMillis = cooldownSeconds * MILLIS_PER_SECOND;
+    }
+
+    BenchmarkLoader(int warmupSeconds, int cooldownSeconds) {
+        this(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), warmupSeconds, cooldownSeconds);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    BenchmarkResult load(String name, File sessionDir) {
+        if (!sessionDir.isDirectory()) {
+            throw new IllegalArgumentException("Benchmark directory [" + sessionDir.getAbsolutePath() + "] does not exist");
+        }
+
+        File[] workerDirs = findWorkerDirs(sessionDir);
+        List<long[][]> performanceLogs = readPerformanceLogs(workerDirs);
+        if (performanceLogs.isEmpty()) {
+            LOGGER.warn("No " + PERFORMANCE_FILE + " found in [" + sessionDir.getAbsolutePath() + "]");
+        }
+
+        long[] period = period(performanceLogs);
+        long startMillis = period[0];
+        long endMillis = period[1];
+
+        Series throughput = new Series(name);
+        long operationCount = aggregateThroughput(performanceLogs, startMillis, endMillis, throughput);
+        BenchmarkResult result = new BenchmarkResult(name, sessionDir, throughput, operationCount,
+                (endMillis - startMillis) / (double) MILLIS_PER_SECOND);
+
+        List<Future<ProbeResult>> futures = new ArrayList<>();
+        for (final Map.Entry<String, List<File>> entry : findHdrFiles(workerDirs).entrySet()) {
+            futures.add(executor.submit(() -> loadProbe(entry.getKey(), entry.getValue(), startMillis, endMillis)));
+        }
+        for (Future<ProbeResult> future : futures) {
+            result.addProbe(get(future));
+        }
+        addJfrSummaries(workerDirs, result);
+        addDisruptions(sessionDir, startMillis, result);
+        return result;
+    }
+
+    private static void addDisruptions(File sessionDir, long startMillis, BenchmarkResult result) {
+        File[] disruptionFiles = sessionDir.listFiles((dir, name) -> name.endsWith(DISRUPTIONS_SUFFIX));
+        if (disruptionFiles == null) {
+            return;
+        }
+        sort(disruptionFiles);
+        for (File disruptionFile : disruptionFiles) {
+            String testId = disruptionFile.getName().substring(0,
+                    disruptionFile.getName().length() - DISRUPTIONS_SUFFIX.length());
+            String[] lines = fileAsText(disruptionFile).split("\n");
+            // skip the header
+            for (int i = 1; i < lines.length; i++) {
+                DisruptionResult disruption = DisruptionResult.parse(testId, lines[i].trim(), startMillis);
+                if (disruption == null) {
+                    LOGGER.warn("Skipping malformed disruption [" + lines[i] + "] in " + disruptionFile.getAbsolutePath());
+                } else {
+                    result.addDisruption(disruption);
+                }
+            }
+        }
+    }
+
+    private static void addJfrSummaries(File[] workerDirs, BenchmarkResult result) {
+        for (File workerDir : workerDirs) {
+            File[] summaryFiles = workerDir.listFiles((dir, name) -> name.endsWith(JFR_SUMMARY_SUFFIX));
+            if (summaryFiles == null) {
+                continue;
+            }
+            sort(summaryFiles);
+            for (File summaryFile : summaryFiles) {
+                String recording = summaryFile.getName().substring(0,
+                        summaryFile.getName().length() - JFR_SUMMARY_SUFFIX.length());
+                result.addJfrSummary(workerDir.getName() + ' ' + recording, fileAsText(summaryFile));
+            }
+        }
+    }
+
+    /**
+     * Returns the start and end of the benchmark in epoch millis, without the warmup and cooldown.
+     */
+    private long[] period(List<long[][]> performanceLogs) {
+        if (performanceLogs.isEmpty()) {
+            return new long[]{0, 0};
+        }
+
+        long firstMillis = Long.MAX_VALUE;
+        long lastMillis = 0;
+        for (long[][] rows : performanceLogs) {
+            firstMillis = Math.min(firstMillis, rows[0][0]);
+            lastMillis = Math.max(lastMillis, rows[rows.length - 1][0]);
+        }
+        long startMillis = firstMillis + warmupMillis;
+        return new long[]{startMillis, Math.max(startMillis, lastMillis - cooldownMillis)};
+    }
+
+    private List<long[][]> readPerformanceLogs(File[] workerDirs) {
+        List<Future<long[][]>> futures = new ArrayList<>();
+        for (final File workerDir : workerDirs) {
+            futures.add(executor.submit(() -> readPerformanceFile(new File(workerDir, PERFORMANCE_FILE))));
+        }
+
+        List<long[][]> performanceLogs = new ArrayList<>();
+        for (Future<long[][]> future : futures) {
+            long[][] rows = get(future);
+            if (rows.length > 0) {
+                performanceLogs.add(rows);
+            }
+        }
+        return performanceLogs;
+    }
+
+    private static File[] findWorkerDirs(File sessionDir) {
+        File[] workerDirs = sessionDir.listFiles(File::isDirectory);
+        if (workerDirs == null) {
+            return new File[0];
+        }
+        sort(workerDirs);
+        return workerDirs;
+    }
+
+    private static Map<String, List<File>> findHdrFiles(File[] workerDirs) {
+        Map<String, List<File>> probes = new TreeMap<>();
+        for (File workerDir : workerDirs) {
+            File[] hdrFiles = workerDir.listFiles((dir, name) -> name.endsWith(HDR_EXTENSION));
+            if (hdrFiles == null) {
+                continue;
+            }
+            for (File hdrFile : hdrFiles) {
+                String probe = hdrFile.getName().substring(0, hdrFile.getName().length() - HDR_EXTENSION.length());
+                List<File> files = probes.get(probe);
+                if (files == null) {
+                    files = new ArrayList<>();
+                    probes.put(probe, files);
+                }
+                files.add(hdrFile);
+            }
+        }
+        return probes;
+    }
+
+    /**
+     * Reads the epoch in millis and the operations delta of every row of a performance.csv file.
+     */
+    static long[][] readPerformanceFile(File file) {
+        if (!file.isFile()) {
+            return new long[0][];
+        }
+
+        List<long[]> rows = new ArrayList<>();
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(file));
+            // skip the header
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split(",");
+                if (columns.length <= OPERATIONS_DELTA_COLUMN) {
+                    continue;
+                }
+                long epochMillis = Math.round(Double.parseDouble(columns[EPOCH_COLUMN]) * MILLIS_PER_SECOND);
+                rows.add(new long[]{epochMillis, Long.parseLong(columns[OPERATIONS_DELTA_COLUMN])});
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            closeQuietly(reader);
+        }
+        return rows.toArray(new long[rows.size()][]);
+    }
+
+    /**
+     * Sums the operations of all workers per interval and adds the throughput of every interval within the period to the
+     * series, where x is the time in seconds since the start of the period.
+     *
+     * @return the total number of operations within the period
+     */
+    static long aggregateThroughput(List<long[][]> performanceLogs, long startMillis, long endMillis, Series series) {
+        long gridMillis = detectIntervalMillis(performanceLogs);
+        Map<Long, Long> buckets = new TreeMap<>();
+        long operationCount = 0;
+        for (long[][] rows : performanceLogs) {
+            for (long[] row : rows) {
+                long timeMillis = row[0];
+                if (timeMillis <= startMillis || timeMillis > endMillis) {
+                    continue;
+                }
+                long bucket = (timeMillis - startMillis + gridMillis - 1) / gridMillis;
+                Long current = buckets.get(bucket);
+                buckets.put(bucket, current == null ? row[1] : current + row[1]);
+                operationCount += row[1];
+            }
+        }
+
+        double gridSeconds = gridMillis / (double) MILLIS_PER_SECOND;
+        for (Map.Entry<Long, Long> entry : buckets.entrySet()) {
+            series.add(entry.getKey() * gridSeconds, entry.getValue() / gridSeconds);
+        }
+        return operationCount;
+    }
+
+    private static long detectIntervalMillis(List<long[][]> performanceLogs) {
+        long intervalMillis = Long.MAX_VALUE;
+        for (long[][] rows : performanceLogs) {
+            for (int i = 1; i < rows.length; i++) {
+                long delta = rows[i][0] - rows[i - 1][0];
+                if (delta > 0) {
+                    intervalMillis = Math.min(intervalMillis, delta);
+                }
+            }
+        }
+        return intervalMillis == Long.MAX_VALUE ? MILLIS_PER_SECOND : intervalMillis;
+    }
+
+    private static ProbeResult loadProbe(String probe, List<File> hdrFiles, long startMillis, long endMillis) {
+        final ProbeResult result = new ProbeResult(probe, new Histogram(SIGNIFICANT_VALUE_DIGITS));
+        HistogramLogReader[] readers = new HistogramLogReader[hdrFiles.size()];
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new HistogramLogReader(hdrFiles.get(i));
+            }
+
+            mergeAligned(readers, 0, histogram -> {
+                if (histogram.getEndTimeStamp() <= startMillis || histogram.getStartTimeStamp() >= endMillis) {
+                    return;
+                }
+                result.getHistogram().add(histogram);
+                double x = (histogram.getEndTimeStamp() - startMillis) / (double) MILLIS_PER_SECOND;
+                result.getP50().add(x, histogram.getValueAtPercentile(PERCENTILE_50) / NANOS_PER_MICRO);
+                result.getP99().add(x, histogram.getValueAtPercentile(PERCENTILE_99) / NANOS_PER_MICRO);
+                result.getP999().add(x, histogram.getValueAtPercentile(PERCENTILE_999) / NANOS_PER_MICRO);
+                result.getMax().add(x, histogram.getMaxValue() / NANOS_PER_MICRO);
+            });
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (HistogramLogReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+        return result;
+    }
+
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The results of a benchmark, e.g. a single Simulator session directory.
+ */
+final class BenchmarkResult {
+
+    private final String name;
+    private final File dir;
+    private final Series throughput;
+    private final Map<String, ProbeResult> probes = new TreeMap<>();
+    private final Map<String, String> jfrSummaries = new TreeMap<>();
+    private final List<DisruptionResult> disruptions = new ArrayList<>();
+    private final long operationCount;
+    private final double durationSeconds;
+
+    BenchmarkResult(String name, File dir, Series throughput, long operationCount, double durationSeconds) {
+        this.name = name;
+        this.dir = dir;
+        this.throughput = throughput;
+        this.operationCount = operationCount;
+        this.durationSeconds = durationSeconds;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    File getDir() {
+        return dir;
+    }
+
+    /**
+     * Returns the throughput of all workers over time.
+     *
+     * @return the throughput series
+     */
+    Series getThroughput() {
+        return throughput;
+    }
+
+    long getOperationCount() {
+        return operationCount;
+    }
+
+    double getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    double getAverageThroughput() {
+        return durationSeconds == 0 ? 0 : operationCount / durationSeconds;
+    }
+
+    Map<String, ProbeResult> getProbes() {
+        return probes;
+    }
+
+    void addProbe(ProbeResult probe) {
+        probes.put(probe.getName(), probe);
+    }
+
+    /**
+     * Returns the JFR summaries of the workers by worker and recording.
+     *
+     * @return the JFR summaries
+     */
+    Map<String, String> getJfrSummaries() {
+        return jfrSummaries;
+    }
+
+    void addJfrSummary(String name, String summary) {
+        jfrSummaries.put(name, summary);
+    }
+
+    /**
+     * Returns the disruptions of the faults which were injected during the benchmark.
+     *
+     * @return the disruptions
+     */
+    List<DisruptionResult> getDisruptions() {
+        return disruptions;
+    }
+
+    void addDisruption(DisruptionResult disruption) {
+        disruptions.add(disruption);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Estimates the relative difference between the means of two samples, with a confidence interval computed by bootstrap
+ * resampling.
+ * <p>
+ * The samples are per-interval values of a benchmark, e.g. the throughput or the 99 percentile latency of every second.
+ * Both samples are resampled with replacement, and the percentiles of the resampled deltas are the bounds of the interval.
+ */
+final class Bootstrap {
+
+    private static final double PERCENT = 100;
+
+    private final int resamples;
+    private final double confidence;
+    private final Random random;
+
+    Bootstrap(int resamples, double confidence, Random random) {
+        if (resamples < 1) {
+            throw new IllegalArgumentException("resamples must be at least 1, but was " + resamples);
+        }
+        if (confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("confidence must be between 0 and 1 (exclusive), but was " + confidence);
+        }
+        this.resamples = resamples;
+        this.confidence = confidence;
+        this.random = random;
+    }
+
+    /**
+     * Returns the difference of the mean of the candidate compared to the mean of the baseline, in percent.
+     *
+     * @param baseline  the values of the baseline
+     * @param candidate the values of the candidate
+     * @return the delta, or {@code null} if one of the samples is empty or the mean of the baseline is 0
+     */
+    Delta deltaPercent(Series baseline, Series candidate) {
+        double[] baselineValues = values(baseline);
+        double[] candidateValues = values(candidate);
+        double baselineMean = mean(baselineValues);
+        if (baselineValues.length == 0 || candidateValues.length == 0 || baselineMean == 0) {
+            return null;
+        }
+
+        double[] deltas = new double[resamples];
+        int count = 0;
+        for (int i = 0; i < resamples; i++) {
+            double resampledBaseline = resampledMean(baselineValues);
+            if (resampledBaseline != 0) {
+                deltas[count++] = delta(resampledBaseline, resampledMean(candidateValues));
+            }
+        }
+        double estimate = delta(baselineMean, mean(candidateValues));
+        if (count == 0) {
+            return new Delta(estimate, estimate, estimate);
+        }
+
+        Arrays.sort(deltas, 0, count);
+        double alpha = (1 - confidence) / 2;
+        return new Delta(estimate, percentile(deltas, count, alpha), percentile(deltas, count, 1 - alpha));
+    }
+
+    private double resampledMean(double[] values) {
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[random.nextInt(values.length)];
+        }
+        return sum / values.length;
+    }
+
+    private static double[] values(Series series) {
+        double[] values = new double[series.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = series.y(i);
+        }
+        return values;
+    }
+
+    private static double mean(double[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double delta(double baseline, double candidate) {
+        return (candidate - baseline) * PERCENT / baseline;
+    }
+
+    private static double percentile(double[] sorted, int count, double fraction) {
+        int index = (int) Math.round(fraction * (count - 1));
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    /**
+     * A relative difference in percent, with the bounds of its confidence interval.
+     */
+    static final class Delta {
+
+        private final double estimate;
+        private final double lower;
+        private final double upper;
+
+        Delta(double estimate, double lower, double upper) {
+            this.estimate = estimate;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        double getEstimate() {
+            return estimate;
+        }
+
+        double getLower() {
+            return lower;
+        }
+
+        double getUpper() {
+            return upper;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ENGLISH, "%+.1f%% [%+.1f%%, %+.1f%%]", estimate, lower, upper);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import joptsimple.NonOptionArgumentSpec;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.hazelcast.simulator.common.GitInfo.getBuildTime;
+import static com.hazelcast.simulator.common.GitInfo.getCommitIdAbbrev;
+import static com.hazelcast.simulator.report.ReportCli.parseBenchmarks;
+import static com.hazelcast.simulator.utils.CliUtils.initOptionsWithHelp;
+import static com.hazelcast.simulator.utils.CliUtils.printHelpAndExit;
+import static com.hazelcast.simulator.utils.CommonUtils.exit;
+import static com.hazelcast.simulator.utils.CommonUtils.exitWithError;
+import static com.hazelcast.simulator.utils.CommonUtils.getSimulatorVersion;
+import static java.lang.String.format;
+
+/**
+ * Command line interface to compare benchmarks and detect performance regressions.
+ * <p>
+ * The first benchmark is the baseline. The exit code is {@value #REGRESSION_EXIT_CODE} if any of the other benchmarks has a
+ * regression, so the tool can be used to fail a nightly performance job.
+ */
+final class CompareCli {
+
+    static final int REGRESSION_EXIT_CODE = 2;
+
+    private static final Logger LOGGER = Logger.getLogger(CompareCli.class);
+
+    private final OptionParser parser = new OptionParser();
+
+    private final OptionSpec<Double> throughputThresholdSpec = parser.accepts("throughputThreshold",
+            "The decrease of the throughput in percent which is considered a regression.")
+            .withRequiredArg().ofType(Double.class).defaultsTo(5d);
+
+    private final OptionSpec<Double> latencyThresholdSpec = parser.accepts("latencyThreshold",
+            "The increase of a latency percentile in percent which is considered a regression.")
+            .withRequiredArg().ofType(Double.class).defaultsTo(5d);
+
+    private final OptionSpec<Double> confidenceSpec = parser.accepts("confidence",
+            "The confidence level of the confidence intervals.")
+            .withRequiredArg().ofType(Double.class).defaultsTo(0.95);
+
+    private final OptionSpec<Integer> resamplesSpec = parser.accepts("resamples",
+            "The number of bootstrap resamples.")
+            .withRequiredArg().ofType(Integer.class).defaultsTo(1000);
+
+    private final OptionSpec<Long> seedSpec = parser.accepts("seed",
+            "The seed of the bootstrap resampling, to get reproducible results.")
+            .withRequiredArg().ofType(Long.class);
+
+    private final OptionSpec<Integer> warmupSpec = parser.accepts("warmup",
+            "The warmup period in seconds. The warmup removes datapoints from the start.")
+            .withRequiredArg().ofType(Integer.class).defaultsTo(0);
+
+    private final OptionSpec<Integer> cooldownSpec = parser.accepts("cooldown",
+            "The cooldown period in seconds. The cooldown removes datapoints from the end.")
+            .withRequiredArg().ofType(Integer.class).defaultsTo(0);
+
+    private final NonOptionArgumentSpec<String> benchmarksSpec = parser.nonOptions(
+            "The benchmark directories, each optionally followed by a [name]. The first benchmark is the baseline.");
+
+    private final OptionSet options;
+
+    CompareCli(String[] args) {
+        options = initOptionsWithHelp(parser, args);
+    }
+
+    /**
+     * Compares the benchmarks.
+     *
+     * @return {@code true} if a regression was found, {@code false} otherwise
+     */
+    boolean run() {
+        Map<String, File> benchmarks = parseBenchmarks(benchmarksSpec.values(options));
+        if (benchmarks.size() < 2) {
+            printHelpAndExit(parser);
+        }
+
+        Random random = options.has(seedSpec) ? new Random(seedSpec.value(options)) : new Random();
+        Bootstrap bootstrap = new Bootstrap(resamplesSpec.value(options), confidenceSpec.value(options), random);
+        BenchmarkComparison comparison = new BenchmarkComparison(bootstrap,
+                throughputThresholdSpec.value(options), latencyThresholdSpec.value(options));
+
+        BenchmarkLoader loader = new BenchmarkLoader(warmupSpec.value(options), cooldownSpec.value(options));
+        try {
+            List<BenchmarkResult> results = new ArrayList<>();
+            for (Map.Entry<String, File> entry : benchmarks.entrySet()) {
+                LOGGER.info(format("Loading benchmark [%s] from %s", entry.getKey(), entry.getValue().getAbsolutePath()));
+                results.add(loader.load(entry.getKey(), entry.getValue()));
+            }
+
+            compare(comparison, results);
+        } finally {
+            loader.shutdown();
+        }
+
+        boolean regression = comparison.hasRegression();
+        LOGGER.info(regression ? "Regression detected!" : "No regression detected");
+        return regression;
+    }
+
+    private static void compare(BenchmarkComparison comparison, List<BenchmarkResult> results) {
+        BenchmarkResult baseline = results.get(0);
+        LOGGER.info(format("Comparing against baseline [%s]", baseline.getName()));
+        for (BenchmarkResult candidate : results.subList(1, results.size())) {
+            for (BenchmarkComparison.Result result : comparison.compare(baseline, candidate)) {
+                if (result.isRegression()) {
+                    LOGGER.warn(result);
+                } else {
+                    LOGGER.info(result);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        LOGGER.info("Hazelcast Simulator Benchmark Compare");
+        LOGGER.info(format("Version: %s, Commit: %s, Build Time: %s",
+                getSimulatorVersion(), getCommitIdAbbrev(), getBuildTime()));
+
+        boolean regression = false;
+        try {
+            CompareCli cli = new CompareCli(args);
+            regression = cli.run();
+        } catch (Exception e) {
+            exitWithError(LOGGER, "Could not compare benchmarks", e);
+        }
+        if (regression) {
+            exit(REGRESSION_EXIT_CODE);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+/**
+ * The disruption caused by a fault injected during the run phase of a test, as measured by the coordinator.
+ */
+final class DisruptionResult {
+
+    private static final int COLUMNS = 11;
+    private static final double MILLIS_PER_SECOND = 1000d;
+
+    private final String name;
+    private final String type;
+    private final String workers;
+    private final double startSeconds;
+    private final double endSeconds;
+    private final double baselineThroughput;
+    private final double minThroughput;
+    private final long recoveryMillis;
+    private final long peakLatencyMaxMicros;
+    private final long peakLatency999Micros;
+    private final int failures;
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    DisruptionResult(String name, String type, String workers, double startSeconds, double endSeconds,
+                     double baselineThroughput, double minThroughput, long recoveryMillis, long peakLatencyMaxMicros,
+                     long peakLatency999Micros, int failures) {
+        this.name = name;
+        this.type = type;
+        this.workers = workers;
+        this.startSeconds = startSeconds;
+        this.endSeconds = endSeconds;
+        this.baselineThroughput = baselineThroughput;
+        this.minThroughput = minThroughput;
+        this.recoveryMillis = recoveryMillis;
+        this.peakLatencyMaxMicros = peakLatencyMaxMicros;
+        this.peakLatency999Micros = peakLatency999Micros;
+        this.failures = failures;
+    }
+
+    /**
+     * Parses a row of a disruptions file written by the coordinator.
+     *
+     * @param testId      the id of the test the fault was injected in
+     * @param line        the row
+     * @param startMillis the start of the benchmark in epoch millis
+     * @return the DisruptionResult or {@code null} if the row is malformed
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    static DisruptionResult parse(String testId, String line, long startMillis) {
+        String[] columns = line.split(",");
+        if (columns.length != COLUMNS) {
+            return null;
+        }
+        try {
+            return new DisruptionResult(
+                    testId + ' ' + columns[0],
+                    columns[1],
+                    columns[2],
+                    (Long.parseLong(columns[3]) - startMillis) / MILLIS_PER_SECOND,
+                    (Long.parseLong(columns[4]) - startMillis) / MILLIS_PER_SECOND,
+                    Double.parseDouble(columns[5]),
+                    Double.parseDouble(columns[6]),
+                    Long.parseLong(columns[7]),
+                    Long.parseLong(columns[8]),
+                    Long.parseLong(columns[9]),
+                    Integer.parseInt(columns[10]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    String getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Returns the time the fault was injected in seconds since the start of the benchmark.
+     */
+    double getStartSeconds() {
+        return startSeconds;
+    }
+
+    /**
+     * Returns the time the fault ended in seconds since the start of the benchmark.
+     */
+    double getEndSeconds() {
+        return endSeconds;
+    }
+
+    double getBaselineThroughput() {
+        return baselineThroughput;
+    }
+
+    double getMinThroughput() {
+        return minThroughput;
+    }
+
+    boolean isRecovered() {
+        return recoveryMillis >= 0;
+    }
+
+    /**
+     * Returns the time from the injection of the fault till the throughput has recovered, or -1 if it didn't recover.
+     */
+    long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    long getPeakLatencyMaxMicros() {
+        return peakLatencyMaxMicros;
+    }
+
+    long getPeakLatency999Micros() {
+        return peakLatency999Micros;
+    }
+
+    int getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateExceptionHandler;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.hazelcast.simulator.report.SvgChart.formatValue;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static java.lang.String.format;
+
+/**
+ * Writes a self-contained HTML report for one or more benchmarks.
+ * <p>
+ * The first benchmark is the baseline; the other benchmarks are compared against it.
+ */
+final class HtmlReport {
+
+    static final String REPORT_FILE = "report.html";
+
+    private static final double NANOS_PER_MICRO = 1000d;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final double PERCENTILE_99 = 99;
+    private static final int TICKS_PER_HALF_DISTANCE = 5;
+    private static final double PERCENT = 100;
+    private static final double MILLIS_PER_SECOND = 1000d;
+
+    private final List<BenchmarkResult> benchmarks;
+
+    HtmlReport(List<BenchmarkResult> benchmarks) {
+        if (benchmarks.isEmpty()) {
+            throw new IllegalArgumentException("At least one benchmark is required");
+        }
+        this.benchmarks = benchmarks;
+    }
+
+    File write(File outputDir) throws IOException {
+        File reportFile = new File(ensureExistingDirectory(outputDir), REPORT_FILE);
+
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_24);
+        cfg.setClassForTemplateLoading(getClass(), "/");
+        cfg.setDefaultEncoding("UTF-8");
+        cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        cfg.setLogTemplateExceptions(false);
+
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(reportFile), StandardCharsets.UTF_8);
+            Template template = cfg.getTemplate("HtmlReport.ftl");
+            template.process(createModel(), writer);
+        } catch (TemplateException e) {
+            throw new IOException("Could not render " + reportFile, e);
+        } finally {
+            closeQuietly(writer);
+        }
+        return reportFile;
+    }
+
+    Map<String, Object> createModel() {
+        Map<String, Object> root = new HashMap<>();
+
+        List<String> names = new ArrayList<>();
+        for (BenchmarkResult benchmark : benchmarks) {
+            names.add(benchmark.getName());
+        }
+        root.put("names", names);
+        root.put("summary", createSummary());
+
+        SvgChart throughputChart = SvgChart.timeChart("Throughput", "operations/second");
+        for (BenchmarkResult benchmark : benchmarks) {
+            throughputChart.add(benchmark.getThroughput());
+        }
+        addDisruptionMarkers(throughputChart);
+        root.put("throughputChart", throughputChart.render());
+
+        List<Map<String, Object>> probes = new ArrayList<>();
+        for (String probe : probeNames()) {
+            probes.add(createProbe(probe));
+        }
+        root.put("probes", probes);
+        root.put("jfrSummaries", createJfrSummaries());
+        root.put("disruptions", createDisruptions());
+        return root;
+    }
+
+    private void addDisruptionMarkers(SvgChart chart) {
+        for (BenchmarkResult benchmark : benchmarks) {
+            for (DisruptionResult disruption : benchmark.getDisruptions()) {
+                chart.addMarker(disruption.getStartSeconds(), disruption.getName());
+            }
+        }
+    }
+
+    private List<Map<String, String>> createDisruptions() {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (BenchmarkResult benchmark : benchmarks) {
+            for (DisruptionResult disruption : benchmark.getDisruptions()) {
+                Map<String, String> row = new LinkedHashMap<>();
+                row.put("name", benchmark.getName() + ' ' + disruption.getName());
+                row.put("type", disruption.getType());
+                row.put("workers", disruption.getWorkers());
+                row.put("start", format(Locale.ENGLISH, "%.1f", disruption.getStartSeconds()));
+                row.put("recovery", disruption.isRecovered()
+                        ? format(Locale.ENGLISH, "%.1f", disruption.getRecoveryMillis() / MILLIS_PER_SECOND) : "not recovered");
+                row.put("baselineThroughput", formatValue(disruption.getBaselineThroughput()));
+                row.put("minThroughput", formatValue(disruption.getMinThroughput()));
+                row.put("peakLatency999", Long.toString(disruption.getPeakLatency999Micros()));
+                row.put("peakLatencyMax", Long.toString(disruption.getPeakLatencyMaxMicros()));
+                row.put("failures", Integer.toString(disruption.getFailures()));
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private List<Map<String, String>> createSummary() {
+        BenchmarkResult baseline = benchmarks.get(0);
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (BenchmarkResult benchmark : benchmarks) {
+            Map<String, String> row = new LinkedHashMap<>();
+            row.put("name", benchmark.getName());
+            row.put("duration", format(Locale.ENGLISH, "%.1f", benchmark.getDurationSeconds()));
+            row.put("operations", Long.toString(benchmark.getOperationCount()));
+            row.put("throughput", formatValue(benchmark.getAverageThroughput()));
+            row.put("delta", benchmark == baseline ? ""
+                    : formatDelta(baseline.getAverageThroughput(), benchmark.getAverageThroughput()));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<Map<String, String>> createJfrSummaries() {
+        List<Map<String, String>> summaries = new ArrayList<>();
+        for (BenchmarkResult benchmark : benchmarks) {
+            for (Map.Entry<String, String> entry : benchmark.getJfrSummaries().entrySet()) {
+                Map<String, String> summary = new HashMap<>();
+                summary.put("name", benchmark.getName() + ' ' + entry.getKey());
+                summary.put("text", entry.getValue());
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+
+    private Set<String> probeNames() {
+        Set<String> probes = new TreeSet<>();
+        for (BenchmarkResult benchmark : benchmarks) {
+            probes.addAll(benchmark.getProbes().keySet());
+        }
+        return probes;
+    }
+
+    private Map<String, Object> createProbe(String probe) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("name", probe);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        SvgChart latencyChart;
+        SvgChart distributionChart = SvgChart.percentileChart(probe + " latency distribution", "latency (us)");
+        if (benchmarks.size() == 1) {
+            ProbeResult result = benchmarks.get(0).getProbes().get(probe);
+            latencyChart = SvgChart.timeChart(probe + " latency", "latency (us)")
+                    .add(result.getP50())
+                    .add(result.getP99())
+                    .add(result.getP999())
+                    .add(result.getMax());
+        } else {
+            latencyChart = SvgChart.timeChart(probe + " 99% latency", "latency (us)");
+        }
+        addDisruptionMarkers(latencyChart);
+
+        ProbeResult baseline = benchmarks.get(0).getProbes().get(probe);
+        for (BenchmarkResult benchmark : benchmarks) {
+            ProbeResult result = benchmark.getProbes().get(probe);
+            if (result == null) {
+                continue;
+            }
+            if (benchmarks.size() > 1) {
+                latencyChart.add(renamed(result.getP99(), benchmark.getName()));
+            }
+            distributionChart.add(distribution(benchmark.getName(), result.getHistogram()));
+            rows.add(createProbeRow(benchmark.getName(), result, baseline));
+        }
+
+        model.put("rows", rows);
+        model.put("latencyChart", latencyChart.render());
+        model.put("distributionChart", distributionChart.render());
+        return model;
+    }
+
+    private static Map<String, Object> createProbeRow(String name, ProbeResult result, ProbeResult baseline) {
+        Histogram histogram = result.getHistogram();
+        Map<String, Object> row = new HashMap<>();
+        row.put("name", name);
+        row.put("count", Long.toString(histogram.getTotalCount()));
+        row.put("mean", formatValue(histogram.getMean() / NANOS_PER_MICRO));
+        List<String> percentiles = new ArrayList<>();
+        for (double percentile : PERCENTILES) {
+            percentiles.add(formatValue(histogram.getValueAtPercentile(percentile) / NANOS_PER_MICRO));
+        }
+        row.put("percentiles", percentiles);
+        row.put("max", formatValue(histogram.getMaxValue() / NANOS_PER_MICRO));
+        row.put("delta", baseline == null || baseline == result ? ""
+                : formatDelta(baseline.getHistogram().getValueAtPercentile(PERCENTILE_99),
+                histogram.getValueAtPercentile(PERCENTILE_99)));
+        return row;
+    }
+
+    private static Series renamed(Series series, String name) {
+        Series result = new Series(name);
+        for (int i = 0; i < series.size(); i++) {
+            result.add(series.x(i), series.y(i));
+        }
+        return result;
+    }
+
+    private static Series distribution(String name, Histogram histogram) {
+        Series series = new Series(name);
+        if (histogram.getTotalCount() == 0) {
+            return series;
+        }
+        for (HistogramIterationValue value : histogram.percentiles(TICKS_PER_HALF_DISTANCE)) {
+            series.add(value.getPercentileLevelIteratedTo(), value.getValueIteratedTo() / NANOS_PER_MICRO);
+        }
+        return series;
+    }
+
+    static String formatDelta(double baseline, double value) {
+        if (baseline == 0) {
+            return "";
+        }
+        return format(Locale.ENGLISH, "%+.1f%%", (value - baseline) * PERCENT / baseline);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The latency information of a single probe of a benchmark, merged over all workers.
+ */
+final class ProbeResult {
+
+    private final String name;
+    private final Histogram histogram;
+    private final Series p50 = new Series("50%");
+    private final Series p99 = new Series("99%");
+    private final Series p999 = new Series("99.9%");
+    private final Series max = new Series("max");
+
+    ProbeResult(String name, Histogram histogram) {
+        this.name = name;
+        this.histogram = histogram;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the histogram with all the latencies of the probe within the period of the benchmark.
+     *
+     * @return the histogram
+     */
+    Histogram getHistogram() {
+        return histogram;
+    }
+
+    Series getP50() {
+        return p50;
+    }
+
+    Series getP99() {
+        return p99;
+    }
+
+    Series getP999() {
+        return p999;
+    }
+
+    Series getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import joptsimple.NonOptionArgumentSpec;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.common.GitInfo.getBuildTime;
+import static com.hazelcast.simulator.common.GitInfo.getCommitIdAbbrev;
+import static com.hazelcast.simulator.utils.CliUtils.initOptionsWithHelp;
+import static com.hazelcast.simulator.utils.CliUtils.printHelpAndExit;
+import static com.hazelcast.simulator.utils.CommonUtils.exitWithError;
+import static com.hazelcast.simulator.utils.CommonUtils.getSimulatorVersion;
+import static java.lang.String.format;
+
+/**
+ * Command line interface of the pure Java benchmark report generator.
+ * <p>
+ * The benchmarks are passed as directories, each optionally followed by a name between square brackets, e.g.
+ * {@code benchmark-report-html 2017-01-01__12_00_00 [3.8] 2017-01-02__12_00_00 [3.9]}. A benchmark without a name is named
+ * after its directory; the names need to be unique, so benchmark directories with the same name need an explicit name.
+ */
+final class ReportCli {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportCli.class);
+
+    private final OptionParser parser = new OptionParser();
+
+    private final OptionSpec<String> outputSpec = parser.accepts("output",
+            "The output directory for the report.")
+            .withRequiredArg().ofType(String.class).defaultsTo("report");
+
+    private final OptionSpec<Integer> warmupSpec = parser.accepts("warmup",
+            "The warmup period in seconds. The warmup removes datapoints from the start.")
+            .withRequiredArg().ofType(Integer.class).defaultsTo(0);
+
+    private final OptionSpec<Integer> cooldownSpec = parser.accepts("cooldown",
+            "The cooldown period in seconds. The cooldown removes datapoints from the end.")
+            .withRequiredArg().ofType(Integer.class).defaultsTo(0);
+
+    private final NonOptionArgumentSpec<String> benchmarksSpec = parser.nonOptions(
+            "The benchmark directories, each optionally followed by a [name].");
+
+    private final OptionSet options;
+
+    ReportCli(String[] args) {
+        options = initOptionsWithHelp(parser, args);
+    }
+
+    File run() throws IOException {
+        Map<String, File> benchmarks = parseBenchmarks(benchmarksSpec.values(options));
+        if (benchmarks.isEmpty()) {
+            printHelpAndExit(parser);
+        }
+
+        BenchmarkLoader loader = new BenchmarkLoader(warmupSpec.value(options), cooldownSpec.value(options));
+        try {
+            List<BenchmarkResult> results = new ArrayList<>();
+            for (Map.Entry<String, File> entry : benchmarks.entrySet()) {
+                LOGGER.info(format("Loading benchmark [%s] from %s", entry.getKey(), entry.getValue().getAbsolutePath()));
+                results.add(loader.load(entry.getKey(), entry.getValue()));
+            }
+
+            File reportFile = new HtmlReport(results).write(new File(outputSpec.value(options)).getAbsoluteFile());
+            LOGGER.info("Report written to " + reportFile.getAbsolutePath());
+            return reportFile;
+        } finally {
+            loader.shutdown();
+        }
+    }
+
+    static Map<String, File> parseBenchmarks(List<String> args) {
+        Map<String, File> benchmarks = new LinkedHashMap<>();
+        File lastDir = null;
+        for (String arg : args) {
+            if (arg.startsWith("[") && arg.endsWith("]")) {
+                if (lastDir == null) {
+                    throw new IllegalArgumentException(
+                            format("Benchmark name %s must be preceded by a benchmark directory", arg));
+                }
+                addBenchmark(benchmarks, arg.substring(1, arg.length() - 1), lastDir);
+                lastDir = null;
+            } else {
+                if (lastDir != null) {
+                    addBenchmark(benchmarks, lastDir.getName(), lastDir);
+                }
+                lastDir = new File(arg).getAbsoluteFile();
+            }
+        }
+        if (lastDir != null) {
+            addBenchmark(benchmarks, lastDir.getName(), lastDir);
+        }
+        return benchmarks;
+    }
+
+    private static void addBenchmark(Map<String, File> benchmarks, String name, File dir) {
+        File existingDir = benchmarks.put(name, dir);
+        if (existingDir != null) {
+            throw new IllegalArgumentException(format("Benchmark name [%s] is used for both %s and %s;"
+                    + " add a unique [name] after the benchmark directories", name, existingDir, dir));
+        }
+    }
+
+    public static void main(String[] args) {
+        LOGGER.info("Hazelcast Simulator Benchmark Report");
+        LOGGER.info(format("Version: %s, Commit: %s, Build Time: %s",
+                getSimulatorVersion(), getCommitIdAbbrev(), getBuildTime()));
+
+        try {
+            ReportCli cli = new ReportCli(args);
+            cli.run();
+        } catch (Exception e) {
+            exitWithError(LOGGER, "Could not create report", e);
+        }
+    }
+}
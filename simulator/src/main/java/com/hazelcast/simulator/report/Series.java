@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import static java.util.Arrays.copyOf;
+
+/**
+ * A series of x/y values, e.g. a time series where x is the time in seconds since the start of the benchmark.
+ */
+final class Series {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String name;
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private int size;
+
+    Series(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void add(double x, double y) {
+        if (size == xs.length) {
+            xs = copyOf(xs, size * 2);
+            ys = copyOf(ys, size * 2);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    double x(int index) {
+        return xs[index];
+    }
+
+    double y(int index) {
+        return ys[index];
+    }
+
+    double mean() {
+        if (size == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += ys[i];
+        }
+        return sum / size;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static java.lang.String.format;
+
+/**
+ * Renders one or more {@link Series} as an inline SVG line chart.
+ * <p>
+ * The chart has no dependencies on JavaScript or external resources, so the report can be opened offline. Series with
+ * more points than the chart is wide are decimated by keeping the maximum of every pixel, so latency spikes stay visible.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class SvgChart {
+
+    static final String[] COLORS = {
+            "#1f77b4", "#ff7f0e", "#2ca02c", "#d62728", "#9467bd", "#8c564b", "#e377c2", "#7f7f7f", "#bcbd22", "#17becf",
+    };
+
+    private static final int WIDTH = 900;
+    private static final int HEIGHT = 360;
+    private static final int MARGIN_LEFT = 80;
+    private static final int MARGIN_RIGHT = 20;
+    private static final int MARGIN_TOP = 30;
+    private static final int MARGIN_BOTTOM = 70;
+    private static final int PLOT_WIDTH = WIDTH - MARGIN_LEFT - MARGIN_RIGHT;
+    private static final int PLOT_HEIGHT = HEIGHT - MARGIN_TOP - MARGIN_BOTTOM;
+    private static final int TICKS = 5;
+
+    private final String title;
+    private final String yLabel;
+    private final boolean percentileAxis;
+    private final List<Series> seriesList = new ArrayList<>();
+    private final List<Double> markerXs = new ArrayList<>();
+    private final List<String> markerLabels = new ArrayList<>();
+
+    private SvgChart(String title, String yLabel, boolean percentileAxis) {
+        this.title = title;
+        this.yLabel = yLabel;
+        this.percentileAxis = percentileAxis;
+    }
+
+    /**
+     * Creates a chart where x is the time in seconds.
+     */
+    static SvgChart timeChart(String title, String yLabel) {
+        return new SvgChart(title, yLabel, false);
+    }
+
+    /**
+     * Creates a chart where x is a percentile, e.g. 99.9, shown on a logarithmic axis so the tail is readable.
+     */
+    static SvgChart percentileChart(String title, String yLabel) {
+        return new SvgChart(title, yLabel, true);
+    }
+
+    SvgChart add(Series series) {
+        seriesList.add(series);
+        return this;
+    }
+
+    /**
+     * Adds a vertical marker, e.g. to annotate the time a fault was injected.
+     */
+    SvgChart addMarker(double x, String label) {
+        markerXs.add(x);
+        markerLabels.add(label);
+        return this;
+    }
+
+    String render() {
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = 0;
+        for (Series series : seriesList) {
+            for (int i = 0; i < series.size(); i++) {
+                double x = toX(series.x(i));
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, series.y(i));
+            }
+        }
+        if (minX > maxX) {
+            minX = 0;
+            maxX = 1;
+        } else if (minX == maxX) {
+            maxX = minX + 1;
+        }
+        if (maxY <= 0) {
+            maxY = 1;
+        }
+        maxY *= 1.05;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(format(Locale.ENGLISH, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" "
+                + "viewBox=\"0 0 %d %d\" font-family=\"sans-serif\" font-size=\"11\">%n", WIDTH, HEIGHT, WIDTH, HEIGHT));
+        sb.append(format(Locale.ENGLISH, "<text x=\"%d\" y=\"18\" font-size=\"14\" font-weight=\"bold\">%s</text>%n",
+                MARGIN_LEFT, escape(title)));
+        renderAxes(sb, minX, maxX, maxY);
+        for (int k = 0; k < seriesList.size(); k++) {
+            renderSeries(sb, seriesList.get(k), COLORS[k % COLORS.length], minX, maxX, maxY);
+        }
+        renderMarkers(sb, minX, maxX);
+        renderLegend(sb);
+        sb.append("</svg>\n");
+        return sb.toString();
+    }
+
+    private void renderAxes(StringBuilder sb, double minX, double maxX, double maxY) {
+        sb.append(format(Locale.ENGLISH, "<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"none\" stroke=\"#999\"/>%n",
+                MARGIN_LEFT, MARGIN_TOP, PLOT_WIDTH, PLOT_HEIGHT));
+        for (int i = 0; i <= TICKS; i++) {
+            double y = maxY * i / TICKS;
+            int py = MARGIN_TOP + PLOT_HEIGHT - PLOT_HEIGHT * i / TICKS;
+            sb.append(format(Locale.ENGLISH, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#eee\"/>%n",
+                    MARGIN_LEFT, py, MARGIN_LEFT + PLOT_WIDTH, py));
+            sb.append(format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\" text-anchor=\"end\">%s</text>%n",
+                    MARGIN_LEFT - 5, py + 4, formatValue(y)));
+        }
+
+        if (percentileAxis) {
+            for (double x = 1; x <= maxX; x++) {
+                int px = toPixelX(x, minX, maxX);
+                sb.append(format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\" text-anchor=\"middle\">%s</text>%n",
+                        px, MARGIN_TOP + PLOT_HEIGHT + 15, percentileLabel(x)));
+            }
+        } else {
+            for (int i = 0; i <= TICKS; i++) {
+                double x = minX + (maxX - minX) * i / TICKS;
+                int px = toPixelX(x, minX, maxX);
+                sb.append(format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\" text-anchor=\"middle\">%s</text>%n",
+                        px, MARGIN_TOP + PLOT_HEIGHT + 15, timeLabel(x)));
+            }
+        }
+
+        sb.append(format(Locale.ENGLISH, "<text transform=\"translate(15,%d) rotate(-90)\" text-anchor=\"middle\">%s</text>%n",
+                MARGIN_TOP + PLOT_HEIGHT / 2, escape(yLabel)));
+    }
+
+    private void renderSeries(StringBuilder sb, Series series, String color, double minX, double maxX, double maxY) {
+        if (series.isEmpty()) {
+            return;
+        }
+
+        sb.append("<polyline fill=\"none\" stroke-width=\"1.5\" stroke=\"").append(color).append("\" points=\"");
+        int lastPx = Integer.MIN_VALUE;
+        double pixelMaxY = 0;
+        for (int i = 0; i < series.size(); i++) {
+            int px = toPixelX(toX(series.x(i)), minX, maxX);
+            if (px != lastPx && lastPx != Integer.MIN_VALUE) {
+                appendPoint(sb, lastPx, pixelMaxY, maxY);
+                pixelMaxY = 0;
+            }
+            lastPx = px;
+            pixelMaxY = Math.max(pixelMaxY, series.y(i));
+        }
+        appendPoint(sb, lastPx, pixelMaxY, maxY);
+        sb.append("\"/>\n");
+    }
+
+    private void renderMarkers(StringBuilder sb, double minX, double maxX) {
+        for (int k = 0; k < markerXs.size(); k++) {
+            double x = toX(markerXs.get(k));
+            if (x < minX || x > maxX) {
+                continue;
+            }
+            int px = toPixelX(x, minX, maxX);
+            sb.append(format(Locale.ENGLISH, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#d62728\" "
+                    + "stroke-dasharray=\"4,3\"/>%n", px, MARGIN_TOP, px, MARGIN_TOP + PLOT_HEIGHT));
+            sb.append(format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\" fill=\"#d62728\">%s</text>%n",
+                    px + 3, MARGIN_TOP + 12 + 12 * (k % 3), escape(markerLabels.get(k))));
+        }
+    }
+
+    private static void appendPoint(StringBuilder sb, int px, double y, double maxY) {
+        int py = MARGIN_TOP + PLOT_HEIGHT - (int) Math.round(PLOT_HEIGHT * y / maxY);
+        sb.append(px).append(',').append(py).append(' ');
+    }
+
+    private void renderLegend(StringBuilder sb) {
+        int x = MARGIN_LEFT;
+        int y = HEIGHT - 15;
+        for (int k = 0; k < seriesList.size(); k++) {
+            String name = seriesList.get(k).getName();
+            sb.append(format(Locale.ENGLISH, "<rect x=\"%d\" y=\"%d\" width=\"12\" height=\"4\" fill=\"%s\"/>%n",
+                    x, y - 4, COLORS[k % COLORS.length]));
+            sb.append(format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\">%s</text>%n", x + 16, y, escape(name)));
+            x += 30 + 7 * name.length();
+        }
+    }
+
+    private double toX(double x) {
+        if (!percentileAxis) {
+            return x;
+        }
+        // 90% -> 1, 99% -> 2, 99.9% -> 3 etc.
+        return Math.log10(1 / (1 - Math.min(x, 99.9999) / 100));
+    }
+
+    private static int toPixelX(double x, double minX, double maxX) {
+        return MARGIN_LEFT + (int) Math.round(PLOT_WIDTH * (x - minX) / (maxX - minX));
+    }
+
+    private static String percentileLabel(double x) {
+        double percentile = 100 * (1 - Math.pow(10, -x));
+        return new DecimalFormat("#.####", DecimalFormatSymbols.getInstance(Locale.ENGLISH)).format(percentile) + '%';
+    }
+
+    private static String timeLabel(double seconds) {
+        long total = Math.round(seconds);
+        return format(Locale.ENGLISH, "%d:%02d", total / 60, total % 60);
+    }
+
+    static String formatValue(double value) {
+        if (value >= 1000000) {
+            return format(Locale.ENGLISH, "%.1fM", value / 1000000);
+        } else if (value >= 10000) {
+            return format(Locale.ENGLISH, "%.1fK", value / 1000);
+        } else if (value >= 100) {
+            return format(Locale.ENGLISH, "%.0f", value);
+        }
+        return format(Locale.ENGLISH, "%.2f", value);
+    }
+
+    static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
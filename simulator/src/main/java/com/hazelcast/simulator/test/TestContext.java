@@ -15,6 +15,10 @@
  */
 package com.hazelcast.simulator.test;
 
+import com.hazelcast.simulator.probes.Counter;
+import com.hazelcast.simulator.probes.Gauge;
+import com.hazelcast.simulator.probes.Meter;
+
 /**
  * The TestContext is they way for a test to get access to test related information. Most importantly if a test is running.
  */
@@ -65,4 +69,34 @@ public interface TestContext {
      * @param args the arguments
      */
     void echoCoordinator(String msg, Object... args);
+
+    /**
+     * Returns the {@link Counter} with the given name; the counter is created if it doesn't exist yet.
+     *
+     * The total value of the counter is written to the performance log of the test on every interval and is sent to the
+     * coordinator. It is a cheap alternative for keeping an AtomicLong in the test which can only be seen in the verify.
+     *
+     * @param name the name of the counter
+     * @return the counter
+     */
+    Counter getCounter(String name);
+
+    /**
+     * Returns the {@link Meter} with the given name; the meter is created if it doesn't exist yet.
+     *
+     * Next to the total count, the rate per second of every interval is written to the performance log of the test.
+     *
+     * @param name the name of the meter
+     * @return the meter
+     */
+    Meter getMeter(String name);
+
+    /**
+     * Registers a {@link Gauge} which is read on every interval and written to the performance log of the test.
+     *
+     * @param name  the name of the gauge
+     * @param gauge the gauge
+     * @throws IllegalArgumentException if a gauge with the given name already exists
+     */
+    void registerGauge(String name, Gauge gauge);
 }
@@ -17,12 +17,15 @@
 package com.hazelcast.simulator.utils;
 
 import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
 import org.HdrHistogram.HistogramLogReader;
 import org.HdrHistogram.HistogramLogWriter;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.function.Consumer;
 
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
 import static com.hazelcast.simulator.utils.FileUtils.ensureExistingFile;
 
@@ -33,53 +36,259 @@ import static com.hazelcast.simulator.utils.FileUtils.ensureExistingFile;
  * It works like this; from each HistogramLogReader a Histogram is read and merged into a final Histogram and this Histogram
  * is written into the merged HDR. Once round is complete, the next Histogram is retrieved. The different HDR files don't need
  * to have the same length; as soon as a HDR is finished, it is ignored and this continues till all HDR files are fully processed.
+ *
+ * When the workers didn't start at the same time or skipped an interval, the n-th histograms of the HDR files don't cover
+ * the same period and the merged timeline gets smeared. For this the aligned mode can be used, see
+ * {@link #mergeAligned(File, long, File...)}. It is enabled by passing {@code -align <gridMillis>} as first arguments.
  */
 public final class HistogramLogMerger {
 
+    private static final long MILLIS_PER_SECOND = 1000;
+    private static final long MILLIS_PER_TENTH_SECOND = 100;
+
     private HistogramLogMerger() {
     }
 
     public static void main(String[] args) throws IOException {
-        File outputFile = new File(args[0]);
+        boolean aligned = args.length > 1 && args[0].equals("-align");
+        int offset = aligned ? 2 : 0;
+
+        File outputFile = new File(args[offset]);
+        File[] inputFiles = new File[args.length - offset - 1];
+        for (int k = offset + 1; k < args.length; k++) {
+            inputFiles[k - offset - 1] = new File(args[k]);
+        }
+
+        if (aligned) {
+            mergeAligned(outputFile, Long.parseLong(args[1]), inputFiles);
+        } else {
+            merge(outputFile, inputFiles);
+        }
+    }
+
+    /**
+     * Merges the histograms of the input files into the output file.
+     *
+     * The histograms are streamed; so only a single histogram per input file is kept in memory.
+     *
+     * @param outputFile the HDR file to write
+     * @param inputFiles the HDR files to merge
+     * @throws IOException if an input file can't be read or the output file can't be written
+     */
+    public static void merge(File outputFile, File... inputFiles) throws IOException {
         deleteQuiet(outputFile);
         ensureExistingFile(outputFile);
 
-        HistogramLogReader[] readers = new HistogramLogReader[args.length - 1];
-        for (int k = 1; k < args.length; k++) {
-            String inputFile = args[k];
-            readers[k - 1] = new HistogramLogReader(inputFile);
-        }
+        HistogramLogReader[] readers = new HistogramLogReader[inputFiles.length];
+        HistogramLogWriter writer = null;
+        try {
+            for (int k = 0; k < inputFiles.length; k++) {
+                readers[k] = new HistogramLogReader(inputFiles[k]);
+            }
 
-        HistogramLogWriter writer = new HistogramLogWriter(outputFile);
-        writer.outputComment("[Latency histograms for " + getBaseName(outputFile) + ']');
-        writer.outputLogFormatVersion();
-        writer.outputLegend();
+            writer = new HistogramLogWriter(outputFile);
+            writer.outputComment("[Latency histograms for " + getBaseName(outputFile) + ']');
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
 
-        for (; ; ) {
-            Histogram merged = null;
-            for (HistogramLogReader reader : readers) {
-                Histogram histogram = (Histogram) reader.nextIntervalHistogram();
-                if (histogram == null) {
-                    continue;
+            for (; ; ) {
+                Histogram merged = null;
+                for (HistogramLogReader reader : readers) {
+                    Histogram histogram = (Histogram) reader.nextIntervalHistogram();
+                    if (histogram == null) {
+                        continue;
+                    }
+
+                    if (merged == null) {
+                        merged = new Histogram(
+                                histogram.getLowestDiscernibleValue(),
+                                histogram.getHighestTrackableValue(),
+                                histogram.getNumberOfSignificantValueDigits());
+                    }
+                    merged.add(histogram);
                 }
 
                 if (merged == null) {
-                    merged = new Histogram(
-                            histogram.getLowestDiscernibleValue(),
-                            histogram.getHighestTrackableValue(),
-                            histogram.getNumberOfSignificantValueDigits());
+                    break;
                 }
-                merged.add(histogram);
+
+                writer.outputIntervalHistogram(merged);
+            }
+        } finally {
+            closeQuietly(readers);
+            if (writer != null) {
+                writer.close();
             }
+        }
+    }
+
+    /**
+     * Merges the histograms of the input files into the output file, based on the timestamps of the histograms.
+     *
+     * The time is divided in a grid of buckets of {@code gridMillis}, aligned to the epoch. So independent of when a worker
+     * started, all histograms of the same bucket are merged. A histogram that straddles the boundary of a bucket is split
+     * over the buckets, weighted by the overlap; e.g. a histogram that is 30% in the first bucket, contributes 30% of the
+     * count of every value to the first bucket and the rest to the next bucket. The total count is never changed by the
+     * split. Buckets without any histogram are skipped.
+     *
+     * The histograms are streamed; so only a single histogram per input file is kept in memory.
+     *
+     * @param outputFile the HDR file to write
+     * @param gridMillis the duration of a bucket in millis; 0 to use the duration of the first histograms of the input
+     *                   files (rounded to seconds or tenths of a second)
+     * @param inputFiles the HDR files to merge
+     * @throws IOException if an input file can't be read or the output file can't be written
+     */
+    public static void mergeAligned(File outputFile, long gridMillis, File... inputFiles) throws IOException {
+        deleteQuiet(outputFile);
+        ensureExistingFile(outputFile);
+
+        HistogramLogReader[] readers = new HistogramLogReader[inputFiles.length];
+        HistogramLogWriter writer = null;
+        try {
+            for (int k = 0; k < inputFiles.length; k++) {
+                readers[k] = new HistogramLogReader(inputFiles[k]);
+            }
+
+            final HistogramLogWriter logWriter = new HistogramLogWriter(outputFile);
+            writer = logWriter;
+            logWriter.outputComment("[Latency histograms for " + getBaseName(outputFile) + ']');
+            logWriter.outputLogFormatVersion();
+            logWriter.outputLegend();
+
+            mergeAligned(readers, gridMillis, merged -> {
+                if (logWriter.getBaseTime() == 0) {
+                    logWriter.setBaseTime(merged.getStartTimeStamp());
+                    logWriter.outputStartTime(merged.getStartTimeStamp());
+                }
+                logWriter.outputIntervalHistogram(merged);
+            });
+        } finally {
+            closeQuietly(readers);
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Merges the histograms of the readers based on the timestamps of the histograms, and passes every merged histogram to
+     * the consumer. See {@link #mergeAligned(File, long, File...)} for the details.
+     *
+     * @param readers    the readers to merge; the readers are not closed
+     * @param gridMillis the duration of a bucket in millis; 0 to detect it
+     * @param consumer   the consumer of the merged histograms, in order of time
+     */
+    public static void mergeAligned(HistogramLogReader[] readers, long gridMillis, Consumer<Histogram> consumer) {
+        Histogram[] pending = new Histogram[readers.length];
+        for (int k = 0; k < readers.length; k++) {
+            pending[k] = (Histogram) readers[k].nextIntervalHistogram();
+        }
 
-            if (merged == null) {
+        if (gridMillis <= 0) {
+            gridMillis = detectGridMillis(pending);
+        }
+
+        for (; ; ) {
+            long bucketStart = nextBucketStart(pending, gridMillis);
+            if (bucketStart == Long.MAX_VALUE) {
                 break;
             }
+            long bucketEnd = bucketStart + gridMillis;
 
-            writer.outputIntervalHistogram(merged);
+            Histogram merged = mergeBucket(readers, pending, bucketEnd);
+            merged.setStartTimeStamp(bucketStart);
+            merged.setEndTimeStamp(bucketEnd);
+            consumer.accept(merged);
         }
     }
 
+    /**
+     * Merges all pending histograms that start before the end of the bucket. The pending histograms are replaced by the next
+     * histograms of the readers, or by the remaining part if they straddle the end of the bucket.
+     */
+    private static Histogram mergeBucket(HistogramLogReader[] readers, Histogram[] pending, long bucketEnd) {
+        Histogram merged = null;
+        for (int k = 0; k < readers.length; k++) {
+            while (pending[k] != null && pending[k].getStartTimeStamp() < bucketEnd) {
+                Histogram histogram = pending[k];
+                if (merged == null) {
+                    merged = newHistogram(histogram);
+                }
+
+                if (histogram.getEndTimeStamp() <= bucketEnd) {
+                    merged.add(histogram);
+                    pending[k] = (Histogram) readers[k].nextIntervalHistogram();
+                } else {
+                    pending[k] = split(histogram, bucketEnd, merged);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Adds the part of the histogram before the split time to the target, weighted by the duration before the split time.
+     *
+     * @return the remaining part of the histogram, starting at the split time
+     */
+    static Histogram split(Histogram histogram, long splitMillis, Histogram target) {
+        long startMillis = histogram.getStartTimeStamp();
+        double fraction = (splitMillis - startMillis) / (double) (histogram.getEndTimeStamp() - startMillis);
+
+        Histogram remaining = newHistogram(histogram);
+        remaining.setStartTimeStamp(splitMillis);
+        remaining.setEndTimeStamp(histogram.getEndTimeStamp());
+        for (HistogramIterationValue value : histogram.recordedValues()) {
+            long count = value.getCountAtValueIteratedTo();
+            long countBefore = Math.round(count * fraction);
+            if (countBefore > 0) {
+                target.recordValueWithCount(value.getValueIteratedTo(), countBefore);
+            }
+            if (count > countBefore) {
+                remaining.recordValueWithCount(value.getValueIteratedTo(), count - countBefore);
+            }
+        }
+        return remaining;
+    }
+
+    static long detectGridMillis(Histogram[] histograms) {
+        long minDurationMillis = Long.MAX_VALUE;
+        for (Histogram histogram : histograms) {
+            if (histogram != null) {
+                long durationMillis = histogram.getEndTimeStamp() - histogram.getStartTimeStamp();
+                minDurationMillis = Math.min(minDurationMillis, durationMillis);
+            }
+        }
+
+        if (minDurationMillis == Long.MAX_VALUE) {
+            return MILLIS_PER_SECOND;
+        } else if (minDurationMillis >= MILLIS_PER_SECOND) {
+            return Math.round(minDurationMillis / (double) MILLIS_PER_SECOND) * MILLIS_PER_SECOND;
+        } else if (minDurationMillis >= MILLIS_PER_TENTH_SECOND) {
+            return Math.round(minDurationMillis / (double) MILLIS_PER_TENTH_SECOND) * MILLIS_PER_TENTH_SECOND;
+        }
+        return Math.max(1, minDurationMillis);
+    }
+
+    private static long nextBucketStart(Histogram[] pending, long gridMillis) {
+        long bucketStart = Long.MAX_VALUE;
+        for (Histogram histogram : pending) {
+            if (histogram != null) {
+                long startMillis = histogram.getStartTimeStamp();
+                bucketStart = Math.min(bucketStart, startMillis - Math.floorMod(startMillis, gridMillis));
+            }
+        }
+        return bucketStart;
+    }
+
+    private static Histogram newHistogram(Histogram shape) {
+        return new Histogram(
+                shape.getLowestDiscernibleValue(),
+                shape.getHighestTrackableValue(),
+                shape.getNumberOfSignificantValueDigits());
+    }
+
     private static String getBaseName(File file) {
         String name = file.getName();
         int pos = name.lastIndexOf('.');
@@ -302,6 +302,9 @@ public class HistogramLogProcessor extends Thread {
                 closeQuietly(timeIntervalLog);
                 closeQuietly(histogramPercentileLog);
             }
+            if (config.inputFileName != null) {
+                closeQuietly(logReader);
+            }
         }
     }
 
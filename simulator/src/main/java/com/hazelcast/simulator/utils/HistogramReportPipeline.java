@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.utils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.rename;
+import static com.hazelcast.simulator.utils.FileUtils.stripExtension;
+import static java.util.Arrays.sort;
+
+/**
+ * Creates the latency files of a benchmark report in a single JVM.
+ * <p>
+ * For every worker directory in the session directory, the HDR files are trimmed to the start and end time and written
+ * to the target directory. Then the HDR files of each probe are merged on a common time grid (see
+ * {@link HistogramLogMerger#mergeAligned(File, long, File...)}), so the merged latencies line up with events like a member
+ * kill. Then every HDR file is converted into a csv file with the interval percentiles and a hgrm file with the
+ * percentile distribution. Finally a line is added to the report.csv for every merged probe.
+ * <p>
+ * The probes are processed in parallel using a {@link ForkJoinPool} and within a probe the HDR files of the workers are
+ * processed in parallel. The histograms are streamed, so a HDR file is never completely loaded in memory.
+ * <p>
+ * This replaces starting a JVM for every {@link HistogramTrimmer}, {@link HistogramLogMerger} and
+ * {@link SimulatorHistogramLogProcessor} invocation.
+ */
+public final class HistogramReportPipeline {
+
+    private static final String HDR_EXTENSION = ".hdr";
+    private static final String HGRM_EXTENSION = ".hgrm";
+    private static final String OUTPUT_VALUE_UNIT_RATIO = "1000";
+
+    private final File sessionDir;
+    private final File reportDir;
+    private final File targetDir;
+    private final long startMillis;
+    private final long endMillis;
+
+    public HistogramReportPipeline(File sessionDir, File reportDir, String targetDirName, long startMillis, long endMillis) {
+        this.sessionDir = sessionDir;
+        this.reportDir = reportDir;
+        this.targetDir = new File(new File(reportDir, "tmp"), targetDirName);
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    /**
+     * Runs the pipeline.
+     *
+     * @param pool the ForkJoinPool to process the probes and workers with
+     */
+    public void run(ForkJoinPool pool) {
+        final Map<String, List<File>> probes = findHdrFiles();
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<ProbeTask> tasks = new ArrayList<>();
+                for (Map.Entry<String, List<File>> entry : probes.entrySet()) {
+                    tasks.add(new ProbeTask(entry.getKey(), entry.getValue()));
+                }
+                invokeAll(tasks);
+            }
+        });
+
+        // the report.csv is appended sequentially, so the lines are always in the same order
+        for (String probe : probes.keySet()) {
+            File hgrmFile = new File(targetDir, stripExtension(probe) + HGRM_EXTENSION);
+            ReportCsv.append(hgrmFile, reportDir, sessionDir);
+            System.out.println("[INFO]          " + hgrmFile);
+        }
+    }
+
+    /**
+     * Finds the HDR files of all workers, grouped by the file name of the probe.
+     *
+     * @return the HDR files, sorted by probe and worker
+     */
+    Map<String, List<File>> findHdrFiles() {
+        Map<String, List<File>> probes = new TreeMap<>();
+        File[] workerDirs = sessionDir.listFiles();
+        if (workerDirs == null) {
+            return probes;
+        }
+
+        sort(workerDirs);
+        for (File workerDir : workerDirs) {
+            File[] hdrFiles = workerDir.listFiles((dir, name) -> name.endsWith(HDR_EXTENSION));
+            if (hdrFiles == null) {
+                continue;
+            }
+
+            for (File hdrFile : hdrFiles) {
+                List<File> files = probes.get(hdrFile.getName());
+                if (files == null) {
+                    files = new ArrayList<>();
+                    probes.put(hdrFile.getName(), files);
+                }
+                files.add(hdrFile);
+            }
+        }
+        return probes;
+    }
+
+    private void trim(File hdrFile, File trimmedFile) {
+        try {
+            ensureExistingDirectory(trimmedFile.getParentFile());
+            HistogramTrimmer.trim(hdrFile, trimmedFile, startMillis, endMillis);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void merge(File mergedFile, List<File> hdrFiles) {
+        try {
+            HistogramLogMerger.mergeAligned(mergedFile, 0, hdrFiles.toArray(new File[0]));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Converts a HDR file to a csv file with the interval percentiles and a hgrm file with the percentile distribution.
+     *
+     * The hgrm file is taken from the regular output of the {@link SimulatorHistogramLogProcessor}, the csv file from the
+     * csv output.
+     */
+    private static void process(File hdrFile) {
+        String baseName = stripExtension(hdrFile.getPath());
+        String tmpBaseName = baseName + ".tmp";
+
+        process("-i", hdrFile.getPath(), "-o", tmpBaseName, "-outputValueUnitRatio", OUTPUT_VALUE_UNIT_RATIO);
+        process("-csv", "-i", hdrFile.getPath(), "-o", baseName, "-outputValueUnitRatio", OUTPUT_VALUE_UNIT_RATIO);
+
+        File hgrmFile = new File(baseName + HGRM_EXTENSION);
+        deleteQuiet(hgrmFile);
+        rename(new File(tmpBaseName + HGRM_EXTENSION), hgrmFile);
+        deleteQuiet(new File(tmpBaseName));
+    }
+
+    private static void process(String... args) {
+        try {
+            // the processor is a thread, but it is run on the calling thread
+            new SimulatorHistogramLogProcessor(args).run();
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final class ProbeTask extends RecursiveAction {
+
+        private final String probe;
+        private final List<File> hdrFiles;
+
+        private ProbeTask(String probe, List<File> hdrFiles) {
+            this.probe = probe;
+            this.hdrFiles = hdrFiles;
+        }
+
+        @Override
+        protected void compute() {
+            final List<File> trimmedFiles = new ArrayList<>();
+            List<ForkJoinTask<?>> trimTasks = new ArrayList<>();
+            for (final File hdrFile : hdrFiles) {
+                final File trimmedFile = new File(new File(targetDir, hdrFile.getParentFile().getName()), probe);
+                trimmedFiles.add(trimmedFile);
+                trimTasks.add(ForkJoinTask.adapt(() -> trim(hdrFile, trimmedFile)));
+            }
+            invokeAll(trimTasks);
+
+            File mergedFile = new File(targetDir, probe);
+            merge(mergedFile, trimmedFiles);
+
+            List<ForkJoinTask<?>> processTasks = new ArrayList<>();
+            processTasks.add(ForkJoinTask.adapt(() -> process(mergedFile)));
+            for (final File trimmedFile : trimmedFiles) {
+                processTasks.add(ForkJoinTask.adapt(() -> process(trimmedFile)));
+            }
+            invokeAll(processTasks);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    public static void main(String[] args) {
+        HistogramReportPipeline pipeline = new HistogramReportPipeline(
+                new File(args[0]),
+                new File(args[1]),
+                args[2],
+                Long.parseLong(args[3]),
+                Long.parseLong(args[4]));
+
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            pipeline.run(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -37,26 +37,49 @@ public final class HistogramTrimmer {
         long startMillis = Long.parseLong(args[1]);
         long endMillis = Long.parseLong(args[2]);
 
+        trim(inputFile, outputFile, startMillis, endMillis);
+
+        outputFile.renameTo(new File(args[0]));
+    }
+
+    /**
+     * Writes the histograms of the input file which are completely between the start and end time to the output file.
+     *
+     * The histograms are streamed; so only a single histogram is kept in memory.
+     *
+     * @param inputFile   the HDR file to read
+     * @param outputFile  the HDR file to write
+     * @param startMillis the start time in epoch millis
+     * @param endMillis   the end time in epoch millis
+     * @throws FileNotFoundException if the input file doesn't exist or the output file can't be created
+     */
+    public static void trim(File inputFile, File outputFile, long startMillis, long endMillis) throws FileNotFoundException {
         HistogramLogReader reader = new HistogramLogReader(inputFile);
-        HistogramLogWriter writer = new HistogramLogWriter(outputFile);
-        for (; ; ) {
-            Histogram histogram = (Histogram) reader.nextIntervalHistogram();
-            if (histogram == null) {
-                break;
-            }
+        HistogramLogWriter writer = null;
+        try {
+            writer = new HistogramLogWriter(outputFile);
+            for (; ; ) {
+                Histogram histogram = (Histogram) reader.nextIntervalHistogram();
+                if (histogram == null) {
+                    break;
+                }
 
-            if (histogram.getStartTimeStamp() >= startMillis && histogram.getEndTimeStamp() <= endMillis) {
-                Histogram out = new Histogram(
-                        histogram.getLowestDiscernibleValue(),
-                        histogram.getHighestTrackableValue(),
-                        histogram.getNumberOfSignificantValueDigits());
-                out.setStartTimeStamp(histogram.getStartTimeStamp());
-                out.setEndTimeStamp(histogram.getEndTimeStamp());
-                out.add(histogram);
-                writer.outputIntervalHistogram(out);
+                if (histogram.getStartTimeStamp() >= startMillis && histogram.getEndTimeStamp() <= endMillis) {
+                    Histogram out = new Histogram(
+                            histogram.getLowestDiscernibleValue(),
+                            histogram.getHighestTrackableValue(),
+                            histogram.getNumberOfSignificantValueDigits());
+                    out.setStartTimeStamp(histogram.getStartTimeStamp());
+                    out.setEndTimeStamp(histogram.getEndTimeStamp());
+                    out.add(histogram);
+                    writer.outputIntervalHistogram(out);
+                }
+            }
+        } finally {
+            reader.close();
+            if (writer != null) {
+                writer.close();
             }
         }
-
-        outputFile.renameTo(new File(args[0]));
     }
 }
@@ -31,9 +31,17 @@ public final class ReportCsv {
     }
 
     public static void main(String[] args) {
-        File hgrmFile = new File(args[0]);
-        File reportDir = new File(args[1]);
-        File sessionFile = new File(args[2]);
+        append(new File(args[0]), new File(args[1]), new File(args[2]));
+    }
+
+    /**
+     * Appends the percentiles, operations, duration and throughput of a hgrm file to the report.csv in the report directory.
+     *
+     * @param hgrmFile    the hgrm file
+     * @param reportDir   the report directory
+     * @param sessionFile the session directory
+     */
+    public static void append(File hgrmFile, File reportDir, File sessionFile) {
         File out = new File(reportDir, "report.csv");
         if (!out.exists()) {
             FileUtils.writeText(getHeader(), out);
@@ -18,6 +18,7 @@ package com.hazelcast.simulator.vendors;
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.coordinator.registry.AgentData;
 import com.hazelcast.simulator.utils.CommandLineExitException;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 import org.apache.log4j.Logger;
 
 import java.io.Closeable;
@@ -85,7 +86,7 @@ public abstract class VendorDriver<V> implements Closeable {
         return value == null ? defaultValue : value;
     }
 
-    protected String get(String name) {
+    public String get(String name) {
         return properties.get(name);
     }
 
@@ -132,6 +133,33 @@ public abstract class VendorDriver<V> implements Closeable {
      */
     public abstract void startVendorInstance() throws Exception;
 
+    /**
+     * Waits till the vendor instance is ready to run a test on, e.g. a cluster without pending migrations. Method is called
+     * on the worker-side, on all workers between the prepare phases and the run phase of a test, so the run phase starts on
+     * a stable cluster.
+     *
+     * By default the vendor instance is ready as soon as it has been started.
+     *
+     * @param timeoutMillis the maximum time to wait in milliseconds
+     * @return {@code true} if the vendor instance is ready, {@code false} if it wasn't ready within the timeout
+     * @throws Exception when something fails checking the readiness
+     */
+    public boolean awaitReady(long timeoutMillis) throws Exception {
+        return true;
+    }
+
+    /**
+     * Creates the store the vendor independent {@link com.hazelcast.simulator.ycsb.YcsbTest} runs against, e.g. a map with
+     * the given name. Method is called on the worker-side, after the vendor instance has been started.
+     *
+     * @param name the name of the data-structure
+     * @return the created YcsbStore
+     * @throws UnsupportedOperationException if the vendor has no YCSB binding
+     */
+    public YcsbStore newYcsbStore(String name) {
+        throw new UnsupportedOperationException(format("Driver [%s] doesn't support the YCSB workloads", getClass().getName()));
+    }
+
     /**
      * Loads the parameters to create a worker. Method is called on the coordinator-side
      *
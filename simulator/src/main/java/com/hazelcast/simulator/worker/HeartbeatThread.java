@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker;
+
+import com.hazelcast.simulator.protocol.Server;
+
+import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Periodically sends a heartbeat to the agent, so the agent can detect a worker that is still running but doesn't make
+ * any progress, e.g. due to a GC death spiral or a deadlock.
+ *
+ * The heartbeat is a dedicated tiny message, so it doesn't add any overhead to the messages on the data path.
+ */
+final class HeartbeatThread extends Thread {
+
+    private final Server server;
+    private final int intervalSeconds;
+
+    HeartbeatThread(Server server, int intervalSeconds) {
+        super("HeartbeatThread");
+        setDaemon(true);
+        this.server = server;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @Override
+    public void run() {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+
+        try {
+            for (; ; ) {
+                server.sendHeartbeat();
+                SECONDS.sleep(intervalSeconds);
+            }
+        } catch (InterruptedException e) {
+            ignore(e);
+        }
+    }
+}
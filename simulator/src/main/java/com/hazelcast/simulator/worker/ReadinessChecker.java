@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker;
+
+import com.hazelcast.simulator.protocol.Promise;
+import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.worker.operations.AwaitReadyOperation;
+import org.apache.log4j.Logger;
+
+import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
+import static com.hazelcast.simulator.worker.operations.AwaitReadyOperation.NOT_READY;
+import static com.hazelcast.simulator.worker.operations.AwaitReadyOperation.READY;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Waits till the vendor instance is ready to run a test on, see {@link AwaitReadyOperation}.
+ */
+public class ReadinessChecker {
+    private static final Logger LOGGER = Logger.getLogger(ReadinessChecker.class);
+
+    private final VendorDriver vendorDriver;
+
+    public ReadinessChecker(VendorDriver vendorDriver) {
+        this.vendorDriver = vendorDriver;
+    }
+
+    public void awaitReady(AwaitReadyOperation operation, Promise promise) {
+        // the readiness can take a long time, so the messaging thread isn't blocked
+        new Thread(() -> {
+            long started = System.nanoTime();
+            try {
+                boolean ready = vendorDriver.awaitReady(operation.getTimeoutMillis());
+                long waitedMillis = NANOSECONDS.toMillis(System.nanoTime() - started);
+                if (ready) {
+                    LOGGER.info(format("Vendor instance ready after %d ms", waitedMillis));
+                    promise.answer(READY);
+                } else {
+                    LOGGER.warn(format("Vendor instance not ready after %d seconds", getElapsedSeconds(started)));
+                    promise.answer(NOT_READY);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Failed to check the readiness of the vendor instance", e);
+                promise.answer(e);
+            }
+        }, "ReadinessChecker").start();
+    }
+}
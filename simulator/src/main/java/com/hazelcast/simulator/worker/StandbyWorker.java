@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker;
+
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.ProcessSuicideThread;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.hazelcast.simulator.agent.workerprocess.WorkerParameters.loadParameters;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+
+/**
+ * Keeps a pre-launched worker JVM idle until the agent binds it to a worker.
+ *
+ * To bind a standby worker, the agent moves its directory to the worker home, writes the files of the worker and finally
+ * the 'parameters' file. The process keeps its working directory when the directory is moved, so the files are looked up
+ * with relative paths; only the 'user.dir' property needs to be updated to the new location.
+ */
+final class StandbyWorker {
+
+    private static final int POLL_INTERVAL_MILLIS = 5;
+    private static final Logger LOGGER = Logger.getLogger(StandbyWorker.class);
+
+    private StandbyWorker() {
+    }
+
+    static boolean isStandby() {
+        return Boolean.parseBoolean(System.getenv("WORKER_STANDBY"));
+    }
+
+    /**
+     * Waits until the agent binds this standby worker to a worker. If the agent retires the standby worker, the JVM exits.
+     *
+     * @return the parameters of the worker
+     * @throws IOException if the parameters could not be loaded
+     */
+    static WorkerParameters awaitBinding() throws IOException {
+        String orphanInterval = System.getenv("WORKER_ORPHAN_INTERVAL_SECONDS");
+        ProcessSuicideThread suicideThread = new ProcessSuicideThread(System.getenv("AGENT_PID"),
+                orphanInterval == null ? 0 : Integer.parseInt(orphanInterval));
+        suicideThread.start();
+
+        LOGGER.info("Waiting to be bound to a worker");
+        File parametersFile = new File("parameters");
+        File retireFile = new File("retire");
+        while (!parametersFile.exists()) {
+            if (retireFile.exists()) {
+                LOGGER.info("Standby worker retired");
+                System.exit(0);
+            }
+            sleepMillis(POLL_INTERVAL_MILLIS);
+        }
+        suicideThread.interrupt();
+
+        WorkerParameters parameters = loadParameters(parametersFile);
+        System.setProperty("user.dir", parameters.get("WORKER_HOME"));
+        return parameters;
+    }
+}
@@ -24,6 +24,7 @@ import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.vendors.VendorDriver;
 import com.hazelcast.simulator.worker.operations.TerminateWorkerOperation;
 import com.hazelcast.simulator.worker.performance.PerformanceMonitor;
+import com.hazelcast.simulator.worker.performance.TelemetrySampler;
 import com.hazelcast.simulator.worker.testcontainer.TestManager;
 import org.apache.log4j.Logger;
 
@@ -55,6 +56,7 @@ public class Worker {
     private final AtomicBoolean shutdownStarted = new AtomicBoolean();
     private final String publicAddress;
     private final PerformanceMonitor performanceMonitor;
+    private final TelemetrySampler telemetrySampler;
     private final Server server;
     private final TestManager testManager;
     private final VendorDriver vendorDriver;
@@ -74,12 +76,18 @@ public class Worker {
         this.testManager = new TestManager(server, vendorDriver);
 
         ScriptExecutor scriptExecutor = new ScriptExecutor(vendorDriver);
-        server.setProcessor(new WorkerOperationProcessor(this, testManager, scriptExecutor));
+        server.setProcessor(new WorkerOperationProcessor(this, testManager, scriptExecutor,
+                new ReadinessChecker(vendorDriver)));
 
         Runtime.getRuntime().addShutdownHook(new WorkerShutdownThread(true));
 
         int interval = Integer.parseInt(parameters.get("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS"));
-        this.performanceMonitor = new PerformanceMonitor(server, testManager, interval);
+        String resolution = parameters.get("WORKER_PERFORMANCE_MONITOR_RESOLUTION_MILLIS");
+        long resolutionMillis = resolution == null || resolution.isEmpty() ? 0 : Long.parseLong(resolution);
+        this.performanceMonitor = new PerformanceMonitor(server, testManager, interval, resolutionMillis);
+        // the telemetry is sampled on the resolution of the performance monitor, so it lines up with the performance.csv
+        boolean telemetryEnabled = Boolean.parseBoolean(parameters.get("WORKER_TELEMETRY_ENABLED")) && interval > 0;
+        this.telemetrySampler = new TelemetrySampler(telemetryEnabled ? performanceMonitor.getResolutionMillis() : 0);
     }
 
     public void start() throws Exception {
@@ -87,9 +95,11 @@ public class Worker {
 
         server.start();
         performanceMonitor.start();
+        telemetrySampler.start();
         vendorDriver.startVendorInstance();
 
         new ProcessSuicideThread(parameters.get("agent.pid"), parameters.intGet("WORKER_ORPHAN_INTERVAL_SECONDS")).start();
+        new HeartbeatThread(server, parameters.intGet("WORKER_PING_INTERVAL_SECONDS")).start();
 
         // we need to signal start after everything has completed. Otherwise messages could be send on the agent topic
         // without the agent being subscribed.
@@ -122,7 +132,10 @@ public class Worker {
             log("Version: %s, Commit: %s, Build Time: %s", getSimulatorVersion(), getCommitIdAbbrev(), getBuildTime());
             log("SIMULATOR_HOME: %s%n", getSimulatorHome().getAbsolutePath());
 
-            Worker worker = new Worker(loadParameters(new File(getUserDir(), "parameters")));
+            WorkerParameters parameters = StandbyWorker.isStandby()
+                    ? StandbyWorker.awaitBinding()
+                    : loadParameters(new File(getUserDir(), "parameters"));
+            Worker worker = new Worker(parameters);
             worker.start();
         } catch (Throwable e) {
             ExceptionReporter.report(null, e);
@@ -180,6 +193,7 @@ public class Worker {
         public void doRun() {
             closeQuietly(vendorDriver);
             closeQuietly(performanceMonitor);
+            closeQuietly(telemetrySampler);
         }
     }
 }
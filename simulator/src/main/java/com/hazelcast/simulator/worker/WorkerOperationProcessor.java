@@ -21,6 +21,7 @@ import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.exception.ProcessException;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.utils.ExceptionReporter;
+import com.hazelcast.simulator.worker.operations.AwaitReadyOperation;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
@@ -33,11 +34,14 @@ public class WorkerOperationProcessor implements OperationProcessor {
     private final TestManager testManager;
     private final Worker worker;
     private final ScriptExecutor scriptExecutor;
+    private final ReadinessChecker readinessChecker;
 
-    public WorkerOperationProcessor(Worker worker, TestManager testManager, ScriptExecutor scriptExecutor) {
+    public WorkerOperationProcessor(Worker worker, TestManager testManager, ScriptExecutor scriptExecutor,
+                                    ReadinessChecker readinessChecker) {
         this.worker = worker;
         this.testManager = testManager;
         this.scriptExecutor = scriptExecutor;
+        this.readinessChecker = readinessChecker;
     }
 
     @Override
@@ -56,6 +60,8 @@ public class WorkerOperationProcessor implements OperationProcessor {
             } else if (op instanceof StopRunOperation) {
                 testManager.stopRun((StopRunOperation) op);
                 promise.answer("ok");
+            } else if (op instanceof AwaitReadyOperation) {
+                readinessChecker.awaitReady((AwaitReadyOperation) op, promise);
             } else {
                 throw new ProcessException("Unknown operation:" + op);
             }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.operations;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+import com.hazelcast.simulator.vendors.VendorDriver;
+
+/**
+ * Waits till the vendor instance of a Worker is ready to run a test on, see {@link VendorDriver#awaitReady(long)}.
+ *
+ * It is sent to all Workers before the {@link TestPhase#RUN} phase of a test. The Worker answers with {@link #READY} or
+ * {@link #NOT_READY} once the vendor instance is ready or the timeout has expired.
+ */
+public class AwaitReadyOperation implements SimulatorOperation {
+
+    public static final String READY = "ready";
+    public static final String NOT_READY = "notReady";
+
+    /**
+     * The maximum time to wait for the vendor instance to be ready.
+     */
+    @SerializedName("timeoutMillis")
+    private final long timeoutMillis;
+
+    public AwaitReadyOperation(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "AwaitReadyOperation{timeoutMillis=" + timeoutMillis + '}';
+    }
+}
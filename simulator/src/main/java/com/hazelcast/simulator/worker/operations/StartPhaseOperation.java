@@ -40,9 +40,21 @@ public class StartPhaseOperation implements SimulatorOperation {
     @SerializedName("testId")
     private final String testId;
 
+    /**
+     * The wall-clock time in milliseconds at which the phase should start, so all workers start at the same instant.
+     * 0 starts the phase immediately.
+     */
+    @SerializedName("startTimeMillis")
+    private final long startTimeMillis;
+
     public StartPhaseOperation(TestPhase testPhase, String testId) {
+        this(testPhase, testId, 0);
+    }
+
+    public StartPhaseOperation(TestPhase testPhase, String testId, long startTimeMillis) {
         this.testPhase = testPhase.name();
         this.testId = testId;
+        this.startTimeMillis = startTimeMillis;
     }
 
     public TestPhase getTestPhase() {
@@ -53,8 +65,13 @@ public class StartPhaseOperation implements SimulatorOperation {
         return testId;
     }
 
+    public long getStartTimeMillis() {
+        return startTimeMillis;
+    }
+
     @Override
     public String toString() {
-        return "StartPhaseOperation{testPhase='" + testPhase + "', testId='" + testId + "'}";
+        return "StartPhaseOperation{testPhase='" + testPhase + "', testId='" + testId
+                + "', startTimeMillis=" + startTimeMillis + '}';
     }
 }
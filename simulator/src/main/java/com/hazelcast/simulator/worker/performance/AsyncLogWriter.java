@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Writes the performance and latency logs on a dedicated thread, so the {@link PerformanceMonitor} thread is not slowed
+ * down by disk IO.
+ * <p>
+ * Write tasks are placed on a bounded queue. If the queue is full, the task is dropped and counted; this prevents a slow
+ * disk from building up an unbounded backlog in the Worker, while the number of dropped writes shows how many lines are
+ * missing from the logs. The files written by the tasks are kept open until they are closed explicitly, or until this
+ * writer is closed; in both cases after all pending tasks for these files have been executed.
+ */
+final class AsyncLogWriter implements Closeable {
+
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final int SHUTDOWN_TIMEOUT_MINUTES = 1;
+    private static final Logger LOGGER = Logger.getLogger(AsyncLogWriter.class);
+    private static final Runnable SHUTDOWN_TASK = () -> {
+    };
+
+    private final BlockingQueue<Runnable> queue;
+    private final List<Closeable> closeables = new ArrayList<>();
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+    private final AtomicLong droppedWrites = new AtomicLong();
+    private final WriterThread thread = new WriterThread();
+
+    AsyncLogWriter() {
+        this(DEFAULT_QUEUE_CAPACITY);
+    }
+
+    AsyncLogWriter(int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Submits a write task. This call never blocks.
+     *
+     * @param task the task to execute on the writer thread
+     * @return {@code true} if the task was accepted, {@code false} if it was dropped
+     */
+    boolean submit(Runnable task) {
+        if (shutdown.get() || !queue.offer(task)) {
+            long dropped = droppedWrites.incrementAndGet();
+            LOGGER.warn("Dropped write task, the AsyncLogWriter is " + (shutdown.get() ? "shut down" : "overloaded")
+                    + " (" + dropped + " writes dropped in total)");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of write tasks which have been dropped, since the queue was full or this writer was shut down.
+     *
+     * @return the number of dropped write tasks
+     */
+    long droppedWrites() {
+        return droppedWrites.get();
+    }
+
+    /**
+     * Registers a {@link Closeable} which is closed on the writer thread when this writer is closed.
+     *
+     * @param closeable the closeable
+     */
+    void closeOnShutdown(Closeable closeable) {
+        synchronized (closeables) {
+            closeables.add(closeable);
+        }
+    }
+
+    /**
+     * Closes a {@link Closeable} which was registered with {@link #closeOnShutdown(Closeable)}, after all write tasks which
+     * have been submitted before have been executed.
+     * <p>
+     * Unlike {@link #submit(Runnable)} this call blocks if the queue is full, so the close is never dropped. If this writer
+     * isn't running, the closeable is closed when this writer is closed.
+     *
+     * @param closeable the closeable
+     */
+    void closeAfterPendingWrites(Closeable closeable) {
+        if (shutdown.get() || !thread.isAlive()) {
+            return;
+        }
+
+        try {
+            queue.put(() -> {
+                synchronized (closeables) {
+                    if (closeables.remove(closeable)) {
+                        closeQuietly(closeable);
+                    }
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return;
+        }
+
+        if (thread.isAlive()) {
+            try {
+                queue.put(SHUTDOWN_TASK);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            joinThread(thread, MINUTES.toMillis(SHUTDOWN_TIMEOUT_MINUTES));
+        } else {
+            closeFiles();
+        }
+    }
+
+    private void closeFiles() {
+        synchronized (closeables) {
+            closeQuietly(closeables);
+            closeables.clear();
+        }
+    }
+
+    private final class WriterThread extends Thread {
+
+        private WriterThread() {
+            super("WorkerLogWriter");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (; ; ) {
+                    Runnable task = queue.take();
+                    if (task == SHUTDOWN_TASK) {
+                        break;
+                    }
+
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        LOGGER.warn("Failed to execute write task: " + e.getMessage(), e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOGGER.info(getName() + " was interrupted");
+            } finally {
+                closeFiles();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.utils.UncheckedIOException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.lang.String.format;
+
+/**
+ * Records a JDK Flight Recorder recording for the configured test phases of a test.
+ * <p>
+ * The recording of a phase is written to <tt>[testId]-[phase].jfr</tt> in the Worker directory. Once the phase has completed,
+ * it is summarized by the {@link JfrSummary} into <tt>[testId]-[phase]-jfr.txt</tt>, next to the HDR files, so the report can
+ * show the hot methods without opening the recordings. When the test has a warmup, the run phase is split into a
+ * <tt>warmup</tt> and a <tt>run</tt> recording.
+ * <p>
+ * The settings are the name of a JFR configuration of the JDK, e.g. <tt>default</tt> or <tt>profile</tt>, or the path of a
+ * <tt>.jfc</tt> file.
+ */
+public final class JfrRecorder {
+
+    public static final String SUMMARY_SUFFIX = "-jfr.txt";
+
+    static final String WARMUP_PHASE = "warmup";
+
+    private static final Logger LOGGER = Logger.getLogger(JfrRecorder.class);
+
+    private final List<Recording> recordings = new ArrayList<>();
+    private final List<File> recordingFiles = new ArrayList<>();
+    private final Set<String> phases = new HashSet<>();
+    private final File directory;
+    private final String testId;
+    private final Configuration configuration;
+    private final long warmupMillis;
+
+    public JfrRecorder(String testId, String settings, String phases, long warmupMillis) throws IOException, ParseException {
+        this(getUserDir(), testId, settings, phases, warmupMillis);
+    }
+
+    JfrRecorder(File directory, String testId, String settings, String phases, long warmupMillis)
+            throws IOException, ParseException {
+        this.directory = directory;
+        this.testId = testId;
+        this.configuration = loadConfiguration(settings);
+        this.warmupMillis = warmupMillis;
+        for (String phase : phases.split(",")) {
+            if (!phase.trim().isEmpty()) {
+                this.phases.add(phase.trim().toLowerCase(Locale.ENGLISH));
+            }
+        }
+    }
+
+    private static Configuration loadConfiguration(String settings) throws IOException, ParseException {
+        for (Configuration configuration : Configuration.getConfigurations()) {
+            if (configuration.getName().equals(settings)) {
+                return configuration;
+            }
+        }
+        return Configuration.create(Paths.get(settings));
+    }
+
+    /**
+     * Checks if the JDK Flight Recorder is available in this JVM.
+     *
+     * The check doesn't link any JFR class, so it can be called on every JVM.
+     *
+     * @return {@code true} if the JDK Flight Recorder is available, {@code false} otherwise
+     */
+    public static boolean isAvailable() {
+        try {
+            return (Boolean) Class.forName("jdk.jfr.FlightRecorder").getMethod("isAvailable").invoke(null);
+        } catch (Exception | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts the recordings of a test phase.
+     *
+     * @param testPhase the test phase which is started
+     */
+    public void start(TestPhase testPhase) {
+        String phase = phaseName(testPhase);
+        if (testPhase == RUN && warmupMillis > 0) {
+            if (phases.contains(WARMUP_PHASE)) {
+                Recording recording = newRecording(WARMUP_PHASE);
+                recording.setDuration(Duration.ofMillis(warmupMillis));
+                recording.start();
+            }
+            if (phases.contains(phase)) {
+                newRecording(phase).scheduleStart(Duration.ofMillis(warmupMillis));
+            }
+        } else if (phases.contains(phase)) {
+            newRecording(phase).start();
+        }
+    }
+
+    /**
+     * Stops the recordings of the current test phase and writes their summaries.
+     */
+    public void stop() {
+        for (int i = 0; i < recordings.size(); i++) {
+            Recording recording = recordings.get(i);
+            File recordingFile = recordingFiles.get(i);
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            recording.close();
+            if (recordingFile.isFile()) {
+                writeSummary(recordingFile);
+            }
+        }
+        recordings.clear();
+        recordingFiles.clear();
+    }
+
+    private Recording newRecording(String phase) {
+        File recordingFile = new File(directory, testId + '-' + phase + ".jfr");
+        Recording recording = new Recording(configuration);
+        recording.setName(testId + '-' + phase);
+        try {
+            recording.setDestination(recordingFile.toPath());
+        } catch (IOException e) {
+            recording.close();
+            throw new UncheckedIOException("Failed to set the destination of JFR recording " + recordingFile, e);
+        }
+        recordings.add(recording);
+        recordingFiles.add(recordingFile);
+        LOGGER.info(format("Recording %s of test %s with JFR settings '%s' to %s",
+                phase, testId, configuration.getName(), recordingFile.getName()));
+        return recording;
+    }
+
+    private static void writeSummary(File recordingFile) {
+        String name = recordingFile.getName();
+        File summaryFile = new File(recordingFile.getParentFile(), name.substring(0, name.length() - ".jfr".length())
+                + SUMMARY_SUFFIX);
+        try {
+            writeText(JfrSummary.summarize(recordingFile), summaryFile);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to summarize JFR recording " + recordingFile.getAbsolutePath(), e);
+        }
+    }
+
+    static String phaseName(TestPhase testPhase) {
+        return testPhase.name().toLowerCase(Locale.ENGLISH);
+    }
+}
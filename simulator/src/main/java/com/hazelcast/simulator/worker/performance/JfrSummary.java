@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Summarizes a JDK Flight Recorder recording into the top CPU frames, the allocation hot spots and the lock contention.
+ * <p>
+ * The recording is streamed, so the memory usage only depends on the number of distinct frames, not on the size of the
+ * recording. The allocation and lock sections are only filled when the JFR settings enable these events, e.g. with the
+ * <tt>profile</tt> settings.
+ */
+final class JfrSummary {
+
+    static final int TOP_COUNT = 20;
+
+    private static final double PERCENT = 100d;
+    private static final double NANOS_PER_MILLI = 1000000d;
+    private static final String UNKNOWN_FRAME = "<unknown>";
+
+    private final Map<String, Long> cpuSamples = new HashMap<>();
+    private final Map<String, Long> allocatedBytes = new HashMap<>();
+    private final Map<String, Long> lockNanos = new HashMap<>();
+    private long cpuSampleCount;
+    private long lockCount;
+
+    private JfrSummary() {
+    }
+
+    static String summarize(File recordingFile) throws IOException {
+        JfrSummary summary = new JfrSummary();
+        try (RecordingFile file = new RecordingFile(recordingFile.toPath())) {
+            while (file.hasMoreEvents()) {
+                summary.add(file.readEvent());
+            }
+        }
+        return summary.toString();
+    }
+
+    private void add(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "jdk.ExecutionSample":
+                cpuSampleCount++;
+                increment(cpuSamples, topFrame(event), 1);
+                break;
+            case "jdk.ObjectAllocationInNewTLAB":
+                increment(allocatedBytes, allocationSite(event), event.getLong("tlabSize"));
+                break;
+            case "jdk.ObjectAllocationOutsideTLAB":
+                increment(allocatedBytes, allocationSite(event), event.getLong("allocationSize"));
+                break;
+            case "jdk.JavaMonitorEnter":
+                lockCount++;
+                RecordedClass monitorClass = event.getClass("monitorClass");
+                String monitor = monitorClass == null ? UNKNOWN_FRAME : monitorClass.getName();
+                increment(lockNanos, monitor + " in " + topFrame(event), event.getDuration().toNanos());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static String allocationSite(RecordedEvent event) {
+        RecordedClass objectClass = event.getClass("objectClass");
+        return (objectClass == null ? UNKNOWN_FRAME : objectClass.getName()) + " in " + topFrame(event);
+    }
+
+    private static String topFrame(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return UNKNOWN_FRAME;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            RecordedMethod method = frame.getMethod();
+            if (method != null) {
+                return method.getType().getName() + '.' + method.getName();
+            }
+        }
+        return UNKNOWN_FRAME;
+    }
+
+    private static void increment(Map<String, Long> map, String key, long value) {
+        Long current = map.get(key);
+        map.put(key, current == null ? value : current + value);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(format("# Top CPU frames (%d samples)%n", cpuSampleCount));
+        appendTop(sb, cpuSamples, "samples", 1);
+
+        sb.append(format("%n# Allocation hot spots (%d sampled bytes)%n", sum(allocatedBytes)));
+        appendTop(sb, allocatedBytes, "bytes", 1);
+
+        sb.append(format("%n# Lock contention (%d contended monitor enters)%n", lockCount));
+        appendTop(sb, lockNanos, "ms blocked", NANOS_PER_MILLI);
+        return sb.toString();
+    }
+
+    private static void appendTop(StringBuilder sb, Map<String, Long> map, String unit, double divisor) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(map.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()));
+        long total = sum(map);
+        for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(TOP_COUNT, entries.size()))) {
+            sb.append(format(Locale.ENGLISH, "%6.2f%% %14.0f %s  %s%n",
+                    entry.getValue() * PERCENT / total, entry.getValue() / divisor, unit, entry.getKey()));
+        }
+    }
+
+    private static long sum(Map<String, Long> map) {
+        long sum = 0;
+        for (long value : map.values()) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -15,32 +15,72 @@
  */
 package com.hazelcast.simulator.worker.performance;
 
+import org.apache.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
-import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Responsible for writing to performance stats to disk in csv format.
+ * <p>
+ * The metrics of a test (counters, meters and gauges) are written as additional columns. The columns are determined by
+ * the metrics known when the first line is written, so metrics should be registered before the run phase starts. A metric
+ * which is registered later can't be added to the columns, so it is dropped and a warning is logged once per metric.
+ * <p>
+ * The file is opened on the first write and kept open until {@link #close()} is called. Every line is flushed, so the file
+ * can be read while the test is running.
  */
-final class PerformanceLogWriter {
+final class PerformanceLogWriter implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceLogWriter.class);
 
     private final StringBuffer sb = new StringBuffer();
     private final DecimalFormat format = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
     private final File file;
-    private boolean headerWritten;
+    private final List<String> metricColumns = new ArrayList<>();
+    private final Set<String> droppedMetrics = new HashSet<>();
+    private Writer writer;
 
     PerformanceLogWriter(File file) {
         this.file = checkNotNull(file, "file can't be null");
     }
 
-    private void writeHeader() {
-        String columns = "epoch,timestamp,operations,operations-delta,operations/second\n";
-        appendText(columns, file);
+    private void writeHeader(Map<String, Double> metrics) throws IOException {
+        StringBuilder columns = new StringBuilder("epoch,timestamp,operations,operations-delta,operations/second");
+        for (String metric : metrics.keySet()) {
+            metricColumns.add(metric);
+            columns.append(',').append(metric);
+        }
+        columns.append('\n');
+        writer.write(columns.toString());
+    }
+
+    /**
+     * Returns the names of the metrics which have been dropped, since they were registered after the first write.
+     *
+     * @return the names of the dropped metrics
+     */
+    Set<String> droppedMetrics() {
+        return droppedMetrics;
     }
 
     void write(long timeMillis,
@@ -48,11 +88,35 @@ final class PerformanceLogWriter {
                long operationsTotal,
                long operationsDelta,
                double operationsPerSecond) {
+        write(timeMillis, timestamp, operationsTotal, operationsDelta, operationsPerSecond,
+                Collections.<String, Double>emptyMap());
+    }
 
-        if (!headerWritten) {
-            writeHeader();
-            headerWritten = true;
+    void write(long timeMillis,
+               String timestamp,
+               long operationsTotal,
+               long operationsDelta,
+               double operationsPerSecond,
+               Map<String, Double> metrics) {
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true)));
+                writeHeader(metrics);
+            }
+            writeLine(timeMillis, timestamp, operationsTotal, operationsDelta, operationsPerSecond, metrics);
+            writer.flush();
+            checkDroppedMetrics(metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to " + file, e);
         }
+    }
+
+    private void writeLine(long timeMillis,
+                           String timestamp,
+                           long operationsTotal,
+                           long operationsDelta,
+                           double operationsPerSecond,
+                           Map<String, Double> metrics) throws IOException {
 
         sb.setLength(0);
         // ms are expressed in epoch time after the decimal point
@@ -61,7 +125,31 @@ final class PerformanceLogWriter {
         sb.append(',').append(operationsTotal);
         sb.append(',').append(operationsDelta);
         sb.append(',').append(format.format(operationsPerSecond));
+        for (String metric : metricColumns) {
+            sb.append(',');
+            Double value = metrics.get(metric);
+            if (value != null) {
+                sb.append(format.format(value));
+            }
+        }
         sb.append('\n');
-        appendText(sb.toString(), file);
+        writer.write(sb.toString());
+    }
+
+    private void checkDroppedMetrics(Map<String, Double> metrics) {
+        if (metrics.size() <= metricColumns.size()) {
+            return;
+        }
+        for (String metric : metrics.keySet()) {
+            if (!metricColumns.contains(metric) && droppedMetrics.add(metric)) {
+                LOGGER.warn("Metric [" + metric + "] is not written to " + file.getName() + " since it was registered after"
+                        + " the columns were written; register the metrics before the run phase starts");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(writer);
     }
 }
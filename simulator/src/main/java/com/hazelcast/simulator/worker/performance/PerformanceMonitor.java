@@ -25,13 +25,19 @@ import java.io.Closeable;
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 import static java.lang.System.nanoTime;
@@ -42,6 +48,14 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Monitors the performance of all running Simulator Tests.
+ * <p>
+ * The update interval determines how often the performance stats are sent to the coordinator. The resolution determines
+ * how often the throughput and latency are written to the performance and latency logs; so a resolution of e.g. 100ms
+ * makes short stalls visible in the logs, without flooding the coordinator with updates. The stats sent to the
+ * coordinator cover all updates since the previous coordinator update.
+ * <p>
+ * The performance and latency logs are written by an {@link AsyncLogWriter}, so the cost of a monitoring tick doesn't
+ * depend on the speed of the disk.
  */
 public class PerformanceMonitor implements Closeable {
 
@@ -50,27 +64,60 @@ public class PerformanceMonitor implements Closeable {
     private static final Logger LOGGER = Logger.getLogger(PerformanceMonitor.class);
 
     private final PerformanceMonitorThread thread;
+    private final AsyncLogWriter logWriter = new AsyncLogWriter();
     private final AtomicBoolean shutdown = new AtomicBoolean();
     private final TestManager testManager;
     private final Server server;
     private final int updateIntervalSeconds;
+    private final long resolutionMillis;
 
     public PerformanceMonitor(Server server,
                               TestManager testManager,
                               int updateIntervalSeconds) {
+        this(server, testManager, updateIntervalSeconds, 0);
+    }
+
+    /**
+     * Creates a PerformanceMonitor.
+     *
+     * @param server                the Server used to send the performance stats to the coordinator
+     * @param testManager           the TestManager to get the running tests from
+     * @param updateIntervalSeconds the interval for sending the performance stats to the coordinator; 0 disables the monitor
+     * @param resolutionMillis      the interval for writing the performance and latency logs; 0 or a value larger than the
+     *                              update interval, will use the update interval
+     */
+    public PerformanceMonitor(Server server,
+                              TestManager testManager,
+                              int updateIntervalSeconds,
+                              long resolutionMillis) {
         this.testManager = testManager;
         this.server = server;
         this.updateIntervalSeconds = updateIntervalSeconds;
+        long updateIntervalMillis = SECONDS.toMillis(updateIntervalSeconds);
+        this.resolutionMillis = resolutionMillis > 0 && resolutionMillis < updateIntervalMillis
+                ? resolutionMillis
+                : updateIntervalMillis;
         this.thread = new PerformanceMonitorThread();
         thread.setUncaughtExceptionHandler((t, e) -> LOGGER.fatal(e.getMessage(), e));
     }
 
+    /**
+     * Returns the interval for writing the performance and latency logs.
+     *
+     * @return the resolution in milliseconds
+     */
+    public long getResolutionMillis() {
+        return resolutionMillis;
+    }
+
     public void start() {
         if (updateIntervalSeconds < 1) {
             LOGGER.info("PerformanceMonitor disabled");
             return;
         }
-        LOGGER.info(format("PerformanceMonitor enabled with interval: %d seconds", updateIntervalSeconds));
+        LOGGER.info(format("PerformanceMonitor enabled with interval: %d seconds, resolution: %d ms",
+                updateIntervalSeconds, resolutionMillis));
+        logWriter.start();
         thread.start();
     }
 
@@ -81,6 +128,7 @@ public class PerformanceMonitor implements Closeable {
         }
         LOGGER.info("Shutting down WorkerPerformanceMonitor");
         joinThread(thread, MINUTES.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+        logWriter.close();
     }
 
     /**
@@ -88,17 +136,23 @@ public class PerformanceMonitor implements Closeable {
      */
     private final class PerformanceMonitorThread extends Thread {
 
-        private final long scanIntervalNanos = SECONDS.toNanos(1);
+        private final long scanIntervalNanos;
         private final PerformanceLogWriter globalPerformanceLogWriter;
-        private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-        private final long updateIntervalMillis;
+        private final SimpleDateFormat simpleDateFormat;
+        private final long coordinatorUpdateRatio;
         private final List<TestContainer> dirtyContainers = new ArrayList<>();
+        private final Set<TestContainer> persistedContainers = new HashSet<>();
 
         private PerformanceMonitorThread() {
             super("WorkerPerformanceMonitor");
             setDaemon(true);
-            this.updateIntervalMillis = SECONDS.toMillis(updateIntervalSeconds);
+            this.scanIntervalNanos = min(SECONDS.toNanos(1), MILLISECONDS.toNanos(resolutionMillis));
+            this.simpleDateFormat = new SimpleDateFormat(
+                    resolutionMillis < SECONDS.toMillis(1) ? "dd/MM/yyyy HH:mm:ss.SSS" : "dd/MM/yyyy HH:mm:ss");
+            // every n-th update of a tracker is send to the coordinator
+            this.coordinatorUpdateRatio = max(1, SECONDS.toMillis(updateIntervalSeconds) / max(1, resolutionMillis));
             this.globalPerformanceLogWriter = new PerformanceLogWriter(new File(getUserDir(), "performance.csv"));
+            logWriter.closeOnShutdown(globalPerformanceLogWriter);
         }
 
         @Override
@@ -133,10 +187,25 @@ public class PerformanceMonitor implements Closeable {
 
             for (TestContainer container : testManager.getContainers()) {
                 TestPerformanceTracker tracker = container.getTestPerformanceTracker();
-                if (tracker.update(updateIntervalMillis, currentTimeMillis)) {
+                if (tracker.update(resolutionMillis, currentTimeMillis)) {
                     dirtyContainers.add(container);
                 }
             }
+
+            closeCompletedTests();
+        }
+
+        // the logs of a test are closed once the test has been removed from the TestManager
+        private void closeCompletedTests() {
+            Collection<TestContainer> containers = testManager.getContainers();
+            Iterator<TestContainer> iterator = persistedContainers.iterator();
+            while (iterator.hasNext()) {
+                TestContainer container = iterator.next();
+                if (!containers.contains(container)) {
+                    container.getTestPerformanceTracker().close(logWriter);
+                    iterator.remove();
+                }
+            }
         }
 
         private void coordinatorUpdate() {
@@ -144,7 +213,9 @@ public class PerformanceMonitor implements Closeable {
 
             for (TestContainer container : dirtyContainers) {
                 TestPerformanceTracker tracker = container.getTestPerformanceTracker();
-                operation.addPerformanceStats(container.getTestCase().getId(), tracker.createPerformanceStats());
+                if (tracker.updateCount() % coordinatorUpdateRatio == 0) {
+                    operation.addPerformanceStats(container.getTestCase().getId(), tracker.createPerformanceStats());
+                }
             }
 
             if (operation.getPerformanceStats().size() > 0) {
@@ -160,7 +231,8 @@ public class PerformanceMonitor implements Closeable {
 
             for (TestContainer container : dirtyContainers) {
                 TestPerformanceTracker tracker = container.getTestPerformanceTracker();
-                tracker.persist(currentTimestamp, dateString);
+                tracker.persist(currentTimestamp, dateString, logWriter);
+                persistedContainers.add(container);
 
                 globalIntervalOperationCount += tracker.intervalOperationCount();
                 globalOperationsCount += tracker.totalOperationCount();
@@ -168,12 +240,15 @@ public class PerformanceMonitor implements Closeable {
             }
 
             // global performance stats
-            globalPerformanceLogWriter.write(
+            long operationsCount = globalOperationsCount;
+            long intervalOperationCount = globalIntervalOperationCount;
+            double intervalThroughput = globalIntervalThroughput;
+            logWriter.submit(() -> globalPerformanceLogWriter.write(
                     currentTimestamp,
                     dateString,
-                    globalOperationsCount,
-                    globalIntervalOperationCount,
-                    globalIntervalThroughput);
+                    operationsCount,
+                    intervalOperationCount,
+                    intervalThroughput));
         }
     }
 }
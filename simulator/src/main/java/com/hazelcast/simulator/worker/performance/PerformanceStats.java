@@ -16,6 +16,13 @@
 package com.hazelcast.simulator.worker.performance;
 
 import com.hazelcast.simulator.common.TestPhase;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
 
 import static java.lang.Math.max;
 
@@ -29,6 +36,9 @@ import static java.lang.Math.max;
 public class PerformanceStats {
 
     public static final double INTERVAL_LATENCY_PERCENTILE = 99.9;
+    public static final double LATENCY_PERCENTILE_99 = 99;
+
+    private static final long UNKNOWN_LATENCY = -1;
 
     private static final long EMPTY_OPERATION_COUNT = -1;
     private static final double EMPTY_THROUGHPUT = -1;
@@ -39,6 +49,12 @@ public class PerformanceStats {
     private double intervalLatencyAvgNanos;
     private long intervalLatencyMaxNanos;
     private long intervalLatency999PercentileNanos;
+    private long intervalLatency99PercentileNanos = UNKNOWN_LATENCY;
+    private long totalLatency99PercentileNanos = UNKNOWN_LATENCY;
+    private long totalLatency999PercentileNanos = UNKNOWN_LATENCY;
+    private Map<String, Double> metrics;
+    // the latency histograms of the window per probe, in the compressed format of HdrHistogram
+    private Map<String, byte[]> latencyHistograms;
 
     /**
      * Creates an empty {@link PerformanceStats} instance.
@@ -66,12 +82,36 @@ public class PerformanceStats {
                             double intervalLatencyAvgNanos,
                             long intervalLatency999PercentileNanos,
                             long intervalLatencyMaxNanos) {
+        this(operationCount, intervalThroughput, totalThroughput, intervalLatencyAvgNanos, intervalLatency999PercentileNanos,
+                intervalLatencyMaxNanos, null);
+    }
+
+    /**
+     * Creates a {@link PerformanceStats} instance with values and the sampled metrics of a test.
+     *
+     * @param operationCount                    Operation count value.
+     * @param intervalThroughput                Throughput value for an interval.
+     * @param totalThroughput                   Total throughput value.
+     * @param intervalLatencyAvgNanos           Average latency for an interval.
+     * @param intervalLatency999PercentileNanos 99.9 Percentile latency for an interval
+     *                                          ({@link PerformanceStats#INTERVAL_LATENCY_PERCENTILE}).
+     * @param intervalLatencyMaxNanos           Maximum latency for an interval.
+     * @param metrics                           The sampled counters, meters and gauges of the test (can be {@code null}).
+     */
+    public PerformanceStats(long operationCount,
+                            double intervalThroughput,
+                            double totalThroughput,
+                            double intervalLatencyAvgNanos,
+                            long intervalLatency999PercentileNanos,
+                            long intervalLatencyMaxNanos,
+                            Map<String, Double> metrics) {
         this.operationCount = operationCount;
         this.intervalThroughput = intervalThroughput;
         this.totalThroughput = totalThroughput;
         this.intervalLatencyAvgNanos = intervalLatencyAvgNanos;
         this.intervalLatency999PercentileNanos = intervalLatency999PercentileNanos;
         this.intervalLatencyMaxNanos = intervalLatencyMaxNanos;
+        this.metrics = metrics == null || metrics.isEmpty() ? null : new HashMap<>(metrics);
     }
 
     public PerformanceStats(PerformanceStats original) {
@@ -81,6 +121,96 @@ public class PerformanceStats {
         this.intervalLatencyAvgNanos = original.intervalLatencyAvgNanos;
         this.intervalLatency999PercentileNanos = original.intervalLatency999PercentileNanos;
         this.intervalLatencyMaxNanos = original.intervalLatencyMaxNanos;
+        this.intervalLatency99PercentileNanos = original.intervalLatency99PercentileNanos;
+        this.totalLatency99PercentileNanos = original.totalLatency99PercentileNanos;
+        this.totalLatency999PercentileNanos = original.totalLatency999PercentileNanos;
+        this.metrics = original.metrics == null ? null : new HashMap<>(original.metrics);
+    }
+
+    /**
+     * Sets the latency percentiles which are used to evaluate the performance SLA of a test.
+     * <p>
+     * The total percentiles are calculated over all latencies since the start of the run, so they are not biased by taking
+     * the maximum of the interval percentiles.
+     *
+     * @param intervalLatency99PercentileNanos 99 percentile latency for an interval.
+     * @param totalLatency99PercentileNanos    99 percentile latency since the start of the run.
+     * @param totalLatency999PercentileNanos   99.9 percentile latency since the start of the run.
+     * @return this instance
+     */
+    public PerformanceStats setLatencyPercentiles(long intervalLatency99PercentileNanos,
+                                                  long totalLatency99PercentileNanos,
+                                                  long totalLatency999PercentileNanos) {
+        this.intervalLatency99PercentileNanos = intervalLatency99PercentileNanos;
+        this.totalLatency99PercentileNanos = totalLatency99PercentileNanos;
+        this.totalLatency999PercentileNanos = totalLatency999PercentileNanos;
+        return this;
+    }
+
+    /**
+     * Sets the latency histograms of the probes of a worker, so the coordinator can merge them with the histograms of the
+     * other workers. The histograms are not combined by {@link #add(PerformanceStats)}.
+     *
+     * @param histograms the latency histograms per probe, or {@code null} if the histograms should not be sent
+     * @return this instance
+     */
+    public PerformanceStats setLatencyHistograms(Map<String, Histogram> histograms) {
+        if (histograms == null) {
+            latencyHistograms = null;
+            return this;
+        }
+        latencyHistograms = new HashMap<>();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            latencyHistograms.put(entry.getKey(), Arrays.copyOf(buffer.array(), length));
+        }
+        return this;
+    }
+
+    /**
+     * Sets the latency histograms of the probes of a worker in the compressed format of HdrHistogram, e.g. when the
+     * histograms are received from a worker.
+     *
+     * @param compressedHistograms the compressed latency histograms per probe, or {@code null} if there are none
+     * @return this instance
+     */
+    public PerformanceStats setCompressedLatencyHistograms(Map<String, byte[]> compressedHistograms) {
+        this.latencyHistograms = compressedHistograms == null ? null : new HashMap<>(compressedHistograms);
+        return this;
+    }
+
+    /**
+     * Returns the latency histograms of the probes of a worker in the compressed format of HdrHistogram, e.g. to send them
+     * to the coordinator.
+     *
+     * @return the compressed latency histograms per probe, or {@code null} if there are none
+     */
+    public Map<String, byte[]> getCompressedLatencyHistograms() {
+        return latencyHistograms;
+    }
+
+    /**
+     * Returns the latency histograms of the probes of a worker.
+     *
+     * @return the latency histograms per probe, or {@code null} if the worker didn't send them
+     * @throws IllegalStateException if a histogram can't be decoded
+     */
+    public Map<String, Histogram> getLatencyHistograms() {
+        if (latencyHistograms == null) {
+            return null;
+        }
+        Map<String, Histogram> histograms = new HashMap<>();
+        for (Map.Entry<String, byte[]> entry : latencyHistograms.entrySet()) {
+            ByteBuffer buffer = ByteBuffer.wrap(entry.getValue());
+            try {
+                histograms.put(entry.getKey(), Histogram.decodeFromCompressedByteBuffer(buffer, 0));
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Could not decode the latency histogram of probe " + entry.getKey(), e);
+            }
+        }
+        return histograms;
     }
 
     /**
@@ -102,7 +232,10 @@ public class PerformanceStats {
      * For the total performance number and the performance per Simulator Agent, the added values should be set, so we get the
      * summed up operation count and throughput values.
      * <p>
-     * The method always sets the maximum values for latency.
+     * The method always sets the maximum values for latency, except for the total latency percentiles which are replaced
+     * when combining instances of the same Simulator Worker, since they already cover the whole run.
+     * <p>
+     * The metrics are combined in the same way as the operation count.
      *
      * @param other                          {@link PerformanceStats} which should be added to this instance
      * @param addOperationCountAndThroughput {@code true} if operation count and throughput should be added,
@@ -121,6 +254,10 @@ public class PerformanceStats {
             intervalLatencyAvgNanos = other.intervalLatencyAvgNanos;
             intervalLatency999PercentileNanos = other.intervalLatency999PercentileNanos;
             intervalLatencyMaxNanos = other.intervalLatencyMaxNanos;
+            intervalLatency99PercentileNanos = other.intervalLatency99PercentileNanos;
+            totalLatency99PercentileNanos = other.totalLatency99PercentileNanos;
+            totalLatency999PercentileNanos = other.totalLatency999PercentileNanos;
+            metrics = other.metrics == null ? null : new HashMap<>(other.metrics);
         } else {
             if (addOperationCountAndThroughput) {
                 operationCount += other.operationCount;
@@ -135,6 +272,37 @@ public class PerformanceStats {
             intervalLatencyAvgNanos = max(intervalLatencyAvgNanos, other.intervalLatencyAvgNanos);
             intervalLatency999PercentileNanos = max(intervalLatency999PercentileNanos, other.intervalLatency999PercentileNanos);
             intervalLatencyMaxNanos = max(intervalLatencyMaxNanos, other.intervalLatencyMaxNanos);
+            intervalLatency99PercentileNanos = max(intervalLatency99PercentileNanos, other.intervalLatency99PercentileNanos);
+            addTotalLatencyPercentiles(other, addOperationCountAndThroughput);
+
+            addMetrics(other, addOperationCountAndThroughput);
+        }
+    }
+
+    private void addTotalLatencyPercentiles(PerformanceStats other, boolean addValues) {
+        if (addValues) {
+            totalLatency99PercentileNanos = max(totalLatency99PercentileNanos, other.totalLatency99PercentileNanos);
+            totalLatency999PercentileNanos = max(totalLatency999PercentileNanos, other.totalLatency999PercentileNanos);
+        } else if (other.totalLatency99PercentileNanos != UNKNOWN_LATENCY) {
+            totalLatency99PercentileNanos = other.totalLatency99PercentileNanos;
+            totalLatency999PercentileNanos = other.totalLatency999PercentileNanos;
+        }
+    }
+
+    private void addMetrics(PerformanceStats other, boolean addValues) {
+        if (other.metrics == null) {
+            return;
+        }
+        if (metrics == null) {
+            metrics = new HashMap<>();
+        }
+        for (Map.Entry<String, Double> entry : other.metrics.entrySet()) {
+            Double current = metrics.get(entry.getKey());
+            double value = entry.getValue();
+            if (current != null) {
+                value = addValues ? current + value : max(current, value);
+            }
+            metrics.put(entry.getKey(), value);
         }
     }
 
@@ -171,6 +339,27 @@ public class PerformanceStats {
         return intervalLatencyMaxNanos;
     }
 
+    public long getIntervalLatency99PercentileNanos() {
+        return intervalLatency99PercentileNanos;
+    }
+
+    public long getTotalLatency99PercentileNanos() {
+        return totalLatency99PercentileNanos;
+    }
+
+    public long getTotalLatency999PercentileNanos() {
+        return totalLatency999PercentileNanos;
+    }
+
+    /**
+     * Returns the sampled counters, meters and gauges of the test.
+     *
+     * @return the metrics, or {@code null} if the test has no metrics
+     */
+    public Map<String, Double> getMetrics() {
+        return metrics;
+    }
+
     @Override
     public String toString() {
         return "PerformanceStats{"
@@ -180,6 +369,10 @@ public class PerformanceStats {
                 + ", intervalAvgLatencyNanos=" + intervalLatencyAvgNanos
                 + ", intervalLatency999PercentileNanos=" + intervalLatency999PercentileNanos
                 + ", intervalMaxLatencyNanos=" + intervalLatencyMaxNanos
+                + ", intervalLatency99PercentileNanos=" + intervalLatency99PercentileNanos
+                + ", totalLatency99PercentileNanos=" + totalLatency99PercentileNanos
+                + ", totalLatency999PercentileNanos=" + totalLatency999PercentileNanos
+                + ", metrics=" + metrics
                 + '}';
     }
 
@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.utils.UncheckedIOException;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.apache.log4j.Logger;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Samples JVM and OS telemetry of the Worker and writes it to <tt>telemetry.csv</tt> in the Worker directory.
+ * <p>
+ * The GC pauses are recorded via {@link GarbageCollectorMXBean} notifications into a HDR histogram, which is written to
+ * <tt>gc-pause.hlog</tt>. The cycles of concurrent collectors, e.g. the concurrent cycles of G1, CMS, ZGC and Shenandoah,
+ * run next to the application, so they are counted in separate columns and not recorded as pauses. The JVM reports the
+ * duration of a collection in whole milliseconds, so a pause shorter than 1 ms is recorded as 0 ms.
+ * <p>
+ * Next to that the heap usage, allocation rate, thread count, process CPU load and, when running on Linux, the context
+ * switches of all threads of the process and the network bytes from <tt>/proc</tt> are sampled. The network bytes are read
+ * from <tt>/proc/net/dev</tt>, so they are host-wide and include the traffic of other processes.
+ * <p>
+ * The telemetry is sampled on the resolution of the performance monitor and the epoch and timestamp columns use the same
+ * format as <tt>performance.csv</tt>, so throughput dips can be correlated with GC and CPU behavior without parsing the GC
+ * logs or dstat output afterwards.
+ */
+public class TelemetrySampler implements Closeable {
+
+    static final String HEADER = "epoch,timestamp,heap-used,heap-committed,allocation-rate(bytes/s),"
+            + "collected-bytes,gc-pause-count,gc-pause-time(ms),gc-pause-max(ms),thread-count,process-cpu-load(%),"
+            + "voluntary-ctxt-switches,nonvoluntary-ctxt-switches,host-net-rx(bytes/s),host-net-tx(bytes/s),"
+            + "gc-concurrent-count,gc-concurrent-time(ms)\n";
+
+    private static final Logger LOGGER = Logger.getLogger(TelemetrySampler.class);
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final long HIGHEST_TRACKABLE_PAUSE_NANOS = HOURS.toNanos(1);
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+    private static final double PERCENT = 100d;
+    // the column index of the transmitted bytes in /proc/net/dev (after the interface name)
+    private static final int NET_DEV_TX_BYTES_INDEX = 8;
+    private static final File PROC_SELF_TASK = new File("/proc/self/task");
+    private static final File PROC_NET_DEV = new File("/proc/net/dev");
+
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+    private final Recorder gcPauseRecorder = new Recorder(HIGHEST_TRACKABLE_PAUSE_NANOS, NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    private final AtomicLong collectedBytes = new AtomicLong();
+    private final AtomicLong gcCount = new AtomicLong();
+    private final AtomicLong gcTimeMillis = new AtomicLong();
+    private final AtomicLong concurrentGcCount = new AtomicLong();
+    private final AtomicLong concurrentGcTimeMillis = new AtomicLong();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener gcListener = new GcNotificationListener();
+    private final File directory;
+    private final long intervalMillis;
+    private final SamplerThread thread;
+
+    /**
+     * Creates a TelemetrySampler.
+     *
+     * @param intervalMillis the sample interval, which should be the resolution of the performance monitor; 0 disables the
+     *                       sampler
+     */
+    public TelemetrySampler(long intervalMillis) {
+        this(getUserDir(), intervalMillis);
+    }
+
+    TelemetrySampler(File directory, long intervalMillis) {
+        this.directory = directory;
+        this.intervalMillis = intervalMillis;
+        this.thread = new SamplerThread();
+    }
+
+    public void start() {
+        if (intervalMillis < 1) {
+            LOGGER.info("TelemetrySampler disabled");
+            return;
+        }
+        LOGGER.info("TelemetrySampler enabled with interval: " + intervalMillis + " ms");
+
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gcBean;
+                emitter.addNotificationListener(gcListener, null, null);
+                emitters.add(emitter);
+            }
+        }
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return;
+        }
+
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (Exception e) {
+                LOGGER.debug("Failed to remove GC notification listener", e);
+            }
+        }
+
+        if (thread.isAlive()) {
+            thread.interrupt();
+            joinThread(thread, SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+        }
+    }
+
+    void recordGc(long durationMillis, long collected, boolean concurrent) {
+        collectedBytes.addAndGet(collected);
+        if (concurrent) {
+            concurrentGcCount.incrementAndGet();
+            concurrentGcTimeMillis.addAndGet(durationMillis);
+            return;
+        }
+        long durationNanos = MILLISECONDS.toNanos(durationMillis);
+        gcPauseRecorder.recordValue(Math.min(durationNanos, HIGHEST_TRACKABLE_PAUSE_NANOS));
+        gcCount.incrementAndGet();
+        gcTimeMillis.addAndGet(durationMillis);
+    }
+
+    /**
+     * Checks if a collection is the cycle of a concurrent collector, instead of a stop-the-world pause. The duration of such a
+     * cycle is the time it ran next to the application, e.g. "end of concurrent GC" of "G1 Concurrent GC" (JDK 17+),
+     * "ConcurrentMarkSweep", or the "ZGC Cycles" and "Shenandoah Cycles" collectors, which have a separate "Pauses" collector.
+     *
+     * @param gcName   the name of the collector
+     * @param gcAction the action of the collection
+     * @return {@code true} if the collection is a concurrent cycle, {@code false} otherwise
+     */
+    static boolean isConcurrentCycle(String gcName, String gcAction) {
+        return gcAction.contains("concurrent")
+                || gcName.contains("Concurrent")
+                || gcName.endsWith("Cycles");
+    }
+
+    /**
+     * Receives a notification after every completed garbage collection.
+     */
+    private final class GcNotificationListener implements NotificationListener {
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+
+            GarbageCollectionNotificationInfo info
+                    = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            Map<String, MemoryUsage> before = info.getGcInfo().getMemoryUsageBeforeGc();
+            Map<String, MemoryUsage> after = info.getGcInfo().getMemoryUsageAfterGc();
+
+            long collected = 0;
+            for (Map.Entry<String, MemoryUsage> entry : before.entrySet()) {
+                MemoryUsage usageAfter = after.get(entry.getKey());
+                if (usageAfter != null) {
+                    collected += entry.getValue().getUsed() - usageAfter.getUsed();
+                }
+            }
+            // the duration is in milliseconds, so pauses below 1 ms are recorded as 0
+            recordGc(info.getGcInfo().getDuration(), Math.max(0, collected),
+                    isConcurrentCycle(info.getGcName(), info.getGcAction()));
+        }
+    }
+
+    /**
+     * Thread that samples the telemetry on the configured interval.
+     */
+    private final class SamplerThread extends Thread {
+
+        private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        private final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat(
+                intervalMillis < SECONDS.toMillis(1) ? "dd/MM/yyyy HH:mm:ss.SSS" : "dd/MM/yyyy HH:mm:ss");
+        private final DecimalFormat format = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
+        private final StringBuilder sb = new StringBuilder();
+        private final File telemetryFile = new File(directory, "telemetry.csv");
+
+        private Writer telemetryWriter;
+        private HistogramLogWriter gcPauseWriter;
+        private long lastSampleMillis;
+        private long lastHeapUsed;
+        private long lastCollectedBytes;
+        private long lastGcCount;
+        private long lastGcTimeMillis;
+        private long lastConcurrentGcCount;
+        private long lastConcurrentGcTimeMillis;
+        private long lastProcessCpuNanos;
+        private long[] lastContextSwitches;
+        private long[] lastNetBytes;
+
+        private SamplerThread() {
+            super("WorkerTelemetrySampler");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                init();
+                while (!shutdown.get()) {
+                    // align on the interval boundary, so the samples line up with the performance monitor
+                    long now = currentTimeMillis();
+                    sleepMillis(intervalMillis - now % intervalMillis);
+                    if (shutdown.get()) {
+                        break;
+                    }
+                    sample(currentTimeMillis());
+                }
+            } catch (Exception e) {
+                if (!shutdown.get()) {
+                    LOGGER.warn("TelemetrySampler stopped due to " + e.getMessage(), e);
+                }
+            } finally {
+                closeQuietly(telemetryWriter);
+                if (gcPauseWriter != null) {
+                    gcPauseWriter.close();
+                }
+            }
+        }
+
+        private void init() throws IOException {
+            lastSampleMillis = currentTimeMillis();
+            lastHeapUsed = memoryBean.getHeapMemoryUsage().getUsed();
+            lastProcessCpuNanos = processCpuNanos();
+            lastContextSwitches = readContextSwitches();
+            lastNetBytes = readNetBytes();
+
+            telemetryWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(telemetryFile, true), UTF_8));
+            write(HEADER);
+
+            gcPauseWriter = new HistogramLogWriter(new File(directory, "gc-pause.hlog"));
+            gcPauseWriter.setBaseTime(lastSampleMillis);
+            gcPauseWriter.outputStartTime(lastSampleMillis);
+            gcPauseWriter.outputComment("[GC pause histograms]");
+            gcPauseWriter.outputLogFormatVersion();
+            gcPauseWriter.outputLegend();
+            gcPauseRecorder.reset();
+        }
+
+        private void sample(long nowMillis) throws IOException {
+            long elapsedMillis = Math.max(1, nowMillis - lastSampleMillis);
+
+            MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+            long collected = collectedBytes.get();
+            long intervalCollected = collected - lastCollectedBytes;
+            // allocated = growth of the heap + what has been freed by the GC in the same interval
+            long allocated = Math.max(0, heap.getUsed() - lastHeapUsed + intervalCollected);
+
+            long count = gcCount.get();
+            long timeMillis = gcTimeMillis.get();
+            long concurrentCount = concurrentGcCount.get();
+            long concurrentTimeMillis = concurrentGcTimeMillis.get();
+            Histogram gcPauses = gcPauseRecorder.getIntervalHistogram();
+            gcPauses.setStartTimeStamp(lastSampleMillis);
+            gcPauses.setEndTimeStamp(nowMillis);
+            gcPauseWriter.outputIntervalHistogram(gcPauses);
+
+            long processCpuNanos = processCpuNanos();
+            double cpuLoad = processCpuNanos < 0 ? -1 : PERCENT * (processCpuNanos - lastProcessCpuNanos)
+                    / (MILLISECONDS.toNanos(elapsedMillis) * osBean.getAvailableProcessors());
+            long[] contextSwitches = readContextSwitches();
+            long[] netBytes = readNetBytes();
+
+            sb.setLength(0);
+            sb.append(format.format(nowMillis * 1d / SECONDS.toMillis(1)));
+            sb.append(',').append(simpleDateFormat.format(new Date(nowMillis)));
+            sb.append(',').append(heap.getUsed());
+            sb.append(',').append(heap.getCommitted());
+            sb.append(',').append(format.format(perSecond(allocated, elapsedMillis)));
+            sb.append(',').append(intervalCollected);
+            sb.append(',').append(count - lastGcCount);
+            sb.append(',').append(timeMillis - lastGcTimeMillis);
+            double gcPauseMaxMillis = NANOSECONDS.toMicros(gcPauses.getMaxValue()) / (double) MILLISECONDS.toMicros(1);
+            sb.append(',').append(format.format(gcPauseMaxMillis));
+            sb.append(',').append(threadBean.getThreadCount());
+            sb.append(',').append(format.format(cpuLoad));
+            appendDelta(sb, contextSwitches, lastContextSwitches, 0, 1);
+            appendDelta(sb, contextSwitches, lastContextSwitches, 1, 1);
+            appendDelta(sb, netBytes, lastNetBytes, 0, elapsedMillis);
+            appendDelta(sb, netBytes, lastNetBytes, 1, elapsedMillis);
+            sb.append(',').append(concurrentCount - lastConcurrentGcCount);
+            sb.append(',').append(concurrentTimeMillis - lastConcurrentGcTimeMillis);
+            sb.append('\n');
+            write(sb.toString());
+
+            lastSampleMillis = nowMillis;
+            lastHeapUsed = heap.getUsed();
+            lastCollectedBytes = collected;
+            lastGcCount = count;
+            lastGcTimeMillis = timeMillis;
+            lastConcurrentGcCount = concurrentCount;
+            lastConcurrentGcTimeMillis = concurrentTimeMillis;
+            lastProcessCpuNanos = processCpuNanos;
+            lastContextSwitches = contextSwitches;
+            lastNetBytes = netBytes;
+        }
+
+        private void write(String line) throws IOException {
+            telemetryWriter.write(line);
+            // flushed on every line, so the file is complete when the worker is killed
+            telemetryWriter.flush();
+        }
+
+        private void appendDelta(StringBuilder sb, long[] current, long[] last, int index, long intervalMillis) {
+            sb.append(',');
+            if (current != null && last != null) {
+                // the context switches of threads which have terminated are gone from the sum, so it can shrink
+                long delta = Math.max(0, current[index] - last[index]);
+                sb.append(intervalMillis == 1 ? Long.toString(delta) : format.format(perSecond(delta, intervalMillis)));
+            }
+        }
+
+        private double perSecond(long value, long intervalMillis) {
+            return value * SECONDS.toMillis(1) / (double) intervalMillis;
+        }
+
+        private long processCpuNanos() {
+            if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Reads the voluntary and nonvoluntary context switches of all threads of this process. The status of the process
+     * itself only contains the context switches of its main thread.
+     *
+     * @return an array with the voluntary and nonvoluntary context switches or {@code null} if not available
+     */
+    static long[] readContextSwitches() {
+        return readContextSwitches(PROC_SELF_TASK);
+    }
+
+    static long[] readContextSwitches(File taskDir) {
+        File[] tasks = taskDir.listFiles();
+        if (tasks == null) {
+            return null;
+        }
+
+        long[] result = new long[2];
+        for (File task : tasks) {
+            long[] contextSwitches;
+            try {
+                contextSwitches = parseContextSwitches(fileAsText(new File(task, "status")));
+            } catch (UncheckedIOException e) {
+                // the thread has terminated in the meantime
+                continue;
+            }
+            result[0] += contextSwitches[0];
+            result[1] += contextSwitches[1];
+        }
+        return result;
+    }
+
+    static long[] parseContextSwitches(String status) {
+        long[] result = new long[2];
+        for (String line : status.split("\n")) {
+            if (line.startsWith("voluntary_ctxt_switches:")) {
+                result[0] = parseLong(line.substring(line.indexOf(':') + 1));
+            } else if (line.startsWith("nonvoluntary_ctxt_switches:")) {
+                result[1] = parseLong(line.substring(line.indexOf(':') + 1));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the received and transmitted bytes of all network interfaces of the host, except the loopback interface.
+     *
+     * @return an array with the received and transmitted bytes or {@code null} if not available
+     */
+    static long[] readNetBytes() {
+        if (!PROC_NET_DEV.exists()) {
+            return null;
+        }
+        return parseNetBytes(fileAsText(PROC_NET_DEV));
+    }
+
+    static long[] parseNetBytes(String netDev) {
+        long[] result = new long[2];
+        for (String line : netDev.split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon < 0 || line.substring(0, colon).trim().equals("lo")) {
+                continue;
+            }
+            // columns: rx bytes, packets, errs, drop, fifo, frame, compressed, multicast, tx bytes, ...
+            String[] columns = line.substring(colon + 1).trim().split("\\s+");
+            if (columns.length > NET_DEV_TX_BYTES_INDEX) {
+                result[0] += parseLong(columns[0]);
+                result[1] += parseLong(columns[NET_DEV_TX_BYTES_INDEX]);
+            }
+        }
+        return result;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
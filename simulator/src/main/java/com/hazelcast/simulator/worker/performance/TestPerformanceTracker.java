@@ -15,6 +15,7 @@
  */
 package com.hazelcast.simulator.worker.performance;
 
+import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.probes.impl.HdrProbe;
 import com.hazelcast.simulator.test.TestException;
@@ -22,13 +23,21 @@ import com.hazelcast.simulator.worker.testcontainer.TestContainer;
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramLogWriter;
 
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.INTERVAL_LATENCY_PERCENTILE;
+import static com.hazelcast.simulator.worker.performance.PerformanceStats.LATENCY_PERCENTILE_99;
+import static java.lang.Math.max;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -36,11 +45,19 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * <p>
  * Has methods to update the performance values and write them to files.
  * <p>
- * Holds a map of {@link Histogram} for each {@link com.hazelcast.simulator.probes.Probe} of a Simulator Test.
+ * Holds a map of {@link Histogram} for each {@link com.hazelcast.simulator.probes.Probe} of a Simulator Test and samples
+ * the counters, meters and gauges of the test.
  *
  * This class has a shitty design due to conflated concerns due to file writing and remoting sending the histograms.
  * This is caused by the Recorder that gets reset when getIntervalHistogram is called. Meaning that writing to file
  * and sending to remote, needs to rely on the same set of Histograms to write/send.
+ *
+ * The tracker is updated at the resolution of the {@link PerformanceMonitor}; every update ends up in the performance
+ * and latency logs. The {@link PerformanceStats} sent to the coordinator can span multiple updates: the histograms and
+ * operation counts are accumulated in a window which is reset when {@link #createPerformanceStats()} is called.
+ *
+ * The files are written by the {@link AsyncLogWriter}; the interval values are captured on the calling thread and the
+ * performance log writer and histogram log writers are only accessed from the writer thread.
  */
 public final class TestPerformanceTracker {
 
@@ -48,23 +65,34 @@ public final class TestPerformanceTracker {
 
     private final TestContainer testContainer;
     private final Map<String, HistogramLogWriter> histogramLogWriterMap = new HashMap<>();
+    private final Map<String, PrintStream> histogramStreamMap = new HashMap<>();
     private final PerformanceLogWriter performanceLogWriter;
+    private final Closeable logs = this::closeLogs;
+    private final boolean sendLatencyHistograms;
     private long lastUpdateMillis;
     private Map<String, Histogram> intervalHistogramMap;
+    private Map<String, Double> intervalMetrics = Collections.emptyMap();
+    private final Map<String, Histogram> windowHistogramMap = new HashMap<>();
+    private final Map<String, Histogram> totalHistogramMap = new HashMap<>();
 
     private long iterationsDuringWarmup;
     private long lastIterations;
-    private double intervalLatencyAvgNanos;
-    private long intervalLatency999PercentileNanos;
-    private long intervalLatencyMaxNanos;
     private long intervalOperationCount;
+    private long windowOperationCount;
+    private long windowStartMillis;
+    // the start of the measurements, which is the end of the warmup
+    private long measurementStartMillis;
+    private long updateCount;
     private long totalOperationCount;
     private double intervalThroughput;
     private double totalThroughput;
     private long nextUpdateMillis;
+    private boolean closeRegistered;
 
     public TestPerformanceTracker(TestContainer container) {
         this.testContainer = container;
+        // the coordinator evaluates the latency SLA of a test on the merged histograms of all workers
+        this.sendLatencyHistograms = hasSla(container.getTestCase());
         this.performanceLogWriter = new PerformanceLogWriter(
                 new File(getUserDir(), "performance-" + container.getTestCase().getId() + ".csv"));
     }
@@ -93,13 +121,21 @@ public final class TestPerformanceTracker {
             return true;
         }
 
+        if (currentTimeMillis < runStartedMillis + testContainer.getWarmupMillis()) {
+            // the measurements of the warmup are discarded when the warmup has completed
+            return true;
+        }
+
         if (lastUpdateMillis == 0) {
-            // first time
+            // first time after the warmup
             iterationsDuringWarmup = testContainer.iteration();
             for (Probe probe : testContainer.getProbeMap().values()) {
                 probe.reset();
             }
+            testContainer.getMetricsRegistry().resetRates();
             lastUpdateMillis = currentTimeMillis;
+            windowStartMillis = currentTimeMillis;
+            measurementStartMillis = currentTimeMillis;
             nextUpdateMillis = lastUpdateMillis + updateIntervalMillis;
             return true;
         }
@@ -107,14 +143,19 @@ public final class TestPerformanceTracker {
         return nextUpdateMillis > currentTimeMillis;
     }
 
+    private static void addHistogram(Map<String, Histogram> histogramMap, String probeName, Histogram intervalHistogram) {
+        Histogram histogram = histogramMap.get(probeName);
+        if (histogram == null) {
+            histogramMap.put(probeName, intervalHistogram.copy());
+        } else {
+            histogram.add(intervalHistogram);
+        }
+    }
+
     private void makeUpdate(long updateIntervalMillis, long currentTimeMillis) {
         Map<String, Probe> probeMap = testContainer.getProbeMap();
         Map<String, Histogram> intervalHistograms = new HashMap<>(probeMap.size());
 
-        long intervalPercentileLatency = -1;
-        double intervalMean = -1;
-        long intervalMaxLatency = -1;
-
         long iterations = testContainer.iteration() - iterationsDuringWarmup;
         long intervalOperationCount = iterations - lastIterations;
 
@@ -131,20 +172,8 @@ public final class TestPerformanceTracker {
             intervalHistogram.setEndTimeStamp(currentTimeMillis);
             intervalHistograms.put(probeName, intervalHistogram);
 
-            long percentileValue = intervalHistogram.getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE);
-            if (percentileValue > intervalPercentileLatency) {
-                intervalPercentileLatency = percentileValue;
-            }
-
-            double meanLatency = intervalHistogram.getMean();
-            if (meanLatency > intervalMean) {
-                intervalMean = meanLatency;
-            }
-
-            long maxValue = intervalHistogram.getMaxValue();
-            if (maxValue > intervalMaxLatency) {
-                intervalMaxLatency = maxValue;
-            }
+            addHistogram(windowHistogramMap, probeName, intervalHistogram);
+            addHistogram(totalHistogramMap, probeName, intervalHistogram);
 
             if (probe.isPartOfTotalThroughput()) {
                 intervalOperationCount += intervalHistogram.getTotalCount();
@@ -153,22 +182,26 @@ public final class TestPerformanceTracker {
 
         this.intervalHistogramMap = intervalHistograms;
 
-        this.intervalLatency999PercentileNanos = intervalPercentileLatency;
-        this.intervalLatencyAvgNanos = intervalMean;
-        this.intervalLatencyMaxNanos = intervalMaxLatency;
-
         this.intervalOperationCount = intervalOperationCount;
+        this.windowOperationCount += intervalOperationCount;
         this.totalOperationCount += intervalOperationCount;
 
         long intervalTimeDelta = currentTimeMillis - lastUpdateMillis;
-        long totalTimeDelta = currentTimeMillis - testContainer.getRunStartedMillis();
+        long totalTimeDelta = currentTimeMillis - measurementStartMillis;
 
         this.intervalThroughput = (intervalOperationCount * ONE_SECOND_IN_MILLIS) / (double) intervalTimeDelta;
         this.totalThroughput = (totalOperationCount * ONE_SECOND_IN_MILLIS / (double) totalTimeDelta);
 
+        this.intervalMetrics = testContainer.getMetricsRegistry().sample(intervalTimeDelta);
+
         this.lastIterations = iterations;
         this.nextUpdateMillis += updateIntervalMillis;
         this.lastUpdateMillis = currentTimeMillis;
+        this.updateCount++;
+    }
+
+    long updateCount() {
+        return updateCount;
     }
 
     long intervalOperationCount() {
@@ -183,15 +216,47 @@ public final class TestPerformanceTracker {
         return intervalThroughput;
     }
 
-    void persist(long currentTimeMillis, String currentTimeString) {
-        performanceLogWriter.write(
-                currentTimeMillis,
-                currentTimeString,
-                totalOperationCount,
-                intervalOperationCount,
-                intervalThroughput);
+    void persist(long currentTimeMillis, String currentTimeString, AsyncLogWriter logWriter) {
+        if (!closeRegistered) {
+            logWriter.closeOnShutdown(logs);
+            closeRegistered = true;
+        }
+
+        // the values are captured, since the tracker is updated again before the task is executed
+        long totalOperationCount = this.totalOperationCount;
+        long intervalOperationCount = this.intervalOperationCount;
+        double intervalThroughput = this.intervalThroughput;
+        Map<String, Double> intervalMetrics = this.intervalMetrics;
+        Map<String, Histogram> intervalHistogramMap = this.intervalHistogramMap;
+
+        logWriter.submit(() -> {
+            performanceLogWriter.write(
+                    currentTimeMillis,
+                    currentTimeString,
+                    totalOperationCount,
+                    intervalOperationCount,
+                    intervalThroughput,
+                    intervalMetrics);
+
+            writeHistograms(intervalHistogramMap);
+        });
+    }
+
+    /**
+     * Closes the performance and latency logs of this test, after the pending writes have been executed.
+     * <p>
+     * Called when the test has completed, so the files are not kept open until the Worker shuts down.
+     *
+     * @param logWriter the AsyncLogWriter the logs have been written with
+     */
+    void close(AsyncLogWriter logWriter) {
+        if (closeRegistered) {
+            logWriter.closeAfterPendingWrites(logs);
+        }
+    }
 
-        // dumps all the Histograms that have been collected to file.
+    // dumps all the Histograms that have been collected to file.
+    private void writeHistograms(Map<String, Histogram> intervalHistogramMap) {
         for (Map.Entry<String, Histogram> histogramEntry : intervalHistogramMap.entrySet()) {
             String probeName = histogramEntry.getKey();
             HistogramLogWriter histogramLogWriter = histogramLogWriterMap.get(probeName);
@@ -202,23 +267,106 @@ public final class TestPerformanceTracker {
             Histogram intervalHistogram = histogramEntry.getValue();
             histogramLogWriter.outputIntervalHistogram(intervalHistogram);
         }
+
+        for (PrintStream stream : histogramStreamMap.values()) {
+            stream.flush();
+        }
     }
 
+    private void closeLogs() {
+        performanceLogWriter.close();
+        for (HistogramLogWriter histogramLogWriter : histogramLogWriterMap.values()) {
+            histogramLogWriter.close();
+        }
+        closeQuietly(histogramStreamMap.values());
+    }
+
+    /**
+     * Creates the {@link PerformanceStats} for the current window and starts a new window.
+     *
+     * @return the created PerformanceStats
+     */
     PerformanceStats createPerformanceStats() {
+        Map<String, Histogram> latencyHistograms = copyLatencyHistogramsToSend();
+        long windowPercentileLatency = -1;
+        long window99PercentileLatency = -1;
+        double windowMean = -1;
+        long windowMaxLatency = -1;
+
+        for (Histogram windowHistogram : windowHistogramMap.values()) {
+            windowPercentileLatency = max(windowPercentileLatency,
+                    windowHistogram.getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE));
+            window99PercentileLatency = max(window99PercentileLatency,
+                    windowHistogram.getValueAtPercentile(LATENCY_PERCENTILE_99));
+
+            double meanLatency = windowHistogram.getMean();
+            if (meanLatency > windowMean) {
+                windowMean = meanLatency;
+            }
+
+            long maxValue = windowHistogram.getMaxValue();
+            if (maxValue > windowMaxLatency) {
+                windowMaxLatency = maxValue;
+            }
+
+            windowHistogram.reset();
+        }
+
+        long windowTimeDelta = lastUpdateMillis - windowStartMillis;
+        double windowThroughput = windowTimeDelta == 0
+                ? 0
+                : (windowOperationCount * ONE_SECOND_IN_MILLIS) / (double) windowTimeDelta;
+
+        this.windowOperationCount = 0;
+        this.windowStartMillis = lastUpdateMillis;
+
+        long total99PercentileLatency = -1;
+        long total999PercentileLatency = -1;
+        for (Histogram totalHistogram : totalHistogramMap.values()) {
+            total99PercentileLatency = max(total99PercentileLatency, totalHistogram.getValueAtPercentile(LATENCY_PERCENTILE_99));
+            total999PercentileLatency = max(total999PercentileLatency,
+                    totalHistogram.getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE));
+        }
+
         return new PerformanceStats(
                 totalOperationCount,
-                intervalThroughput,
+                windowThroughput,
                 totalThroughput,
-                intervalLatencyAvgNanos,
-                intervalLatency999PercentileNanos,
-                intervalLatencyMaxNanos);
+                windowMean,
+                windowPercentileLatency,
+                windowMaxLatency,
+                intervalMetrics)
+                .setLatencyPercentiles(window99PercentileLatency, total99PercentileLatency, total999PercentileLatency)
+                .setLatencyHistograms(latencyHistograms);
+    }
+
+    private Map<String, Histogram> copyLatencyHistogramsToSend() {
+        if (!sendLatencyHistograms) {
+            return null;
+        }
+        Map<String, Histogram> copy = new HashMap<>();
+        for (Map.Entry<String, Histogram> entry : windowHistogramMap.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    private static boolean hasSla(TestCase testCase) {
+        for (String property : testCase.getProperties().keySet()) {
+            if (property.startsWith("sla.")) {
+                return true;
+            }
+        }
+        return false;
     }
 
     HistogramLogWriter createHistogramLogWriter(String probeName) {
         String testId = testContainer.getTestCase().getId();
         try {
             File latencyFile = getLatencyFile(testId, probeName);
-            HistogramLogWriter histogramLogWriter = new HistogramLogWriter(latencyFile);
+            PrintStream stream = new PrintStream(new BufferedOutputStream(new FileOutputStream(latencyFile)), false);
+            histogramStreamMap.put(probeName, stream);
+            HistogramLogWriter histogramLogWriter = new HistogramLogWriter(stream);
             histogramLogWriter.setBaseTime(testContainer.getRunStartedMillis());
             histogramLogWriter.outputStartTime(testContainer.getRunStartedMillis());
             histogramLogWriter.outputComment("[Latency histograms for " + testId + '.' + probeName + ']');
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.probes.Gauge;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Math.max;
+
+/**
+ * Samples the number of bytes allocated by a {@link com.hazelcast.simulator.test.annotations.TimeStep} method.
+ * <p>
+ * When the <tt>allocationSamplingPeriod</tt> property is set, the generated {@link TimeStepRunner} reads the allocated bytes
+ * of the current thread before and after every Nth invocation of a timestep method. The sampler is exposed as a
+ * {@link Gauge}, which returns the average number of bytes allocated per operation in the last interval.
+ * <p>
+ * Reading the allocated bytes of a thread allocates a little bit of memory itself; this overhead is measured once and
+ * subtracted from every sample.
+ */
+public final class AllocationSampler implements Gauge {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = loadThreadMXBean();
+    private static final int CALIBRATION_ROUNDS = 100;
+
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final long overheadBytes;
+
+    // only accessed by the thread reading the gauge
+    private long lastBytes;
+    private long lastSamples;
+    private double lastBytesPerOperation;
+
+    AllocationSampler() {
+        if (THREAD_MX_BEAN == null) {
+            throw new IllegalTestException("allocationSamplingPeriod is set, but this JVM doesn't support measuring"
+                    + " the allocated bytes of a thread");
+        }
+        this.overheadBytes = calibrate();
+    }
+
+    /**
+     * Returns the total number of bytes allocated by the given thread.
+     *
+     * @param threadId the id of the thread
+     * @return the allocated bytes
+     */
+    public static long allocatedBytes(long threadId) {
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+    }
+
+    /**
+     * Records the bytes allocated by a single invocation of a timestep method.
+     *
+     * @param allocatedBytes the difference in allocated bytes of the thread before and after the invocation
+     */
+    public void record(long allocatedBytes) {
+        bytes.add(max(0, allocatedBytes - overheadBytes));
+        samples.increment();
+    }
+
+    @Override
+    public double get() {
+        long currentBytes = bytes.sum();
+        long currentSamples = samples.sum();
+        long intervalSamples = currentSamples - lastSamples;
+        if (intervalSamples > 0) {
+            lastBytesPerOperation = (currentBytes - lastBytes) / (double) intervalSamples;
+        }
+        lastBytes = currentBytes;
+        lastSamples = currentSamples;
+        return lastBytesPerOperation;
+    }
+
+    long overheadBytes() {
+        return overheadBytes;
+    }
+
+    private static long calibrate() {
+        long threadId = Thread.currentThread().getId();
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long before = allocatedBytes(threadId);
+            long after = allocatedBytes(threadId);
+            overhead = Math.min(overhead, after - before);
+        }
+        return max(0, overhead);
+    }
+
+    private static com.sun.management.ThreadMXBean loadThreadMXBean() {
+        try {
+            java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (!sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+            return sunThreadMXBean;
+        } catch (LinkageError | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
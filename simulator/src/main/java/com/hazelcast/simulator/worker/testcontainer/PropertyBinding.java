@@ -24,6 +24,7 @@ import com.hazelcast.simulator.test.annotations.InjectTestContext;
 import com.hazelcast.simulator.test.annotations.InjectVendor;
 import com.hazelcast.simulator.utils.BindException;
 import com.hazelcast.simulator.utils.PropertyBindingSupport;
+import com.hazelcast.simulator.vendors.VendorDriver;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
@@ -32,6 +33,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static com.hazelcast.simulator.probes.impl.MetricsRegistry.PER_OPERATION_SUFFIX;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
 import static com.hazelcast.simulator.utils.PropertyBindingSupport.bindAll;
 import static com.hazelcast.simulator.utils.PropertyBindingSupport.removeUnderscores;
@@ -44,6 +46,7 @@ import static java.lang.String.format;
  * <li>values in public fields</li>
  * <li>TestContext in fields annotated with {@link InjectTestContext}</li>
  * <li>HazelcastInstance in fields annotated with @{@link InjectVendor}</li>
+ * <li>VendorDriver in fields of that type annotated with @{@link InjectVendor}</li>
  * </ol>
  * <p>
  * The {@link PropertyBinding} also keeps track of all used properties. This makes it possible to detect if there are any unused
@@ -54,6 +57,8 @@ public class PropertyBinding {
 
     static final int DEFAULT_THREAD_COUNT = 10;
     static final int DEFAULT_RECORD_JITTER_THRESHOLD_NS = 1000;
+    static final String DEFAULT_JFR_PHASES = "warmup,run";
+    static final String ALLOCATION_GAUGE_SUFFIX = "-allocated-bytes" + PER_OPERATION_SUFFIX;
 
     // if we want to measure latency. Normally this is always true; but in its current setting, hdr can cause contention
     // and I want a switch that turns of hdr recording. Perhaps that with some tuning this isn't needed.
@@ -62,21 +67,32 @@ public class PropertyBinding {
     public boolean recordJitter;
     // configures the minimum value for the jitter sample to be recorded.
     public int recordJitterThresholdNs = DEFAULT_RECORD_JITTER_THRESHOLD_NS;
+    // samples the allocated bytes of every Nth timestep method invocation; 0 disables allocation sampling.
+    public int allocationSamplingPeriod;
+    // the JFR settings (e.g. 'default', 'profile' or the path of a .jfc file) to record the test phases with; null disables JFR.
+    public String jfrSettings;
+    // the test phases to record with JFR; 'warmup' and 'run' split the run phase at the warmup.
+    public String jfrPhases = DEFAULT_JFR_PHASES;
+    // the start of the run phase which isn't measured, e.g. so the JIT compilation doesn't skew the results; 0 disables it.
+    public long warmupMillis;
 
     // this can be removed as soon as the @InjectMetronome/worker functionality is dropped
     private MetronomeConstructor workerMetronomeConstructor;
     private final Class<? extends Probe> probeClass;
     private TestContextImpl testContext;
     private final Map<String, Probe> probeMap = new ConcurrentHashMap<>();
+    private final Map<String, AllocationSampler> allocationSamplerMap = new ConcurrentHashMap<>();
     private final TestCase testCase;
     private final Set<String> unusedProperties = new HashSet<>();
     private Object vendorInstance;
+    private VendorDriver vendorDriver;
 
     public PropertyBinding(TestCase testCase) {
         this.testCase = testCase;
         this.unusedProperties.addAll(testCase.getProperties().keySet());
         unusedProperties.remove("class");
-        unusedProperties.remove("warmupMillis");
+        // the performance SLA is evaluated and the faults are injected by the coordinator
+        unusedProperties.removeIf(property -> property.startsWith("sla.") || property.startsWith("fault."));
 
         bind(this);
 
@@ -84,6 +100,14 @@ public class PropertyBinding {
             throw new IllegalTestException("recordJitterThresholdNs can't be smaller than 0");
         }
 
+        if (allocationSamplingPeriod < 0) {
+            throw new IllegalTestException("allocationSamplingPeriod can't be smaller than 0");
+        }
+
+        if (warmupMillis < 0) {
+            throw new IllegalTestException("warmupMillis can't be smaller than 0");
+        }
+
         this.workerMetronomeConstructor = new MetronomeConstructor(
                 "", this, loadAsInt("threadCount", DEFAULT_THREAD_COUNT));
         this.probeClass = loadProbeClass();
@@ -94,6 +118,11 @@ public class PropertyBinding {
         return this;
     }
 
+    public PropertyBinding setVendorDriver(VendorDriver vendorDriver) {
+        this.vendorDriver = vendorDriver;
+        return this;
+    }
+
     public PropertyBinding setTestContext(TestContextImpl testContext) {
         this.testContext = testContext;
         return this;
@@ -218,6 +247,12 @@ public class PropertyBinding {
         if (field.isAnnotationPresent(InjectTestContext.class)) {
             assertFieldType(fieldType, TestContext.class, InjectTestContext.class);
             setFieldValue(object, field, testContext);
+        } else if (field.isAnnotationPresent(InjectVendor.class) && VendorDriver.class.isAssignableFrom(fieldType)) {
+            // vendor independent tests, like the YcsbTest, get the driver to create their binding with
+            if (vendorDriver == null) {
+                throw new IllegalTestException("No vendor driver found");
+            }
+            setFieldValue(object, field, vendorDriver);
         } else if (field.isAnnotationPresent(InjectVendor.class)) {
             if (vendorInstance == null) {
                 throw new IllegalTestException("No vendor found");
@@ -258,6 +293,27 @@ public class PropertyBinding {
         return probe;
     }
 
+    /**
+     * Gets or creates the {@link AllocationSampler} for a timestep method.
+     *
+     * A newly created sampler is registered as gauge on the metrics of the test, so the bytes allocated per operation
+     * end up in the performance log of the test.
+     *
+     * @param methodName the name of the timestep method
+     * @return the AllocationSampler or {@code null} if allocation sampling is disabled
+     */
+    public AllocationSampler getOrCreateAllocationSampler(String methodName) {
+        if (allocationSamplingPeriod == 0) {
+            return null;
+        }
+
+        return allocationSamplerMap.computeIfAbsent(methodName, name -> {
+            AllocationSampler sampler = new AllocationSampler();
+            testContext.registerGauge(name + ALLOCATION_GAUGE_SUFFIX, sampler);
+            return sampler;
+        });
+    }
+
     public TestCase getTestCase() {
         return testCase;
     }
@@ -18,6 +18,7 @@ package com.hazelcast.simulator.worker.testcontainer;
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.MetricsRegistry;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.annotations.Prepare;
 import com.hazelcast.simulator.test.annotations.Run;
@@ -29,7 +30,10 @@ import com.hazelcast.simulator.utils.AnnotatedMethodRetriever;
 import com.hazelcast.simulator.utils.AnnotationFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.TeardownFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.VerifyFilter;
+import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.worker.performance.JfrRecorder;
 import com.hazelcast.simulator.worker.performance.TestPerformanceTracker;
+import org.apache.log4j.Logger;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
@@ -70,6 +74,8 @@ import static java.util.Arrays.asList;
  */
 public class TestContainer {
 
+    private static final Logger LOGGER = Logger.getLogger(TestContainer.class);
+
     private final TestContextImpl testContext;
     private final TestCase testCase;
     private final Object testInstance;
@@ -79,20 +85,31 @@ public class TestContainer {
     private final RunStrategy runStrategy;
     private final TestPerformanceTracker testPerformanceTracker;
     private final AtomicReference<TestPhase> currentPhase = new AtomicReference<>();
+    private final JfrRecorder jfrRecorder;
 
     public TestContainer(TestContextImpl targetInstance, TestCase testCase, Object vendorInstance) {
         this(targetInstance, null, testCase, vendorInstance);
     }
 
     public TestContainer(TestContextImpl testContext, Object givenTestInstance, TestCase testCase) {
-        this(testContext, givenTestInstance, testCase, null);
+        this(testContext, givenTestInstance, testCase, (Object) null);
     }
 
     public TestContainer(TestContextImpl testContext, Object givenTestInstance, TestCase testCase, Object vendorInstance) {
+        this(testContext, givenTestInstance, testCase, vendorInstance, null);
+    }
+
+    public TestContainer(TestContextImpl testContext, Object givenTestInstance, TestCase testCase, VendorDriver vendorDriver) {
+        this(testContext, givenTestInstance, testCase, vendorDriver.getVendorInstance(), vendorDriver);
+    }
+
+    private TestContainer(TestContextImpl testContext, Object givenTestInstance, TestCase testCase, Object vendorInstance,
+                          VendorDriver vendorDriver) {
         this.testContext = checkNotNull(testContext, "testContext can't null!");
         this.testCase = checkNotNull(testCase, "testCase can't be null!");
         this.propertyBinding = new PropertyBinding(testCase)
                 .setVendorInstance(vendorInstance)
+                .setVendorDriver(vendorDriver)
                 .setTestContext(testContext);
 
         propertyBinding.bind(this);
@@ -112,6 +129,26 @@ public class TestContainer {
         propertyBinding.ensureNoUnusedProperties();
 
         this.testPerformanceTracker = new TestPerformanceTracker(this);
+        this.jfrRecorder = newJfrRecorder();
+    }
+
+    private JfrRecorder newJfrRecorder() {
+        if (propertyBinding.jfrSettings == null) {
+            return null;
+        }
+
+        if (!JfrRecorder.isAvailable()) {
+            LOGGER.warn(format("JFR isn't available in this JVM, test %s is not recorded", testCase.getId()));
+            return null;
+        }
+
+        try {
+            return new JfrRecorder(testCase.getId(), propertyBinding.jfrSettings, propertyBinding.jfrPhases,
+                    propertyBinding.warmupMillis);
+        } catch (Exception e) {
+            throw new IllegalTestException(format("Could not load JFR settings '%s': %s",
+                    propertyBinding.jfrSettings, e.getMessage()), e);
+        }
     }
 
     public TestPhase getCurrentPhase() {
@@ -150,6 +187,10 @@ public class TestContainer {
         return testContext;
     }
 
+    public MetricsRegistry getMetricsRegistry() {
+        return testContext.getMetricsRegistry();
+    }
+
     public TestCase getTestCase() {
         return testCase;
     }
@@ -158,6 +199,10 @@ public class TestContainer {
         return runStrategy == null ? 0 : runStrategy.getStartedMillis();
     }
 
+    public long getWarmupMillis() {
+        return propertyBinding.warmupMillis;
+    }
+
     public boolean isRunning() {
         return runStrategy == null ? false : runStrategy.isRunning();
     }
@@ -181,7 +226,7 @@ public class TestContainer {
             if (task == null) {
                 return;
             }
-            task.call();
+            call(testPhase, task);
         } catch (InvocationTargetException e) {
             Throwable t = e.getTargetException();
             if (t instanceof Error) {
@@ -196,6 +241,20 @@ public class TestContainer {
         }
     }
 
+    private void call(TestPhase testPhase, Callable task) throws Exception {
+        if (jfrRecorder == null) {
+            task.call();
+            return;
+        }
+
+        jfrRecorder.start(testPhase);
+        try {
+            task.call();
+        } finally {
+            jfrRecorder.stop();
+        }
+    }
+
     private void registerTestPhaseTasks() {
         try {
             registerSetupTask();
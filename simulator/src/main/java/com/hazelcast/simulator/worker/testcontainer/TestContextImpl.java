@@ -15,6 +15,10 @@
  */
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.probes.Counter;
+import com.hazelcast.simulator.probes.Gauge;
+import com.hazelcast.simulator.probes.Meter;
+import com.hazelcast.simulator.probes.impl.MetricsRegistry;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.protocol.operation.LogOperation;
 import com.hazelcast.simulator.test.TestContext;
@@ -26,6 +30,7 @@ public class TestContextImpl implements TestContext {
     private final String testId;
     private final String publicIpAddress;
     private final Server server;
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
     private volatile boolean stopped;
 
     public TestContextImpl(String testId,
@@ -61,4 +66,23 @@ public class TestContextImpl implements TestContext {
         String message = format(msg, args);
         server.sendCoordinator(new LogOperation(message));
     }
+
+    @Override
+    public Counter getCounter(String name) {
+        return metricsRegistry.getCounter(name);
+    }
+
+    @Override
+    public Meter getMeter(String name) {
+        return metricsRegistry.getMeter(name);
+    }
+
+    @Override
+    public void registerGauge(String name, Gauge gauge) {
+        metricsRegistry.registerGauge(name, gauge);
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
 }
@@ -32,7 +32,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import static com.hazelcast.simulator.common.TestPhase.getLastTestPhase;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepUntilMs;
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
 
 /**
  * Responsible for managing the TestContainers.
@@ -73,7 +75,7 @@ public class TestManager {
 
         TestContextImpl testContext = new TestContextImpl(testId, null, server);
 
-        testContainer = new TestContainer(testContext, testCase, vendorDriver.getVendorInstance());
+        testContainer = new TestContainer(testContext, null, testCase, vendorDriver);
 
         tests.put(testId, testContainer);
     }
@@ -100,7 +102,7 @@ public class TestManager {
             throw new IllegalArgumentException(format("Could not start phase [%s] , test [%s] is not found.", testPhase, testId));
         }
 
-        new TestPhaseThread(testContainer, testPhase, testId, promise).start();
+        new TestPhaseThread(testContainer, testPhase, testId, op.getStartTimeMillis(), promise).start();
     }
 
     private class TestPhaseThread extends Thread {
@@ -109,17 +111,25 @@ public class TestManager {
         private final String testId;
         private final Promise promise;
         private final TestContainer testContainer;
+        private final long startTimeMillis;
 
-        TestPhaseThread(TestContainer testContainer, TestPhase testPhase, String testId, Promise promise) {
+        TestPhaseThread(TestContainer testContainer, TestPhase testPhase, String testId, long startTimeMillis,
+                        Promise promise) {
             this.testContainer = testContainer;
             this.testId = testId;
             this.testPhase = testPhase;
+            this.startTimeMillis = startTimeMillis;
             this.promise = promise;
         }
 
         @Override
         @SuppressWarnings("PMD.AvoidCatchingThrowable")
         public final void run() {
+            if (startTimeMillis > 0) {
+                LOGGER.info(format("Waiting %d ms for the scheduled start of %s of %s", startTimeMillis - currentTimeMillis(),
+                        testPhase.desc(), testId));
+                sleepUntilMs(startTimeMillis);
+            }
             LOGGER.info(format("%s Starting %s of %s %s", DASHES, testPhase.desc(), testId, DASHES));
             try {
                 testContainer.invoke(testPhase);
@@ -83,7 +83,8 @@ class TimeStepRunStrategy extends RunStrategy {
                     binding.getProbeClass(),
                     logFrequency,
                     logRateMs,
-                    iterations > 0);
+                    iterations > 0,
+                    binding.allocationSamplingPeriod);
 
             runnerClassMap.put(executionGroup, runnerClass);
         }
@@ -48,6 +48,7 @@ public abstract class TimeStepRunner implements Runnable {
     protected final TimeStepModel timeStepModel;
     protected final byte[] timeStepProbabilities;
     protected final Map<String, Probe> probeMap = new HashMap<>();
+    protected final Map<String, AllocationSampler> allocationSamplerMap = new HashMap<>();
     protected long maxIterations;
 
     public TimeStepRunner(Object testInstance, TimeStepModel timeStepModel, String executionGroup) {
@@ -68,6 +69,11 @@ public abstract class TimeStepRunner implements Runnable {
             if (probe != null) {
                 probeMap.put(method.getName(), probe);
             }
+
+            AllocationSampler allocationSampler = binding.getOrCreateAllocationSampler(method.getName());
+            if (allocationSampler != null) {
+                allocationSamplerMap.put(method.getName(), allocationSampler);
+            }
         }
     }
 
@@ -58,6 +58,7 @@ class TimeStepRunnerCodeGenerator {
     private final JavaCompiler javaCompiler = ToolProvider.getSystemJavaCompiler();
     private final File targetDirectory = new File(getUserDir(), "timestep-worker-classes");
 
+    @SuppressWarnings("checkstyle:parameternumber")
     Class compile(
             String testCaseId,
             String executionGroup,
@@ -66,7 +67,8 @@ class TimeStepRunnerCodeGenerator {
             Class<? extends Probe> probeClass,
             long logFrequency,
             long logRateMs,
-            boolean hasIterationCap) {
+            boolean hasIterationCap,
+            int allocationSamplingPeriod) {
 
         ensureExistingDirectory(targetDirectory);
 
@@ -81,7 +83,8 @@ class TimeStepRunnerCodeGenerator {
             className += testCaseId;
         }
         JavaFileObject file = createJavaFileObject(
-                className, executionGroup, metronomeClass, timeStepModel, probeClass, logFrequency, logRateMs, hasIterationCap);
+                className, executionGroup, metronomeClass, timeStepModel, probeClass, logFrequency, logRateMs, hasIterationCap,
+                allocationSamplingPeriod);
         return compile(javaCompiler, file, className);
     }
 
@@ -123,6 +126,7 @@ class TimeStepRunnerCodeGenerator {
         });
     }
 
+    @SuppressWarnings("checkstyle:parameternumber")
     private JavaFileObject createJavaFileObject(
             String className,
             String executionGroup,
@@ -131,7 +135,8 @@ class TimeStepRunnerCodeGenerator {
             Class<? extends Probe> probeClass,
             long logFrequency,
             long logRateMs,
-            boolean hasIterationCap) {
+            boolean hasIterationCap,
+            int allocationSamplingPeriod) {
         try {
             Configuration cfg = new Configuration(Configuration.VERSION_2_3_24);
             cfg.setClassForTemplateLoading(this.getClass(), "/");
@@ -163,6 +168,10 @@ class TimeStepRunnerCodeGenerator {
                 root.put("hasIterationCap", "true");
             }
 
+            if (allocationSamplingPeriod > 0) {
+                root.put("allocationSamplingPeriod", "" + allocationSamplingPeriod);
+            }
+
             Template temp = cfg.getTemplate("TimeStepRunner.ftl");
             StringWriter out = new StringWriter();
             temp.process(root, out);
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.ycsb;
+
+/**
+ * Hands out the indexes of the records inserted by a {@link YcsbTest} and tracks up to which index the inserts have
+ * completed, like the acknowledged counter of YCSB.
+ * <p>
+ * An index is only visible to the reads, updates and scans once the insert of that record and of all records before it
+ * have been acknowledged; so an operation is never executed on a record which is still being inserted. An insert is
+ * acknowledged when it completes, also if it fails, else the limit would never advance again.
+ */
+final class AcknowledgedCounter {
+
+    static final int WINDOW_SIZE = 65536;
+
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+
+    private final boolean[] acknowledged = new boolean[WINDOW_SIZE];
+    private long next;
+    private volatile long limit;
+
+    /**
+     * Returns the next index to insert.
+     *
+     * @return the index
+     */
+    synchronized long next() {
+        return next++;
+    }
+
+    /**
+     * Acknowledges that the insert of an index has completed.
+     *
+     * @param index the index returned by {@link #next()}
+     * @throws IllegalStateException if too many inserts are still pending
+     */
+    synchronized void acknowledge(long index) {
+        if (index - limit >= WINDOW_SIZE) {
+            throw new IllegalStateException("More than " + WINDOW_SIZE + " inserts are pending");
+        }
+        acknowledged[slot(index)] = true;
+
+        long newLimit = limit;
+        while (acknowledged[slot(newLimit)]) {
+            acknowledged[slot(newLimit)] = false;
+            newLimit++;
+        }
+        limit = newLimit;
+    }
+
+    /**
+     * Returns the number of indexes of which the inserts have completed, without any gaps.
+     *
+     * @return the limit; all indexes below it have been acknowledged
+     */
+    long limit() {
+        return limit;
+    }
+
+    private static int slot(long index) {
+        return (int) (index & WINDOW_MASK);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.ycsb;
+
+import java.util.Random;
+
+import static java.lang.Math.min;
+import static java.lang.Math.pow;
+
+/**
+ * Chooses the index of the record a {@link YcsbTest} operation is executed on, according to a {@link RequestDistribution}.
+ * <p>
+ * The zipfian distribution is computed over the initial number of records with the algorithm from "Quickly Generating
+ * Billion-Record Synthetic Databases", Jim Gray et al, SIGMOD 1994, like YCSB does. Creating the chooser takes time linear
+ * in the number of records, so it is created once per test. It has no mutable state and can be shared by all threads.
+ */
+final class KeyChooser {
+
+    static final double ZIPFIAN_CONSTANT = 0.99;
+
+    private static final long FNV_OFFSET_BASIS_64 = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME_64 = 1099511628211L;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int BYTE_MASK = 0xff;
+
+    private final RequestDistribution distribution;
+    private final long items;
+    private final double zetan;
+    private final double alpha;
+    private final double eta;
+    private final double halfPowTheta;
+
+    /**
+     * Creates a KeyChooser.
+     *
+     * @param distribution the distribution
+     * @param items        the initial number of records
+     */
+    KeyChooser(RequestDistribution distribution, long items) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("items must be larger than 0");
+        }
+        this.distribution = distribution;
+        this.items = items;
+        if (distribution == RequestDistribution.UNIFORM) {
+            this.zetan = 0;
+            this.alpha = 0;
+            this.eta = 0;
+            this.halfPowTheta = 0;
+        } else {
+            double zeta2 = zeta(2);
+            this.zetan = zeta(items);
+            this.alpha = 1.0 / (1.0 - ZIPFIAN_CONSTANT);
+            this.eta = (1 - pow(2.0 / items, 1 - ZIPFIAN_CONSTANT)) / (1 - zeta2 / zetan);
+            this.halfPowTheta = 1 / pow(2, ZIPFIAN_CONSTANT);
+        }
+    }
+
+    /**
+     * Chooses the index of the next record.
+     *
+     * @param random      the Random of the calling thread
+     * @param recordCount the current number of records, which increases when records are inserted
+     * @return the index of the record, between 0 (inclusive) and recordCount (exclusive)
+     */
+    long next(Random random, long recordCount) {
+        switch (distribution) {
+            case UNIFORM:
+                return (long) (random.nextDouble() * recordCount);
+            case ZIPFIAN:
+                // the popular records are scattered, else they would all end up in the same partition
+                return hash(nextZipfian(random)) % recordCount;
+            case LATEST:
+                return recordCount - 1 - nextZipfian(random);
+            default:
+                throw new IllegalStateException("Unknown distribution: " + distribution);
+        }
+    }
+
+    /**
+     * Returns a zipfian distributed value between 0 (inclusive) and the initial number of records (exclusive), where 0 is
+     * the most popular value.
+     */
+    long nextZipfian(Random random) {
+        double u = random.nextDouble();
+        double uz = u * zetan;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + halfPowTheta) {
+            return 1;
+        }
+        return min(items - 1, (long) (items * pow(eta * u - eta + 1, alpha)));
+    }
+
+    private static double zeta(long n) {
+        double sum = 0;
+        for (long i = 0; i < n; i++) {
+            sum += 1 / pow(i + 1, ZIPFIAN_CONSTANT);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the 64 bit FNV hash of a value, which is never negative.
+     */
+    static long hash(long value) {
+        long hash = FNV_OFFSET_BASIS_64;
+        long remaining = value;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= remaining & BYTE_MASK;
+            hash *= FNV_PRIME_64;
+            remaining >>= BITS_PER_BYTE;
+        }
+        return hash & Long.MAX_VALUE;
+    }
+}
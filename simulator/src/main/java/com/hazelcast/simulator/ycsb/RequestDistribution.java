@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.ycsb;
+
+/**
+ * The distribution of the records a {@link YcsbTest} reads, updates and scans.
+ */
+public enum RequestDistribution {
+
+    /**
+     * Every record is equally likely.
+     */
+    UNIFORM,
+
+    /**
+     * Some records are a lot more popular than others; the popular records are scattered over the key space.
+     */
+    ZIPFIAN,
+
+    /**
+     * The most recently inserted records are the most popular.
+     */
+    LATEST
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.ycsb;
+
+import java.util.List;
+
+/**
+ * The binding of the {@link YcsbTest} to a vendor, e.g. an IMap for Hazelcast or a Cache for Ignite.
+ * <p>
+ * A record is stored as a key and a String value. The methods are called concurrently by all threads of the test, so an
+ * implementation needs to be thread-safe.
+ *
+ * @see com.hazelcast.simulator.vendors.VendorDriver#newYcsbStore(String)
+ */
+public interface YcsbStore {
+
+    /**
+     * Reads a record.
+     *
+     * @param key the key of the record
+     * @return the value of the record or {@code null} if it doesn't exist
+     * @throws Exception if the read fails
+     */
+    String read(String key) throws Exception;
+
+    /**
+     * Reads a range of records, e.g. with a single multi-get. Stores without range queries read the records by key, so the
+     * range is the list of keys the records are stored under.
+     *
+     * @param keys the keys of the records
+     * @return the number of records found
+     * @throws Exception if the scan fails
+     */
+    int scan(List<String> keys) throws Exception;
+
+    /**
+     * Replaces the value of an existing record.
+     *
+     * @param key   the key of the record
+     * @param value the new value
+     * @throws Exception if the update fails
+     */
+    void update(String key, String value) throws Exception;
+
+    /**
+     * Inserts a new record.
+     *
+     * @param key   the key of the record
+     * @param value the value
+     * @throws Exception if the insert fails
+     */
+    void insert(String key, String value) throws Exception;
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.ycsb;
+
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.test.annotations.InjectTestContext;
+import com.hazelcast.simulator.test.annotations.InjectVendor;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.vendors.VendorDriver;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.utils.GeneratorUtils.generateAsciiStrings;
+import static com.hazelcast.simulator.utils.UuidUtil.newUnsecureUuidString;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * A vendor independent test with the core workloads of YCSB, so the same TestSuite can be run against every driver:
+ * <pre>
+ *     ycsb@class = com.hazelcast.simulator.ycsb.YcsbTest
+ *     ycsb@workload = A
+ *     ycsb@recordCount = 1000000
+ * </pre>
+ * The {@link YcsbWorkload} sets the probabilities of the operations and the request distribution; they can be overridden
+ * like the properties of any other test. The test runs against the {@link YcsbStore} of the driver, see
+ * {@link VendorDriver#newYcsbStore(String)}.
+ * <p>
+ * The records are loaded in the global prepare and are stored under the key "user" followed by the hash of the index of the
+ * record. A record has a single value of fieldCount * fieldLength characters, so an update replaces the whole record. The
+ * records inserted in the run phase are only read and scanned by the worker which inserted them, and only after their
+ * insert has completed.
+ */
+public class YcsbTest {
+
+    private static final Logger LOGGER = Logger.getLogger(YcsbTest.class);
+
+    // properties
+    public String name = "usertable";
+    // the YCSB workload; applied by the TestSuite
+    public String workload;
+    public long recordCount = 100000;
+    public int fieldCount = 10;
+    public int fieldLength = 100;
+    public int valueCount = 1000;
+    public int maxScanLength = 100;
+    public RequestDistribution requestDistribution = RequestDistribution.ZIPFIAN;
+
+    @InjectVendor
+    private VendorDriver vendorDriver;
+    @InjectTestContext
+    private TestContext testContext;
+
+    private final AcknowledgedCounter insertCount = new AcknowledgedCounter();
+    private YcsbStore store;
+    private KeyChooser keyChooser;
+    private String[] values;
+    private String insertKeySuffix;
+
+    @Setup
+    public void setup() {
+        if (recordCount <= 0) {
+            throw new IllegalStateException("recordCount must be larger than 0");
+        }
+        if (maxScanLength <= 0) {
+            throw new IllegalStateException("maxScanLength must be larger than 0");
+        }
+
+        store = vendorDriver.newYcsbStore(name);
+        keyChooser = new KeyChooser(requestDistribution, recordCount);
+        values = generateAsciiStrings(valueCount, fieldCount * fieldLength);
+        // records inserted by different workers must not overwrite each other
+        insertKeySuffix = "-" + newUnsecureUuidString();
+        LOGGER.info(format("%s running YCSB workload %s with %s", testContext.getTestId(),
+                workload == null ? "-" : workload, store.getClass().getSimpleName()));
+    }
+
+    @Prepare(global = true)
+    public void load() throws Exception {
+        for (long index = 0; index < recordCount; index++) {
+            store.insert(key(index), values[(int) (index % values.length)]);
+        }
+    }
+
+    @TimeStep(prob = -1)
+    public String read(ThreadState state) throws Exception {
+        return store.read(state.randomKey());
+    }
+
+    @TimeStep(prob = 0)
+    public void update(ThreadState state) throws Exception {
+        store.update(state.randomKey(), state.randomValue());
+    }
+
+    @TimeStep(prob = 0)
+    public void insert(ThreadState state) throws Exception {
+        long insert = insertCount.next();
+        try {
+            store.insert(key(recordCount + insert), state.randomValue());
+        } finally {
+            // the record only becomes visible to the other operations once it has been inserted
+            insertCount.acknowledge(insert);
+        }
+    }
+
+    @TimeStep(prob = 0)
+    public int scan(ThreadState state) throws Exception {
+        long count = count();
+        long start = keyChooser.next(state.random, count);
+        long end = min(count, start + 1 + state.randomInt(maxScanLength));
+        List<String> keys = new ArrayList<>((int) (end - start));
+        for (long index = start; index < end; index++) {
+            keys.add(key(index));
+        }
+        return store.scan(keys);
+    }
+
+    @TimeStep(prob = 0)
+    public void readModifyWrite(ThreadState state) throws Exception {
+        String key = state.randomKey();
+        store.read(key);
+        store.update(key, state.randomValue());
+    }
+
+    private long count() {
+        return recordCount + insertCount.limit();
+    }
+
+    private String key(long index) {
+        String key = "user" + KeyChooser.hash(index);
+        return index < recordCount ? key : key + insertKeySuffix;
+    }
+
+    public class ThreadState extends BaseThreadState {
+
+        private String randomKey() {
+            return key(keyChooser.next(random, count()));
+        }
+
+        private String randomValue() {
+            return values[randomInt(values.length)];
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.ycsb;
+
+import com.hazelcast.simulator.common.TestCase;
+
+import static com.hazelcast.simulator.ycsb.RequestDistribution.LATEST;
+import static com.hazelcast.simulator.ycsb.RequestDistribution.ZIPFIAN;
+import static java.lang.String.format;
+
+/**
+ * The core workloads of YCSB. A workload defines the mix of operations of a {@link YcsbTest} and the distribution of the
+ * records the operations are executed on:
+ * <ul>
+ * <li>A: update heavy, 50% reads and 50% updates</li>
+ * <li>B: read mostly, 95% reads and 5% updates</li>
+ * <li>C: read only</li>
+ * <li>D: read latest, 95% reads of the most recently inserted records and 5% inserts</li>
+ * <li>E: short ranges, 95% scans and 5% inserts</li>
+ * <li>F: read-modify-write, 50% reads and 50% read-modify-writes</li>
+ * </ul>
+ * The reads get the probability which is left by the other operations.
+ */
+public enum YcsbWorkload {
+
+    A(0.5, 0, 0, 0, ZIPFIAN),
+    B(0.05, 0, 0, 0, ZIPFIAN),
+    C(0, 0, 0, 0, ZIPFIAN),
+    D(0, 0.05, 0, 0, LATEST),
+    E(0, 0.05, 0.95, 0, ZIPFIAN),
+    F(0, 0, 0, 0.5, ZIPFIAN);
+
+    private static final String WORKLOAD = "workload";
+
+    private final double updateProb;
+    private final double insertProb;
+    private final double scanProb;
+    private final double readModifyWriteProb;
+    private final RequestDistribution requestDistribution;
+
+    YcsbWorkload(double updateProb, double insertProb, double scanProb, double readModifyWriteProb,
+                 RequestDistribution requestDistribution) {
+        this.updateProb = updateProb;
+        this.insertProb = insertProb;
+        this.scanProb = scanProb;
+        this.readModifyWriteProb = readModifyWriteProb;
+        this.requestDistribution = requestDistribution;
+    }
+
+    /**
+     * Sets the probabilities of the operations and the request distribution of the workload on a {@link YcsbTest}. The
+     * properties which are set explicitly in the TestCase are not overridden, so a workload can be tweaked.
+     *
+     * @param testCase the TestCase
+     * @throws IllegalArgumentException if the workload of the TestCase is unknown
+     */
+    public static void apply(TestCase testCase) {
+        if (!YcsbTest.class.getName().equals(testCase.getClassname()) || testCase.getProperty(WORKLOAD) == null) {
+            return;
+        }
+
+        YcsbWorkload workload = parse(testCase.getProperty(WORKLOAD));
+        setIfAbsent(testCase, "updateProb", workload.updateProb);
+        setIfAbsent(testCase, "insertProb", workload.insertProb);
+        setIfAbsent(testCase, "scanProb", workload.scanProb);
+        setIfAbsent(testCase, "readModifyWriteProb", workload.readModifyWriteProb);
+        setIfAbsent(testCase, "requestDistribution", workload.requestDistribution.name());
+    }
+
+    static YcsbWorkload parse(String name) {
+        for (YcsbWorkload workload : values()) {
+            if (workload.name().equalsIgnoreCase(name.trim())) {
+                return workload;
+            }
+        }
+        throw new IllegalArgumentException(format("Unknown YCSB workload [%s], use one of A, B, C, D, E or F", name));
+    }
+
+    private static void setIfAbsent(TestCase testCase, String property, Object value) {
+        if (testCase.getProperty(property) == null) {
+            testCase.setProperty(property, value);
+        }
+    }
+}
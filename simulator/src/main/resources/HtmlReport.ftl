@@ -0,0 +1,56 @@
+<!DOCTYPE html>
+<html>
+<head>
+<meta charset="UTF-8">
+<title>Benchmark report: <#list names as name>${name?html}<#sep>, </#sep></#list></title>
+<style>
+body { font-family: sans-serif; margin: 20px; }
+table { border-collapse: collapse; margin-bottom: 20px; }
+th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: right; }
+th:first-child, td:first-child { text-align: left; }
+th { background: #f0f0f0; }
+</style>
+</head>
+<body>
+<h1>Benchmark report</h1>
+
+<h2>Summary</h2>
+<table>
+<tr><th>Benchmark</th><th>Duration (s)</th><th>Operations</th><th>Throughput (op/s)</th><th>&Delta; throughput</th></tr>
+<#list summary as row>
+<tr><td>${row.name?html}</td><td>${row.duration}</td><td>${row.operations}</td><td>${row.throughput}</td><td>${row.delta}</td></tr>
+</#list>
+</table>
+${throughputChart}
+
+<#if disruptions?has_content>
+<h2>Disruptions</h2>
+<table>
+<tr><th>Fault</th><th>Type</th><th>Workers</th><th>Start (s)</th><th>Recovery (s)</th><th>Throughput before (op/s)</th><th>Lowest throughput (op/s)</th><th>Peak 99.9% (us)</th><th>Peak max (us)</th><th>Reported failures</th></tr>
+<#list disruptions as row>
+<tr><td>${row.name?html}</td><td>${row.type?html}</td><td>${row.workers?html}</td><td>${row.start}</td><td>${row.recovery}</td><td>${row.baselineThroughput}</td><td>${row.minThroughput}</td><td>${row.peakLatency999}</td><td>${row.peakLatencyMax}</td><td>${row.failures}</td></tr>
+</#list>
+</table>
+</#if>
+
+<#list probes as probe>
+<h2>${probe.name?html}</h2>
+<table>
+<tr><th>Benchmark</th><th>Count</th><th>Mean (us)</th><th>50% (us)</th><th>90% (us)</th><th>99% (us)</th><th>99.9% (us)</th><th>99.99% (us)</th><th>Max (us)</th><th>&Delta; 99%</th></tr>
+<#list probe.rows as row>
+<tr><td>${row.name?html}</td><td>${row.count}</td><td>${row.mean}</td><#list row.percentiles as percentile><td>${percentile}</td></#list><td>${row.max}</td><td>${row.delta}</td></tr>
+</#list>
+</table>
+${probe.latencyChart}
+${probe.distributionChart}
+</#list>
+
+<#if jfrSummaries?has_content>
+<h2>JFR summaries</h2>
+<#list jfrSummaries as summary>
+<h3>${summary.name?html}</h3>
+<pre>${summary.text?html}</pre>
+</#list>
+</#if>
+</body>
+</html>
@@ -36,6 +36,13 @@ public class ${className} extends TimeStepRunner {
         final ${probeClass} ${method.name}Probe = (${probeClass})probeMap.get("${method.name}");
     </#list>
 </#if>
+<#if allocationSamplingPeriod??>
+    <#list timeStepMethods as method>
+        final AllocationSampler ${method.name}Allocation = allocationSamplerMap.get("${method.name}");
+    </#list>
+        final long threadId = Thread.currentThread().getId();
+        long allocationCounter = 0;
+</#if>
 <#if threadStateClass??>
         final ${threadStateClass} threadState = (${threadStateClass})this.threadState;
 </#if>
@@ -56,6 +63,12 @@ public class ${className} extends TimeStepRunner {
 
         long iteration = 0;
         while (!testContext.isStopped()) {
+<#-- before the start of the measurement, so reading the allocation counter isn't part of the measured latency -->
+<#if allocationSamplingPeriod??>
+            allocationCounter++;
+            final boolean sampleAllocation = allocationCounter == ${allocationSamplingPeriod};
+            final long allocatedBytesBefore = sampleAllocation ? AllocationSampler.allocatedBytes(threadId) : 0;
+</#if>
 <#if probeClass??>
     <#if metronomeClass??>
             final long startNanos = metronome.waitForNext();
@@ -77,9 +90,11 @@ public class ${className} extends TimeStepRunner {
             <#if isAsyncResult(resultType)>
                 <@handleAsyncResult m=method/>
             </#if>
+            <@recordAllocation m=method/>
     <#else>
             <@timestepMethodCall m=method/>;
             ${method.name}Probe.recordValue(System.nanoTime() - startNanos);
+            <@recordAllocation m=method/>
     </#if>
 <#else>
 
@@ -95,9 +110,11 @@ public class ${className} extends TimeStepRunner {
             <#if isAsyncResult(resultType)>
                     <@handleAsyncResult m=method/>
             </#if>
+                    <@recordAllocation m=method/>
         <#else>
                     <@timestepMethodCall m=method/>;
                     ${method.name}Probe.recordValue(System.nanoTime() - startNanos);
+                    <@recordAllocation m=method/>
         </#if>
                     break;
     </#list>
@@ -129,6 +146,16 @@ public class ${className} extends TimeStepRunner {
                     ${resultName}.whenCompleteAsync((o, throwable) ->  ${m.getName()}Probe.recordValue(System.nanoTime() - startNanos), Runnable::run);
 </#macro>
 
+<#-- after the probe, so reading the allocation counter isn't part of the measured latency either -->
+<#macro recordAllocation m>
+<#if allocationSamplingPeriod??>
+            if (sampleAllocation) {
+                ${m.getName()}Allocation.record(AllocationSampler.allocatedBytes(threadId) - allocatedBytesBefore);
+                allocationCounter = 0;
+            }
+</#if>
+</#macro>
+
 <#macro timestepMethodCall m>
     <@compress single_line=true>
        testInstance.${m.getName()}(
@@ -1,6 +1,8 @@
 package com.hazelcast.simulator.agent;
 
+import com.hazelcast.simulator.agent.operations.CollectArtifactsOperation;
 import com.hazelcast.simulator.agent.operations.CreateWorkerOperation;
+import com.hazelcast.simulator.agent.operations.GetHardwareTopologyOperation;
 import com.hazelcast.simulator.agent.operations.StartTimeoutDetectionOperation;
 import com.hazelcast.simulator.agent.operations.StopTimeoutDetectionOperation;
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
@@ -13,6 +15,9 @@ import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashMap;
+
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
@@ -21,6 +26,7 @@ public class AgentOperationProcessorTest {
     private AgentOperationProcessor processor;
     private WorkerProcessManager processManager;
     private WorkerProcessFailureMonitor failureMonitor;
+    private ArtifactSender artifactSender;
     private Promise promise;
     private SimulatorAddress source;
 
@@ -28,7 +34,8 @@ public class AgentOperationProcessorTest {
     public void before() {
         processManager = mock(WorkerProcessManager.class);
         failureMonitor = mock(WorkerProcessFailureMonitor.class);
-        processor = new AgentOperationProcessor(processManager, failureMonitor);
+        artifactSender = mock(ArtifactSender.class);
+        processor = new AgentOperationProcessor(processManager, failureMonitor, artifactSender);
         promise = mock(Promise.class);
         source = SimulatorAddress.coordinatorAddress();
     }
@@ -60,6 +67,24 @@ public class AgentOperationProcessorTest {
         verify(failureMonitor).stopTimeoutDetection();
     }
 
+    @Test
+    public void testGetHardwareTopologyOperation() throws Exception {
+        GetHardwareTopologyOperation op = new GetHardwareTopologyOperation();
+
+        processor.process(op, source, promise);
+
+        verify(promise).answer(anyString());
+    }
+
+    @Test
+    public void testCollectArtifactsOperation() throws Exception {
+        CollectArtifactsOperation op = new CollectArtifactsOperation("session", "queue", new HashMap<String, Long>());
+
+        processor.process(op, source, promise);
+
+        verify(artifactSender).send(op, promise);
+    }
+
     @Test(expected = ProcessException.class)
     public void testUnknownOperation() throws Exception {
         CreateTestOperation op = mock(CreateTestOperation.class);
@@ -0,0 +1,137 @@
+package com.hazelcast.simulator.agent;
+
+import com.hazelcast.simulator.agent.operations.CollectArtifactsOperation;
+import com.hazelcast.simulator.common.SimulatorProperties;
+import com.hazelcast.simulator.coordinator.registry.AgentData;
+import com.hazelcast.simulator.coordinator.tasks.CollectArtifactsTask;
+import com.hazelcast.simulator.protocol.Broker;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.OperationProcessor;
+import com.hazelcast.simulator.protocol.Server;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeEnvironment;
+import static com.hazelcast.simulator.TestEnvironmentUtils.tearDownFakeEnvironment;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static com.hazelcast.simulator.utils.SimulatorUtils.localIp;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ArtifactSenderTest {
+
+    private static final String SESSION_ID = "session";
+
+    private Broker broker;
+    private Server agentServer;
+    private CoordinatorClient client;
+    private AgentData agent;
+    private File workersHome;
+    private File rootDir;
+
+    @Before
+    public void before() throws Exception {
+        setupFakeEnvironment();
+        workersHome = createTmpDirectory();
+        rootDir = createTmpDirectory();
+
+        broker = new Broker();
+        broker.start();
+
+        agent = new AgentData(1, localIp(), localIp());
+        agentServer = new Server("agents")
+                .setBrokerURL(broker.getBrokerURL())
+                .setSelfAddress(agent.getAddress());
+        final ArtifactSender sender = new ArtifactSender(agentServer, workersHome);
+        agentServer.setProcessor((op, source, promise) -> sender.send((CollectArtifactsOperation) op, promise));
+        agentServer.start();
+
+        client = new CoordinatorClient()
+                .setProcessor(mock(OperationProcessor.class))
+                .connectToAgentBroker(agent.getAddress(), localIp())
+                .start();
+    }
+
+    @After
+    public void after() {
+        closeQuietly(client);
+        closeQuietly(agentServer);
+        closeQuietly(broker);
+        deleteQuiet(workersHome);
+        deleteQuiet(rootDir);
+        tearDownFakeEnvironment();
+    }
+
+    @Test
+    public void testCollect() {
+        File sessionDir = ensureExistingDirectory(workersHome, SESSION_ID);
+        File worker1 = ensureExistingDirectory(sessionDir, "A1_W1-member");
+        File worker2 = ensureExistingDirectory(sessionDir, "A1_W2-client");
+        writeText("member", new File(worker1, "worker.log"));
+        writeText("jar", new File(ensureExistingDirectory(worker1, "upload"), "test.jar"));
+        writeText("client", new File(ensureExistingDirectory(worker2, "logs"), "worker.log"));
+
+        List<AgentData> failedAgents = newTask().run();
+
+        assertTrue(failedAgents.isEmpty());
+        File targetDir = new File(rootDir, SESSION_ID);
+        assertEquals("member", fileAsText(new File(targetDir, "A1_W1-member/worker.log")));
+        assertEquals("client", fileAsText(new File(targetDir, "A1_W2-client/logs/worker.log")));
+        assertFalse(new File(targetDir, "A1_W1-member/upload").exists());
+        assertFalse(new File(targetDir, ".artifacts").exists());
+    }
+
+    @Test
+    public void testCollect_skipsExistingFiles() {
+        File workerDir = ensureExistingDirectory(ensureExistingDirectory(workersHome, SESSION_ID), "A1_W1-member");
+        writeText("remote", new File(workerDir, "worker.log"));
+        writeText("changed", new File(workerDir, "worker.out"));
+
+        File targetWorkerDir = ensureExistingDirectory(ensureExistingDirectory(rootDir, SESSION_ID), "A1_W1-member");
+        writeText("local!", new File(targetWorkerDir, "worker.log"));
+        writeText("old", new File(targetWorkerDir, "worker.out"));
+
+        List<AgentData> failedAgents = newTask().run();
+
+        assertTrue(failedAgents.isEmpty());
+        assertEquals("local!", fileAsText(new File(targetWorkerDir, "worker.log")));
+        assertEquals("changed", fileAsText(new File(targetWorkerDir, "worker.out")));
+    }
+
+    @Test
+    public void testCollect_whenSessionDoesNotExist() {
+        List<AgentData> failedAgents = newTask().run();
+
+        assertTrue(failedAgents.isEmpty());
+    }
+
+    @Test
+    public void testCollect_whenAgentNotConnected() {
+        AgentData unknownAgent = new AgentData(2, localIp(), localIp());
+
+        List<AgentData> failedAgents = new CollectArtifactsTask(singletonList(unknownAgent), client,
+                newProperties(), rootDir, SESSION_ID).run();
+
+        assertEquals(singletonList(unknownAgent), failedAgents);
+    }
+
+    private CollectArtifactsTask newTask() {
+        return new CollectArtifactsTask(singletonList(agent), client, newProperties(), rootDir, SESSION_ID);
+    }
+
+    private static SimulatorProperties newProperties() {
+        return new SimulatorProperties().set("COLLECT_ARTIFACTS_TIMEOUT_SECONDS", "60");
+    }
+}
@@ -0,0 +1,76 @@
+package com.hazelcast.simulator.agent;
+
+import com.hazelcast.simulator.agent.workerprocess.WorkerProcess;
+import com.hazelcast.simulator.agent.workerprocess.WorkerProcessManager;
+import com.hazelcast.simulator.protocol.Broker;
+import com.hazelcast.simulator.protocol.OperationProcessor;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.utils.AssertTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class WorkerSnifferTest {
+
+    private final SimulatorAddress agentAddress = SimulatorAddress.fromString("A1");
+    private final SimulatorAddress workerAddress = SimulatorAddress.fromString("A1_W1");
+
+    private Broker broker;
+    private Server agentServer;
+    private Server workerServer;
+    private WorkerSniffer sniffer;
+
+    @Before
+    public void before() {
+        broker = new Broker().start();
+
+        agentServer = newServer("agents", agentAddress);
+        workerServer = newServer("workers", workerAddress);
+    }
+
+    @After
+    public void after() {
+        if (sniffer != null) {
+            sniffer.stop();
+        }
+        closeQuietly(workerServer);
+        closeQuietly(agentServer);
+        closeQuietly(broker);
+    }
+
+    @Test
+    public void testHeartbeat_updatesLastSeen() {
+        WorkerProcessManager processManager = new WorkerProcessManager(agentServer, agentAddress, "127.0.0.1");
+        final WorkerProcess workerProcess = new WorkerProcess(workerAddress, "worker1", new File("worker1"));
+        workerProcess.setLastSeen(0);
+        processManager.add(workerAddress, workerProcess);
+
+        sniffer = new WorkerSniffer(processManager).setConnection(agentServer.getConnection());
+        sniffer.start();
+
+        workerServer.sendHeartbeat();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(workerProcess.getLastSeen() > 0);
+            }
+        });
+    }
+
+    private Server newServer(String topic, SimulatorAddress address) {
+        return new Server(topic)
+                .setBrokerURL(broker.getBrokerURL())
+                .setSelfAddress(address)
+                .setProcessor(mock(OperationProcessor.class))
+                .start();
+    }
+}
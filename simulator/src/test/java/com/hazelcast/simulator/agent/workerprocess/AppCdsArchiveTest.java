@@ -0,0 +1,101 @@
+package com.hazelcast.simulator.agent.workerprocess;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingFile;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AppCdsArchiveTest {
+
+    private File dir;
+    private File libDir;
+    private String classpath;
+
+    @Before
+    public void before() {
+        dir = createTmpDirectory();
+        libDir = ensureExistingDirectory(dir, "lib");
+        writeText("foo", new File(libDir, "foo.jar"));
+        writeText("bar", new File(libDir, "bar.jar"));
+        ensureExistingFile(libDir, "readme.txt");
+        classpath = libDir.getAbsolutePath() + File.separator + "*"
+                + File.pathSeparator + new File(dir, "notfound.jar").getAbsolutePath();
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
+    @Test
+    public void testIsSupported() {
+        assertFalse(AppCdsArchive.isSupported(null));
+        assertFalse(AppCdsArchive.isSupported("1.8"));
+        assertFalse(AppCdsArchive.isSupported("11"));
+        assertTrue(AppCdsArchive.isSupported("13"));
+        assertTrue(AppCdsArchive.isSupported("17"));
+    }
+
+    @Test
+    public void testGetArchiveFile_whenNotSupported() {
+        assertNull(AppCdsArchive.getArchiveFile(dir, "hazelcast4-outofthebox", classpath, "1.8", "25.292-b10"));
+    }
+
+    @Test
+    public void testGetArchiveFile() {
+        File archive = AppCdsArchive.getArchiveFile(dir, "hazelcast4-maven=4.0", classpath, "17", "17.0.2+8");
+
+        assertNotNull(archive);
+        assertEquals(dir, archive.getParentFile());
+        assertTrue(archive.getName().startsWith("hazelcast4-maven_4.0-"));
+        assertTrue(archive.getName().endsWith(".jsa"));
+    }
+
+    @Test
+    public void testFingerprint_isStable() {
+        assertEquals(AppCdsArchive.fingerprint(classpath, "17"), AppCdsArchive.fingerprint(classpath, "17"));
+    }
+
+    @Test
+    public void testFingerprint_changesWithJvm() {
+        assertNotEquals(AppCdsArchive.fingerprint(classpath, "17"), AppCdsArchive.fingerprint(classpath, "21"));
+    }
+
+    @Test
+    public void testFingerprint_changesWithJar() {
+        String before = AppCdsArchive.fingerprint(classpath, "17");
+
+        writeText("foobar", new File(libDir, "foo.jar"));
+
+        assertNotEquals(before, AppCdsArchive.fingerprint(classpath, "17"));
+    }
+
+    @Test
+    public void testFingerprint_ignoresNonJarFiles() {
+        String before = AppCdsArchive.fingerprint(classpath, "17");
+
+        writeText("foobar", new File(libDir, "readme.txt"));
+
+        assertEquals(before, AppCdsArchive.fingerprint(classpath, "17"));
+    }
+
+    @Test
+    public void testFingerprint_whenNonEmptyDirectory() {
+        String classpathWithDirectory = classpath + File.pathSeparator + libDir.getAbsolutePath();
+
+        assertNull(AppCdsArchive.fingerprint(classpathWithDirectory, "17"));
+    }
+}
@@ -7,9 +7,12 @@ import com.hazelcast.simulator.utils.AssertTask;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.mockito.verification.VerificationMode;
 
 import java.io.File;
+import java.util.concurrent.CountDownLatch;
 
 import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeEnvironment;
 import static com.hazelcast.simulator.TestEnvironmentUtils.tearDownFakeEnvironment;
@@ -184,7 +187,7 @@ public class WorkerProcessFailureMonitorTest {
         assertFailureType(failureHandler, WORKER_OOME);
     }
 
-    //@Test
+    @Test
     public void testRun_shouldDetectInactivity() {
         WorkerProcess workerProcess = addRunningWorkerProcess();
 
@@ -196,6 +199,18 @@ public class WorkerProcessFailureMonitorTest {
         assertFailureTypeAtLeastOnce(failureHandler, WORKER_TIMEOUT);
     }
 
+    @Test
+    public void testRun_shouldDetectInactivity_onlyOncePerSilence() {
+        WorkerProcess workerProcess = addRunningWorkerProcess();
+
+        workerProcessFailureMonitor.startTimeoutDetection();
+        workerProcess.setLastSeen(currentTimeMillis() - HOURS.toMillis(1));
+
+        sleepMillis(5 * DEFAULT_SLEEP_TIME);
+
+        assertFailureType(failureHandler, WORKER_TIMEOUT);
+    }
+
     @Test
     public void testRun_shouldNotDetectInactivity_ifDetectionDisabled() {
         WorkerProcess workerProcess = addRunningWorkerProcess();
@@ -266,6 +281,45 @@ public class WorkerProcessFailureMonitorTest {
         assertFailureType(failureHandler, WORKER_ABNORMAL_EXIT);
     }
 
+    @Test(timeout = DEFAULT_TIMEOUT)
+    public void testRun_shouldDetectException_withoutWaitingForNextCheck() {
+        WorkerProcess workerProcess = addRunningWorkerProcess();
+        startMonitorWithLongCheckInterval();
+        sleepMillis(DEFAULT_SLEEP_TIME);
+
+        File exceptionFile = createExceptionFile(workerProcess.getWorkerHome(), "WorkerProcessFailureMonitorTest", "cause");
+
+        assertThatExceptionFileDoesNotExist(exceptionFile);
+        assertFailureType(failureHandler, WORKER_EXCEPTION);
+    }
+
+    @Test(timeout = DEFAULT_TIMEOUT)
+    public void testRun_shouldDetectExit_withoutWaitingForNextCheck() throws Exception {
+        WorkerProcess workerProcess = addRunningWorkerProcess();
+        final CountDownLatch exited = new CountDownLatch(1);
+        Process process = workerProcess.getProcess();
+        when(process.waitFor()).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                exited.await();
+                return 1;
+            }
+        });
+        startMonitorWithLongCheckInterval();
+        sleepMillis(DEFAULT_SLEEP_TIME);
+
+        reset(process);
+        when(process.exitValue()).thenReturn(1);
+        exited.countDown();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertFailureType(failureHandler, WORKER_ABNORMAL_EXIT);
+            }
+        });
+    }
+
     @Test
     public void testExceptionExtensionFilter_shouldReturnEmptyFileListIfDirectoryDoesNotExist() {
         File[] files = WorkerProcessFailureMonitor.ExceptionExtensionFilter.listFiles(new File("notFound"));
@@ -280,6 +334,13 @@ public class WorkerProcessFailureMonitorTest {
         assertEquals(0, files.length);
     }
 
+    private void startMonitorWithLongCheckInterval() {
+        workerProcessFailureMonitor.shutdown();
+        workerProcessFailureMonitor = new WorkerProcessFailureMonitor(failureHandler, workerProcessManager,
+                DEFAULT_LAST_SEEN_TIMEOUT_SECONDS, (int) HOURS.toMillis(1));
+        workerProcessFailureMonitor.start();
+    }
+
     private SimulatorAddress createWorkerAddress() {
         return workerAddress(1, ++addressIndex);
     }
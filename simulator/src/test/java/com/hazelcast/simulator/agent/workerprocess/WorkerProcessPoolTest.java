@@ -0,0 +1,137 @@
+package com.hazelcast.simulator.agent.workerprocess;
+
+import com.hazelcast.simulator.agent.operations.CreateWorkerOperation;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.protocol.StubPromise;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeEnvironment;
+import static com.hazelcast.simulator.TestEnvironmentUtils.tearDownFakeEnvironment;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class WorkerProcessPoolTest {
+
+    // a standby worker waits for the parameters file, just like the real worker does
+    private static final String WORKER_SCRIPT = "if [ \"$WORKER_STANDBY\" = \"true\" ]; then\n"
+            + "    while [ ! -f parameters ]; do\n"
+            + "        if [ -f retire ]; then exit 0; fi\n"
+            + "        sleep 0.01\n"
+            + "    done\n"
+            + "fi\n"
+            + "echo $$ > worker.pid\n"
+            + "exec sleep 1000\n";
+
+    private File simulatorHome;
+    private WorkerProcessManager workerProcessManager;
+
+    @Before
+    public void before() {
+        simulatorHome = setupFakeEnvironment();
+        workerProcessManager = new WorkerProcessManager(mock(Server.class), SimulatorAddress.fromString("A1"), "127.0.0.1");
+    }
+
+    @After
+    public void after() {
+        workerProcessManager.shutdown();
+        tearDownFakeEnvironment();
+    }
+
+    @Test
+    public void testSignature() {
+        WorkerParameters parameters = newParameters("session", 1);
+        String signature = WorkerProcessPool.signature(parameters);
+
+        assertEquals(signature, WorkerProcessPool.signature(newParameters("session", 2)));
+        assertNotEquals(signature, WorkerProcessPool.signature(newParameters("otherSession", 1)));
+        assertNotEquals(signature, WorkerProcessPool.signature(newParameters("session", 1).set("JVM_OPTIONS", "-Xmx1g")));
+        assertNotEquals(signature, WorkerProcessPool.signature(bindToNode(newParameters("session", 1), 0)));
+    }
+
+    @Test
+    public void testLaunch_doesNotShareStandbyWorkerBetweenNumaNodes() {
+        launch(bindToNode(newParameters("session", 1), 0));
+        final File standbyHome = new File(simulatorHome, "standby/standby-1");
+        assertTrueEventually(() -> assertTrue(new File(standbyHome, "worker.sh").exists()));
+
+        launch(bindToNode(newParameters("session", 2), 1));
+
+        // the standby worker of node 0 is still waiting, the worker of node 1 has been started in a new JVM
+        assertTrue(standbyHome.exists());
+        assertFalse(new File(standbyHome, "parameters").exists());
+        assertTrue(new File(simulatorHome, "workers/session/A1_W2-127.0.0.1-member/worker.pid").exists());
+    }
+
+    @Test
+    public void testLaunch_bindsStandbyWorker() {
+        launch(newParameters("session", 1));
+        final File standbyHome = new File(simulatorHome, "standby/standby-1");
+        assertTrueEventually(() -> assertTrue(standbyHome.exists()));
+
+        launch(newParameters("session", 2));
+
+        File workerHome = new File(simulatorHome, "workers/session/A1_W2-127.0.0.1-member");
+        assertFalse(standbyHome.exists());
+        assertTrue(new File(workerHome, "worker.pid").exists());
+        assertTrue(fileAsText(new File(workerHome, "parameters")).contains("WORKER_ADDRESS=A1_W2"));
+
+        // the pool is refilled
+        assertTrueEventually(() -> assertTrue(new File(simulatorHome, "standby/standby-2").exists()));
+    }
+
+    @Test
+    public void testLaunch_retiresStandbyWorkersOfOtherSession() {
+        launch(newParameters("session", 1));
+        File standbyHome = new File(simulatorHome, "standby/standby-1");
+        assertTrueEventually(() -> assertTrue(new File(standbyHome, "worker.sh").exists()));
+
+        launch(newParameters("otherSession", 2));
+
+        assertTrueEventually(() -> assertTrue(new File(standbyHome, "retire").exists()));
+        assertTrue(new File(simulatorHome, "workers/otherSession/A1_W2-127.0.0.1-member/worker.pid").exists());
+    }
+
+    @Test
+    public void testLaunch_whenPoolDisabled() {
+        launch(newParameters("session", 1).set("WORKER_POOL_SIZE", 0));
+        launch(newParameters("session", 2).set("WORKER_POOL_SIZE", 0));
+
+        assertFalse(new File(simulatorHome, "standby").exists());
+    }
+
+    private void launch(WorkerParameters parameters) {
+        StubPromise promise = new StubPromise();
+        workerProcessManager.launch(new CreateWorkerOperation(parameters, 0), promise);
+        promise.assertCompletesEventually();
+        assertEquals("SUCCESS", promise.getAnswer());
+    }
+
+    private static WorkerParameters bindToNode(WorkerParameters parameters, int node) {
+        return parameters.set("NUMA_CONTROL", "numactl --cpunodebind=" + node + " --membind=" + node);
+    }
+
+    private static WorkerParameters newParameters(String sessionId, int workerIndex) {
+        SimulatorAddress workerAddress = SimulatorAddress.workerAddress(1, workerIndex);
+        return new WorkerParameters()
+                .set("SESSION_ID", sessionId)
+                .set("VENDOR", "hazelcast4")
+                .set("VERSION_SPEC", "outofthebox")
+                .set("WORKER_TYPE", "member")
+                .set("WORKER_ADDRESS", workerAddress)
+                .set("WORKER_INDEX", workerIndex)
+                .set("WORKER_DIR_NAME", workerAddress + "-127.0.0.1-member")
+                .set("WORKER_STARTUP_TIMEOUT_SECONDS", 10)
+                .set("WORKER_POOL_SIZE", 1)
+                .set("file:worker.sh", WORKER_SCRIPT);
+    }
+}
@@ -0,0 +1,93 @@
+package com.hazelcast.simulator.common;
+
+import com.hazelcast.simulator.common.HardwareTopology.NumaNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HardwareTopologyTest {
+
+    private File dir;
+    private File nodesDir;
+    private File cpuInfoFile;
+
+    @Before
+    public void before() {
+        dir = createTmpDirectory();
+        nodesDir = ensureExistingDirectory(dir, "node");
+        cpuInfoFile = new File(dir, "cpuinfo");
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
+    @Test
+    public void testDetect() {
+        createNode(1, "4-7", "Node 1 MemTotal:       2048 kB\nNode 1 MemFree:        1024 kB\n");
+        createNode(0, "0-3", "Node 0 MemTotal:       1024 kB\n");
+        ensureExistingDirectory(nodesDir, "power");
+        writeText("processor\t: 0\nmodel name\t: foo\n\nprocessor\t: 1\nmodel name\t: foo\n", cpuInfoFile);
+
+        HardwareTopology topology = HardwareTopology.detect(nodesDir, cpuInfoFile);
+
+        assertEquals(2, topology.getCpuCount());
+        assertEquals(2, topology.getNodes().size());
+        NumaNode node0 = topology.getNodes().get(0);
+        assertEquals(0, node0.getIndex());
+        assertEquals("0-3", node0.getCpuList());
+        assertEquals(1024 * 1024, node0.getMemoryBytes());
+        NumaNode node1 = topology.getNodes().get(1);
+        assertEquals(1, node1.getIndex());
+        assertEquals(2048 * 1024, node1.getMemoryBytes());
+    }
+
+    @Test
+    public void testDetect_whenNoTopologyAvailable() {
+        HardwareTopology topology = HardwareTopology.detect(new File(dir, "notexist"), cpuInfoFile);
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), topology.getCpuCount());
+        assertTrue(topology.getNodes().isEmpty());
+    }
+
+    @Test
+    public void testToStringAndFromString() {
+        HardwareTopology topology = new HardwareTopology(32, singletonList(new NumaNode(0, "0-7,16-23", 1024)));
+
+        HardwareTopology result = HardwareTopology.fromString(topology.toString());
+
+        assertEquals(topology.toString(), result.toString());
+        assertEquals(32, result.getCpuCount());
+        assertEquals("0-7,16-23", result.getNodes().get(0).getCpuList());
+        assertEquals(1024, result.getNodes().get(0).getMemoryBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromString_whenInvalid() {
+        HardwareTopology.fromString("32;foo");
+    }
+
+    @Test
+    public void testNumaNodeCpuCount() {
+        assertEquals(16, new NumaNode(0, "0-7,16-23", 0).getCpuCount());
+        assertEquals(3, new NumaNode(0, "0,2,4", 0).getCpuCount());
+        assertEquals(0, new NumaNode(0, "", 0).getCpuCount());
+    }
+
+    private void createNode(int index, String cpuList, String memInfo) {
+        File nodeDir = ensureExistingDirectory(nodesDir, "node" + index);
+        writeText(cpuList + "\n", new File(nodeDir, "cpulist"));
+        writeText(memInfo, new File(nodeDir, "meminfo"));
+    }
+}
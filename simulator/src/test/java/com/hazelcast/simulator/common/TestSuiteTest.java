@@ -60,6 +60,24 @@ public class TestSuiteTest {
         assertEquals("10", testCase.getProperty("threadCount"));
     }
 
+    @Test
+    public void loadTestSuite_parameterSweep() throws Exception {
+        String txt = "mapTest@class=Map" + NEW_LINE
+                + "mapTest@threadCount=[1,2,4]" + NEW_LINE
+                + "atomicLongTest@class=AtomicLong";
+
+        TestSuite testSuite = new TestSuite(txt);
+        assertEquals(4, testSuite.size());
+        assertEquals(1, testSuite.getSweeps().size());
+        assertEquals("mapTest", testSuite.getSweeps().get(0).getTestId());
+
+        TestCase testCase = testSuite.getTestCase("mapTest-threadCount2");
+        assertEquals("Map", testCase.getClassname());
+        assertEquals("2", testCase.getProperty("threadCount"));
+        assertNull(testSuite.getTestCase("mapTest"));
+        assertNotNull(testSuite.getTestCase("atomicLongTest"));
+    }
+
     @Test
     public void loadTestSuite_multipleCases() throws Exception {
         String txt = "atomicLongTest@class=AtomicLong" + NEW_LINE
@@ -1,6 +1,7 @@
 package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.HardwareTopology;
 import com.hazelcast.simulator.coordinator.registry.AgentData;
 import com.hazelcast.simulator.coordinator.registry.Registry;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
@@ -19,6 +20,7 @@ import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class DeploymentPlanTest {
     private final Registry registry = new Registry();
@@ -174,6 +176,78 @@ public class DeploymentPlanTest {
         assertDeploymentPlanSizePerAgent(plan2, agent3, 2);
     }
 
+    @Test
+    public void whenNumaBinding_thenWorkersWeightedByCpuCount() {
+        setTopology(agent1, "32;0:0-31:0");
+        setTopology(agent2, "16;0:0-15:0");
+        setTopology(agent3, "16;0:0-15:0");
+        vendorDriver.set("WORKER_NUMA_BINDING", "true");
+
+        DeploymentPlan plan = new DeploymentPlan(vendorDriver, registry)
+                .addToPlan(8, "member");
+
+        assertDeploymentPlanWorkerCount(plan, agent1, 4, 0);
+        assertDeploymentPlanWorkerCount(plan, agent2, 2, 0);
+        assertDeploymentPlanWorkerCount(plan, agent3, 2, 0);
+    }
+
+    @Test
+    public void whenNumaBindingDisabled_thenWorkersNotWeightedByCpuCount() {
+        setTopology(agent1, "32;0:0-31:0");
+        setTopology(agent2, "16;0:0-15:0");
+        setTopology(agent3, "16;0:0-15:0");
+
+        DeploymentPlan plan = new DeploymentPlan(vendorDriver, registry)
+                .addToPlan(6, "member");
+
+        assertDeploymentPlanWorkerCount(plan, agent1, 2, 0);
+        assertDeploymentPlanWorkerCount(plan, agent2, 2, 0);
+        assertDeploymentPlanWorkerCount(plan, agent3, 2, 0);
+    }
+
+    @Test
+    public void whenNumaBinding_thenWorkersSpreadOverNodes() {
+        setTopology(agent1, "32;0:0-7,16-23:68719476736;1:8-15,24-31:68719476736");
+        vendorDriver.set("WORKER_NUMA_BINDING", "true");
+
+        DeploymentPlan plan = new DeploymentPlan(vendorDriver, singletonList(registry.getAgent(agent1)))
+                .addToPlan(2, "member");
+        plan.printLayout();
+
+        List<WorkerParameters> workers = plan.getWorkerDeployment().get(agent1);
+        assertEquals("0", workers.get(0).get("NUMA_NODE"));
+        assertEquals("numactl --cpunodebind=0 --membind=0", workers.get(0).get("NUMA_CONTROL"));
+        assertEquals("1", workers.get(1).get("NUMA_NODE"));
+        assertEquals("numactl --cpunodebind=1 --membind=1", workers.get(1).get("NUMA_CONTROL"));
+    }
+
+    @Test
+    public void whenNumaBinding_thenNodesWithoutCpusSkipped() {
+        setTopology(agent1, "16;0::68719476736;1:0-15:68719476736");
+        vendorDriver.set("WORKER_NUMA_BINDING", "true");
+
+        DeploymentPlan plan = new DeploymentPlan(vendorDriver, singletonList(registry.getAgent(agent1)))
+                .addToPlan(2, "member");
+
+        for (WorkerParameters worker : plan.getWorkerDeployment().get(agent1)) {
+            assertEquals("1", worker.get("NUMA_NODE"));
+        }
+    }
+
+    @Test
+    public void whenNumaBindingDisabled() {
+        setTopology(agent1, "32;0:0-15:0;1:16-31:0");
+
+        DeploymentPlan plan = new DeploymentPlan(vendorDriver, singletonList(registry.getAgent(agent1)))
+                .addToPlan(1, "member");
+
+        assertNull(plan.getWorkerDeployment().get(agent1).get(0).get("NUMA_CONTROL"));
+    }
+
+    private void setTopology(SimulatorAddress agentAddress, String topology) {
+        registry.getAgent(agentAddress).setHardwareTopology(HardwareTopology.fromString(topology));
+    }
+
     private void assertDeploymentPlanWorkerCount(DeploymentPlan plan, SimulatorAddress agentAddress,
                                                  int memberCount, int clientCount) {
         List<WorkerParameters> settingsList = plan.getWorkerDeployment().get(agentAddress);
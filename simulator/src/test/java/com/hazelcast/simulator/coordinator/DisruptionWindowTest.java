@@ -0,0 +1,144 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.PerformanceStatsCollector.RecentInterval;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.junit.Test;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DisruptionWindowTest {
+
+    private static final long START_MILLIS = 1000000;
+
+    @Test
+    public void testSample_recovered() {
+        DisruptionWindow window = newWindow("kill", 1000);
+
+        window.sample(interval(START_MILLIS - 500, 100, 50000000));
+        window.onFailure();
+        window.sample(interval(START_MILLIS + 500, 500, 20000000));
+        assertFalse(window.isClosed());
+
+        window.sample(interval(START_MILLIS + 1500, 950, 1000000));
+
+        assertTrue(window.isClosed());
+        assertTrue(window.isRecovered());
+        assertEquals(1500, window.getRecoveryMillis());
+        assertEquals(100, window.getMinThroughput(), 0.001);
+        assertEquals(50000000, window.getPeakLatencyMaxNanos());
+        assertEquals(1, window.getFailures());
+        assertTrue(window.toCsv().startsWith("fault,kill,C_A1_W1," + START_MILLIS + "," + START_MILLIS + ",1000.00,100.00,1500,"));
+    }
+
+    @Test
+    public void testSample_ignoresIntervalsReceivedBeforeFault() {
+        DisruptionWindow window = newWindow("kill", 1000);
+
+        window.sample(new RecentInterval(newStats(100, 50000000), START_MILLIS - 2000, START_MILLIS - 1000, START_MILLIS));
+
+        assertFalse(window.isClosed());
+        assertEquals(0, window.getMinThroughput(), 0.001);
+        assertEquals(0, window.getPeakLatencyMaxNanos());
+    }
+
+    @Test
+    public void testSample_notRecoveredByIntervalStartedBeforeFault() {
+        DisruptionWindow window = newWindow("kill", 1000);
+
+        window.sample(interval(START_MILLIS - 500, 1000, 1000000));
+
+        assertFalse(window.isClosed());
+        assertEquals(1000, window.getMinThroughput(), 0.001);
+    }
+
+    @Test
+    public void testSample_notRecoveredBeforeEndOfFault() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("fault.fault.type", "suspend")
+                .setProperty("fault.fault.atSeconds", "10")
+                .setProperty("fault.fault.durationSeconds", "5");
+        DisruptionWindow window = new DisruptionWindow(Fault.fromTestCase(testCase).get(0), singletonList("C_A1_W1"),
+                START_MILLIS, 1000);
+
+        window.sample(interval(START_MILLIS + 1000, 1000, 1000000));
+        // this interval was received after the end of the fault, but started during the fault
+        window.sample(interval(START_MILLIS + 4500, 1000, 1000000));
+        assertFalse(window.isClosed());
+
+        window.sample(interval(START_MILLIS + 5500, 1000, 1000000));
+        assertTrue(window.isRecovered());
+        assertEquals(5500, window.getRecoveryMillis());
+    }
+
+    @Test
+    public void testTick_recoveryTimeout() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("fault.fault.type", "kill")
+                .setProperty("fault.fault.atSeconds", "10")
+                .setProperty("fault.fault.recoverySeconds", "2");
+        DisruptionWindow window = new DisruptionWindow(Fault.fromTestCase(testCase).get(0), singletonList("C_A1_W1"),
+                START_MILLIS, 1000);
+
+        window.sample(interval(START_MILLIS + 500, 100, 1000000));
+        window.tick(START_MILLIS + 1000);
+        assertFalse(window.isClosed());
+
+        window.sample(new RecentInterval(new PerformanceStats(), Long.MAX_VALUE, Long.MAX_VALUE, 0));
+        window.tick(START_MILLIS + 2000);
+
+        assertTrue(window.isClosed());
+        assertFalse(window.isRecovered());
+        assertEquals(0, window.getMinThroughput(), 0.001);
+        assertTrue(window.toString().contains("didn't recover"));
+    }
+
+    @Test
+    public void testSample_noBaseline() {
+        DisruptionWindow window = newWindow("kill", 0);
+
+        window.sample(interval(START_MILLIS + 1000, 1000, 1000000));
+
+        assertFalse(window.isClosed());
+        assertFalse(window.hasBaseline());
+        window.close();
+        assertFalse(window.isRecovered());
+        assertTrue(window.toString().contains("no baseline"));
+    }
+
+    @Test
+    public void testClose() {
+        DisruptionWindow window = newWindow("kill", 1000);
+
+        window.close();
+        window.onFailure();
+        window.sample(interval(START_MILLIS + 1000, 1000, 1000000));
+
+        assertTrue(window.isClosed());
+        assertFalse(window.isRecovered());
+        assertEquals(0, window.getFailures());
+    }
+
+    private static DisruptionWindow newWindow(String type, double baselineThroughput) {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("fault.fault.type", type)
+                .setProperty("fault.fault.atSeconds", "10");
+        return new DisruptionWindow(Fault.fromTestCase(testCase).get(0), singletonList("C_A1_W1"), START_MILLIS,
+                baselineThroughput);
+    }
+
+    /**
+     * Creates an interval of one second which started at the given time.
+     */
+    private static RecentInterval interval(long startMillis, double throughput, long latencyMaxNanos) {
+        long updateMillis = startMillis + 1000;
+        return new RecentInterval(newStats(throughput, latencyMaxNanos), startMillis, updateMillis, updateMillis);
+    }
+
+    private static PerformanceStats newStats(double throughput, long latencyMaxNanos) {
+        return new PerformanceStats((long) throughput, throughput, throughput, 0, latencyMaxNanos / 2, latencyMaxNanos);
+    }
+}
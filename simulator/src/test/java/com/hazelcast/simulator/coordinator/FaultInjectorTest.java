@@ -0,0 +1,209 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.operations.FailureOperation;
+import com.hazelcast.simulator.coordinator.registry.AgentData;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.simulator.common.FailureType.WORKER_EXCEPTION;
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FaultInjectorTest {
+
+    private static final long MAX_INTERVAL_AGE_MILLIS = 60000;
+
+    private final Registry registry = new Registry();
+    private final PerformanceStatsCollector performanceStatsCollector = new PerformanceStatsCollector();
+    private CoordinatorClient client;
+    private WorkerData member;
+    private WorkerData client1;
+    private File outputDirectory;
+
+    @Before
+    public void before() {
+        outputDirectory = createTmpDirectory();
+        client = mock(CoordinatorClient.class);
+        when(client.submit(any(SimulatorAddress.class), any(SimulatorOperation.class)))
+                .thenReturn(CompletableFuture.completedFuture("ok"));
+
+        AgentData agent = registry.addAgent("192.168.0.1", "192.168.0.1");
+        member = addWorker(agent, 1, "member");
+        client1 = addWorker(agent, 2, "javaclient");
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(outputDirectory);
+    }
+
+    @Test
+    public void testKill() {
+        FaultInjector injector = newFaultInjector(new TestCase("foo")
+                .setProperty("fault.crash.type", "kill")
+                .setProperty("fault.crash.atSeconds", "5"));
+        injector.start(0);
+
+        updatePerformance(1000, 1000);
+        injector.tick(1000);
+        verify(client, never()).submit(any(SimulatorAddress.class), any(SimulatorOperation.class));
+
+        injector.tick(5000);
+        ArgumentCaptor<ExecuteScriptOperation> captor = ArgumentCaptor.forClass(ExecuteScriptOperation.class);
+        verify(client).submit(any(SimulatorAddress.class), captor.capture());
+        assertEquals("js:java.lang.System.exit(0);", captor.getValue().getCommand());
+        assertTrue(captor.getValue().isFireAndForget());
+        assertTrue(member.isIgnoreFailures());
+
+        injector.onFailure(newFailure("foo"), false, true);
+        injector.onFailure(newFailure("bar"), false, true);
+        // this interval started before the fault, so it doesn't decide the recovery
+        updatePerformance(6000, 950);
+        injector.tick(6000);
+        updatePerformance(7000, 950);
+        injector.tick(7000);
+        injector.close();
+
+        String disruptions = fileAsText(new File(outputDirectory, "foo" + FaultInjector.DISRUPTIONS_FILE_SUFFIX));
+        assertTrue(disruptions.startsWith(DisruptionWindow.CSV_HEADER + "\n"));
+        assertTrue(disruptions.contains("crash,kill," + member.getAddress() + ",5000,5000,1000.00,950.00,1000,"));
+        assertTrue(disruptions.trim().endsWith(",1"));
+    }
+
+    @Test
+    public void testKill_eachIntervalSampledOnce() {
+        FaultInjector injector = newFaultInjector(new TestCase("foo")
+                .setProperty("fault.crash.type", "kill")
+                .setProperty("fault.crash.atSeconds", "5"));
+        injector.start(0);
+
+        updatePerformance(1000, 100);
+        injector.tick(1000);
+        updatePerformance(2000, 1000);
+        injector.tick(2000);
+        // the workers haven't sent a new interval, so these ticks don't add baseline samples
+        injector.tick(3000);
+        injector.tick(4000);
+        injector.tick(5000);
+        injector.close();
+
+        String disruptions = fileAsText(new File(outputDirectory, "foo" + FaultInjector.DISRUPTIONS_FILE_SUFFIX));
+        // the last interval of the workers before the fault doesn't count as a disrupted interval either
+        assertTrue(disruptions.contains("crash,kill," + member.getAddress() + ",5000,5000,550.00,0.00,-1,"));
+    }
+
+    @Test
+    public void testKill_doesNotSelectTargets() {
+        FaultInjector injector = newFaultInjector(new TestCase("foo")
+                .setProperty("fault.crash.type", "kill")
+                .setProperty("fault.crash.atSeconds", "1")
+                .setProperty("fault.crash.workerType", "javaclient"));
+        injector.start(0);
+
+        injector.tick(1000);
+        injector.close();
+
+        verify(client, never()).submit(any(SimulatorAddress.class), any(SimulatorOperation.class));
+        assertFalse(new File(outputDirectory, "foo" + FaultInjector.DISRUPTIONS_FILE_SUFFIX).exists());
+    }
+
+    @Test
+    public void testSuspend_closedBeforeRecovery() {
+        FaultInjector injector = newFaultInjector(new TestCase("foo")
+                .setProperty("fault.pause.type", "suspend")
+                .setProperty("fault.pause.atSeconds", "1")
+                .setProperty("fault.pause.workerType", "javaclient")
+                .setProperty("fault.pause.durationSeconds", "10"));
+        injector.start(0);
+
+        injector.tick(1000);
+        assertTrue(client1.isIgnoreFailures());
+        injector.close();
+
+        assertFalse(client1.isIgnoreFailures());
+        String disruptions = fileAsText(new File(outputDirectory, "foo" + FaultInjector.DISRUPTIONS_FILE_SUFFIX));
+        assertTrue(disruptions.contains("pause,suspend," + client1.getAddress() + ",1000,11000,0.00,0.00,-1,"));
+    }
+
+    @Test
+    public void testDelay_waitsForCommand() {
+        FaultInjector injector = newFaultInjector(new TestCase("foo")
+                .setProperty("fault.slow.type", "delay")
+                .setProperty("fault.slow.atSeconds", "1"));
+        injector.start(0);
+
+        injector.tick(1000);
+
+        ArgumentCaptor<ExecuteScriptOperation> captor = ArgumentCaptor.forClass(ExecuteScriptOperation.class);
+        verify(client).submit(any(SimulatorAddress.class), captor.capture());
+        assertFalse(captor.getValue().isFireAndForget());
+        assertFalse(member.isIgnoreFailures());
+    }
+
+    @Test
+    public void testDelay_oncePerAgent() {
+        WorkerData member2 = addWorker(registry.getAgents().get(0), 3, "member");
+        FaultInjector injector = newFaultInjector(new TestCase("foo")
+                .setProperty("fault.slow.type", "delay")
+                .setProperty("fault.slow.atSeconds", "1")
+                .setProperty("fault.slow.count", "2"));
+        injector.start(0);
+
+        injector.tick(1000);
+        injector.close();
+
+        verify(client).submit(any(SimulatorAddress.class), any(SimulatorOperation.class));
+        String disruptions = fileAsText(new File(outputDirectory, "foo" + FaultInjector.DISRUPTIONS_FILE_SUFFIX));
+        assertTrue(disruptions.contains("slow,delay," + member.getAddress() + " " + member2.getAddress() + ","));
+    }
+
+    private FaultInjector newFaultInjector(TestCase testCase) {
+        return new FaultInjector(testCase.getId(), "", Fault.fromTestCase(testCase), singletonList(client1), registry, client,
+                performanceStatsCollector, MAX_INTERVAL_AGE_MILLIS, outputDirectory);
+    }
+
+    private WorkerData addWorker(AgentData agent, int workerIndex, String workerType) {
+        WorkerParameters parameters = new WorkerParameters()
+                .set("WORKER_TYPE", workerType)
+                .set("WORKER_INDEX", workerIndex)
+                .set("WORKER_ADDRESS", workerAddress(agent.getAddress().getAgentIndex(), workerIndex));
+        List<WorkerData> workers = registry.addWorkers(singletonList(parameters));
+        return workers.get(0);
+    }
+
+    private void updatePerformance(long nowMillis, double throughput) {
+        performanceStatsCollector.update(client1.getAddress(),
+                singletonMap("foo", new PerformanceStats((long) throughput, throughput, throughput, 0, 1000, 2000)), nowMillis);
+    }
+
+    private FailureOperation newFailure(String testId) {
+        return new FailureOperation("expected", WORKER_EXCEPTION, client1.getAddress(), null, null, testId, null);
+    }
+}
@@ -0,0 +1,123 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.TestCase;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FaultTest {
+
+    @Test
+    public void testFromTestCase_noFaults() {
+        TestCase testCase = new TestCase("foo").setProperty("threadCount", "10");
+
+        assertTrue(Fault.fromTestCase(testCase).isEmpty());
+    }
+
+    @Test
+    public void testFromTestCase() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("fault.pause.type", "suspend")
+                .setProperty("fault.pause.atSeconds", "120")
+                .setProperty("fault.pause.durationSeconds", "5")
+                .setProperty("fault.crash.type", "kill")
+                .setProperty("fault.crash.atSeconds", "60")
+                .setProperty("fault.crash.workerType", "javaclient")
+                .setProperty("fault.crash.count", "2");
+
+        List<Fault> faults = Fault.fromTestCase(testCase);
+
+        assertEquals(2, faults.size());
+        Fault crash = faults.get(0);
+        assertEquals("crash", crash.getName());
+        assertEquals(Fault.Type.KILL, crash.getType());
+        assertEquals(60000, crash.getAtMillis());
+        assertEquals(0, crash.getDurationMillis());
+        assertEquals("javaclient", crash.getWorkerType());
+        assertEquals(2, crash.getCount());
+        assertEquals("js:java.lang.System.exit(0);", crash.getCommand());
+
+        Fault pause = faults.get(1);
+        assertEquals(Fault.Type.SUSPEND, pause.getType());
+        assertEquals(5000, pause.getDurationMillis());
+        assertEquals(60000, pause.getRecoveryMillis());
+        assertEquals("member", pause.getWorkerType());
+        assertEquals("bash:(sleep 5; kill -CONT $PID) > /dev/null 2>&1 & kill -STOP $PID", pause.getCommand());
+    }
+
+    @Test
+    public void testGetCommand_delay() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("fault.slow.type", "delay")
+                .setProperty("fault.slow.atSeconds", "10")
+                .setProperty("fault.slow.durationSeconds", "30")
+                .setProperty("fault.slow.delayMillis", "50")
+                .setProperty("fault.slow.device", "lo");
+
+        Fault fault = Fault.fromTestCase(testCase).get(0);
+
+        assertEquals("bash:sudo -n tc qdisc add dev lo root netem delay 50ms"
+                + " && ((sleep 30; sudo -n tc qdisc del dev lo root netem) > /dev/null 2>&1 &)", fault.getCommand());
+    }
+
+    @Test
+    public void testGetCommand_customKill() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("fault.crash.type", "kill")
+                .setProperty("fault.crash.atSeconds", "10")
+                .setProperty("fault.crash.command", "bash:kill -9 $PID");
+
+        assertEquals("bash:kill -9 $PID", Fault.fromTestCase(testCase).get(0).getCommand());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_noAtSeconds() {
+        Fault.fromTestCase(new TestCase("foo").setProperty("fault.crash.type", "kill"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_atSecondsZero() {
+        Fault.fromTestCase(new TestCase("foo")
+                .setProperty("fault.crash.type", "kill")
+                .setProperty("fault.crash.atSeconds", "0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_noType() {
+        Fault.fromTestCase(new TestCase("foo").setProperty("fault.crash.atSeconds", "10"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_unknownType() {
+        Fault.fromTestCase(new TestCase("foo").setProperty("fault.crash.type", "reboot"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_unknownProperty() {
+        Fault.fromTestCase(new TestCase("foo")
+                .setProperty("fault.crash.type", "kill")
+                .setProperty("fault.crash.when", "10"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_noName() {
+        Fault.fromTestCase(new TestCase("foo").setProperty("fault.type", "kill"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_notANumber() {
+        Fault.fromTestCase(new TestCase("foo")
+                .setProperty("fault.crash.type", "kill")
+                .setProperty("fault.crash.atSeconds", "soon"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_negative() {
+        Fault.fromTestCase(new TestCase("foo")
+                .setProperty("fault.crash.type", "kill")
+                .setProperty("fault.crash.atSeconds", "-1"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.SUCCESS;
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParameterSweepTest {
+
+    private PerformanceStatsCollector performanceStatsCollector;
+    private Registry registry;
+
+    @Before
+    public void before() {
+        performanceStatsCollector = new PerformanceStatsCollector();
+        registry = new Registry();
+    }
+
+    @Test
+    public void testExpand_whenNoSweep() {
+        TestCase testCase = new TestCase("map")
+                .setProperty("class", "MapTest")
+                .setProperty("threadCount", "10");
+
+        assertNull(ParameterSweep.expand(testCase));
+    }
+
+    @Test
+    public void testExpand() {
+        TestCase testCase = new TestCase("map")
+                .setProperty("class", "MapTest")
+                .setProperty("threadCount", "[1, 2,4]")
+                .setProperty("keyCount", "1000");
+
+        ParameterSweep sweep = ParameterSweep.expand(testCase);
+
+        assertEquals("map", sweep.getTestId());
+        assertEquals(asList("threadCount"), sweep.getParameters());
+        List<TestCase> testCases = sweep.getTestCases();
+        assertEquals(3, testCases.size());
+        assertEquals("map-threadCount1", testCases.get(0).getId());
+        assertEquals("map-threadCount2", testCases.get(1).getId());
+        assertEquals("map-threadCount4", testCases.get(2).getId());
+        assertEquals("4", testCases.get(2).getProperty("threadCount"));
+        assertEquals("1000", testCases.get(2).getProperty("keyCount"));
+        assertEquals("MapTest", testCases.get(2).getClassname());
+    }
+
+    @Test
+    public void testExpand_cartesianProduct() {
+        TestCase testCase = new TestCase("map")
+                .setProperty("class", "MapTest")
+                .setProperty("valueSize", "[100,1000]")
+                .setProperty("threadCount", "[1,2,4]");
+
+        ParameterSweep sweep = ParameterSweep.expand(testCase);
+
+        assertEquals(asList("threadCount", "valueSize"), sweep.getParameters());
+        List<TestCase> testCases = sweep.getTestCases();
+        assertEquals(6, testCases.size());
+        assertEquals("map-threadCount1-valueSize100", testCases.get(0).getId());
+        assertEquals("map-threadCount1-valueSize1000", testCases.get(1).getId());
+        assertEquals("map-threadCount4-valueSize1000", testCases.get(5).getId());
+    }
+
+    @Test
+    public void testExpand_sanitizesIds() {
+        TestCase testCase = new TestCase("")
+                .setProperty("class", "MapTest")
+                .setProperty("getProb", "[0.5,0-5]");
+
+        List<TestCase> testCases = ParameterSweep.expand(testCase).getTestCases();
+
+        assertEquals("getProb0-5", testCases.get(0).getId());
+        assertEquals("getProb0-5-2", testCases.get(1).getId());
+        assertEquals("0.5", testCases.get(0).getProperty("getProb"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExpand_whenNoValues() {
+        TestCase testCase = new TestCase("map")
+                .setProperty("class", "MapTest")
+                .setProperty("threadCount", "[ ]");
+
+        ParameterSweep.expand(testCase);
+    }
+
+    @Test
+    public void testFormatTable() {
+        ParameterSweep sweep = newSweep();
+        registry.getTest("map-threadCount1").setCompletedStatus(SUCCESS);
+        update("map-threadCount1", new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500)
+                .setLatencyPercentiles(1200, MICROSECONDS.toNanos(1500), MICROSECONDS.toNanos(2200)));
+
+        String table = sweep.formatTable(performanceStatsCollector, registry);
+
+        String[] lines = table.split("\\r?\\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("threadCount"));
+        assertTrue(lines[1].matches("1\\s+500.00\\s+1500\\s+2200\\s+success"));
+        assertTrue(lines[2].matches("2\\s+-\\s+-\\s+-\\s+skipped"));
+    }
+
+    @Test
+    public void testToCsv() {
+        ParameterSweep sweep = newSweep();
+        registry.getTest("map-threadCount1").setCompletedStatus(SUCCESS);
+        update("map-threadCount1", new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500)
+                .setLatencyPercentiles(1200, MICROSECONDS.toNanos(1500), MICROSECONDS.toNanos(2200)));
+
+        String csv = sweep.toCsv(performanceStatsCollector, registry);
+
+        assertEquals("testId,threadCount,throughput,latency99Micros,latency999Micros,status\n"
+                + "map-threadCount1,1,500.00,1500,2200,success\n"
+                + "map-threadCount2,2,-,-,-,skipped\n", csv);
+    }
+
+    private ParameterSweep newSweep() {
+        TestSuite testSuite = new TestSuite("map@class=MapTest\nmap@threadCount=[1,2]");
+        registry.addTests(testSuite);
+        return testSuite.getSweeps().get(0);
+    }
+
+    private void update(String testId, PerformanceStats performanceStats) {
+        Map<String, PerformanceStats> performanceStatsMap = new HashMap<String, PerformanceStats>();
+        performanceStatsMap.put(testId, performanceStats);
+        performanceStatsCollector.update(workerAddress(1, 1), performanceStatsMap);
+    }
+}
@@ -0,0 +1,143 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PerformanceSlaTest {
+
+    private static final Map<String, Histogram> NO_HISTOGRAMS = Collections.emptyMap();
+
+    @Test
+    public void testFromTestCase_noSla() {
+        TestCase testCase = new TestCase("foo").setProperty("threadCount", "10");
+
+        assertNull(PerformanceSla.fromTestCase(testCase));
+    }
+
+    @Test
+    public void testFromTestCase() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("sla.minThroughput", "1000")
+                .setProperty("sla.p99Micros", "500")
+                .setProperty("sla.continuous", "true");
+
+        PerformanceSla sla = PerformanceSla.fromTestCase(testCase);
+
+        assertTrue(sla.isContinuous());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_unknownProperty() {
+        PerformanceSla.fromTestCase(new TestCase("foo").setProperty("sla.p50Micros", "10"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_notANumber() {
+        PerformanceSla.fromTestCase(new TestCase("foo").setProperty("sla.minThroughput", "fast"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromTestCase_notPositive() {
+        PerformanceSla.fromTestCase(new TestCase("foo").setProperty("sla.p99Micros", "0"));
+    }
+
+    @Test
+    public void testCheckTotal_met() {
+        PerformanceSla sla = new PerformanceSla(1000, 500, 2000, false);
+        PerformanceStats total = new PerformanceStats(20000, 0, 0, 0, 0, 0)
+                .setLatencyPercentiles(0, 400000, 1500000);
+
+        assertTrue(sla.checkTotal(total, NO_HISTOGRAMS, 10).isEmpty());
+    }
+
+    @Test
+    public void testCheckTotal_violated() {
+        PerformanceSla sla = new PerformanceSla(1000, 500, 2000, false);
+        PerformanceStats total = new PerformanceStats(5000, 0, 0, 0, 0, 0)
+                .setLatencyPercentiles(0, 600000, 1500000);
+
+        List<String> violations = sla.checkTotal(total, NO_HISTOGRAMS, 10);
+
+        assertEquals(2, violations.size());
+        assertTrue(violations.get(0).contains("throughput"));
+        assertTrue(violations.get(1).contains("99%"));
+    }
+
+    @Test
+    public void testCheckTotal_noPerformanceInfo() {
+        PerformanceSla sla = new PerformanceSla(1000, -1, -1, false);
+
+        assertEquals(1, sla.checkTotal(new PerformanceStats(), NO_HISTOGRAMS, 10).size());
+    }
+
+    @Test
+    public void testCheckTotal_unknownPercentilesAreIgnored() {
+        PerformanceSla sla = new PerformanceSla(-1, 500, 2000, false);
+        PerformanceStats total = new PerformanceStats(5000, 0, 0, 0, 0, 0);
+
+        assertTrue(sla.checkTotal(total, NO_HISTOGRAMS, 10).isEmpty());
+    }
+
+    @Test
+    public void testCheckTotal_usesMergedHistograms() {
+        PerformanceSla sla = new PerformanceSla(-1, 500, -1, false);
+        // a worker with a few slow operations reports a high 99th percentile, but it is within the SLA over all operations
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(100000, 1000);
+        histogram.recordValue(10000000);
+        PerformanceStats total = new PerformanceStats(1001, 0, 0, 0, 0, 0)
+                .setLatencyPercentiles(0, 10000000, 10000000);
+
+        assertTrue(sla.checkTotal(total, Collections.singletonMap("probe", histogram), 10).isEmpty());
+        assertEquals(1, sla.checkTotal(total, NO_HISTOGRAMS, 10).size());
+    }
+
+    @Test
+    public void testCheckTotal_highestProbe() {
+        PerformanceSla sla = new PerformanceSla(-1, 500, -1, false);
+        Histogram fast = new Histogram(3);
+        fast.recordValueWithCount(100000, 100);
+        Histogram slow = new Histogram(3);
+        slow.recordValueWithCount(1000000, 100);
+        Map<String, Histogram> histograms = new HashMap<>();
+        histograms.put("get", fast);
+        histograms.put("put", slow);
+
+        List<String> violations = sla.checkTotal(new PerformanceStats(200, 0, 0, 0, 0, 0), histograms, 10);
+
+        assertEquals(1, violations.size());
+        assertTrue(violations.get(0).contains("99%"));
+    }
+
+    @Test
+    public void testCheckInterval() {
+        PerformanceSla sla = new PerformanceSla(1000, 500, 2000, true);
+        PerformanceStats interval = new PerformanceStats(5000, 2000, 0, 0, 3000000, 0)
+                .setLatencyPercentiles(100000, 0, 0);
+
+        List<String> violations = sla.checkInterval(interval);
+
+        assertEquals(1, violations.size());
+        assertTrue(violations.get(0).contains("99.9%"));
+        assertFalse(violations.get(0).contains("throughput"));
+    }
+
+    @Test
+    public void testCheckInterval_empty() {
+        PerformanceSla sla = new PerformanceSla(1000, 500, 2000, true);
+
+        assertTrue(sla.checkInterval(new PerformanceStats()).isEmpty());
+    }
+}
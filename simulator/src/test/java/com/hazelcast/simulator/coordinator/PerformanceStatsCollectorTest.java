@@ -1,7 +1,11 @@
 package com.hazelcast.simulator.coordinator;
 
+import com.hazelcast.simulator.coordinator.PerformanceStatsCollector.RecentInterval;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.protocol.operation.BinaryOperationCodec;
+import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -10,6 +14,7 @@ import java.util.Map;
 
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.aggregateAll;
+import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
@@ -89,6 +94,32 @@ public class PerformanceStatsCollectorTest {
         performanceStatsCollector.update(address, performanceStatsMap);
     }
 
+    @Test
+    public void testGetRecent() {
+        update(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500), 1000);
+        update(a2w1, TEST_CASE_ID_1, new PerformanceStats(800, 100, 300, 2200.0d, 2400, 2800), 1500);
+        update(a1w1, TEST_CASE_ID_1, new PerformanceStats(1500, 150, 550, 1600.0d, 1700, 2400), 2000);
+
+        RecentInterval recent = performanceStatsCollector.getRecent(TEST_CASE_ID_1, 2000, 1000);
+        assertEquals(250.0, recent.getStats().getIntervalThroughput(), ASSERT_EQUALS_DELTA);
+        // the first update of a worker has no known start
+        assertEquals(0, recent.getStartMillis());
+        assertEquals(1500, recent.getFirstUpdateMillis());
+        assertEquals(2000, recent.getLastUpdateMillis());
+
+        // the update of a2w1 is too old
+        recent = performanceStatsCollector.getRecent(TEST_CASE_ID_1, 2000, 100);
+        assertEquals(150.0, recent.getStats().getIntervalThroughput(), ASSERT_EQUALS_DELTA);
+        assertEquals(1000, recent.getStartMillis());
+        assertEquals(2000, recent.getFirstUpdateMillis());
+
+        assertTrue(performanceStatsCollector.getRecent(TEST_CASE_ID_1, 5000, 1000).isEmpty());
+    }
+
+    private void update(SimulatorAddress address, String testId, PerformanceStats performanceStats, long nowMillis) {
+        performanceStatsCollector.update(address, singletonMap(testId, performanceStats), nowMillis);
+    }
+
     @Test
     public void testGet() {
         update(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500));
@@ -182,6 +213,52 @@ public class PerformanceStatsCollectorTest {
         assertEquals(actual.getIntervalLatencyMaxNanos(), actual.getIntervalLatencyMaxNanos());
     }
 
+    @Test
+    public void testGetLatencyHistograms() {
+        Histogram histogram1 = new Histogram(3);
+        histogram1.recordValueWithCount(1000, 10);
+        Histogram histogram2 = new Histogram(3);
+        histogram2.recordValueWithCount(2000, 5);
+
+        update(a1w1, TEST_CASE_ID_1, new PerformanceStats(10, 10, 10, 1000, 1000, 1000)
+                .setLatencyHistograms(singletonMap("probe", histogram1)));
+        update(a2w1, TEST_CASE_ID_1, new PerformanceStats(5, 5, 5, 2000, 2000, 2000)
+                .setLatencyHistograms(singletonMap("probe", histogram2)));
+        update(a1w1, TEST_CASE_ID_1, new PerformanceStats(20, 10, 10, 1000, 1000, 1000)
+                .setLatencyHistograms(singletonMap("probe", histogram1)));
+
+        Histogram merged = performanceStatsCollector.getLatencyHistograms(TEST_CASE_ID_1).get("probe");
+        assertEquals(25, merged.getTotalCount());
+        assertEquals(2000, merged.getMaxValue(), 1);
+        assertTrue(performanceStatsCollector.getLatencyHistograms(TEST_CASE_ID_2).isEmpty());
+    }
+
+    @Test
+    public void testGetLatencyHistograms_sentWithBinaryCodec() {
+        Histogram histogram1 = new Histogram(3);
+        histogram1.recordValueWithCount(1000, 10);
+        Histogram histogram2 = new Histogram(3);
+        histogram2.recordValueWithCount(2000, 5);
+
+        send(a1w1, TEST_CASE_ID_1, new PerformanceStats(10, 10, 10, 1000, 1000, 1000)
+                .setLatencyHistograms(singletonMap("probe", histogram1)));
+        send(a2w1, TEST_CASE_ID_1, new PerformanceStats(5, 5, 5, 2000, 2000, 2000)
+                .setLatencyHistograms(singletonMap("probe", histogram2)));
+
+        Histogram merged = performanceStatsCollector.getLatencyHistograms(TEST_CASE_ID_1).get("probe");
+        assertEquals(15, merged.getTotalCount());
+        assertEquals(2000, merged.getMaxValue(), 1);
+    }
+
+    // sends the PerformanceStats like a worker does, encoded with the default codec
+    private void send(SimulatorAddress address, String testId, PerformanceStats performanceStats) {
+        PerformanceStatsOperation op = new PerformanceStatsOperation();
+        op.addPerformanceStats(testId, performanceStats);
+        PerformanceStatsOperation received = (PerformanceStatsOperation) BinaryOperationCodec.fromBytes(
+                BinaryOperationCodec.toBytes(op));
+        performanceStatsCollector.update(address, received.getPerformanceStats());
+    }
+
     @Test
     public void testCalculatePerformanceStats_onEmptyContainer() {
         PerformanceStats totalPerformanceStats = new PerformanceStats();
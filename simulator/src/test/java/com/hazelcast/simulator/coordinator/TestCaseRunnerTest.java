@@ -0,0 +1,30 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.TestCase;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.coordinator.TestCaseRunner.parseWarmupMillis;
+import static org.junit.Assert.assertEquals;
+
+public class TestCaseRunnerTest {
+
+    @Test
+    public void testParseWarmupMillis() {
+        assertEquals(60000, parseWarmupMillis(new TestCase("test").setProperty("warmupMillis", "60000")));
+    }
+
+    @Test
+    public void testParseWarmupMillis_whenNotSet() {
+        assertEquals(0, parseWarmupMillis(new TestCase("test")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseWarmupMillis_whenNotANumber() {
+        parseWarmupMillis(new TestCase("test").setProperty("warmupMillis", "1m"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseWarmupMillis_whenNegative() {
+        parseWarmupMillis(new TestCase("test").setProperty("warmupMillis", "-1"));
+    }
+}
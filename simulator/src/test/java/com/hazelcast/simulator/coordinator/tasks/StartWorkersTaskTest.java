@@ -13,15 +13,23 @@ import com.hazelcast.simulator.fake.FakeDriver;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -29,6 +37,8 @@ import static org.mockito.Mockito.when;
 
 public class StartWorkersTaskTest {
 
+    private static final int STARTUP_MILLIS = 20;
+
     private final Registry registry = new Registry();
     private CoordinatorClient client;
     private AgentData agent1;
@@ -59,7 +69,7 @@ public class StartWorkersTaskTest {
         when(client.submit(eq(agent2.getAddress()), any(CreateWorkerOperation.class))).thenReturn(f);
         when(client.submit(eq(agent3.getAddress()), any(CreateWorkerOperation.class))).thenReturn(f);
 
-        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0).run();
+        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0, 32, 4).run();
 
         assertComponentRegistry(registry, 6, 3);
     }
@@ -74,7 +84,7 @@ public class StartWorkersTaskTest {
         when(client.submit(eq(agent2.getAddress()), any(CreateWorkerOperation.class))).thenReturn(f);
         when(client.submit(eq(agent3.getAddress()), any(CreateWorkerOperation.class))).thenReturn(f);
 
-        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0).run();
+        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0, 32, 4).run();
 
         assertComponentRegistry(registry, 6, 0);
     }
@@ -87,7 +97,41 @@ public class StartWorkersTaskTest {
         when(f.get()).thenThrow(new ExecutionException(null));
         when(client.submit(eq(agent1.getAddress()), any(CreateWorkerOperation.class))).thenReturn(f);
 
-        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0).run();
+        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0, 32, 4).run();
+    }
+
+    @Test
+    public void testCreateWorkers_withParallelismLimits() throws Exception {
+        Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = getDeployment(0, 9, 9);
+        LaunchRecorder recorder = new LaunchRecorder();
+        when(client.submit(any(SimulatorAddress.class), any(CreateWorkerOperation.class))).thenAnswer(recorder);
+
+        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0, 2, 1).run();
+
+        assertComponentRegistry(registry, 9, 9);
+        assertEquals(2, recorder.maxStarting.get());
+        assertEquals(1, recorder.maxStartingPerAgent.get());
+    }
+
+    @Test
+    public void testCreateWorkers_firstMemberAlone_clientsAfterMembers() throws Exception {
+        Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = getDeployment(0, 6, 6);
+        LaunchRecorder recorder = new LaunchRecorder();
+        when(client.submit(any(SimulatorAddress.class), any(CreateWorkerOperation.class))).thenAnswer(recorder);
+
+        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0, 32, 4).run();
+
+        List<String> events = recorder.events;
+        // the first member is ready before any other worker is launched
+        assertEquals("start member", events.get(0));
+        assertEquals("ready member", events.get(1));
+        // all members are ready before the first client is launched
+        assertTrue(events.lastIndexOf("ready member") < events.indexOf("start javaclient"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_withInvalidParallelism() {
+        new StartWorkersTask(getDeployment(0, 1, 0), Collections.<String, String>emptyMap(), client, registry, 0, 0, 1);
     }
 
     private Map<SimulatorAddress, List<WorkerParameters>> getDeployment(int dedicatedMemberMachineCount,
@@ -119,4 +163,43 @@ public class StartWorkersTaskTest {
         assertEquals(expectedMemberCount, actualMemberCount);
         assertEquals(expectedClientCount, actualClientCount);
     }
+
+    /**
+     * Answers the CreateWorkerOperations with futures which complete after a short startup time, and records the number of
+     * workers which are starting at the same time.
+     */
+    private static final class LaunchRecorder implements Answer<Future<String>> {
+
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        private final Map<SimulatorAddress, AtomicInteger> startingPerAgent = new ConcurrentHashMap<>();
+        private final AtomicInteger starting = new AtomicInteger();
+        private final AtomicInteger maxStarting = new AtomicInteger();
+        private final AtomicInteger maxStartingPerAgent = new AtomicInteger();
+
+        @Override
+        public Future<String> answer(InvocationOnMock invocation) {
+            SimulatorAddress agentAddress = (SimulatorAddress) invocation.getArguments()[0];
+            CreateWorkerOperation op = (CreateWorkerOperation) invocation.getArguments()[1];
+            String workerType = op.getWorkerParameters().getWorkerType();
+            AtomicInteger agentStarting = startingPerAgent.computeIfAbsent(agentAddress, address -> new AtomicInteger());
+
+            events.add("start " + workerType);
+            updateMax(maxStarting, starting.incrementAndGet());
+            updateMax(maxStartingPerAgent, agentStarting.incrementAndGet());
+            return CompletableFuture.supplyAsync(() -> {
+                sleepMillis(STARTUP_MILLIS);
+                agentStarting.decrementAndGet();
+                starting.decrementAndGet();
+                events.add("ready " + workerType);
+                return "SUCCESS";
+            });
+        }
+
+        private static void updateMax(AtomicInteger max, int value) {
+            int current;
+            do {
+                current = max.get();
+            } while (value > current && !max.compareAndSet(current, value));
+        }
+    }
 }
@@ -2,18 +2,25 @@ package com.hazelcast.simulator.fake;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.ycsb.YcsbStore;
 
 import java.io.IOException;
 
 public class FakeDriver extends VendorDriver {
 
     public FakeInstance instance = new FakeInstance();
+    public FakeYcsbStore ycsbStore = new FakeYcsbStore();
 
     @Override
     public Object getVendorInstance() {
         return instance;
     }
 
+    @Override
+    public YcsbStore newYcsbStore(String name) {
+        return ycsbStore;
+    }
+
     @Override
     public void startVendorInstance() throws Exception {
     }
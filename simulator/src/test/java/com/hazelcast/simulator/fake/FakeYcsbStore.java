@@ -0,0 +1,47 @@
+package com.hazelcast.simulator.fake;
+
+import com.hazelcast.simulator.ycsb.YcsbStore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FakeYcsbStore implements YcsbStore {
+
+    public final Map<String, String> records = new ConcurrentHashMap<>();
+    public final AtomicLong reads = new AtomicLong();
+    public final AtomicLong scans = new AtomicLong();
+    public final AtomicLong updates = new AtomicLong();
+    public final AtomicLong inserts = new AtomicLong();
+
+    @Override
+    public String read(String key) {
+        reads.incrementAndGet();
+        return records.get(key);
+    }
+
+    @Override
+    public int scan(List<String> keys) {
+        scans.incrementAndGet();
+        int found = 0;
+        for (String key : keys) {
+            if (records.containsKey(key)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void update(String key, String value) {
+        updates.incrementAndGet();
+        records.put(key, value);
+    }
+
+    @Override
+    public void insert(String key, String value) {
+        inserts.incrementAndGet();
+        records.put(key, value);
+    }
+}
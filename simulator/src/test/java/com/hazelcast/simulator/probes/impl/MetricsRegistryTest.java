@@ -0,0 +1,119 @@
+package com.hazelcast.simulator.probes.impl;
+
+import com.hazelcast.simulator.probes.Counter;
+import com.hazelcast.simulator.probes.Meter;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @Test
+    public void testEmpty() {
+        assertTrue(registry.isEmpty());
+        assertTrue(registry.sample(1000).isEmpty());
+    }
+
+    @Test
+    public void testGetCounter() {
+        Counter counter = registry.getCounter("failures");
+        counter.inc();
+        counter.inc(10);
+
+        assertSame(counter, registry.getCounter("failures"));
+        assertFalse(registry.isEmpty());
+
+        Map<String, Double> sample = registry.sample(1000);
+        assertEquals(11, sample.get("failures"), 0);
+    }
+
+    @Test
+    public void testGetMeter() {
+        Meter meter = registry.getMeter("received");
+        meter.mark(100);
+
+        Map<String, Double> sample = registry.sample(500);
+        assertEquals(100, sample.get("received"), 0);
+        assertEquals(200, sample.get("received/s"), 0);
+
+        meter.mark(50);
+        sample = registry.sample(1000);
+        assertEquals(150, sample.get("received"), 0);
+        assertEquals(50, sample.get("received/s"), 0);
+    }
+
+    @Test
+    public void testResetRates() {
+        Meter meter = registry.getMeter("received");
+        meter.mark(100);
+
+        registry.resetRates();
+
+        Map<String, Double> sample = registry.sample(1000);
+        assertEquals(100, sample.get("received"), 0);
+        assertEquals(0, sample.get("received/s"), 0);
+    }
+
+    @Test
+    public void testRegisterGauge() {
+        registry.registerGauge("queueSize", () -> 42);
+
+        Map<String, Double> sample = registry.sample(1000);
+        assertEquals(42, sample.get("queueSize"), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterGauge_whenAlreadyRegistered() {
+        registry.registerGauge("queueSize", () -> 42);
+        registry.registerGauge("queueSize", () -> 43);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetMeter_whenNameUsedByCounter() {
+        registry.getCounter("foo");
+        registry.getMeter("foo");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetCounter_whenNameContainsComma() {
+        registry.getCounter("foo,bar");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterGauge_whenNameContainsComma() {
+        registry.registerGauge("foo,bar", () -> 42);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetCounter_whenNameUsedByRateOfMeter() {
+        registry.getMeter("received");
+        registry.getCounter("received/s");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetMeter_whenNameUsedByRateOfMeter() {
+        registry.getMeter("received");
+        registry.getMeter("received/s");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetMeter_whenRateUsedByGauge() {
+        registry.registerGauge("received/s", () -> 42);
+        registry.getMeter("received");
+    }
+
+    @Test
+    public void testGetMeter_whenRateSuffixWithoutMeter() {
+        registry.getCounter("bytes/s");
+        registry.getMeter("received");
+
+        assertSame(registry.getMeter("received"), registry.getMeter("received"));
+    }
+}
@@ -10,6 +10,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import javax.jms.JMSException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -18,6 +20,8 @@ import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.SimulatorUtils.localIp;
 import static com.hazelcast.simulator.utils.TestUtils.assertCompletesEventually;
 import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -25,6 +29,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class MessagingTest {
 
@@ -32,6 +37,7 @@ public class MessagingTest {
     private Server agentServer;
     private CoordinatorClient client;
     private SimulatorAddress agentAddress = SimulatorAddress.fromString("A1");
+    private List<Server> workerServers = new ArrayList<Server>();
 
     @Before
     public void before() {
@@ -43,6 +49,7 @@ public class MessagingTest {
     public void after() {
         closeQuietly(client);
         closeQuietly(agentServer);
+        closeQuietly(workerServers);
         closeQuietly(broker);
     }
 
@@ -77,6 +84,106 @@ public class MessagingTest {
         );
     }
 
+    @Test
+    public void testManySubmits() throws Exception {
+        agentServer = new Server("agents")
+                .setBrokerURL(broker.getBrokerURL())
+                .setSelfAddress(agentAddress)
+                .setProcessor(new OperationProcessor() {
+                    @Override
+                    public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) throws Exception {
+                        promise.answer(((LogOperation) op).getMessage());
+                    }
+                })
+                .start();
+
+        client = new CoordinatorClient()
+                .setProcessor(mock(OperationProcessor.class))
+                .connectToAgentBroker(agentAddress, localIp())
+                .start();
+
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(client.submit(agentAddress, new LogOperation("" + i, Level.DEBUG)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals("" + i, futures.get(i).get(1, MINUTES));
+        }
+    }
+
+    @Test
+    public void testBroadcast() throws Exception {
+        SimulatorAddress worker1 = SimulatorAddress.fromString("A1_W1");
+        SimulatorAddress worker2 = SimulatorAddress.fromString("A1_W2");
+        SimulatorAddress worker11 = SimulatorAddress.fromString("A1_W11");
+        final CountDownLatch received = new CountDownLatch(2);
+        OperationProcessor processor = new OperationProcessor() {
+            @Override
+            public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) throws Exception {
+                received.countDown();
+                promise.answer("OK");
+            }
+        };
+        OperationProcessor otherProcessor = mock(OperationProcessor.class);
+
+        workerServers.add(newWorkerServer(worker1, processor));
+        workerServers.add(newWorkerServer(worker2, processor));
+        workerServers.add(newWorkerServer(worker11, otherProcessor));
+
+        client = new CoordinatorClient()
+                .setProcessor(mock(OperationProcessor.class))
+                .connectToAgentBroker(agentAddress, localIp())
+                .start();
+
+        CoordinatorClient.ResponseFuture future = client.broadcast(asList(worker1, worker2), new LogOperation("", Level.DEBUG));
+
+        assertEquals("OK", future.get(1, MINUTES));
+        assertEquals(0, received.getCount());
+        assertTrue(future.getPendingTargets().isEmpty());
+        verifyZeroInteractions(otherProcessor);
+    }
+
+    @Test
+    public void testBroadcast_whenOneWorkerFails() throws Exception {
+        SimulatorAddress worker1 = SimulatorAddress.fromString("A1_W1");
+        SimulatorAddress worker2 = SimulatorAddress.fromString("A1_W2");
+        workerServers.add(newWorkerServer(worker1, new OperationProcessor() {
+            @Override
+            public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) throws Exception {
+                promise.answer("OK");
+            }
+        }));
+        workerServers.add(newWorkerServer(worker2, new OperationProcessor() {
+            @Override
+            public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) throws Exception {
+                throw new Exception("failed");
+            }
+        }));
+
+        client = new CoordinatorClient()
+                .setProcessor(mock(OperationProcessor.class))
+                .connectToAgentBroker(agentAddress, localIp())
+                .start();
+
+        Future<String> future = client.broadcast(asList(worker1, worker2), new LogOperation("", Level.DEBUG));
+
+        try {
+            future.get(1, MINUTES);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("failed", e.getCause().getMessage());
+        }
+    }
+
+    private Server newWorkerServer(SimulatorAddress workerAddress, OperationProcessor processor) {
+        return new Server("workers")
+                .setBrokerURL(broker.getBrokerURL())
+                .setSelfAddress(workerAddress)
+                .setProcessor(processor)
+                .start();
+    }
+
     @Test
     public void testWhenAgentConnectionFails() throws Exception {
         final CountDownLatch received = new CountDownLatch(1);
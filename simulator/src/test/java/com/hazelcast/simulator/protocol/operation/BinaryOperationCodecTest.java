@@ -0,0 +1,230 @@
+package com.hazelcast.simulator.protocol.operation;
+
+import com.hazelcast.simulator.coordinator.operations.FailureOperation;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
+import org.apache.log4j.Level;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.hazelcast.simulator.common.FailureType.WORKER_EXCEPTION;
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryOperationCodecTest {
+
+    @Test
+    public void testPerformanceStatsOperation() {
+        Map<String, Double> metrics = new HashMap<>();
+        metrics.put("received", 42.5);
+        PerformanceStatsOperation op = new PerformanceStatsOperation();
+        op.addPerformanceStats("map", new PerformanceStats(1000, 100.5, 90.25, 1234.5, 5000, 90000, metrics)
+                .setLatencyPercentiles(3000, 2000, 6000));
+        op.addPerformanceStats("empty", new PerformanceStats());
+
+        PerformanceStatsOperation result = (PerformanceStatsOperation) BinaryOperationCodec.fromBytes(
+                BinaryOperationCodec.toBytes(op));
+
+        assertEquals(2, result.getPerformanceStats().size());
+        PerformanceStats stats = result.getPerformanceStats().get("map");
+        assertEquals(1000, stats.getOperationCount());
+        assertEquals(100.5, stats.getIntervalThroughput(), 0);
+        assertEquals(90.25, stats.getTotalThroughput(), 0);
+        assertEquals(1234.5, stats.getIntervalLatencyAvgNanos(), 0);
+        assertEquals(5000, stats.getIntervalLatency999PercentileNanos());
+        assertEquals(90000, stats.getIntervalLatencyMaxNanos());
+        assertEquals(3000, stats.getIntervalLatency99PercentileNanos());
+        assertEquals(2000, stats.getTotalLatency99PercentileNanos());
+        assertEquals(6000, stats.getTotalLatency999PercentileNanos());
+        assertEquals(42.5, stats.getMetrics().get("received"), 0);
+
+        PerformanceStats empty = result.getPerformanceStats().get("empty");
+        assertTrue(empty.isEmpty());
+        assertNull(empty.getMetrics());
+    }
+
+    @Test
+    public void testPerformanceStatsOperation_withLatencyHistograms() {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(1000, 10);
+        histogram.recordValue(50000);
+        PerformanceStatsOperation op = new PerformanceStatsOperation();
+        op.addPerformanceStats("map", new PerformanceStats(1000, 100.5, 90.25, 1234.5, 5000, 90000)
+                .setLatencyHistograms(singletonMap("probe", histogram)));
+        op.addPerformanceStats("noProbes", new PerformanceStats(1000, 100.5, 90.25, 1234.5, 5000, 90000)
+                .setLatencyHistograms(Collections.<String, Histogram>emptyMap()));
+        op.addPerformanceStats("noHistograms", new PerformanceStats(1000, 100.5, 90.25, 1234.5, 5000, 90000));
+
+        PerformanceStatsOperation result = (PerformanceStatsOperation) BinaryOperationCodec.fromBytes(
+                BinaryOperationCodec.toBytes(op));
+
+        Map<String, Histogram> histograms = result.getPerformanceStats().get("map").getLatencyHistograms();
+        assertEquals(singleton("probe"), histograms.keySet());
+        assertEquals(histogram, histograms.get("probe"));
+        assertTrue(result.getPerformanceStats().get("noProbes").getLatencyHistograms().isEmpty());
+        assertNull(result.getPerformanceStats().get("noHistograms").getLatencyHistograms());
+    }
+
+    /**
+     * Fails when a field is added to {@link PerformanceStats} which isn't part of the binary encoding, since it would be
+     * silently lost when the operation is sent with the default codec.
+     */
+    @Test
+    public void testPerformanceStatsOperation_encodesAllFields() throws Exception {
+        PerformanceStats stats = fullyPopulatedPerformanceStats();
+        PerformanceStatsOperation op = new PerformanceStatsOperation();
+        op.addPerformanceStats("map", stats);
+
+        PerformanceStats binary = ((PerformanceStatsOperation) BinaryOperationCodec.fromBytes(
+                BinaryOperationCodec.toBytes(op))).getPerformanceStats().get("map");
+        PerformanceStats json = ((PerformanceStatsOperation) OperationCodec.fromJson(
+                OperationCodec.toJson(op), PerformanceStatsOperation.class)).getPerformanceStats().get("map");
+
+        PerformanceStats empty = new PerformanceStats();
+        for (Field field : serializableFields()) {
+            assertFalse("populate field " + field.getName() + " in fullyPopulatedPerformanceStats()",
+                    deepEquals(field.get(empty), field.get(stats)));
+            assertTrue("field " + field.getName() + " is not encoded by the JSON codec",
+                    deepEquals(field.get(stats), field.get(json)));
+            assertTrue("field " + field.getName() + " is not encoded by the binary codec",
+                    deepEquals(field.get(json), field.get(binary)));
+        }
+    }
+
+    private static PerformanceStats fullyPopulatedPerformanceStats() {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValue(1000);
+        return new PerformanceStats(1000, 100.5, 90.25, 1234.5, 5000, 90000, singletonMap("received", 42.5))
+                .setLatencyPercentiles(3000, 2000, 6000)
+                .setLatencyHistograms(singletonMap("probe", histogram));
+    }
+
+    private static List<Field> serializableFields() {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : PerformanceStats.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    // compares field values, including maps with array values like the compressed histograms
+    private static boolean deepEquals(Object expected, Object actual) {
+        if (expected instanceof Map && actual instanceof Map) {
+            Map<?, ?> expectedMap = (Map<?, ?>) expected;
+            Map<?, ?> actualMap = (Map<?, ?>) actual;
+            if (!expectedMap.keySet().equals(actualMap.keySet())) {
+                return false;
+            }
+            for (Map.Entry<?, ?> entry : expectedMap.entrySet()) {
+                if (!Objects.deepEquals(entry.getValue(), actualMap.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Objects.deepEquals(expected, actual);
+    }
+
+    @Test
+    public void testPerformanceStatsOperation_isSmallerThanJson() {
+        PerformanceStatsOperation op = new PerformanceStatsOperation();
+        op.addPerformanceStats("map", new PerformanceStats(1000, 100.5, 90.25, 1234.5, 5000, 90000));
+
+        int jsonSize = OperationCodec.toJson(op).getBytes(StandardCharsets.UTF_8).length;
+
+        assertTrue(BinaryOperationCodec.toBytes(op).length < jsonSize / 2);
+    }
+
+    @Test
+    public void testLogOperation() {
+        LogOperation op = new LogOperation("foo é", Level.WARN);
+
+        LogOperation result = (LogOperation) BinaryOperationCodec.fromBytes(BinaryOperationCodec.toBytes(op));
+
+        assertEquals("foo é", result.getMessage());
+        assertEquals(Level.WARN, result.getLevel());
+    }
+
+    @Test
+    public void testLogOperation_nullMessage() {
+        LogOperation op = new LogOperation(null, Level.INFO);
+
+        LogOperation result = (LogOperation) BinaryOperationCodec.fromBytes(BinaryOperationCodec.toBytes(op));
+
+        assertNull(result.getMessage());
+    }
+
+    @Test
+    public void testJsonFallback() {
+        FailureOperation op = new FailureOperation("failure", WORKER_EXCEPTION, SimulatorAddress.fromString("A1_W1"), "A1",
+                null);
+
+        byte[] bytes = BinaryOperationCodec.toBytes(op);
+        FailureOperation result = (FailureOperation) BinaryOperationCodec.fromBytes(bytes);
+
+        assertEquals(BinaryOperationCodec.FORMAT_JSON, bytes[2]);
+        assertEquals(WORKER_EXCEPTION, result.getType());
+        assertEquals(SimulatorAddress.fromString("A1_W1"), result.getWorkerAddress());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromBytes_unknownFormat() {
+        BinaryOutput out = new BinaryOutput();
+        out.writeVarLong(OperationType.LOG.toInt());
+        out.writeByte(5);
+
+        BinaryOperationCodec.fromBytes(out.toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromBytes_truncated() {
+        byte[] bytes = BinaryOperationCodec.toBytes(new LogOperation("foo"));
+
+        BinaryOperationCodec.fromBytes(copyOf(bytes, bytes.length - 2));
+    }
+
+    @Test
+    public void testVarLong() {
+        long[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE, Long.MAX_VALUE, -1, -64, Long.MIN_VALUE};
+        BinaryOutput out = new BinaryOutput();
+        for (long value : values) {
+            out.writeSignedVarLong(value);
+        }
+        out.writeVarLong(Long.MAX_VALUE);
+
+        BinaryInput in = new BinaryInput(out.toByteArray());
+        for (long value : values) {
+            assertEquals(value, in.readSignedVarLong());
+        }
+        assertEquals(Long.MAX_VALUE, in.readVarLong());
+        assertEquals(0, in.remaining());
+    }
+
+    @Test
+    public void testVarLong_smallValuesTakeOneByte() {
+        BinaryOutput out = new BinaryOutput();
+        out.writeSignedVarLong(-1);
+        out.writeVarLong(127);
+
+        assertEquals(2, out.size());
+    }
+}
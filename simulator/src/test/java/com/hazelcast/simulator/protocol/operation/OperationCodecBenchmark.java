@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol.operation;
+
+import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the encode and decode cost and the message size of the JSON and the binary codec for a
+ * {@link PerformanceStatsOperation}, which every worker sends to the coordinator each second.
+ *
+ * Run with: {@code java -cp ... com.hazelcast.simulator.protocol.operation.OperationCodecBenchmark [tests] [metrics]}
+ */
+public class OperationCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20000;
+    private static final int ITERATIONS = 100000;
+
+    public static void main(String[] args) {
+        int testCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int metricCount = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        PerformanceStatsOperation op = createOperation(testCount, metricCount);
+
+        byte[] json = OperationCodec.toJson(op).getBytes(StandardCharsets.UTF_8);
+        byte[] binary = BinaryOperationCodec.toBytes(op);
+        System.out.println(format("PerformanceStatsOperation with %d tests and %d metrics per test", testCount, metricCount));
+        System.out.println(format("Message size: json %d bytes, binary %d bytes (%.1f%%)",
+                json.length, binary.length, binary.length * 100d / json.length));
+
+        for (int i = 0; i < 2; i++) {
+            boolean warmup = i == 0;
+            int iterations = warmup ? WARMUP_ITERATIONS : ITERATIONS;
+            long jsonEncodeNanos = benchmarkJsonEncode(op, iterations);
+            long jsonDecodeNanos = benchmarkJsonDecode(new String(json, StandardCharsets.UTF_8), iterations);
+            long binaryEncodeNanos = benchmarkBinaryEncode(op, iterations);
+            long binaryDecodeNanos = benchmarkBinaryDecode(binary, iterations);
+            if (!warmup) {
+                System.out.println(format("json   encode %8d ns/op, decode %8d ns/op",
+                        jsonEncodeNanos / iterations, jsonDecodeNanos / iterations));
+                System.out.println(format("binary encode %8d ns/op, decode %8d ns/op",
+                        binaryEncodeNanos / iterations, binaryDecodeNanos / iterations));
+            }
+        }
+    }
+
+    private static PerformanceStatsOperation createOperation(int testCount, int metricCount) {
+        PerformanceStatsOperation op = new PerformanceStatsOperation();
+        for (int t = 0; t < testCount; t++) {
+            Map<String, Double> metrics = new HashMap<>();
+            for (int m = 0; m < metricCount; m++) {
+                metrics.put("metric" + m, m * 1000.5);
+            }
+            op.addPerformanceStats("test" + t, new PerformanceStats(123456789, 250000.5, 240000.25, 1523.7, 8900, 1200000, metrics)
+                    .setLatencyPercentiles(4500, 4200, 9100));
+        }
+        return op;
+    }
+
+    private static long benchmarkJsonEncode(SimulatorOperation op, int iterations) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += OperationCodec.toJson(op).length();
+        }
+        return elapsed(start, sink);
+    }
+
+    private static long benchmarkJsonDecode(String json, int iterations) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += OperationCodec.fromJson(json, PerformanceStatsOperation.class).hashCode();
+        }
+        return elapsed(start, sink);
+    }
+
+    private static long benchmarkBinaryEncode(SimulatorOperation op, int iterations) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += BinaryOperationCodec.toBytes(op).length;
+        }
+        return elapsed(start, sink);
+    }
+
+    private static long benchmarkBinaryDecode(byte[] bytes, int iterations) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += BinaryOperationCodec.fromBytes(bytes).hashCode();
+        }
+        return elapsed(start, sink);
+    }
+
+    private static long elapsed(long start, long sink) {
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println("unlikely");
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,76 @@
+package com.hazelcast.simulator.report;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+import static com.hazelcast.simulator.report.BootstrapTest.series;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BenchmarkComparisonTest {
+
+    private final BenchmarkComparison comparison = new BenchmarkComparison(new Bootstrap(1000, 0.95, new Random(42)), 5, 5);
+
+    @Test
+    public void testCompare_noRegression() {
+        BenchmarkResult baseline = benchmark("baseline", series(100, 101, 99), series(10, 11, 10));
+        BenchmarkResult candidate = benchmark("candidate", series(99, 100, 100), series(10, 10, 11));
+
+        List<BenchmarkComparison.Result> results = comparison.compare(baseline, candidate);
+
+        assertEquals(4, results.size());
+        assertEquals("throughput", results.get(0).getMetric());
+        assertEquals("candidate", results.get(0).getBenchmark());
+        assertFalse(comparison.hasRegression());
+    }
+
+    @Test
+    public void testCompare_throughputRegression() {
+        BenchmarkResult baseline = benchmark("baseline", series(100, 101, 99), series(10, 10, 10));
+        BenchmarkResult candidate = benchmark("candidate", series(90, 91, 89), series(10, 10, 10));
+
+        comparison.compare(baseline, candidate);
+
+        assertTrue(comparison.hasRegression());
+        assertTrue(comparison.getResults().get(0).isRegression());
+    }
+
+    @Test
+    public void testCompare_latencyRegression() {
+        BenchmarkResult baseline = benchmark("baseline", series(100, 100, 100), series(10, 10, 10));
+        BenchmarkResult candidate = benchmark("candidate", series(100, 100, 100), series(12, 12, 12));
+
+        List<BenchmarkComparison.Result> results = comparison.compare(baseline, candidate);
+
+        assertTrue(comparison.hasRegression());
+        assertEquals("probe 99%", results.get(2).getMetric());
+        assertTrue(results.get(2).isRegression());
+    }
+
+    @Test
+    public void testCompare_improvementIsNoRegression() {
+        BenchmarkResult baseline = benchmark("baseline", series(100, 100, 100), series(12, 12, 12));
+        BenchmarkResult candidate = benchmark("candidate", series(120, 120, 120), series(10, 10, 10));
+
+        comparison.compare(baseline, candidate);
+
+        assertFalse(comparison.hasRegression());
+    }
+
+    private static BenchmarkResult benchmark(String name, Series throughput, Series latency) {
+        BenchmarkResult benchmark = new BenchmarkResult(name, new File(name), throughput, 0, throughput.size());
+        ProbeResult probe = new ProbeResult("probe", new Histogram(3));
+        for (int i = 0; i < latency.size(); i++) {
+            probe.getP50().add(i, latency.y(i));
+            probe.getP99().add(i, latency.y(i));
+            probe.getP999().add(i, latency.y(i));
+        }
+        benchmark.addProbe(probe);
+        return benchmark;
+    }
+}
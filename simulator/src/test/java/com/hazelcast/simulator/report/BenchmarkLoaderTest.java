@@ -0,0 +1,112 @@
+package com.hazelcast.simulator.report;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BenchmarkLoaderTest {
+
+    static final long START_MILLIS = 1500000000000L;
+
+    private File sessionDir;
+    private BenchmarkLoader loader;
+
+    @Before
+    public void before() throws Exception {
+        sessionDir = createTmpDirectory();
+        createWorker(sessionDir, "A1_W1-member", 10);
+        createWorker(sessionDir, "A1_W2-member", 10);
+    }
+
+    @After
+    public void after() {
+        if (loader != null) {
+            loader.shutdown();
+        }
+        deleteQuiet(sessionDir);
+    }
+
+    @Test
+    public void testLoad() {
+        loader = new BenchmarkLoader(0, 0);
+
+        BenchmarkResult result = loader.load("foo", sessionDir);
+
+        assertEquals("foo", result.getName());
+        assertEquals(9, result.getDurationSeconds(), 0.001);
+        // the first row marks the start of the period, so its interval is not included
+        assertEquals(2 * 9 * 100, result.getOperationCount());
+        assertEquals(9, result.getThroughput().size());
+        assertEquals(200, result.getThroughput().y(0), 0.001);
+
+        assertEquals(1, result.getProbes().size());
+        ProbeResult probe = result.getProbes().get("test-put");
+        assertEquals(2 * 9 * 100, probe.getHistogram().getTotalCount());
+        assertEquals(9, probe.getP99().size());
+        assertEquals(100, probe.getMax().y(0), 1);
+    }
+
+    @Test
+    public void testLoad_withWarmupAndCooldown() {
+        loader = new BenchmarkLoader(2, 3);
+
+        BenchmarkResult result = loader.load("foo", sessionDir);
+
+        assertEquals(4, result.getDurationSeconds(), 0.001);
+        assertEquals(2 * 4 * 100, result.getOperationCount());
+        assertEquals(2 * 4 * 100, result.getProbes().get("test-put").getHistogram().getTotalCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoad_notExistingDirectory() {
+        loader = new BenchmarkLoader(0, 0);
+
+        loader.load("foo", new File(sessionDir, "notExisting"));
+    }
+
+    @Test
+    public void testReadPerformanceFile_notExisting() {
+        assertTrue(BenchmarkLoader.readPerformanceFile(new File(sessionDir, "notExisting")).length == 0);
+    }
+
+    /**
+     * Creates a worker directory with a performance.csv file and a probe with 100 operations per second.
+     */
+    static void createWorker(File sessionDir, String name, int seconds) throws Exception {
+        File workerDir = ensureExistingDirectory(sessionDir, name);
+
+        File performanceFile = new File(workerDir, BenchmarkLoader.PERFORMANCE_FILE);
+        appendText("epoch,timestamp,operations,operations-delta,operations/second\n", performanceFile);
+        for (int i = 1; i <= seconds; i++) {
+            double epoch = (START_MILLIS + i * 1000) / 1000d;
+            appendText(epoch + ",00:00:0" + i + "," + (i * 100) + ",100,100\n", performanceFile);
+        }
+
+        HistogramLogWriter writer = new HistogramLogWriter(new File(workerDir, "test-put.hdr"));
+        writer.setBaseTime(START_MILLIS);
+        writer.outputStartTime(START_MILLIS);
+        writer.outputLogFormatVersion();
+        writer.outputLegend();
+        for (int i = 0; i < seconds; i++) {
+            Histogram histogram = new Histogram(3);
+            histogram.setStartTimeStamp(START_MILLIS + i * 1000);
+            histogram.setEndTimeStamp(START_MILLIS + (i + 1) * 1000);
+            for (int k = 1; k <= 100; k++) {
+                histogram.recordValue(k * 1000);
+            }
+            writer.outputIntervalHistogram(histogram);
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.hazelcast.simulator.report;
+
+import com.hazelcast.simulator.report.Bootstrap.Delta;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BootstrapTest {
+
+    private final Bootstrap bootstrap = new Bootstrap(1000, 0.95, new Random(42));
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_invalidResamples() {
+        new Bootstrap(0, 0.95, new Random());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_invalidConfidence() {
+        new Bootstrap(1000, 1, new Random());
+    }
+
+    @Test
+    public void testDeltaPercent_emptySeries() {
+        assertNull(bootstrap.deltaPercent(new Series("a"), series(100, 100)));
+        assertNull(bootstrap.deltaPercent(series(100, 100), new Series("b")));
+    }
+
+    @Test
+    public void testDeltaPercent_constantValues() {
+        Delta delta = bootstrap.deltaPercent(series(100, 100, 100), series(90, 90, 90));
+
+        assertEquals(-10, delta.getEstimate(), 0.001);
+        assertEquals(-10, delta.getLower(), 0.001);
+        assertEquals(-10, delta.getUpper(), 0.001);
+    }
+
+    @Test
+    public void testDeltaPercent_noisyValues_intervalContainsEstimate() {
+        Random random = new Random(1);
+        Series baseline = new Series("baseline");
+        Series candidate = new Series("candidate");
+        for (int i = 0; i < 100; i++) {
+            baseline.add(i, 1000 + random.nextGaussian() * 50);
+            candidate.add(i, 960 + random.nextGaussian() * 50);
+        }
+
+        Delta delta = bootstrap.deltaPercent(baseline, candidate);
+
+        assertTrue(delta.getLower() <= delta.getEstimate());
+        assertTrue(delta.getUpper() >= delta.getEstimate());
+        // a 4% decrease is detected with 100 intervals
+        assertTrue(delta.getUpper() < 0);
+        assertTrue(delta.getLower() > -8);
+    }
+
+    static Series series(double... values) {
+        Series series = new Series("series");
+        for (int i = 0; i < values.length; i++) {
+            series.add(i, values[i]);
+        }
+        return series;
+    }
+}
@@ -0,0 +1,131 @@
+package com.hazelcast.simulator.report;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.report.BenchmarkLoaderTest.createWorker;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HtmlReportTest {
+
+    private File sessionDir;
+    private File outputDir;
+    private BenchmarkLoader loader;
+
+    @Before
+    public void before() throws Exception {
+        sessionDir = createTmpDirectory();
+        outputDir = createTmpDirectory();
+        createWorker(sessionDir, "A1_W1-member", 5);
+        loader = new BenchmarkLoader(0, 0);
+    }
+
+    @After
+    public void after() {
+        loader.shutdown();
+        deleteQuiet(sessionDir);
+        deleteQuiet(outputDir);
+    }
+
+    @Test
+    public void testWrite_singleBenchmark() throws Exception {
+        List<BenchmarkResult> results = new ArrayList<>();
+        results.add(loader.load("<baseline>", sessionDir));
+
+        File reportFile = new HtmlReport(results).write(outputDir);
+
+        String html = fileAsText(reportFile);
+        assertTrue(html.contains("&lt;baseline&gt;"));
+        assertFalse(html.contains("<baseline>"));
+        assertTrue(html.contains("<h2>test-put</h2>"));
+        assertTrue(html.contains("<svg"));
+        assertFalse(html.contains("<script"));
+    }
+
+    @Test
+    public void testWrite_withJfrSummary() throws Exception {
+        writeText("# Top CPU frames (10 samples)\n 100.00%  10 samples  Foo.<init>\n",
+                new File(sessionDir, "A1_W1-member/test-run" + BenchmarkLoader.JFR_SUMMARY_SUFFIX));
+        List<BenchmarkResult> results = new ArrayList<>();
+        results.add(loader.load("foo", sessionDir));
+
+        String html = fileAsText(new HtmlReport(results).write(outputDir));
+
+        assertTrue(html.contains("<h3>foo A1_W1-member test-run</h3>"));
+        assertTrue(html.contains("Foo.&lt;init&gt;"));
+    }
+
+    @Test
+    public void testWrite_withDisruption() throws Exception {
+        long startMillis = BenchmarkLoaderTest.START_MILLIS + 3000;
+        writeText("name,type,workers,startEpochMillis,endEpochMillis,baselineThroughput,minThroughput,recoveryMillis,"
+                        + "peakLatencyMaxMicros,peakLatency999Micros,failures\n"
+                        + "crash,kill,C_A1_W2," + startMillis + "," + startMillis + ",100.00,0.00,4000,2000,1500,3\n",
+                new File(sessionDir, "MapTest" + BenchmarkLoader.DISRUPTIONS_SUFFIX));
+        List<BenchmarkResult> results = new ArrayList<>();
+        results.add(loader.load("foo", sessionDir));
+
+        DisruptionResult disruption = results.get(0).getDisruptions().get(0);
+        assertEquals("MapTest crash", disruption.getName());
+        assertEquals(2, disruption.getStartSeconds(), 0.001);
+        assertEquals(4000, disruption.getRecoveryMillis());
+        assertEquals(3, disruption.getFailures());
+
+        String html = fileAsText(new HtmlReport(results).write(outputDir));
+        assertTrue(html.contains("<h2>Disruptions</h2>"));
+        assertTrue(html.contains("<td>foo MapTest crash</td><td>kill</td><td>C_A1_W2</td><td>2.0</td><td>4.0</td>"));
+        assertTrue(html.contains("stroke-dasharray"));
+    }
+
+    @Test
+    public void testWrite_comparison() throws Exception {
+        List<BenchmarkResult> results = new ArrayList<>();
+        results.add(loader.load("first", sessionDir));
+        results.add(loader.load("second", sessionDir));
+
+        String html = fileAsText(new HtmlReport(results).write(outputDir));
+
+        assertTrue(html.contains("first"));
+        assertTrue(html.contains("second"));
+        assertTrue(html.contains("+0.0%"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_noBenchmarks() {
+        new HtmlReport(new ArrayList<BenchmarkResult>());
+    }
+
+    @Test
+    public void testParseBenchmarks() {
+        Map<String, File> benchmarks = ReportCli.parseBenchmarks(asList("dir1", "[foo]", "dir2"));
+
+        assertEquals(2, benchmarks.size());
+        assertEquals("dir1", benchmarks.get("foo").getName());
+        assertEquals("dir2", benchmarks.get("dir2").getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseBenchmarks_nameWithoutDirectory() {
+        ReportCli.parseBenchmarks(asList("[foo]"));
+    }
+
+    @Test
+    public void testFormatDelta() {
+        assertEquals("+10.0%", HtmlReport.formatDelta(100, 110));
+        assertEquals("-50.0%", HtmlReport.formatDelta(100, 50));
+        assertEquals("", HtmlReport.formatDelta(0, 50));
+    }
+}
@@ -0,0 +1,45 @@
+package com.hazelcast.simulator.report;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class ReportCliTest {
+
+    @Test
+    public void testParseBenchmarks() {
+        Map<String, File> benchmarks = ReportCli.parseBenchmarks(asList("runs/a/session", "[3.8]", "runs/b/session2"));
+
+        assertEquals(asList("3.8", "session2"), new ArrayList<>(benchmarks.keySet()));
+        assertEquals(new File("runs/a/session").getAbsoluteFile(), benchmarks.get("3.8"));
+        assertEquals(new File("runs/b/session2").getAbsoluteFile(), benchmarks.get("session2"));
+    }
+
+    @Test
+    public void testParseBenchmarks_whenSameDirectoryNameWithNames() {
+        Map<String, File> benchmarks = ReportCli.parseBenchmarks(
+                asList("runs/a/session", "[a]", "runs/b/session", "[b]"));
+
+        assertEquals(asList("a", "b"), new ArrayList<>(benchmarks.keySet()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseBenchmarks_whenSameDirectoryName() {
+        ReportCli.parseBenchmarks(asList("runs/a/session", "runs/b/session"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseBenchmarks_whenSameName() {
+        ReportCli.parseBenchmarks(asList("runs/a/session", "[3.8]", "runs/b/session2", "[3.8]"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseBenchmarks_whenNameWithoutDirectory() {
+        ReportCli.parseBenchmarks(asList("[3.8]"));
+    }
+}
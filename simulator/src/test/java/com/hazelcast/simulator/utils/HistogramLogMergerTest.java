@@ -1,13 +1,142 @@
 package com.hazelcast.simulator.utils;
 
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
 import static com.hazelcast.simulator.utils.ReflectionUtils.invokePrivateConstructor;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static org.junit.Assert.assertEquals;
 
 public class HistogramLogMergerTest {
 
+    private static final long START_MILLIS = 1500000000000L;
+
+    private File dir;
+
+    @Before
+    public void before() {
+        dir = createTmpDirectory();
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
     @Test
     public void testConstructor() throws Exception {
         invokePrivateConstructor(HistogramLogMerger.class);
     }
+
+    @Test
+    public void testMergeAligned_whenWorkersStartedAtDifferentTimes() throws Exception {
+        File worker1 = writeHdrFile("worker1.hdr", START_MILLIS, 1000, 3, 100);
+        // starts half a second later, so each histogram straddles two buckets
+        File worker2 = writeHdrFile("worker2.hdr", START_MILLIS + 500, 1000, 3, 100);
+        File merged = new File(dir, "merged.hdr");
+
+        HistogramLogMerger.mergeAligned(merged, 1000, worker1, worker2);
+
+        List<Histogram> histograms = readHistograms(merged);
+        assertEquals(4, histograms.size());
+        long totalCount = 0;
+        for (int i = 0; i < histograms.size(); i++) {
+            Histogram histogram = histograms.get(i);
+            assertEquals(START_MILLIS + i * 1000, histogram.getStartTimeStamp());
+            assertEquals(START_MILLIS + (i + 1) * 1000, histogram.getEndTimeStamp());
+            totalCount += histogram.getTotalCount();
+        }
+        assertEquals(600, totalCount);
+        assertEquals(150, histograms.get(0).getTotalCount());
+        assertEquals(200, histograms.get(1).getTotalCount());
+        assertEquals(50, histograms.get(3).getTotalCount());
+    }
+
+    @Test
+    public void testMergeAligned_whenIntervalSkipped() throws Exception {
+        File worker1 = writeHdrFile("worker1.hdr", START_MILLIS, 1000, 1, 100);
+        File worker2 = writeHdrFile("worker2.hdr", START_MILLIS + 2000, 1000, 1, 100);
+        File merged = new File(dir, "merged.hdr");
+
+        HistogramLogMerger.mergeAligned(merged, 0, worker1, worker2);
+
+        List<Histogram> histograms = readHistograms(merged);
+        assertEquals(2, histograms.size());
+        assertEquals(START_MILLIS, histograms.get(0).getStartTimeStamp());
+        assertEquals(START_MILLIS + 2000, histograms.get(1).getStartTimeStamp());
+    }
+
+    @Test
+    public void testSplit_keepsTotalCount() {
+        Histogram histogram = new Histogram(3);
+        histogram.setStartTimeStamp(START_MILLIS);
+        histogram.setEndTimeStamp(START_MILLIS + 1000);
+        histogram.recordValueWithCount(1000, 3);
+        histogram.recordValueWithCount(5000, 7);
+        Histogram target = new Histogram(3);
+
+        Histogram remaining = HistogramLogMerger.split(histogram, START_MILLIS + 300, target);
+
+        assertEquals(10, target.getTotalCount() + remaining.getTotalCount());
+        assertEquals(START_MILLIS + 300, remaining.getStartTimeStamp());
+        assertEquals(START_MILLIS + 1000, remaining.getEndTimeStamp());
+        assertEquals(1, target.getCountAtValue(1000));
+        assertEquals(2, target.getCountAtValue(5000));
+    }
+
+    @Test
+    public void testDetectGridMillis() {
+        assertEquals(1000, HistogramLogMerger.detectGridMillis(new Histogram[]{null}));
+        assertEquals(10000, HistogramLogMerger.detectGridMillis(new Histogram[]{histogram(10012), null}));
+        assertEquals(100, HistogramLogMerger.detectGridMillis(new Histogram[]{histogram(1003), histogram(104)}));
+        assertEquals(20, HistogramLogMerger.detectGridMillis(new Histogram[]{histogram(20)}));
+    }
+
+    private static Histogram histogram(long durationMillis) {
+        Histogram histogram = new Histogram(3);
+        histogram.setStartTimeStamp(START_MILLIS);
+        histogram.setEndTimeStamp(START_MILLIS + durationMillis);
+        return histogram;
+    }
+
+    private File writeHdrFile(String name, long startMillis, long intervalMillis, int intervals, int count) throws Exception {
+        File file = new File(dir, name);
+        HistogramLogWriter writer = new HistogramLogWriter(file);
+        writer.setBaseTime(startMillis);
+        writer.outputStartTime(startMillis);
+        writer.outputLogFormatVersion();
+        writer.outputLegend();
+        for (int i = 0; i < intervals; i++) {
+            Histogram histogram = new Histogram(3);
+            histogram.setStartTimeStamp(startMillis + i * intervalMillis);
+            histogram.setEndTimeStamp(startMillis + (i + 1) * intervalMillis);
+            histogram.recordValueWithCount(1000, count);
+            writer.outputIntervalHistogram(histogram);
+        }
+        writer.close();
+        return file;
+    }
+
+    private static List<Histogram> readHistograms(File file) throws Exception {
+        List<Histogram> histograms = new ArrayList<>();
+        HistogramLogReader reader = new HistogramLogReader(file);
+        for (; ; ) {
+            Histogram histogram = (Histogram) reader.nextIntervalHistogram();
+            if (histogram == null) {
+                break;
+            }
+            histograms.add(histogram);
+        }
+        reader.close();
+        return histograms;
+    }
 }
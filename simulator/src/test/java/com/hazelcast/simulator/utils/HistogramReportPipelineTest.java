@@ -0,0 +1,127 @@
+package com.hazelcast.simulator.utils;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramReportPipelineTest {
+
+    private static final long START_MILLIS = 1500000000000L;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    private File sessionDir;
+    private File reportDir;
+
+    @Before
+    public void before() throws Exception {
+        sessionDir = createTmpDirectory();
+        reportDir = createTmpDirectory();
+
+        writeHdrFile(new File(ensureExistingDirectory(sessionDir, "A1_W1-member"), "test-put.hdr"), 5);
+        writeHdrFile(new File(ensureExistingDirectory(sessionDir, "A1_W2-member"), "test-put.hdr"), 5);
+        writeHdrFile(new File(ensureExistingDirectory(sessionDir, "A1_W1-member"), "test-get.hdr"), 3);
+    }
+
+    @After
+    public void after() {
+        pool.shutdown();
+        deleteQuiet(sessionDir);
+        deleteQuiet(reportDir);
+    }
+
+    @Test
+    public void testFindHdrFiles() {
+        HistogramReportPipeline pipeline = new HistogramReportPipeline(sessionDir, reportDir, "1", 0, Long.MAX_VALUE);
+
+        Map<String, List<File>> probes = pipeline.findHdrFiles();
+
+        assertEquals(2, probes.size());
+        assertEquals(1, probes.get("test-get.hdr").size());
+        assertEquals(2, probes.get("test-put.hdr").size());
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        HistogramReportPipeline pipeline = new HistogramReportPipeline(sessionDir, reportDir, "1", 0, Long.MAX_VALUE);
+
+        pipeline.run(pool);
+
+        File targetDir = new File(reportDir, "tmp/1");
+        assertEquals(5, countHistograms(new File(targetDir, "test-put.hdr")));
+        assertEquals(3, countHistograms(new File(targetDir, "test-get.hdr")));
+        assertEquals(5, countHistograms(new File(targetDir, "A1_W2-member/test-put.hdr")));
+
+        assertTrue(new File(targetDir, "test-put").exists());
+        assertTrue(new File(targetDir, "test-put.hgrm").exists());
+        assertTrue(new File(targetDir, "A1_W1-member/test-get").exists());
+        assertTrue(new File(targetDir, "A1_W1-member/test-get.hgrm").exists());
+        // the hgrm file contains the regular output and not the csv output
+        assertTrue(fileAsText(new File(targetDir, "test-put.hgrm")).contains("Percentile"));
+        assertFalse(fileAsText(new File(targetDir, "test-put.hgrm")).contains("Value,Percentile"));
+        assertFalse(new File(targetDir, "test-put.tmp").exists());
+        assertTrue(fileAsText(new File(targetDir, "test-put")).contains("\"Int_Count\""));
+
+        String[] reportLines = fileAsText(new File(reportDir, "report.csv")).split("\n");
+        assertEquals(3, reportLines.length);
+        assertTrue(reportLines[1].contains(",test-get,"));
+        assertTrue(reportLines[2].contains(",test-put,"));
+    }
+
+    @Test
+    public void testRun_trimmed() throws Exception {
+        HistogramReportPipeline pipeline = new HistogramReportPipeline(
+                sessionDir, reportDir, "1", START_MILLIS + 1000, START_MILLIS + 4000);
+
+        pipeline.run(pool);
+
+        File targetDir = new File(reportDir, "tmp/1");
+        assertEquals(3, countHistograms(new File(targetDir, "A1_W1-member/test-put.hdr")));
+        assertEquals(3, countHistograms(new File(targetDir, "test-put.hdr")));
+        assertEquals(2, countHistograms(new File(targetDir, "test-get.hdr")));
+    }
+
+    private static void writeHdrFile(File file, int intervals) throws Exception {
+        HistogramLogWriter writer = new HistogramLogWriter(file);
+        writer.setBaseTime(START_MILLIS);
+        writer.outputStartTime(START_MILLIS);
+        writer.outputLogFormatVersion();
+        writer.outputLegend();
+        for (int i = 0; i < intervals; i++) {
+            Histogram histogram = new Histogram(3);
+            histogram.setStartTimeStamp(START_MILLIS + i * 1000);
+            histogram.setEndTimeStamp(START_MILLIS + (i + 1) * 1000);
+            for (int k = 1; k <= 100; k++) {
+                histogram.recordValue(k * 1000);
+            }
+            writer.outputIntervalHistogram(histogram);
+        }
+        writer.close();
+    }
+
+    private static int countHistograms(File file) throws Exception {
+        HistogramLogReader reader = new HistogramLogReader(file);
+        int count = 0;
+        while (reader.nextIntervalHistogram() != null) {
+            count++;
+        }
+        reader.close();
+        return count;
+    }
+}
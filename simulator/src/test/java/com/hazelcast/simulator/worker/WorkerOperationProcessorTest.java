@@ -8,6 +8,7 @@ import com.hazelcast.simulator.protocol.StubPromise;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.exception.ProcessException;
 import com.hazelcast.simulator.utils.ExceptionReporter;
+import com.hazelcast.simulator.worker.operations.AwaitReadyOperation;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
@@ -39,6 +40,7 @@ public class WorkerOperationProcessorTest {
     private SimulatorAddress sourceAddress = SimulatorAddress.coordinatorAddress();
     private StubPromise promise;
     private ScriptExecutor scriptExecutor;
+    private ReadinessChecker readinessChecker;
 
     @Before
     public void before() {
@@ -47,7 +49,8 @@ public class WorkerOperationProcessorTest {
         testManager = mock(TestManager.class);
         worker = mock(Worker.class);
         scriptExecutor = mock(ScriptExecutor.class);
-        processor = new WorkerOperationProcessor(worker, testManager, scriptExecutor);
+        readinessChecker = mock(ReadinessChecker.class);
+        processor = new WorkerOperationProcessor(worker, testManager, scriptExecutor, readinessChecker);
         promise = new StubPromise();
     }
 
@@ -105,6 +108,15 @@ public class WorkerOperationProcessorTest {
         assertTrue(promise.hasAnswer());
     }
 
+    @Test
+    public void test_AwaitReadyOperation() throws Exception {
+        AwaitReadyOperation op = new AwaitReadyOperation(1000);
+
+        processor.process(op, sourceAddress, promise);
+
+        verify(readinessChecker).awaitReady(op, promise);
+    }
+
     // make sure that unhandled exceptions are trapped.
     @Test
     public void test_unhandledException() throws Exception {
@@ -0,0 +1,141 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AsyncLogWriterTest {
+
+    private AsyncLogWriter logWriter;
+
+    @Before
+    public void before() {
+        logWriter = new AsyncLogWriter(2);
+    }
+
+    @After
+    public void after() {
+        logWriter.close();
+    }
+
+    @Test
+    public void testSubmit_executesInOrder() {
+        final List<Integer> executed = new CopyOnWriteArrayList<>();
+        logWriter.start();
+
+        for (int i = 0; i < 10; i++) {
+            final int value = i;
+            submit(() -> executed.add(value));
+        }
+        logWriter.close();
+
+        assertEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), executed);
+    }
+
+    @Test
+    public void testSubmit_whenQueueFull_thenTaskDropped() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        logWriter.start();
+
+        assertTrue(logWriter.submit(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        }));
+        started.await();
+
+        assertTrue(logWriter.submit(() -> { }));
+        assertTrue(logWriter.submit(() -> { }));
+        assertFalse(logWriter.submit(() -> { }));
+        assertFalse(logWriter.submit(() -> { }));
+        assertEquals(2, logWriter.droppedWrites());
+
+        release.countDown();
+    }
+
+    @Test
+    public void testSubmit_whenTaskFails_thenNextTaskExecuted() {
+        final CountDownLatch executed = new CountDownLatch(1);
+        logWriter.start();
+
+        logWriter.submit(() -> {
+            throw new IllegalStateException("expected");
+        });
+        logWriter.submit(executed::countDown);
+        logWriter.close();
+
+        assertEquals(0, executed.getCount());
+    }
+
+    @Test
+    public void testSubmit_afterClose() {
+        logWriter.start();
+        logWriter.close();
+
+        assertFalse(logWriter.submit(() -> { }));
+    }
+
+    @Test
+    public void testClose_closesRegisteredCloseables() throws Exception {
+        Closeable closeable = mock(Closeable.class);
+        logWriter.closeOnShutdown(closeable);
+        logWriter.start();
+
+        logWriter.close();
+
+        verify(closeable).close();
+    }
+
+    @Test
+    public void testClose_whenNotStarted() throws Exception {
+        Closeable closeable = mock(Closeable.class);
+        logWriter.closeOnShutdown(closeable);
+
+        logWriter.close();
+        logWriter.close();
+
+        verify(closeable).close();
+    }
+
+    @Test
+    public void testCloseAfterPendingWrites() throws Exception {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        Closeable closeable = () -> events.add("closed");
+        logWriter.closeOnShutdown(closeable);
+        logWriter.start();
+
+        submit(() -> events.add("written"));
+        logWriter.closeAfterPendingWrites(closeable);
+        submit(() -> events.add("done"));
+        logWriter.close();
+
+        // the closeable is closed once, and not again when the writer is closed
+        assertEquals(asList("written", "closed", "done"), events);
+    }
+
+    private void submit(Runnable task) {
+        while (!logWriter.submit(task)) {
+            Thread.yield();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.common.TestPhase.LOCAL_PREPARE;
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class JfrRecorderTest {
+
+    private File directory;
+
+    @Before
+    public void before() {
+        assumeTrue(JfrRecorder.isAvailable());
+        directory = createTmpDirectory();
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(directory);
+    }
+
+    @Test
+    public void testRecordPhase() throws Exception {
+        JfrRecorder recorder = new JfrRecorder(directory, "test", "profile", "run", 0);
+
+        recorder.start(RUN);
+        burnCpu(500);
+        recorder.stop();
+
+        assertTrue(new File(directory, "test-run.jfr").isFile());
+        String summary = fileAsText(new File(directory, "test-run" + JfrRecorder.SUMMARY_SUFFIX));
+        assertTrue(summary, summary.contains("# Top CPU frames"));
+        assertTrue(summary, summary.contains("# Allocation hot spots"));
+        assertTrue(summary, summary.contains("# Lock contention"));
+    }
+
+    @Test
+    public void testRecordPhase_withWarmup() throws Exception {
+        JfrRecorder recorder = new JfrRecorder(directory, "test", "default", "warmup, run", 200);
+
+        recorder.start(RUN);
+        burnCpu(1000);
+        recorder.stop();
+
+        assertTrue(new File(directory, "test-warmup.jfr").isFile());
+        assertTrue(new File(directory, "test-warmup" + JfrRecorder.SUMMARY_SUFFIX).isFile());
+        assertTrue(new File(directory, "test-run.jfr").isFile());
+        assertTrue(new File(directory, "test-run" + JfrRecorder.SUMMARY_SUFFIX).isFile());
+    }
+
+    @Test
+    public void testRecordPhase_whenPhaseNotConfigured() throws Exception {
+        JfrRecorder recorder = new JfrRecorder(directory, "test", "default", "run", 0);
+
+        recorder.start(LOCAL_PREPARE);
+        recorder.stop();
+
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void testRecordPhase_withPhaseName() throws Exception {
+        JfrRecorder recorder = new JfrRecorder(directory, "test", "default", "local_prepare", 0);
+
+        recorder.start(LOCAL_PREPARE);
+        sleepMillis(100);
+        recorder.stop();
+
+        assertTrue(new File(directory, "test-local_prepare.jfr").isFile());
+        assertFalse(new File(directory, "test-run.jfr").exists());
+    }
+
+    @Test(expected = Exception.class)
+    public void testConstructor_whenSettingsNotFound() throws Exception {
+        new JfrRecorder(directory, "test", "notExisting.jfc", "run", 0);
+    }
+
+    private static void burnCpu(long durationMillis) {
+        long deadline = System.currentTimeMillis() + durationMillis;
+        StringBuilder sb = new StringBuilder();
+        while (System.currentTimeMillis() < deadline) {
+            sb.append(System.nanoTime());
+            if (sb.length() > 10000) {
+                sb.setLength(0);
+            }
+        }
+    }
+}
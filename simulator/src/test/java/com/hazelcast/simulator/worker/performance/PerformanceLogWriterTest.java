@@ -0,0 +1,66 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PerformanceLogWriterTest {
+
+    private File directory;
+    private File file;
+    private PerformanceLogWriter writer;
+
+    @Before
+    public void before() {
+        directory = createTmpDirectory();
+        file = new File(directory, "performance.csv");
+        writer = new PerformanceLogWriter(file);
+    }
+
+    @After
+    public void after() {
+        writer.close();
+        deleteQuiet(directory);
+    }
+
+    @Test
+    public void testWrite_withMetrics() {
+        Map<String, Double> metrics = new TreeMap<>();
+        metrics.put("received", 10d);
+        metrics.put("received/s", 5d);
+
+        writer.write(1000, "01/01/1970 00:00:01", 100, 100, 100, metrics);
+
+        String[] lines = fileAsText(file).split("\n");
+        assertEquals("epoch,timestamp,operations,operations-delta,operations/second,received,received/s", lines[0]);
+        assertEquals("1,01/01/1970 00:00:01,100,100,100,10,5", lines[1]);
+    }
+
+    @Test
+    public void testWrite_whenMetricRegisteredLater_thenDropped() {
+        Map<String, Double> metrics = new TreeMap<>();
+        metrics.put("received", 10d);
+        writer.write(1000, "01/01/1970 00:00:01", 100, 100, 100, metrics);
+
+        metrics.put("failures", 1d);
+        writer.write(2000, "01/01/1970 00:00:02", 200, 100, 100, metrics);
+        writer.write(3000, "01/01/1970 00:00:03", 300, 100, 100, metrics);
+
+        String[] lines = fileAsText(file).split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].endsWith(",received"));
+        assertEquals("3,01/01/1970 00:00:03,300,100,100,10", lines[3]);
+        assertEquals(singleton("failures"), writer.droppedMetrics());
+    }
+}
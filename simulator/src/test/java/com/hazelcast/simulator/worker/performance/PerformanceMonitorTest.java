@@ -14,7 +14,9 @@ import com.hazelcast.simulator.worker.testcontainer.TestManager;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.File;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -23,10 +25,18 @@ import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -119,13 +129,76 @@ public class PerformanceMonitorTest {
         performanceMonitor.close();
     }
 
+    @Test
+    public void test_whenResolutionBelowInterval_thenLogsWrittenAtResolution() {
+        performanceMonitor = new PerformanceMonitor(server, containerManager, 1, 100);
+        performanceMonitor.start();
+
+        DummyTest test = new DummyTest();
+        TestContext testContext = addTest(test);
+
+        Thread runTestThread = new RunTestThread();
+        runTestThread.start();
+
+        final File performanceFile = new File(getUserDir(), "performance-" + TEST_NAME + ".csv");
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(performanceFile.exists());
+                // the header and at least 5 lines written at the resolution
+                assertTrue(fileAsText(performanceFile).split("\n").length > 5);
+            }
+        });
+
+        // the coordinator is updated at the interval, not at the resolution
+        verify(server, atMost(2)).sendCoordinator(any(PerformanceStatsOperation.class));
+
+        testContext.stop();
+        joinThread(runTestThread);
+    }
+
+    @Test
+    public void test_whenWarmup_thenWarmupNotMeasured() {
+        performanceMonitor = new PerformanceMonitor(server, containerManager, 1, 100);
+        performanceMonitor.start();
+
+        DummyTest test = new DummyTest();
+        TestContext testContext = addTest(test, 0, SECONDS.toMillis(2));
+
+        Thread runTestThread = new RunTestThread();
+        runTestThread.start();
+
+        sleepMillis(1500);
+
+        verify(server, never()).sendCoordinator(any(PerformanceStatsOperation.class));
+        assertFalse(new File(getUserDir(), "performance-" + TEST_NAME + ".csv").exists());
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                verify(server, atLeastOnce()).sendCoordinator(any(PerformanceStatsOperation.class));
+            }
+        });
+
+        testContext.stop();
+        joinThread(runTestThread);
+
+        // the first stats cover the time since the end of the warmup, so the total throughput equals the window throughput
+        ArgumentCaptor<PerformanceStatsOperation> captor = ArgumentCaptor.forClass(PerformanceStatsOperation.class);
+        verify(server, atLeastOnce()).sendCoordinator(captor.capture());
+        PerformanceStats stats = captor.getAllValues().get(0).getPerformanceStats().get(TEST_NAME);
+        assertTrue(stats.getOperationCount() > 0);
+        assertEquals(stats.getIntervalThroughput(), stats.getTotalThroughput(), stats.getIntervalThroughput() * 0.01);
+    }
+
     private TestContext addTest(Object test) {
-        return addTest(test, 0);
+        return addTest(test, 0, 0);
     }
 
-    private DelayTestContext addTest(Object test, int delayMillis) {
+    private DelayTestContext addTest(Object test, int delayMillis, long warmupMillis) {
         TestCase testCase = new TestCase(TEST_NAME);
         testCase.setProperty("threadCount", 1);
+        testCase.setProperty("warmupMillis", warmupMillis);
         DelayTestContext testContext = new DelayTestContext(delayMillis);
         TestContainer testContainer = new TestContainer(testContext, test, testCase);
 
@@ -1,9 +1,15 @@
 package com.hazelcast.simulator.worker.performance;
 
+import org.HdrHistogram.Histogram;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class PerformanceStatsTest {
@@ -27,6 +33,49 @@ public class PerformanceStatsTest {
         assertEquals(200, addState.getIntervalLatencyMaxNanos());
     }
 
+    @Test
+    public void testAdd_latencyPercentiles() {
+        PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200)
+                .setLatencyPercentiles(100, 120, 140);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100).setLatencyPercentiles(110, 90, 130));
+
+        assertEquals(110, addState.getIntervalLatency99PercentileNanos());
+        assertEquals(120, addState.getTotalLatency99PercentileNanos());
+        assertEquals(140, addState.getTotalLatency999PercentileNanos());
+    }
+
+    @Test
+    public void testAdd_latencyPercentiles_notAdded_replacesTotalPercentiles() {
+        PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200)
+                .setLatencyPercentiles(100, 120, 140);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100).setLatencyPercentiles(110, 90, 130), false);
+
+        assertEquals(110, addState.getIntervalLatency99PercentileNanos());
+        assertEquals(90, addState.getTotalLatency99PercentileNanos());
+        assertEquals(130, addState.getTotalLatency999PercentileNanos());
+    }
+
+    @Test
+    public void testAdd_withMetrics() {
+        Map<String, Double> metrics1 = new HashMap<>();
+        metrics1.put("received", 10d);
+        metrics1.put("failures", 1d);
+        Map<String, Double> metrics2 = new HashMap<>();
+        metrics2.put("received", 20d);
+
+        PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200, metrics1);
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100, metrics2));
+
+        assertEquals(30d, addState.getMetrics().get("received"), 0.00001);
+        assertEquals(1d, addState.getMetrics().get("failures"), 0.00001);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100, metrics2), false);
+
+        assertEquals(30d, addState.getMetrics().get("received"), 0.00001);
+    }
+
     @Test
     public void testAdd_emptyState() {
         PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 550.0d, 300, 800);
@@ -97,6 +146,20 @@ public class PerformanceStatsTest {
         assertEquals(500, addState.getIntervalLatencyMaxNanos());
     }
 
+    @Test
+    public void testLatencyHistograms() {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(1000, 10);
+        histogram.recordValue(5000);
+
+        PerformanceStats performanceStats = new PerformanceStats(11, 1, 1, 1000, 5000, 5000)
+                .setLatencyHistograms(Collections.singletonMap("probe", histogram));
+
+        Histogram decoded = performanceStats.getLatencyHistograms().get("probe");
+        assertEquals(histogram, decoded);
+        assertNull(new PerformanceStats(11, 1, 1, 1000, 5000, 5000).getLatencyHistograms());
+    }
+
     @Test
     public void testToString() {
         assertNotNull(new PerformanceStats().toString());
@@ -0,0 +1,154 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetrySamplerTest {
+
+    private TelemetrySampler sampler;
+
+    @Before
+    public void before() {
+        setupFakeUserDir();
+    }
+
+    @After
+    public void after() {
+        if (sampler != null) {
+            sampler.close();
+        }
+        teardownFakeUserDir();
+    }
+
+    @Test
+    public void testDisabled() {
+        sampler = new TelemetrySampler(0);
+        sampler.start();
+        sampler.close();
+
+        assertFalse(new File(getUserDir(), "telemetry.csv").exists());
+    }
+
+    @Test
+    public void testSample() {
+        sampler = new TelemetrySampler(1000);
+        sampler.start();
+        sampler.recordGc(5, 1024, false);
+
+        final File telemetryFile = new File(getUserDir(), "telemetry.csv");
+        assertTrueEventually(() -> {
+            assertTrue(telemetryFile.exists());
+            String[] lines = fileAsText(telemetryFile).split("\n");
+            assertEquals(TelemetrySampler.HEADER.trim(), lines[0]);
+            assertTrue(lines.length > 1);
+            assertEquals(lines[0].split(",").length, lines[1].split(",", -1).length);
+        });
+
+        sampler.close();
+        assertTrue(new File(getUserDir(), "gc-pause.hlog").exists());
+    }
+
+    @Test
+    public void testSample_withResolution() {
+        sampler = new TelemetrySampler(100);
+        sampler.start();
+
+        final File telemetryFile = new File(getUserDir(), "telemetry.csv");
+        assertTrueEventually(() -> {
+            assertTrue(telemetryFile.exists());
+            String[] lines = fileAsText(telemetryFile).split("\n");
+            assertTrue(lines.length > 5);
+            // the timestamp has millisecond precision, like the performance.csv with a resolution below a second
+            assertTrue(lines[1].split(",")[1].matches(".* \\d\\d:\\d\\d:\\d\\d\\.\\d{3}"));
+        });
+    }
+
+    @Test
+    public void testSample_concurrentCycleNotRecordedAsPause() {
+        sampler = new TelemetrySampler(100);
+        sampler.start();
+        sampler.recordGc(300, 2048, true);
+
+        final File telemetryFile = new File(getUserDir(), "telemetry.csv");
+        assertTrueEventually(() -> {
+            assertTrue(telemetryFile.exists());
+            String[] lines = fileAsText(telemetryFile).split("\n");
+            long pauseTimeMillis = 0;
+            long concurrentTimeMillis = 0;
+            for (int i = 1; i < lines.length; i++) {
+                String[] columns = lines[i].split(",", -1);
+                pauseTimeMillis += Long.parseLong(columns[7]);
+                concurrentTimeMillis += Long.parseLong(columns[16]);
+            }
+            // the real collections of the JVM can be in there as well
+            assertTrue(concurrentTimeMillis >= 300);
+            assertTrue(pauseTimeMillis < 300);
+        });
+    }
+
+    @Test
+    public void testIsConcurrentCycle() {
+        assertFalse(TelemetrySampler.isConcurrentCycle("G1 Young Generation", "end of minor GC"));
+        assertFalse(TelemetrySampler.isConcurrentCycle("G1 Old Generation", "end of major GC"));
+        assertFalse(TelemetrySampler.isConcurrentCycle("ParNew", "end of minor GC"));
+        assertFalse(TelemetrySampler.isConcurrentCycle("ZGC Pauses", "end of GC pause"));
+        assertFalse(TelemetrySampler.isConcurrentCycle("Shenandoah Pauses", "end of GC pause"));
+
+        assertTrue(TelemetrySampler.isConcurrentCycle("G1 Concurrent GC", "end of concurrent GC"));
+        assertTrue(TelemetrySampler.isConcurrentCycle("ConcurrentMarkSweep", "end of major GC"));
+        assertTrue(TelemetrySampler.isConcurrentCycle("ZGC Cycles", "end of GC cycle"));
+        assertTrue(TelemetrySampler.isConcurrentCycle("Shenandoah Cycles", "end of GC cycle"));
+    }
+
+    @Test
+    public void testParseContextSwitches() {
+        String status = "Name:\tjava\n"
+                + "Threads:\t42\n"
+                + "voluntary_ctxt_switches:\t123\n"
+                + "nonvoluntary_ctxt_switches:\t45\n";
+
+        assertArrayEquals(new long[]{123, 45}, TelemetrySampler.parseContextSwitches(status));
+    }
+
+    @Test
+    public void testReadContextSwitches_sumsThreads() {
+        File taskDir = new File(getUserDir(), "task");
+        writeText("voluntary_ctxt_switches:\t100\nnonvoluntary_ctxt_switches:\t10\n", new File(taskDir, "1/status"));
+        writeText("voluntary_ctxt_switches:\t23\nnonvoluntary_ctxt_switches:\t5\n", new File(taskDir, "2/status"));
+        // a thread which terminated between listing and reading
+        new File(taskDir, "3").mkdirs();
+
+        assertArrayEquals(new long[]{123, 15}, TelemetrySampler.readContextSwitches(taskDir));
+    }
+
+    @Test
+    public void testReadContextSwitches_whenNotAvailable() {
+        assertNull(TelemetrySampler.readContextSwitches(new File(getUserDir(), "notExisting")));
+    }
+
+    @Test
+    public void testParseNetBytes() {
+        String netDev = "Inter-|   Receive                                                |  Transmit\n"
+                + " face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets errs drop fifo colls carrier compressed\n"
+                + "    lo:  1000      10    0    0    0     0          0         0     1000      10    0    0    0     0       0          0\n"
+                + "  eth0:  2000      20    0    0    0     0          0         0     3000      30    0    0    0     0       0          0\n"
+                + "  eth1:   500       5    0    0    0     0          0         0      700       7    0    0    0     0       0          0\n";
+
+        assertArrayEquals(new long[]{2500, 3700}, TelemetrySampler.parseNetBytes(netDev));
+    }
+}
@@ -7,6 +7,7 @@ import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.annotations.Run;
 import com.hazelcast.simulator.test.annotations.Setup;
 import com.hazelcast.simulator.tests.SuccessTest;
+import com.hazelcast.simulator.worker.performance.JfrRecorder;
 import org.junit.Test;
 
 import static java.lang.String.format;
@@ -14,6 +15,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 public class TestContainer_BasicTest extends TestContainer_AbstractTest {
 
@@ -94,6 +96,16 @@ public class TestContainer_BasicTest extends TestContainer_AbstractTest {
         assertEquals(0, testContainer.getProbeMap().size());
     }
 
+    @Test(expected = IllegalTestException.class)
+    public void testConstructor_withJfrSettingsNotFound() {
+        assumeTrue(JfrRecorder.isAvailable());
+        TestCase testCase = new TestCase("TestContainerJfrTest")
+                .setProperty("class", BaseTest.class)
+                .setProperty("jfrSettings", "notExisting.jfc");
+
+        createTestContainer(new BaseTest(), testCase);
+    }
+
     @Test
     public void testAnnotationInheritance_withSetupInBaseClass_withRunInChildClass() throws Exception {
         // @Setup method will be called from base class, not from child class
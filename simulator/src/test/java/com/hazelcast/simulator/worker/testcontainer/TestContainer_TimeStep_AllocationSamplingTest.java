@@ -0,0 +1,130 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Map;
+
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests that the allocated bytes per operation of timestep methods are sampled when enabled.
+ */
+public class TestContainer_TimeStep_AllocationSamplingTest extends TestContainer_AbstractTest {
+
+    private static final int ALLOCATION_SIZE = 1024;
+
+    @Test
+    public void testAllocationSampling() throws Exception {
+        Map<String, Double> metrics = run(1);
+
+        Double allocated = metrics.get("allocate" + PropertyBinding.ALLOCATION_GAUGE_SUFFIX);
+        assertTrue("allocated bytes/op should be sampled, found: " + metrics, allocated != null);
+        assertTrue("expected at least " + ALLOCATION_SIZE + " bytes/op, but found " + allocated, allocated >= ALLOCATION_SIZE);
+    }
+
+    @Test
+    public void testAllocationSampling_counterReadBeforeMeasurementStarts() throws Exception {
+        run(1);
+
+        File[] runners = new File(getUserDir(), "timestep-worker-classes")
+                .listFiles((dir, name) -> name.startsWith("AllocatingTestRunner") && name.endsWith(".java"));
+        assertTrue(runners != null && runners.length == 1);
+        String code = fileAsText(runners[0]);
+        int allocationRead = code.indexOf("final long allocatedBytesBefore");
+        int measurementStart = code.indexOf("final long startNanos");
+        assertTrue(allocationRead >= 0 && measurementStart >= 0);
+        assertTrue("the allocation counter should be read before the measurement starts", allocationRead < measurementStart);
+    }
+
+    @Test
+    public void testAllocationSampling_withMultipleTimeStepMethods() throws Exception {
+        TwoMethodsTest testInstance = new TwoMethodsTest();
+        TestCase testCase = new TestCase("allocationSampling")
+                .setProperty("threadCount", 1)
+                .setProperty("iterations", 1000)
+                .setProperty("allocationSamplingPeriod", 2)
+                .setProperty("class", testInstance.getClass());
+
+        Map<String, Double> metrics = run(testInstance, testCase);
+
+        assertTrue(metrics.get("allocate" + PropertyBinding.ALLOCATION_GAUGE_SUFFIX) >= ALLOCATION_SIZE);
+        assertTrue(metrics.get("read" + PropertyBinding.ALLOCATION_GAUGE_SUFFIX) < ALLOCATION_SIZE);
+    }
+
+    @Test
+    public void testAllocationSampling_whenDisabled() throws Exception {
+        Map<String, Double> metrics = run(0);
+
+        assertFalse(metrics.containsKey("allocate" + PropertyBinding.ALLOCATION_GAUGE_SUFFIX));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testAllocationSampling_whenNegative() {
+        TestCase testCase = new TestCase("allocationSampling")
+                .setProperty("allocationSamplingPeriod", -1)
+                .setProperty("class", AllocatingTest.class);
+
+        new TestContainer(new TestContextImpl(testCase.getId(), "localhost", mock(Server.class)),
+                new AllocatingTest(), testCase);
+    }
+
+    private Map<String, Double> run(int allocationSamplingPeriod) throws Exception {
+        AllocatingTest testInstance = new AllocatingTest();
+        TestCase testCase = new TestCase("allocationSampling")
+                .setProperty("threadCount", 1)
+                .setProperty("iterations", 1000)
+                .setProperty("allocationSamplingPeriod", allocationSamplingPeriod)
+                .setProperty("class", testInstance.getClass());
+
+        return run(testInstance, testCase);
+    }
+
+    private Map<String, Double> run(Object testInstance, TestCase testCase) throws Exception {
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        for (TestPhase phase : TestPhase.values()) {
+            container.invoke(phase);
+        }
+
+        assertNoExceptions();
+        return container.getMetricsRegistry().sample(1000);
+    }
+
+    public static class AllocatingTest {
+
+        volatile byte[] bytes;
+
+        @TimeStep
+        public void allocate() {
+            bytes = new byte[ALLOCATION_SIZE];
+        }
+    }
+
+    public static class TwoMethodsTest {
+
+        volatile byte[] bytes;
+
+        @TimeStep(prob = 0.5)
+        public void allocate() {
+            bytes = new byte[ALLOCATION_SIZE];
+        }
+
+        @TimeStep(prob = 0.5)
+        public byte[] read() {
+            return bytes;
+        }
+    }
+}
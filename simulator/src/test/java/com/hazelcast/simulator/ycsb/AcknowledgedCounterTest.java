@@ -0,0 +1,58 @@
+package com.hazelcast.simulator.ycsb;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AcknowledgedCounterTest {
+
+    private final AcknowledgedCounter counter = new AcknowledgedCounter();
+
+    @Test
+    public void testNext() {
+        assertEquals(0, counter.next());
+        assertEquals(1, counter.next());
+        assertEquals(0, counter.limit());
+    }
+
+    @Test
+    public void testAcknowledge_inOrder() {
+        counter.acknowledge(counter.next());
+        counter.acknowledge(counter.next());
+
+        assertEquals(2, counter.limit());
+    }
+
+    @Test
+    public void testAcknowledge_whenGap_thenLimitNotAdvanced() {
+        long first = counter.next();
+        long second = counter.next();
+        long third = counter.next();
+
+        counter.acknowledge(second);
+        counter.acknowledge(third);
+        assertEquals(0, counter.limit());
+
+        counter.acknowledge(first);
+        assertEquals(3, counter.limit());
+    }
+
+    @Test
+    public void testAcknowledge_wrapsAroundWindow() {
+        for (int i = 0; i < AcknowledgedCounter.WINDOW_SIZE * 2; i++) {
+            counter.acknowledge(counter.next());
+        }
+
+        assertEquals(AcknowledgedCounter.WINDOW_SIZE * 2, counter.limit());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAcknowledge_whenTooManyPending() {
+        counter.next();
+        for (int i = 0; i < AcknowledgedCounter.WINDOW_SIZE; i++) {
+            counter.next();
+        }
+
+        counter.acknowledge(AcknowledgedCounter.WINDOW_SIZE);
+    }
+}
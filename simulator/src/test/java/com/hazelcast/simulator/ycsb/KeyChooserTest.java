@@ -0,0 +1,83 @@
+package com.hazelcast.simulator.ycsb;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.hazelcast.simulator.ycsb.RequestDistribution.LATEST;
+import static com.hazelcast.simulator.ycsb.RequestDistribution.UNIFORM;
+import static com.hazelcast.simulator.ycsb.RequestDistribution.ZIPFIAN;
+import static org.junit.Assert.assertTrue;
+
+public class KeyChooserTest {
+
+    private static final int ITEMS = 1000;
+    private static final int SAMPLES = 100000;
+
+    private final Random random = new Random(42);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenNoItems() {
+        new KeyChooser(UNIFORM, 0);
+    }
+
+    @Test
+    public void testUniform() {
+        KeyChooser keyChooser = new KeyChooser(UNIFORM, ITEMS);
+
+        int[] counts = sample(keyChooser, ITEMS);
+
+        for (int count : counts) {
+            assertTrue("count " + count, count > 0);
+        }
+    }
+
+    @Test
+    public void testZipfian() {
+        KeyChooser keyChooser = new KeyChooser(ZIPFIAN, ITEMS);
+
+        int[] counts = new int[ITEMS];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[(int) keyChooser.nextZipfian(random)]++;
+        }
+
+        // the first item is the most popular and the popularity drops fast
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[10]);
+        assertTrue(counts[0] > 10 * counts[100]);
+    }
+
+    @Test
+    public void testZipfian_whenRecordsInserted() {
+        KeyChooser keyChooser = new KeyChooser(ZIPFIAN, ITEMS);
+
+        sample(keyChooser, 2 * ITEMS);
+    }
+
+    @Test
+    public void testLatest() {
+        KeyChooser keyChooser = new KeyChooser(LATEST, ITEMS);
+
+        int[] counts = sample(keyChooser, 2 * ITEMS);
+
+        assertTrue(counts[2 * ITEMS - 1] > counts[2 * ITEMS - 100]);
+        assertTrue(counts[2 * ITEMS - 1] > counts[0]);
+    }
+
+    @Test
+    public void testHash() {
+        assertTrue(KeyChooser.hash(0) >= 0);
+        assertTrue(KeyChooser.hash(Long.MAX_VALUE) >= 0);
+        assertTrue(KeyChooser.hash(1) != KeyChooser.hash(2));
+    }
+
+    private int[] sample(KeyChooser keyChooser, int recordCount) {
+        int[] counts = new int[recordCount];
+        for (int i = 0; i < SAMPLES; i++) {
+            long index = keyChooser.next(random, recordCount);
+            assertTrue("index " + index, index >= 0 && index < recordCount);
+            counts[(int) index]++;
+        }
+        return counts;
+    }
+}
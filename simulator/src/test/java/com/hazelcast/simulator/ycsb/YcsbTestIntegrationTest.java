@@ -0,0 +1,78 @@
+package com.hazelcast.simulator.ycsb;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.fake.FakeDriver;
+import com.hazelcast.simulator.fake.FakeYcsbStore;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.worker.testcontainer.TestContainer;
+import com.hazelcast.simulator.worker.testcontainer.TestContextImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class YcsbTestIntegrationTest {
+
+    private static final int RECORD_COUNT = 100;
+    private static final int ITERATIONS = 1000;
+
+    private FakeDriver driver;
+    private FakeYcsbStore store;
+
+    @Before
+    public void before() {
+        driver = new FakeDriver();
+        store = driver.ycsbStore;
+    }
+
+    @Test
+    public void testWorkloadA() throws Exception {
+        run("A");
+
+        assertEquals(RECORD_COUNT, store.inserts.get());
+        assertEquals(RECORD_COUNT, store.records.size());
+        assertTrue(store.updates.get() > 0);
+        assertEquals(ITERATIONS, store.reads.get() + store.updates.get());
+    }
+
+    @Test
+    public void testWorkloadE() throws Exception {
+        run("E");
+
+        long runInserts = store.inserts.get() - RECORD_COUNT;
+        assertTrue(runInserts > 0);
+        assertEquals(RECORD_COUNT + runInserts, store.records.size());
+        assertEquals(ITERATIONS, store.scans.get() + runInserts);
+    }
+
+    @Test
+    public void testWorkloadF() throws Exception {
+        run("F");
+
+        // a read-modify-write reads and updates
+        assertTrue(store.updates.get() > 0);
+        assertEquals(ITERATIONS, store.reads.get());
+    }
+
+    private void run(String workload) throws Exception {
+        TestCase testCase = new TestCase("ycsb")
+                .setProperty("class", YcsbTest.class)
+                .setProperty("workload", workload)
+                .setProperty("recordCount", RECORD_COUNT)
+                .setProperty("threadCount", 1)
+                .setProperty("iterations", ITERATIONS);
+        YcsbWorkload.apply(testCase);
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, null, testCase, driver);
+        for (TestPhase phase : TestPhase.values()) {
+            container.invoke(phase);
+        }
+
+        assertNoExceptions();
+    }
+}
@@ -0,0 +1,78 @@
+package com.hazelcast.simulator.ycsb;
+
+import com.hazelcast.simulator.common.TestCase;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class YcsbWorkloadTest {
+
+    @Test
+    public void testApply() {
+        TestCase testCase = newTestCase("a");
+
+        YcsbWorkload.apply(testCase);
+
+        assertEquals("0.5", testCase.getProperty("updateProb"));
+        assertEquals("0.0", testCase.getProperty("insertProb"));
+        assertEquals("0.0", testCase.getProperty("scanProb"));
+        assertEquals("0.0", testCase.getProperty("readModifyWriteProb"));
+        assertEquals("ZIPFIAN", testCase.getProperty("requestDistribution"));
+        assertNull(testCase.getProperty("readProb"));
+    }
+
+    @Test
+    public void testApply_workloadD() {
+        TestCase testCase = newTestCase("D");
+
+        YcsbWorkload.apply(testCase);
+
+        assertEquals("0.05", testCase.getProperty("insertProb"));
+        assertEquals("LATEST", testCase.getProperty("requestDistribution"));
+    }
+
+    @Test
+    public void testApply_doesNotOverrideProperties() {
+        TestCase testCase = newTestCase("E")
+                .setProperty("scanProb", "0.5")
+                .setProperty("requestDistribution", "uniform");
+
+        YcsbWorkload.apply(testCase);
+
+        assertEquals("0.5", testCase.getProperty("scanProb"));
+        assertEquals("0.05", testCase.getProperty("insertProb"));
+        assertEquals("uniform", testCase.getProperty("requestDistribution"));
+    }
+
+    @Test
+    public void testApply_whenNoWorkload() {
+        TestCase testCase = new TestCase("ycsb").setProperty("class", YcsbTest.class.getName());
+
+        YcsbWorkload.apply(testCase);
+
+        assertNull(testCase.getProperty("updateProb"));
+    }
+
+    @Test
+    public void testApply_whenOtherTest() {
+        TestCase testCase = new TestCase("map")
+                .setProperty("class", "com.hazelcast.simulator.tests.map.MapTest")
+                .setProperty("workload", "a");
+
+        YcsbWorkload.apply(testCase);
+
+        assertNull(testCase.getProperty("updateProb"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApply_whenUnknownWorkload() {
+        YcsbWorkload.apply(newTestCase("G"));
+    }
+
+    private static TestCase newTestCase(String workload) {
+        return new TestCase("ycsb")
+                .setProperty("class", YcsbTest.class.getName())
+                .setProperty("workload", workload);
+    }
+}